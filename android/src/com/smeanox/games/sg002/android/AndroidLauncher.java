@@ -14,6 +14,8 @@ public class AndroidLauncher extends AndroidApplication {
 		super.onCreate(savedInstanceState);
 		//Consts.textureFilter = Texture.TextureFilter.Nearest; //To enable texture filtering on Android change this line to:
 		Consts.textureFilter = Texture.TextureFilter.MipMapLinearLinear;
+		// render the game screen only when something changes, saves battery
+		Consts.renderOnDemand = true;
 
 		AndroidApplicationConfiguration config = new AndroidApplicationConfiguration();
 		config.numSamples = 2;
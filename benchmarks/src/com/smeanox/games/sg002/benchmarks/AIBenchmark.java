@@ -0,0 +1,143 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the helpers the AIs use to find their objects and the fields they can use, and a whole turn of
+ * {@link com.smeanox.games.sg002.player.AIPlayer_BenNo1}
+ *
+ * @author Benjamin Schmid
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AIBenchmark {
+
+	@Param({"small", "big", "giant"})
+	public String scenario;
+
+	private BenchmarkAI ai;
+	private GameObjectType[] gameObjectTypes;
+	private int[] positions;
+
+	@Setup
+	public void setup() {
+		GameController gameController = BenchmarkUtil.createPlayedGame(scenario);
+		ai = (BenchmarkAI) gameController.getActivePlayer();
+		gameObjectTypes = GameObjectType.getAllGameObjectTypes().toArray(new GameObjectType[0]);
+
+		LinkedList<Integer> myPositions = new LinkedList<Integer>();
+		for (GameObjectType gameObjectType : gameObjectTypes) {
+			myPositions.addAll(ai.findPositions(gameObjectType));
+		}
+		positions = new int[myPositions.size()];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = myPositions.get(i);
+		}
+	}
+
+	/**
+	 * Find the objects of the AI per type, like the AI does at the start of its turn
+	 *
+	 * @return the number of objects
+	 */
+	@Benchmark
+	public int findPositions() {
+		int count = 0;
+		for (GameObjectType gameObjectType : gameObjectTypes) {
+			count += ai.findPositions(gameObjectType).size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int countObjects() {
+		return ai.countObjects();
+	}
+
+	@Benchmark
+	public int findFreeMoveFields() {
+		int count = 0;
+		for (int pos : positions) {
+			count += ai.findFreeMoveFields(pos).size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int findFreeProduceFields() {
+		int count = 0;
+		for (int pos : positions) {
+			for (GameObjectType gameObjectType : gameObjectTypes) {
+				count += ai.findFreeProduceFields(pos, gameObjectType).size();
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int findFightFields() {
+		int count = 0;
+		for (int pos : positions) {
+			count += ai.findFightFields(pos).size();
+		}
+		return count;
+	}
+
+	/**
+	 * Play one turn of the AI. The world changes with every turn, so every iteration starts with a new game, and
+	 * before every turn the objects of the AI can act again and the AI has the same money as at the start.
+	 */
+	@Benchmark
+	public void playAI(TurnState state) {
+		state.ai.playAgain();
+	}
+
+	/**
+	 * A game that is created for every iteration, see {@link #playAI(TurnState)}
+	 */
+	@State(Scope.Thread)
+	public static class TurnState {
+		@Param({"small", "big", "giant"})
+		public String scenario;
+
+		private GameWorld gameWorld;
+		private BenchmarkAI ai;
+		private int money;
+
+		@Setup(Level.Iteration)
+		public void setupIteration() {
+			GameController gameController = BenchmarkUtil.createPlayedGame(scenario);
+			gameWorld = gameController.getGameWorld();
+			ai = (BenchmarkAI) gameController.getActivePlayer();
+			money = ai.getMoney();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			gameWorld.startRound(ai, true);
+			ai.setMoney(money);
+		}
+	}
+}
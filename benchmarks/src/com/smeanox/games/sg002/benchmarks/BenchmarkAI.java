@@ -0,0 +1,41 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.smeanox.games.sg002.player.AIPlayer_BenNo1;
+import com.smeanox.games.sg002.world.GameObjectType;
+
+import java.util.LinkedList;
+
+/**
+ * Plays like {@link AIPlayer_BenNo1}, but makes the helpers of the AI and a single turn accessible to the benchmarks
+ *
+ * @author Benjamin Schmid
+ */
+public class BenchmarkAI extends AIPlayer_BenNo1 {
+
+	/**
+	 * Play the turn of this AI again, without finishing it
+	 */
+	public void playAgain() {
+		play();
+	}
+
+	public LinkedList<Integer> findPositions(GameObjectType gameObjectType) {
+		return getMyPositions(gameObjectType);
+	}
+
+	public LinkedList<Integer> findFreeMoveFields(int pos) {
+		return getAllFreeMoveFields(pos);
+	}
+
+	public LinkedList<Integer> findFreeProduceFields(int pos, GameObjectType gameObjectType) {
+		return getAllFreeProduceFields(pos, gameObjectType);
+	}
+
+	public LinkedList<Integer> findFightFields(int pos) {
+		return getAllFightFields(pos);
+	}
+
+	public int countObjects() {
+		return countMyObjects();
+	}
+}
@@ -0,0 +1,111 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.smeanox.games.sg002.util.ConfigCache;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.util.Language;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.Scenario;
+
+import java.util.Locale;
+
+/**
+ * Helper methods to set up reproducible games for the benchmarks. The benchmarks have to run in the assets
+ * directory, so the config can be read.
+ * <p>
+ * Every game is played by {@link BenchmarkAI}s, one per start position of the scenario. Their random states are
+ * derived from a fixed seed and the positions come from the seed of the scenario, so the same game is played in every
+ * run and every fork.
+ *
+ * @author Benjamin Schmid
+ */
+public class BenchmarkUtil {
+	/**
+	 * the seed of the random states of the AIs
+	 */
+	public static final long seed = 314159265358979L;
+	/**
+	 * the number of rounds that are played before a benchmark starts, so there are more than the start objects
+	 */
+	public static final int warmupRounds = 10;
+
+	private static boolean configRead;
+
+	/**
+	 * Read the config in headless mode, only once
+	 */
+	public static synchronized void setupConfig() {
+		Consts.headlessMode = true;
+		if (configRead) {
+			return;
+		}
+		Language.loadStringsForHeadless(Locale.ENGLISH);
+		ConfigCache.readConfig(new FileHandle("config/GameObjectTypes.xml"),
+				new FileHandle("config/MapObjectTypes.xml"),
+				new FileHandle("config/Scenarios.xml"),
+				new FileHandle(Consts.configCacheFileName));
+		configRead = true;
+	}
+
+	/**
+	 * Create a game of the given scenario with one AI per start position, {@link GameController#startGame()} starts
+	 * it
+	 *
+	 * @param scenarioId the id of the scenario
+	 * @param seed       the seed of the random states of the AIs
+	 * @return the GameController of the game
+	 * @throws IllegalArgumentException if there is no such scenario
+	 */
+	public static GameController createGame(String scenarioId, long seed) {
+		setupConfig();
+		Scenario scenario = Scenario.getScanarioById(scenarioId);
+		if (scenario == null) {
+			throw new IllegalArgumentException("Unknown scenario " + scenarioId);
+		}
+		GameController gameController = new GameController(scenario);
+		for (int i = 0; i < scenario.getMaxPlayerCount(); i++) {
+			BenchmarkAI player = new BenchmarkAI();
+			gameController.addPlayer(player);
+			player.setName("ai" + i);
+			player.setColor(Color.BLUE);
+			player.setRandomState(seed, i + 1);
+		}
+		return gameController;
+	}
+
+	/**
+	 * Create a game with {@link #createGame(String, long)}, start it and play {@link #warmupRounds} rounds
+	 *
+	 * @param scenarioId the id of the scenario
+	 * @return the GameController of the game
+	 */
+	public static GameController createPlayedGame(String scenarioId) {
+		GameController gameController = createGame(scenarioId, seed);
+		gameController.startGame();
+		playRounds(gameController, warmupRounds);
+		return gameController;
+	}
+
+	/**
+	 * Let the AIs play the given number of rounds
+	 *
+	 * @param gameController the game
+	 * @param rounds         the number of rounds
+	 */
+	public static void playRounds(GameController gameController, int rounds) {
+		int round = gameController.getRound() + rounds;
+		while (gameController.getRound() < round) {
+			playTurn(gameController);
+		}
+	}
+
+	/**
+	 * Finish the turn of the active AI, which starts the turn of the next one
+	 *
+	 * @param gameController the game
+	 */
+	public static void playTurn(GameController gameController) {
+		gameController.update(Consts.aiSleep);
+	}
+}
@@ -0,0 +1,96 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameSnapshot;
+import com.smeanox.games.sg002.world.SaveGameWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the game flow: a whole turn with {@link GameController#finishedRound()} and saving and loading the game
+ *
+ * @author Benjamin Schmid
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameBenchmark {
+
+	@Param({"small", "big", "giant"})
+	public String scenario;
+
+	private GameController gameController;
+	private File file;
+
+	@Setup
+	public void setup() throws IOException {
+		gameController = BenchmarkUtil.createPlayedGame(scenario);
+		file = File.createTempFile("sg002", ".xml");
+		gameController.saveGame(file.getAbsolutePath());
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Finish the turn of the active AI and play the turn of the next one. The world changes with every turn, so every
+	 * iteration starts with the same game.
+	 */
+	@Benchmark
+	public void finishedRound(TurnState state) {
+		BenchmarkUtil.playTurn(state.gameController);
+	}
+
+	@Benchmark
+	public GameSnapshot createSnapshot() throws IOException {
+		return gameController.createSnapshot();
+	}
+
+	@Benchmark
+	public long save() throws IOException {
+		SaveGameWriter.write(gameController.createSnapshot(), file);
+		return file.length();
+	}
+
+	@Benchmark
+	public GameController load() {
+		return new GameController(file.getAbsolutePath());
+	}
+
+	/**
+	 * A game that is created for every iteration, see {@link #finishedRound(TurnState)}
+	 */
+	@State(Scope.Thread)
+	public static class TurnState {
+		@Param({"small", "big", "giant"})
+		public String scenario;
+
+		private GameController gameController;
+
+		@Setup(Level.Iteration)
+		public void setupIteration() {
+			gameController = BenchmarkUtil.createPlayedGame(scenario);
+		}
+	}
+}
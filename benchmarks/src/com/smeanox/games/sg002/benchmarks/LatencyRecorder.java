@@ -0,0 +1,108 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.badlogic.gdx.utils.LongArray;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Records every latency of an operation, so exact percentiles can be computed afterwards
+ *
+ * @author Benjamin Schmid
+ */
+public class LatencyRecorder {
+	private final String name;
+	private final LongArray samples;
+	private boolean sorted;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param name the name of the operation
+	 */
+	public LatencyRecorder(String name) {
+		this.name = name;
+		samples = new LongArray();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Add a latency
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		samples.add(nanos);
+		sorted = false;
+	}
+
+	public int getCount() {
+		return samples.size;
+	}
+
+	/**
+	 * Return the latency that the given part of the samples doesn't exceed
+	 *
+	 * @param percentile the part, between 0 and 1
+	 * @return the latency in nanoseconds, 0 if there are no samples
+	 */
+	public long getPercentile(float percentile) {
+		if (samples.size == 0) {
+			return 0;
+		}
+		if (!sorted) {
+			samples.sort();
+			sorted = true;
+		}
+		int index = (int) Math.ceil(percentile * samples.size) - 1;
+		return samples.get(Math.max(0, Math.min(samples.size - 1, index)));
+	}
+
+	public long getMax() {
+		return getPercentile(1f);
+	}
+
+	/**
+	 * Return the mean of the latencies
+	 *
+	 * @return the mean in nanoseconds, 0 if there are no samples
+	 */
+	public long getMean() {
+		if (samples.size == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < samples.size; i++) {
+			sum += samples.get(i);
+		}
+		return sum / samples.size;
+	}
+
+	/**
+	 * Write the count and the percentiles in milliseconds as JSON object
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write(String.format(Locale.US, "{\"name\":\"%s\",\"count\":%d,\"mean_ms\":%.3f,\"p50_ms\":%.3f,"
+						+ "\"p90_ms\":%.3f,\"p99_ms\":%.3f,\"max_ms\":%.3f}", name, getCount(), toMillis(getMean()),
+				toMillis(getPercentile(0.5f)), toMillis(getPercentile(0.9f)), toMillis(getPercentile(0.99f)),
+				toMillis(getMax())));
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.US, "%-22s %6d %10.3f %10.3f %10.3f %10.3f %10.3f", name, getCount(),
+				toMillis(getMean()), toMillis(getPercentile(0.5f)), toMillis(getPercentile(0.9f)),
+				toMillis(getPercentile(0.99f)), toMillis(getMax()));
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1e6;
+	}
+}
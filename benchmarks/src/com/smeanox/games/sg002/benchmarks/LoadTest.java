@@ -0,0 +1,330 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.smeanox.games.sg002.debug.MockGraphics;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.view.GameView;
+import com.smeanox.games.sg002.view.WorldColorMap;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameWorld;
+import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load test on synthetic late-game worlds, see {@link SyntheticWorld}. It measures the latencies of
+ * <ul>
+ * <li>turn cycles, split into finishing the turn and the turn of the next AI,</li>
+ * <li>rendering: GameView.render, with its static layer cache, action ranges and hp labels, when jumping to random
+ * units and when panning, and updating the {@link WorldColorMap} that is shown when zoomed out,</li>
+ * <li>saving and loading the game,</li>
+ * </ul>
+ * and prints the percentiles and writes them as JSON. OpenGL is replaced by {@link MockGraphics}, so only the work of
+ * the CPU is measured.
+ * <p>
+ * Options: {@code -size 400 -players 64 -density 0.2 -frontDensity 0.8 -frontWidth 3 -mining 0.9 -gold -1 -seed 1
+ * -turns 64 -frames 600 -view 48x27 -saves 3 -out loadtest.json}
+ *
+ * @author Benjamin Schmid
+ */
+public class LoadTest {
+	private int size = 400;
+	private int players = 64;
+	private float density = 0.2f;
+	private float frontDensity = 0.8f;
+	private int frontWidth = 3;
+	private float mining = 0.9f;
+	private int gold = -1;
+	private long seed = BenchmarkUtil.seed;
+	private int turns = 64;
+	private int frames = 600;
+	private int viewWidth = 48;
+	private int viewHeight = 27;
+	private int saves = 3;
+	private File out = new File("loadtest.json");
+
+	private GameController gameController;
+	private int units;
+	private long generateTime;
+	private long heapUsed;
+	private long saveBytes;
+	private List<LatencyRecorder> recorders = new ArrayList<LatencyRecorder>();
+	/**
+	 * the time the last turn started, as of System.nanoTime()
+	 */
+	private long turnStartTime;
+
+	/**
+	 * Run the load test
+	 *
+	 * @param args the options, see {@link LoadTest}
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadTest loadTest = new LoadTest();
+		try {
+			loadTest.parseArgs(args);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.exit(2);
+		}
+		GdxNativesLoader.load();
+		loadTest.generate();
+		loadTest.runTurns();
+		loadTest.runRender();
+		loadTest.runSaveLoad();
+		loadTest.print();
+		loadTest.write();
+	}
+
+	/**
+	 * Read the options
+	 *
+	 * @param args the options
+	 * @throws IllegalArgumentException if an option is unknown or has no value
+	 */
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + args[i]);
+			}
+			String option = args[i];
+			String value = args[++i];
+			if ("-size".equals(option)) {
+				size = Integer.parseInt(value);
+			} else if ("-players".equals(option)) {
+				players = Integer.parseInt(value);
+			} else if ("-density".equals(option)) {
+				density = Float.parseFloat(value);
+			} else if ("-frontDensity".equals(option)) {
+				frontDensity = Float.parseFloat(value);
+			} else if ("-frontWidth".equals(option)) {
+				frontWidth = Integer.parseInt(value);
+			} else if ("-mining".equals(option)) {
+				mining = Float.parseFloat(value);
+			} else if ("-gold".equals(option)) {
+				gold = Integer.parseInt(value);
+			} else if ("-seed".equals(option)) {
+				seed = Long.parseLong(value);
+			} else if ("-turns".equals(option)) {
+				turns = Integer.parseInt(value);
+			} else if ("-frames".equals(option)) {
+				frames = Integer.parseInt(value);
+			} else if ("-view".equals(option)) {
+				String[] view = value.split("x");
+				viewWidth = Integer.parseInt(view[0]);
+				viewHeight = Integer.parseInt(view[1]);
+			} else if ("-saves".equals(option)) {
+				saves = Integer.parseInt(value);
+			} else if ("-out".equals(option)) {
+				out = new File(value);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+		if (size > 2000) {
+			throw new IllegalArgumentException("The map can be at most 2000x2000");
+		}
+	}
+
+	private LatencyRecorder createRecorder(String name) {
+		LatencyRecorder recorder = new LatencyRecorder(name);
+		recorders.add(recorder);
+		return recorder;
+	}
+
+	/**
+	 * Create the synthetic world and start the game
+	 */
+	private void generate() {
+		System.out.println("Generating " + size + "x" + size + " with " + players + " players");
+		long startTime = System.nanoTime();
+		SyntheticWorld syntheticWorld = new SyntheticWorld(size, players, density, frontDensity, frontWidth, mining,
+				gold, seed);
+		gameController = syntheticWorld.create();
+		generateTime = System.nanoTime() - startTime;
+		units = syntheticWorld.getUnitCount();
+
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		heapUsed = runtime.totalMemory() - runtime.freeMemory();
+		System.out.println(String.format(Locale.US, "%d units in %.1f s, heap %d MB", units, generateTime / 1e9,
+				heapUsed >> 20));
+
+		gameController.addNextPlayerHandler(new NextPlayerHandler() {
+			@Override
+			public void onNextPlayer(Player nextPlayer) {
+				turnStartTime = System.nanoTime();
+			}
+		});
+		gameController.startGame();
+	}
+
+	/**
+	 * Play turns and keep the map of the zoomed out view up to date, as the game screen does
+	 */
+	private void runTurns() {
+		LatencyRecorder finishTurn = createRecorder("turn.finish");
+		LatencyRecorder aiTurn = createRecorder("turn.ai");
+		LatencyRecorder turn = createRecorder("turn");
+		LatencyRecorder colorMapFull = createRecorder("render.colorMapFull");
+		LatencyRecorder colorMap = createRecorder("render.colorMap");
+
+		WorldColorMap worldColorMap = new WorldColorMap(gameController.getGameWorld(), Consts.lodMaxTextureSize);
+		long startTime = System.nanoTime();
+		worldColorMap.update();
+		colorMapFull.record(System.nanoTime() - startTime);
+
+		for (int i = 0; i < turns; i++) {
+			startTime = System.nanoTime();
+			BenchmarkUtil.playTurn(gameController);
+			long endTime = System.nanoTime();
+			finishTurn.record(turnStartTime - startTime);
+			aiTurn.record(endTime - turnStartTime);
+			turn.record(endTime - startTime);
+
+			startTime = System.nanoTime();
+			worldColorMap.update();
+			colorMap.record(System.nanoTime() - startTime);
+		}
+		worldColorMap.dispose();
+	}
+
+	/**
+	 * Render the world with GameView on {@link MockGraphics}, first jumping to random units of the active player and
+	 * selecting them, then panning over the map with the selection kept
+	 */
+	private void runRender() {
+		LatencyRecorder jump = createRecorder("render.jump");
+		LatencyRecorder pan = createRecorder("render.pan");
+		GameWorld gameWorld = gameController.getGameWorld();
+		Player activePlayer = gameController.getActivePlayer();
+		List<GameObject> units = new ArrayList<GameObject>();
+		for (GameObject gameObject : gameWorld.getGameObjects()) {
+			if (gameObject.getPlayer() == activePlayer) {
+				units.add(gameObject);
+			}
+		}
+		RandomXS128 random = new RandomXS128(seed);
+
+		MockGraphics.install();
+		try {
+			MockGraphics.createAssets();
+			GameView gameView = new GameView(gameWorld);
+			SpriteBatch spriteBatch = new SpriteBatch();
+			float fieldSizeX = gameView.getFieldSizeX();
+			float fieldSizeY = gameView.getFieldSizeY();
+			Rectangle visibleArea = new Rectangle(0, 0, viewWidth * fieldSizeX, viewHeight * fieldSizeY);
+
+			int x = 0;
+			int y = 0;
+			for (int i = 0; i < frames; i++) {
+				if (units.isEmpty()) {
+					x = random.nextInt(size);
+					y = random.nextInt(size);
+				} else {
+					GameObject unit = units.get(random.nextInt(units.size()));
+					x = unit.getPositionX();
+					y = unit.getPositionY();
+				}
+				long startTime = System.nanoTime();
+				gameView.setActiveX(x);
+				gameView.setActiveY(y);
+				visibleArea.setCenter((x + 0.5f) * fieldSizeX, (y + 0.5f) * fieldSizeY);
+				gameView.render(spriteBatch, activePlayer, visibleArea);
+				jump.record(System.nanoTime() - startTime);
+			}
+
+			for (int i = 0; i < frames; i++) {
+				x = (x + 1) % size;
+				if (x == 0) {
+					y = (y + viewHeight) % size;
+				}
+				long startTime = System.nanoTime();
+				visibleArea.setCenter((x + 0.5f) * fieldSizeX, (y + 0.5f) * fieldSizeY);
+				gameView.render(spriteBatch, activePlayer, visibleArea);
+				pan.record(System.nanoTime() - startTime);
+			}
+
+			gameView.dispose();
+			spriteBatch.dispose();
+		} finally {
+			MockGraphics.uninstall();
+		}
+	}
+
+	/**
+	 * Save the game and load it again
+	 *
+	 * @throws IOException if the temporary file can't be created
+	 */
+	private void runSaveLoad() throws IOException {
+		LatencyRecorder save = createRecorder("save");
+		LatencyRecorder load = createRecorder("load");
+		File file = File.createTempFile("sg002", ".xml");
+		try {
+			for (int i = 0; i < saves; i++) {
+				long startTime = System.nanoTime();
+				gameController.saveGame(file.getAbsolutePath());
+				save.record(System.nanoTime() - startTime);
+				saveBytes = file.length();
+
+				startTime = System.nanoTime();
+				new GameController(file.getAbsolutePath());
+				load.record(System.nanoTime() - startTime);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Print the percentiles in milliseconds
+	 */
+	private void print() {
+		System.out.println(String.format(Locale.US, "%-22s %6s %10s %10s %10s %10s %10s", "operation", "count",
+				"mean", "p50", "p90", "p99", "max"));
+		for (LatencyRecorder recorder : recorders) {
+			System.out.println(recorder);
+		}
+		System.out.println("save game " + (saveBytes >> 10) + " KB");
+	}
+
+	/**
+	 * Write the parameters and the percentiles as JSON
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private void write() throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(out), "UTF-8");
+		try {
+			writer.write(String.format(Locale.US, "{\"time\":%d,\"size\":%d,\"players\":%d,\"density\":%.3f,"
+							+ "\"frontDensity\":%.3f,\"frontWidth\":%d,\"mining\":%.3f,\"seed\":%d,\"units\":%d,"
+							+ "\"generate_ms\":%.3f,\"heapUsed\":%d,\"saveBytes\":%d,\"latencies\":[",
+					System.currentTimeMillis(), size, players, density, frontDensity, frontWidth, mining, seed, units,
+					generateTime / 1e6, heapUsed, saveBytes));
+			for (int i = 0; i < recorders.size(); i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				writer.write('\n');
+				recorders.get(i).writeJson(writer);
+			}
+			writer.write("\n]}\n");
+		} finally {
+			writer.close();
+		}
+		System.out.println("Results written to " + out.getPath());
+	}
+}
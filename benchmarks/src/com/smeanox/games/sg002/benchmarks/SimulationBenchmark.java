@@ -0,0 +1,399 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
+import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the throughput of whole games: plays a number of AI-only games per scenario through the GameController
+ * until one player is left or the round cap is reached, without waiting for {@link
+ * com.smeanox.games.sg002.util.Consts#aiSleep}, and reports games, turns and applied actions per second and the peak
+ * heap. The games are played on 1 to n threads to show how the throughput scales.
+ * <p>
+ * The results are written as JSON and can be compared with the results of an earlier run, the program exits with 1 if
+ * a rate dropped or the peak heap grew by more than the tolerance. Every game uses its own seed for the random
+ * generators of its AIs, so a game plays the same way in every run, no matter how many threads there are.
+ * <p>
+ * Options: {@code -scenarios small,big,giant -games 8 -rounds 100 -threads 1,2,4 -out simulation.json
+ * -compare previous.json -tolerance 0.1}
+ *
+ * @author Benjamin Schmid
+ */
+public class SimulationBenchmark {
+	private String[] scenarios = new String[]{"small", "big", "giant"};
+	private int games = 8;
+	private int rounds = 100;
+	private int[] threads;
+	private File out = new File("simulation.json");
+	private File compare;
+	private double tolerance = 0.1;
+
+	/**
+	 * Run the benchmark
+	 *
+	 * @param args the options, see {@link SimulationBenchmark}
+	 */
+	public static void main(String[] args) throws Exception {
+		SimulationBenchmark benchmark = new SimulationBenchmark();
+		try {
+			benchmark.parseArgs(args);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.exit(2);
+		}
+		List<Result> results = benchmark.run();
+		benchmark.write(results);
+		if (benchmark.compare != null && !compare(readResults(benchmark.compare), results, benchmark.tolerance)) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Read the options
+	 *
+	 * @param args the options
+	 * @throws IllegalArgumentException if an option is unknown or has no value
+	 */
+	private void parseArgs(String[] args) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		ArrayList<Integer> threadList = new ArrayList<Integer>();
+		for (int i = 1; i < processors; i *= 2) {
+			threadList.add(i);
+		}
+		threadList.add(processors);
+		threads = toIntArray(threadList);
+
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + args[i]);
+			}
+			String option = args[i];
+			String value = args[++i];
+			if ("-scenarios".equals(option)) {
+				scenarios = value.split(",");
+			} else if ("-games".equals(option)) {
+				games = Integer.parseInt(value);
+			} else if ("-rounds".equals(option)) {
+				rounds = Integer.parseInt(value);
+			} else if ("-threads".equals(option)) {
+				threadList.clear();
+				for (String aThreads : value.split(",")) {
+					threadList.add(Integer.parseInt(aThreads));
+				}
+				threads = toIntArray(threadList);
+			} else if ("-out".equals(option)) {
+				out = new File(value);
+			} else if ("-compare".equals(option)) {
+				compare = new File(value);
+			} else if ("-tolerance".equals(option)) {
+				tolerance = Double.parseDouble(value);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+	}
+
+	private static int[] toIntArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Play the games of all scenarios with all numbers of threads
+	 *
+	 * @return one result per scenario and number of threads
+	 */
+	private List<Result> run() throws Exception {
+		List<Result> results = new ArrayList<Result>();
+		System.out.println(Result.header);
+		for (String scenario : scenarios) {
+			// let the JIT compile the engine before measuring
+			new Game(scenario, BenchmarkUtil.seed, rounds).call();
+			for (int aThreads : threads) {
+				Result result = run(scenario, aThreads);
+				System.out.println(result);
+				results.add(result);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Play the games of a scenario on the given number of threads
+	 *
+	 * @param scenario the id of the scenario
+	 * @param threads  the number of threads
+	 * @return the result
+	 */
+	private Result run(String scenario, int threads) throws Exception {
+		List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				heapPools.add(pool);
+			}
+		}
+		System.gc();
+		for (MemoryPoolMXBean pool : heapPools) {
+			pool.resetPeakUsage();
+		}
+
+		Result result = new Result(scenario, threads, games);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long startTime = System.nanoTime();
+		try {
+			List<Future<Game>> futures = new ArrayList<Future<Game>>();
+			for (int i = 0; i < games; i++) {
+				futures.add(executor.submit(new Game(scenario, BenchmarkUtil.seed + i, rounds)));
+			}
+			for (Future<Game> future : futures) {
+				Game game = future.get();
+				result.finished += game.finished ? 1 : 0;
+				result.rounds += game.rounds;
+				result.turns += game.turns;
+				result.actions += game.actions;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		result.seconds = (System.nanoTime() - startTime) / 1e9;
+
+		for (MemoryPoolMXBean pool : heapPools) {
+			result.peakHeap += pool.getPeakUsage().getUsed();
+		}
+		return result;
+	}
+
+	/**
+	 * Write the results as JSON
+	 *
+	 * @param results the results
+	 * @throws IOException if writing fails
+	 */
+	private void write(List<Result> results) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(out), "UTF-8");
+		try {
+			writer.write(String.format(Locale.US, "{\"time\":%d,\"processors\":%d,\"rounds\":%d,\"results\":[",
+					System.currentTimeMillis(), Runtime.getRuntime().availableProcessors(), rounds));
+			for (int i = 0; i < results.size(); i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				writer.write('\n');
+				results.get(i).writeJson(writer);
+			}
+			writer.write("\n]}\n");
+		} finally {
+			writer.close();
+		}
+		System.out.println("Results written to " + out.getPath());
+	}
+
+	/**
+	 * Read the results of an earlier run
+	 *
+	 * @param file the file written by an earlier run
+	 * @return the results
+	 */
+	private static List<Result> readResults(File file) {
+		List<Result> results = new ArrayList<Result>();
+		JsonValue root = new JsonReader().parse(new FileHandle(file));
+		for (JsonValue value = root.get("results").child; value != null; value = value.next) {
+			results.add(Result.readJson(value));
+		}
+		return results;
+	}
+
+	/**
+	 * Print how the results changed since an earlier run
+	 *
+	 * @param previous  the results of the earlier run
+	 * @param results   the current results
+	 * @param tolerance the relative change that is not counted as regression
+	 * @return true if nothing regressed
+	 */
+	private static boolean compare(List<Result> previous, List<Result> results, double tolerance) {
+		boolean ok = true;
+		System.out.println("scenario threads metric previous current change");
+		for (Result result : results) {
+			Result old = null;
+			for (Result aPrevious : previous) {
+				if (aPrevious.scenario.equals(result.scenario) && aPrevious.threads == result.threads) {
+					old = aPrevious;
+				}
+			}
+			if (old == null) {
+				continue;
+			}
+			ok &= compare(result, "games/s", old.getGamesPerSecond(), result.getGamesPerSecond(), tolerance, true);
+			ok &= compare(result, "turns/s", old.getTurnsPerSecond(), result.getTurnsPerSecond(), tolerance, true);
+			ok &= compare(result, "actions/s", old.getActionsPerSecond(), result.getActionsPerSecond(), tolerance,
+					true);
+			ok &= compare(result, "peakHeap", old.peakHeap, result.peakHeap, tolerance, false);
+		}
+		System.out.println(ok ? "No regressions" : "REGRESSION");
+		return ok;
+	}
+
+	/**
+	 * Print the change of one metric
+	 *
+	 * @param higherIsBetter whether the metric should grow
+	 * @return true if the metric didn't regress
+	 */
+	private static boolean compare(Result result, String metric, double previous, double current, double tolerance,
+								   boolean higherIsBetter) {
+		double change = previous > 0 ? current / previous - 1 : 0;
+		boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+		System.out.println(String.format(Locale.US, "%s %d %s %.1f %.1f %+.1f%%%s", result.scenario, result.threads,
+				metric, previous, current, change * 100, regressed ? " REGRESSION" : ""));
+		return !regressed;
+	}
+
+	/**
+	 * One game, played to the end or the round cap
+	 */
+	private static class Game implements Callable<Game> {
+		private final String scenario;
+		private final long seed;
+		private final int maxRounds;
+
+		boolean finished;
+		int rounds;
+		long turns;
+		long actions;
+
+		Game(String scenario, long seed, int maxRounds) {
+			this.scenario = scenario;
+			this.seed = seed;
+			this.maxRounds = maxRounds;
+		}
+
+		@Override
+		public Game call() {
+			GameController gameController = BenchmarkUtil.createGame(scenario, seed);
+			gameController.addNextPlayerHandler(new NextPlayerHandler() {
+				@Override
+				public void onNextPlayer(Player nextPlayer) {
+					turns++;
+				}
+			});
+			gameController.getGameWorld().addAppliedActionHandler(new AppliedActionHandler() {
+				@Override
+				public void onActionApplied(Action action) {
+					actions++;
+				}
+			});
+			gameController.startGame();
+
+			int round = gameController.getRound();
+			while (round < maxRounds) {
+				BenchmarkUtil.playTurn(gameController);
+				if (gameController.getRound() != round) {
+					round = gameController.getRound();
+					if (countAlivePlayers(gameController) <= 1) {
+						finished = true;
+						break;
+					}
+				}
+			}
+			rounds = round;
+			return this;
+		}
+
+		private int countAlivePlayers(GameController gameController) {
+			int count = 0;
+			for (Player player : gameController.getPlayers()) {
+				if (gameController.getGameWorld().isPlayerStillAlive(player)) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * The result of one scenario and number of threads
+	 */
+	private static class Result {
+		static final String header = "scenario threads games finished rounds turns actions seconds games/s turns/s "
+				+ "actions/s peakHeapMB";
+
+		final String scenario;
+		final int threads;
+		final int games;
+		int finished;
+		long rounds;
+		long turns;
+		long actions;
+		double seconds;
+		long peakHeap;
+
+		Result(String scenario, int threads, int games) {
+			this.scenario = scenario;
+			this.threads = threads;
+			this.games = games;
+		}
+
+		double getGamesPerSecond() {
+			return seconds > 0 ? games / seconds : 0;
+		}
+
+		double getTurnsPerSecond() {
+			return seconds > 0 ? turns / seconds : 0;
+		}
+
+		double getActionsPerSecond() {
+			return seconds > 0 ? actions / seconds : 0;
+		}
+
+		void writeJson(Writer writer) throws IOException {
+			writer.write(String.format(Locale.US, "{\"scenario\":\"%s\",\"threads\":%d,\"games\":%d,\"finished\":%d,"
+							+ "\"rounds\":%d,\"turns\":%d,\"actions\":%d,\"seconds\":%.6f,\"gamesPerSecond\":%.3f,"
+							+ "\"turnsPerSecond\":%.3f,\"actionsPerSecond\":%.3f,\"peakHeap\":%d}", scenario, threads,
+					games, finished, rounds, turns, actions, seconds, getGamesPerSecond(), getTurnsPerSecond(),
+					getActionsPerSecond(), peakHeap));
+		}
+
+		static Result readJson(JsonValue value) {
+			Result result = new Result(value.getString("scenario"), value.getInt("threads"), value.getInt("games"));
+			result.finished = value.getInt("finished");
+			result.rounds = value.getLong("rounds");
+			result.turns = value.getLong("turns");
+			result.actions = value.getLong("actions");
+			result.seconds = value.getDouble("seconds");
+			result.peakHeap = value.getLong("peakHeap");
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.US, "%s %d %d %d %d %d %d %.2f %.2f %.1f %.1f %d", scenario, threads, games,
+					finished, rounds, turns, actions, seconds, getGamesPerSecond(), getTurnsPerSecond(),
+					getActionsPerSecond(), peakHeap >> 20);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
+import com.smeanox.games.sg002.data.Point;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
+import com.smeanox.games.sg002.world.MapObjectType;
+import com.smeanox.games.sg002.world.Scenario;
+
+/**
+ * Creates the state of a late game directly in the GameWorld, without playing it. The map is divided into a grid of
+ * rectangular territories, one per player. Every player has
+ * <ul>
+ * <li>gold mines on most gold fields of his territory,</li>
+ * <li>dense military units along the borders to other players, the front lines,</li>
+ * <li>villagers, town centers and some military units spread over the rest of his territory.</li>
+ * </ul>
+ * The same parameters always create the same world.
+ *
+ * @author Benjamin Schmid
+ */
+public class SyntheticWorld {
+	/**
+	 * the money every player has
+	 */
+	public static final int money = 5000;
+
+	private final int mapSize;
+	private final int players;
+	private final float density;
+	private final float frontDensity;
+	private final int frontWidth;
+	private final float mining;
+	private final int gold;
+	private final long seed;
+
+	private int unitCount;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param mapSize      the width and height of the map, up to 2000
+	 * @param players      the number of players
+	 * @param density      the part of the fields behind the front lines that have a unit
+	 * @param frontDensity the part of the fields of the front lines that have a military unit
+	 * @param frontWidth   the number of rows of fields of a front line on each side of a border
+	 * @param mining       the part of the gold fields that have a gold mine
+	 * @param gold         the number of gold fields, -1 for about as many per field as in the giant scenario
+	 * @param seed         the seed of the positions and the AIs
+	 */
+	public SyntheticWorld(int mapSize, int players, float density, float frontDensity, int frontWidth, float mining,
+						  int gold, long seed) {
+		this.mapSize = mapSize;
+		this.players = players;
+		this.density = density;
+		this.frontDensity = frontDensity;
+		this.frontWidth = frontWidth;
+		this.mining = mining;
+		this.gold = gold;
+		this.seed = seed;
+	}
+
+	/**
+	 * The number of GameObjects of the last created world
+	 *
+	 * @return the number of GameObjects
+	 */
+	public int getUnitCount() {
+		return unitCount;
+	}
+
+	/**
+	 * Create the world, with a {@link BenchmarkAI} per player. {@link GameController#startGame()} starts the game.
+	 *
+	 * @return the GameController of the world
+	 * @throws IllegalArgumentException if the parameters don't fit together
+	 */
+	public GameController create() {
+		BenchmarkUtil.setupConfig();
+		if (mapSize < 1 || players < 1) {
+			throw new IllegalArgumentException("Map size and players have to be positive");
+		}
+		int columns = (int) Math.ceil(Math.sqrt(players));
+		int rows = (players + columns - 1) / columns;
+		if (mapSize < 2 * columns || mapSize < 2 * rows) {
+			throw new IllegalArgumentException("The map is too small for " + players + " players");
+		}
+
+		// start in the middle of the territories
+		Point[] startPos = new Point[players];
+		for (int i = 0; i < players; i++) {
+			int column = i % columns;
+			int row = i / columns;
+			startPos[i] = new Point(getTerritoryStart(column, columns) + getTerritorySize(column, columns) / 2,
+					getTerritoryStart(row, rows) + getTerritorySize(row, rows) / 2);
+		}
+		int aGold = gold >= 0 ? gold : Math.max(1, mapSize * mapSize / 2300);
+		Scenario scenario = new Scenario("synthetic" + mapSize + "x" + players, "synthetic", money, players, mapSize,
+				mapSize, true, 0, seed, aGold, true, null, startPos);
+
+		GameController gameController = new GameController(scenario);
+		RandomXS128 random = new RandomXS128(seed);
+		for (int i = 0; i < players; i++) {
+			BenchmarkAI player = new BenchmarkAI();
+			gameController.addPlayer(player);
+			player.setName("ai" + i);
+			player.setColor(new Color(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1f));
+			player.setRandomState(seed, i + 1);
+		}
+
+		fill(gameController, columns, rows, random);
+		return gameController;
+	}
+
+	/**
+	 * Place the GameObjects of all players
+	 */
+	private void fill(GameController gameController, int columns, int rows, RandomXS128 random) {
+		GameWorld gameWorld = gameController.getGameWorld();
+		GameObjectType goldMine = GameObjectType.getGameObjectTypeById("goldMine");
+		GameObjectType villager = GameObjectType.getGameObjectTypeById("villager");
+		GameObjectType townCenter = GameObjectType.getGameObjectTypeById("townCenter");
+		GameObjectType[] military = new GameObjectType[]{GameObjectType.getGameObjectTypeById("infantry"),
+				GameObjectType.getGameObjectTypeById("knight"), GameObjectType.getGameObjectTypeById("archer")};
+		MapObjectType goldType = MapObjectType.getMapObjectTypeById("gold");
+
+		for (int i = 0; i < players; i++) {
+			Player player = gameController.getPlayers().get(i);
+			player.setMoney(money);
+			int column = i % columns;
+			int row = i / columns;
+			int startX = getTerritoryStart(column, columns);
+			int startY = getTerritoryStart(row, rows);
+			int endX = startX + getTerritorySize(column, columns);
+			int endY = startY + getTerritorySize(row, rows);
+			// only borders to other players are front lines
+			boolean frontLeft = column > 0;
+			boolean frontRight = column + 1 < columns && i + 1 < players;
+			boolean frontTop = row > 0;
+			boolean frontBottom = i + columns < players;
+
+			for (int y = startY; y < endY; y++) {
+				for (int x = startX; x < endX; x++) {
+					if (gameWorld.getWorldGameObject(x, y) != null) {
+						continue;
+					}
+					MapObjectType mapObjectType = gameWorld.getWorldMapObject(x, y).getMapObjectType();
+					boolean front = (frontLeft && x - startX < frontWidth) || (frontRight && endX - x <= frontWidth)
+							|| (frontTop && y - startY < frontWidth) || (frontBottom && endY - y <= frontWidth);
+					GameObjectType gameObjectType = null;
+					if (mapObjectType == goldType) {
+						if (random.nextFloat() < mining) {
+							gameObjectType = goldMine;
+						}
+					} else if (front) {
+						if (random.nextFloat() < frontDensity) {
+							gameObjectType = military[random.nextInt(military.length)];
+						}
+					} else if (random.nextFloat() < density) {
+						float kind = random.nextFloat();
+						gameObjectType = kind < 0.6f ? villager : kind < 0.7f ? townCenter
+								: military[random.nextInt(military.length)];
+					}
+					if (gameObjectType != null && mapObjectType.isGameObjectTypeAllowed(gameObjectType)) {
+						gameWorld.addGameObject(gameObjectType, player, x, y);
+					}
+				}
+			}
+		}
+		unitCount = gameWorld.getGameObjects().size();
+	}
+
+	/**
+	 * The first field of a column or row of territories
+	 */
+	private int getTerritoryStart(int index, int count) {
+		return (int) ((long) mapSize * index / count);
+	}
+
+	/**
+	 * The number of fields of a column or row of territories
+	 */
+	private int getTerritorySize(int index, int count) {
+		return getTerritoryStart(index + 1, count) - getTerritoryStart(index, count);
+	}
+}
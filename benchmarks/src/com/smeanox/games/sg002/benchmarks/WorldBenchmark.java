@@ -0,0 +1,195 @@
+package com.smeanox.games.sg002.benchmarks;
+
+import com.smeanox.games.sg002.player.LocalPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the actions of the GameWorld and the checks whether they are possible.
+ * <p>
+ * The actions change the world, so they are measured on objects that are placed on a free row of the map:
+ * a town center, a free field, a knight and an enemy villager. Every benchmark undoes its action, so each invocation
+ * does the same work, and the undoing is measured as well.
+ *
+ * @author Benjamin Schmid
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WorldBenchmark {
+
+	@Param({"small", "big", "giant"})
+	public String scenario;
+
+	private GameWorld gameWorld;
+	private Player player;
+	private GameObject[] gameObjects;
+	private GameObjectType[] gameObjectTypes;
+
+	private GameObjectType villager;
+	private GameObject townCenter;
+	private GameObject knight;
+	private GameObject enemy;
+	/**
+	 * the row of the placed objects, the town center is at x, the free field at x + 1, the knight at x + 2 and the
+	 * enemy at x + 3
+	 */
+	private int x, y;
+
+	@Setup
+	public void setup() {
+		GameController gameController = BenchmarkUtil.createPlayedGame(scenario);
+		gameWorld = gameController.getGameWorld();
+		player = gameController.getActivePlayer();
+		villager = GameObjectType.getGameObjectTypeById("villager");
+		gameObjectTypes = GameObjectType.getAllGameObjectTypes().toArray(new GameObjectType[0]);
+
+		findFreeRow();
+		townCenter = gameWorld.addGameObject(GameObjectType.getGameObjectTypeById("townCenter"), player, x, y);
+		knight = gameWorld.addGameObject(GameObjectType.getGameObjectTypeById("knight"), player, x + 2, y);
+		enemy = gameWorld.addGameObject(villager, new LocalPlayer(), x + 3, y);
+
+		gameObjects = gameWorld.getGameObjects().toArray(new GameObject[0]);
+	}
+
+	/**
+	 * Find four free fields in a row that allow a town center, a villager and a knight
+	 *
+	 * @throws IllegalStateException if there are none
+	 */
+	private void findFreeRow() {
+		GameObjectType[] placed = new GameObjectType[]{GameObjectType.getGameObjectTypeById("townCenter"), villager,
+				GameObjectType.getGameObjectTypeById("knight")};
+		for (y = 0; y < gameWorld.getMapSizeY(); y++) {
+			for (x = 0; x + 3 < gameWorld.getMapSizeX(); x++) {
+				boolean free = true;
+				for (int i = 0; i < 4; i++) {
+					free &= gameWorld.getWorldGameObject(x + i, y) == null;
+					for (GameObjectType gameObjectType : placed) {
+						free &= gameWorld.getWorldMapObject(x + i, y).getMapObjectType()
+								.isGameObjectTypeAllowed(gameObjectType);
+					}
+				}
+				if (free) {
+					return;
+				}
+			}
+		}
+		throw new IllegalStateException("No free row in " + scenario);
+	}
+
+	@Benchmark
+	public boolean move() {
+		knight.resetUsedActions();
+		boolean moved = gameWorld.move(x + 2, y, x + 1, y);
+		knight.resetUsedActions();
+		return gameWorld.move(x + 1, y, x + 2, y) & moved;
+	}
+
+	@Benchmark
+	public boolean produce() {
+		townCenter.resetUsedActions();
+		player.setMoney(villager.getValue());
+		boolean produced = gameWorld.produce(x, y, x + 1, y, villager);
+		gameWorld.removeGameObject(x + 1, y);
+		return produced;
+	}
+
+	@Benchmark
+	public int fight() {
+		knight.resetUsedActions();
+		enemy.setHp(villager.getDefaultHP());
+		return gameWorld.fight(x + 2, y, x + 3, y);
+	}
+
+	/**
+	 * Check every field within the walk radius of every object
+	 *
+	 * @return the number of fields the objects can move to
+	 */
+	@Benchmark
+	public int canMoveSweep() {
+		int count = 0;
+		for (GameObject gameObject : gameObjects) {
+			int radius = gameObject.getGameObjectType().getRadiusWalkMax();
+			int aX = gameObject.getPositionX();
+			int aY = gameObject.getPositionY();
+			for (int fieldY = aY - radius; fieldY <= aY + radius; fieldY++) {
+				for (int fieldX = aX - radius; fieldX <= aX + radius; fieldX++) {
+					if (gameWorld.canMove(aX, aY, fieldX, fieldY)) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check every field within the produce radius of every object for every type
+	 *
+	 * @return the number of fields and types the objects can produce
+	 */
+	@Benchmark
+	public int canProduceSweep() {
+		int count = 0;
+		for (GameObject gameObject : gameObjects) {
+			int radius = gameObject.getGameObjectType().getRadiusProduceMax();
+			int aX = gameObject.getPositionX();
+			int aY = gameObject.getPositionY();
+			for (int fieldY = aY - radius; fieldY <= aY + radius; fieldY++) {
+				for (int fieldX = aX - radius; fieldX <= aX + radius; fieldX++) {
+					for (GameObjectType gameObjectType : gameObjectTypes) {
+						if (gameWorld.canProduce(aX, aY, fieldX, fieldY, gameObjectType)) {
+							count++;
+						}
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check every field within the fight radius of every object
+	 *
+	 * @return the number of fields the objects can fight
+	 */
+	@Benchmark
+	public int canFightSweep() {
+		int count = 0;
+		for (GameObject gameObject : gameObjects) {
+			int radius = gameObject.getGameObjectType().getRadiusFightMax();
+			int aX = gameObject.getPositionX();
+			int aY = gameObject.getPositionY();
+			for (int fieldY = aY - radius; fieldY <= aY + radius; fieldY++) {
+				for (int fieldX = aX - radius; fieldX <= aX + radius; fieldX++) {
+					if (gameWorld.canFight(aX, aY, fieldX, fieldY)) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains the JMH benchmarks of the game engine, see {@link com.smeanox.games.sg002.benchmarks.BenchmarkUtil}
+ */
+package com.smeanox.games.sg002.benchmarks;
\ No newline at end of file
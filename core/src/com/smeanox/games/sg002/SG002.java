@@ -4,11 +4,9 @@ import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.smeanox.games.sg002.screen.ScreenManager;
 import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.ConfigCache;
 import com.smeanox.games.sg002.util.Consts;
-import com.smeanox.games.sg002.util.GameObjectTypeReader;
 import com.smeanox.games.sg002.util.Language;
-import com.smeanox.games.sg002.util.MapObjectTypeReader;
-import com.smeanox.games.sg002.util.ScenarioReader;
 
 /**
  * Main Class of the game
@@ -25,9 +23,10 @@ public class SG002 extends Game {
 		Language.loadStrings();
 		Consts.updateScale();
 		Assets.loadAssetsSplashScreen();
-		GameObjectTypeReader.readGameObjectTypes(Gdx.files.internal("config/GameObjectTypes.xml"));
-		MapObjectTypeReader.readMapObjectTypes(Gdx.files.internal("config/MapObjectTypes.xml"));
-		ScenarioReader.readScenarios(Gdx.files.internal("config/Scenarios.xml"));
+		ConfigCache.readConfig(Gdx.files.internal("config/GameObjectTypes.xml"),
+				Gdx.files.internal("config/MapObjectTypes.xml"),
+				Gdx.files.internal("config/Scenarios.xml"),
+				Gdx.files.local(Consts.configCacheFileName));
 
 		Gdx.input.setCatchBackKey(true);
 
@@ -0,0 +1,688 @@
+package com.smeanox.games.sg002.debug;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * OpenGL that does nothing, see {@link MockGraphics}. Shaders and programs always compile and link, created objects
+ * get the handle 1, everything else returns 0, false or an empty string. Unlike a proxy it doesn't allocate, so it
+ * doesn't disturb measuring allocations.
+ *
+ * @author Benjamin Schmid
+ */
+public class MockGL20 implements GL20 {
+	@Override
+	public void glActiveTexture(int a) {
+	}
+
+	@Override
+	public void glBindTexture(int a, int b) {
+	}
+
+	@Override
+	public void glBlendFunc(int a, int b) {
+	}
+
+	@Override
+	public void glClear(int a) {
+	}
+
+	@Override
+	public void glClearColor(float a, float b, float c, float d) {
+	}
+
+	@Override
+	public void glClearDepthf(float a) {
+	}
+
+	@Override
+	public void glClearStencil(int a) {
+	}
+
+	@Override
+	public void glColorMask(boolean a, boolean b, boolean c, boolean d) {
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int a, int b, int c, int d, int e, int f, int g, Buffer h) {
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int a, int b, int c, int d, int e, int f, int g, int h, Buffer i) {
+	}
+
+	@Override
+	public void glCopyTexImage2D(int a, int b, int c, int d, int e, int f, int g, int h) {
+	}
+
+	@Override
+	public void glCopyTexSubImage2D(int a, int b, int c, int d, int e, int f, int g, int h) {
+	}
+
+	@Override
+	public void glCullFace(int a) {
+	}
+
+	@Override
+	public void glDeleteTextures(int a, IntBuffer b) {
+	}
+
+	@Override
+	public void glDeleteTexture(int a) {
+	}
+
+	@Override
+	public void glDepthFunc(int a) {
+	}
+
+	@Override
+	public void glDepthMask(boolean a) {
+	}
+
+	@Override
+	public void glDepthRangef(float a, float b) {
+	}
+
+	@Override
+	public void glDisable(int a) {
+	}
+
+	@Override
+	public void glDrawArrays(int a, int b, int c) {
+	}
+
+	@Override
+	public void glDrawElements(int a, int b, int c, Buffer d) {
+	}
+
+	@Override
+	public void glEnable(int a) {
+	}
+
+	@Override
+	public void glFinish() {
+	}
+
+	@Override
+	public void glFlush() {
+	}
+
+	@Override
+	public void glFrontFace(int a) {
+	}
+
+	@Override
+	public void glGenTextures(int a, IntBuffer b) {
+	}
+
+	@Override
+	public int glGenTexture() {
+		return 1;
+	}
+
+	@Override
+	public int glGetError() {
+		return 0;
+	}
+
+	@Override
+	public void glGetIntegerv(int a, IntBuffer b) {
+	}
+
+	@Override
+	public String glGetString(int a) {
+		return "";
+	}
+
+	@Override
+	public void glHint(int a, int b) {
+	}
+
+	@Override
+	public void glLineWidth(float a) {
+	}
+
+	@Override
+	public void glPixelStorei(int a, int b) {
+	}
+
+	@Override
+	public void glPolygonOffset(float a, float b) {
+	}
+
+	@Override
+	public void glReadPixels(int a, int b, int c, int d, int e, int f, Buffer g) {
+	}
+
+	@Override
+	public void glScissor(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glStencilFunc(int a, int b, int c) {
+	}
+
+	@Override
+	public void glStencilMask(int a) {
+	}
+
+	@Override
+	public void glStencilOp(int a, int b, int c) {
+	}
+
+	@Override
+	public void glTexImage2D(int a, int b, int c, int d, int e, int f, int g, int h, Buffer i) {
+	}
+
+	@Override
+	public void glTexParameterf(int a, int b, float c) {
+	}
+
+	@Override
+	public void glTexSubImage2D(int a, int b, int c, int d, int e, int f, int g, int h, Buffer i) {
+	}
+
+	@Override
+	public void glViewport(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glAttachShader(int a, int b) {
+	}
+
+	@Override
+	public void glBindAttribLocation(int a, int b, String c) {
+	}
+
+	@Override
+	public void glBindBuffer(int a, int b) {
+	}
+
+	@Override
+	public void glBindFramebuffer(int a, int b) {
+	}
+
+	@Override
+	public void glBindRenderbuffer(int a, int b) {
+	}
+
+	@Override
+	public void glBlendColor(float a, float b, float c, float d) {
+	}
+
+	@Override
+	public void glBlendEquation(int a) {
+	}
+
+	@Override
+	public void glBlendEquationSeparate(int a, int b) {
+	}
+
+	@Override
+	public void glBlendFuncSeparate(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glBufferData(int a, int b, Buffer c, int d) {
+	}
+
+	@Override
+	public void glBufferSubData(int a, int b, int c, Buffer d) {
+	}
+
+	@Override
+	public int glCheckFramebufferStatus(int a) {
+		return 0;
+	}
+
+	@Override
+	public void glCompileShader(int a) {
+	}
+
+	@Override
+	public int glCreateProgram() {
+		return 1;
+	}
+
+	@Override
+	public int glCreateShader(int a) {
+		return 1;
+	}
+
+	@Override
+	public void glDeleteBuffer(int a) {
+	}
+
+	@Override
+	public void glDeleteBuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public void glDeleteFramebuffer(int a) {
+	}
+
+	@Override
+	public void glDeleteFramebuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public void glDeleteProgram(int a) {
+	}
+
+	@Override
+	public void glDeleteRenderbuffer(int a) {
+	}
+
+	@Override
+	public void glDeleteRenderbuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public void glDeleteShader(int a) {
+	}
+
+	@Override
+	public void glDetachShader(int a, int b) {
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int a) {
+	}
+
+	@Override
+	public void glDrawElements(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int a) {
+	}
+
+	@Override
+	public void glFramebufferRenderbuffer(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glFramebufferTexture2D(int a, int b, int c, int d, int e) {
+	}
+
+	@Override
+	public int glGenBuffer() {
+		return 1;
+	}
+
+	@Override
+	public void glGenBuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public void glGenerateMipmap(int a) {
+	}
+
+	@Override
+	public int glGenFramebuffer() {
+		return 1;
+	}
+
+	@Override
+	public void glGenFramebuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public int glGenRenderbuffer() {
+		return 1;
+	}
+
+	@Override
+	public void glGenRenderbuffers(int a, IntBuffer b) {
+	}
+
+	@Override
+	public String glGetActiveAttrib(int a, int b, IntBuffer c, Buffer d) {
+		return "";
+	}
+
+	@Override
+	public String glGetActiveUniform(int a, int b, IntBuffer c, Buffer d) {
+		return "";
+	}
+
+	@Override
+	public void glGetAttachedShaders(int a, int b, Buffer c, IntBuffer d) {
+	}
+
+	@Override
+	public int glGetAttribLocation(int a, String b) {
+		return 0;
+	}
+
+	@Override
+	public void glGetBooleanv(int a, Buffer b) {
+	}
+
+	@Override
+	public void glGetBufferParameteriv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glGetFloatv(int a, FloatBuffer b) {
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv(int a, int b, int c, IntBuffer d) {
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, IntBuffer params) {
+		params.put(0, pname == GL_ACTIVE_ATTRIBUTES || pname == GL_ACTIVE_UNIFORMS ? 0 : 1);
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int a) {
+		return "";
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+		params.put(0, pname == GL_ACTIVE_ATTRIBUTES || pname == GL_ACTIVE_UNIFORMS ? 0 : 1);
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int a) {
+		return "";
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int a, int b, IntBuffer c, IntBuffer d) {
+	}
+
+	@Override
+	public void glGetTexParameterfv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glGetTexParameteriv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glGetUniformfv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glGetUniformiv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public int glGetUniformLocation(int a, String b) {
+		return 0;
+	}
+
+	@Override
+	public void glGetVertexAttribfv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glGetVertexAttribiv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glGetVertexAttribPointerv(int a, int b, Buffer c) {
+	}
+
+	@Override
+	public boolean glIsBuffer(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsEnabled(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsFramebuffer(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsProgram(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsRenderbuffer(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsShader(int a) {
+		return false;
+	}
+
+	@Override
+	public boolean glIsTexture(int a) {
+		return false;
+	}
+
+	@Override
+	public void glLinkProgram(int a) {
+	}
+
+	@Override
+	public void glReleaseShaderCompiler() {
+	}
+
+	@Override
+	public void glRenderbufferStorage(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glSampleCoverage(float a, boolean b) {
+	}
+
+	@Override
+	public void glShaderBinary(int a, IntBuffer b, int c, Buffer d, int e) {
+	}
+
+	@Override
+	public void glShaderSource(int a, String b) {
+	}
+
+	@Override
+	public void glStencilFuncSeparate(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glStencilMaskSeparate(int a, int b) {
+	}
+
+	@Override
+	public void glStencilOpSeparate(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glTexParameterfv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glTexParameteri(int a, int b, int c) {
+	}
+
+	@Override
+	public void glTexParameteriv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glUniform1f(int a, float b) {
+	}
+
+	@Override
+	public void glUniform1fv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glUniform1fv(int a, int b, float[] c, int d) {
+	}
+
+	@Override
+	public void glUniform1i(int a, int b) {
+	}
+
+	@Override
+	public void glUniform1iv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glUniform1iv(int a, int b, int[] c, int d) {
+	}
+
+	@Override
+	public void glUniform2f(int a, float b, float c) {
+	}
+
+	@Override
+	public void glUniform2fv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glUniform2fv(int a, int b, float[] c, int d) {
+	}
+
+	@Override
+	public void glUniform2i(int a, int b, int c) {
+	}
+
+	@Override
+	public void glUniform2iv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glUniform2iv(int a, int b, int[] c, int d) {
+	}
+
+	@Override
+	public void glUniform3f(int a, float b, float c, float d) {
+	}
+
+	@Override
+	public void glUniform3fv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glUniform3fv(int a, int b, float[] c, int d) {
+	}
+
+	@Override
+	public void glUniform3i(int a, int b, int c, int d) {
+	}
+
+	@Override
+	public void glUniform3iv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glUniform3iv(int a, int b, int[] c, int d) {
+	}
+
+	@Override
+	public void glUniform4f(int a, float b, float c, float d, float e) {
+	}
+
+	@Override
+	public void glUniform4fv(int a, int b, FloatBuffer c) {
+	}
+
+	@Override
+	public void glUniform4fv(int a, int b, float[] c, int d) {
+	}
+
+	@Override
+	public void glUniform4i(int a, int b, int c, int d, int e) {
+	}
+
+	@Override
+	public void glUniform4iv(int a, int b, IntBuffer c) {
+	}
+
+	@Override
+	public void glUniform4iv(int a, int b, int[] c, int d) {
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int a, int b, boolean c, FloatBuffer d) {
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int a, int b, boolean c, float[] d, int e) {
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int a, int b, boolean c, FloatBuffer d) {
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int a, int b, boolean c, float[] d, int e) {
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int a, int b, boolean c, FloatBuffer d) {
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int a, int b, boolean c, float[] d, int e) {
+	}
+
+	@Override
+	public void glUseProgram(int a) {
+	}
+
+	@Override
+	public void glValidateProgram(int a) {
+	}
+
+	@Override
+	public void glVertexAttrib1f(int a, float b) {
+	}
+
+	@Override
+	public void glVertexAttrib1fv(int a, FloatBuffer b) {
+	}
+
+	@Override
+	public void glVertexAttrib2f(int a, float b, float c) {
+	}
+
+	@Override
+	public void glVertexAttrib2fv(int a, FloatBuffer b) {
+	}
+
+	@Override
+	public void glVertexAttrib3f(int a, float b, float c, float d) {
+	}
+
+	@Override
+	public void glVertexAttrib3fv(int a, FloatBuffer b) {
+	}
+
+	@Override
+	public void glVertexAttrib4f(int a, float b, float c, float d, float e) {
+	}
+
+	@Override
+	public void glVertexAttrib4fv(int a, FloatBuffer b) {
+	}
+
+	@Override
+	public void glVertexAttribPointer(int a, int b, int c, boolean d, int e, Buffer f) {
+	}
+
+	@Override
+	public void glVertexAttribPointer(int a, int b, int c, boolean d, int e, int f) {
+	}
+}
@@ -0,0 +1,139 @@
+package com.smeanox.games.sg002.debug;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.BitmapFontRapper;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.MapObjectType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Replaces OpenGL with {@link MockGL20}, which does nothing, so SpriteBatches, SpriteCaches and Textures can be used in
+ * tests and benchmarks without a window. Nothing is drawn, but the batches do all the work of the CPU.
+ *
+ * @author Benjamin Schmid
+ */
+public class MockGraphics {
+	private static Texture texture;
+
+	/**
+	 * Answers every call of Gdx.app and Gdx.graphics with a default value, the screen is 1280x720
+	 */
+	private static class MockHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name)) {
+				return "MockGraphics";
+			}
+			if ("getWidth".equals(name)) {
+				return 1280;
+			}
+			if ("getHeight".equals(name)) {
+				return 720;
+			}
+			if ("getType".equals(name)) {
+				return Application.ApplicationType.HeadlessDesktop;
+			}
+			Class<?> returnType = method.getReturnType();
+			if (returnType == int.class) {
+				return 0;
+			} else if (returnType == boolean.class) {
+				return false;
+			} else if (returnType == float.class) {
+				return 0f;
+			} else if (returnType == long.class) {
+				return 0L;
+			} else if (returnType == String.class) {
+				return "";
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Install the mock as Gdx.gl, Gdx.graphics and Gdx.app
+	 */
+	public static void install() {
+		MockHandler handler = new MockHandler();
+		Gdx.gl = Gdx.gl20 = new MockGL20();
+		Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(),
+				new Class<?>[]{Graphics.class}, handler);
+		Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(),
+				new Class<?>[]{Application.class}, handler);
+	}
+
+	/**
+	 * Remove the mock again
+	 */
+	public static void uninstall() {
+		if (texture != null) {
+			texture.dispose();
+			texture = null;
+		}
+		Gdx.gl = Gdx.gl20 = null;
+		Gdx.graphics = null;
+		Gdx.app = null;
+	}
+
+	/**
+	 * Replace the Assets the GameView uses with a blank texture, and the font with one that only knows digits
+	 */
+	public static void createAssets() {
+		Pixmap pixmap = new Pixmap(64, 64, Pixmap.Format.RGBA8888);
+		pixmap.setColor(Color.WHITE);
+		pixmap.fill();
+		texture = new Texture(pixmap);
+		pixmap.dispose();
+
+		TextureRegion region = new TextureRegion(texture, 0, 0, 16, 16);
+		Assets.background = texture;
+		Assets.selection = region;
+		Assets.healthbar = region;
+		Assets.grid = region;
+		Assets.possibleFieldMove = region;
+		Assets.possibleFieldFight = region;
+		Assets.possibleFieldProduce = region;
+		Assets.white = region;
+		for (GameObjectType gameObjectType : GameObjectType.getAllGameObjectTypes()) {
+			gameObjectType.setTexture(region);
+		}
+		for (MapObjectType mapObjectType : MapObjectType.getMapObjectTypes()) {
+			mapObjectType.setTexture(region);
+		}
+
+		BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+		for (char c = '0'; c <= '9'; c++) {
+			BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+			glyph.id = c;
+			glyph.srcX = (c - '0') * 6;
+			glyph.srcY = 16;
+			glyph.width = 6;
+			glyph.height = 8;
+			glyph.xadvance = 6;
+			data.setGlyph(c, glyph);
+		}
+		data.lineHeight = 8f;
+		data.capHeight = 8f;
+		data.down = -8f;
+		data.spaceWidth = 6f;
+		data.xHeight = 6f;
+		Assets.liberationMicroShadow = new BitmapFontRapper(new BitmapFont(data, new TextureRegion(texture), false));
+	}
+}
@@ -0,0 +1,406 @@
+package com.smeanox.games.sg002.debug;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.smeanox.games.sg002.util.Consts;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Hierarchical profiler to measure the time used by scopes of the code. A scope is registered once with
+ * {@link #register(String)} and then measured with {@link #start(int)} and {@link #stop()}, which can be nested.
+ * <p>
+ * Each thread writes the finished scopes into its own preallocated ring buffer, so measuring a scope doesn't allocate
+ * and doesn't lock. The buffers are collected by {@link #endFrame()} and {@link #endTurn()}, which aggregate the times
+ * per frame and per turn, see {@link ProfilerStats}. If a buffer is full before it is collected, the scopes are
+ * dropped and counted.
+ * <p>
+ * The times are aggregated per scope, a scope that is nested in different scopes is shown below the first one.
+ *
+ * @author Benjamin Schmid
+ */
+public class Profiler {
+	private static Profiler singleton;
+
+	private Array<String> names;
+	/**
+	 * the scope each scope was first nested in, -1 for none, -2 if it didn't run yet
+	 */
+	private IntArray parents;
+	private Array<ProfilerStats> frameStats;
+	private Array<ProfilerStats> turnStats;
+
+	private Array<EventBuffer> buffers;
+	private ThreadLocal<EventBuffer> threadBuffer;
+	private long dropped;
+	private boolean enabled;
+
+	/**
+	 * Create a new instance
+	 */
+	private Profiler() {
+		names = new Array<String>();
+		parents = new IntArray();
+		frameStats = new Array<ProfilerStats>();
+		turnStats = new Array<ProfilerStats>();
+		buffers = new Array<EventBuffer>();
+		threadBuffer = new ThreadLocal<EventBuffer>() {
+			@Override
+			protected EventBuffer initialValue() {
+				EventBuffer buffer = new EventBuffer(Consts.profilerBufferSize, Consts.profilerMaxDepth);
+				synchronized (Profiler.this) {
+					buffers.add(buffer);
+				}
+				return buffer;
+			}
+		};
+		enabled = Consts.profilerEnabled;
+	}
+
+	/**
+	 * Returns the singleton instance
+	 *
+	 * @return the singleton instance
+	 */
+	public static synchronized Profiler get() {
+		if (singleton == null) {
+			singleton = new Profiler();
+		}
+		return singleton;
+	}
+
+	/**
+	 * Register a scope, usually once in a static initializer
+	 *
+	 * @param name the name of the scope
+	 * @return the id of the scope, the same id if the name was registered before
+	 */
+	public synchronized int register(String name) {
+		int index = names.indexOf(name, false);
+		if (index >= 0) {
+			return index;
+		}
+		names.add(name);
+		parents.add(-2);
+		frameStats.add(new ProfilerStats(Consts.profilerHistorySize));
+		turnStats.add(new ProfilerStats(Consts.profilerHistorySize));
+		return names.size - 1;
+	}
+
+	/**
+	 * Enable or disable measuring. Scopes that were started while measuring was disabled are not measured.
+	 *
+	 * @param enabled whether to measure the scopes
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Whether the scopes are measured
+	 *
+	 * @return true if the scopes are measured
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Start a scope, it is nested in the last scope of this thread that wasn't stopped yet
+	 *
+	 * @param scope the id of the scope
+	 */
+	public void start(int scope) {
+		threadBuffer.get().start(enabled ? scope : -1);
+	}
+
+	/**
+	 * Stop the last scope of this thread that wasn't stopped yet
+	 */
+	public void stop() {
+		threadBuffer.get().stop();
+	}
+
+	/**
+	 * Collect the scopes of all threads and close the current frame
+	 */
+	public synchronized void endFrame() {
+		collect();
+		for (int i = 0; i < frameStats.size; i++) {
+			frameStats.get(i).endWindow();
+		}
+	}
+
+	/**
+	 * Collect the scopes of all threads and close the current turn
+	 */
+	public synchronized void endTurn() {
+		collect();
+		for (int i = 0; i < turnStats.size; i++) {
+			turnStats.get(i).endWindow();
+		}
+	}
+
+	/**
+	 * Add the scopes that finished since the last call to the stats of the current frame and turn
+	 */
+	private void collect() {
+		for (int i = 0; i < buffers.size; i++) {
+			EventBuffer buffer = buffers.get(i);
+			long head = buffer.head;
+			for (long tail = buffer.tail; tail < head; tail++) {
+				int index = (int) (tail % buffer.scopes.length);
+				int scope = buffer.scopes[index];
+				if (parents.get(scope) == -2) {
+					parents.set(scope, buffer.parents[index]);
+				}
+				frameStats.get(scope).add(buffer.times[index], buffer.selfTimes[index]);
+				turnStats.get(scope).add(buffer.times[index], buffer.selfTimes[index]);
+			}
+			buffer.tail = head;
+			int aDropped = buffer.dropped;
+			dropped += aDropped - buffer.collectedDropped;
+			buffer.collectedDropped = aDropped;
+		}
+	}
+
+	/**
+	 * Forget all measured times, the registered scopes are kept
+	 */
+	public synchronized void reset() {
+		collect();
+		for (int i = 0; i < names.size; i++) {
+			parents.set(i, -2);
+			frameStats.get(i).reset();
+			turnStats.get(i).reset();
+		}
+		dropped = 0;
+	}
+
+	/**
+	 * Return the number of registered scopes, the ids are 0 to this number - 1
+	 *
+	 * @return the number of scopes
+	 */
+	public synchronized int getScopeCount() {
+		return names.size;
+	}
+
+	/**
+	 * Return the name of a scope
+	 *
+	 * @param scope the id of the scope
+	 * @return the name
+	 */
+	public synchronized String getName(int scope) {
+		return names.get(scope);
+	}
+
+	/**
+	 * Return the scope the given scope was first nested in
+	 *
+	 * @param scope the id of the scope
+	 * @return the id of the parent, -1 if it wasn't nested, -2 if it didn't run yet
+	 */
+	public synchronized int getParent(int scope) {
+		return parents.get(scope);
+	}
+
+	/**
+	 * Return the times of a scope per frame, as of the last {@link #endFrame()}
+	 *
+	 * @param scope the id of the scope
+	 * @return the stats
+	 */
+	public synchronized ProfilerStats getFrameStats(int scope) {
+		return frameStats.get(scope);
+	}
+
+	/**
+	 * Return the times of a scope per turn, as of the last {@link #endTurn()}
+	 *
+	 * @param scope the id of the scope
+	 * @return the stats
+	 */
+	public synchronized ProfilerStats getTurnStats(int scope) {
+		return turnStats.get(scope);
+	}
+
+	/**
+	 * Return the number of scopes that were dropped because a buffer was full
+	 *
+	 * @return the number of scopes
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Write the stats of all scopes that ran as CSV, one line per scope for the frames and one for the turns. The
+	 * times are in milliseconds, the percentiles are over the time per frame or turn of the last
+	 * {@link Consts#profilerHistorySize} frames or turns.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeCsv(Writer writer) throws IOException {
+		writer.write("window,scope,parent,windows,count,total_ms,self_ms,max_ms,mean_ms,p50_ms,p99_ms\n");
+		writeCsv(writer, "frame", frameStats);
+		writeCsv(writer, "turn", turnStats);
+	}
+
+	/**
+	 * Write the stats of all scopes that ran as CSV
+	 *
+	 * @param writer the writer to write to
+	 * @param window the name of the window
+	 * @param stats  the stats of the scopes
+	 * @throws IOException if writing fails
+	 */
+	private void writeCsv(Writer writer, String window, Array<ProfilerStats> stats) throws IOException {
+		for (int i = 0; i < names.size; i++) {
+			ProfilerStats aStats = stats.get(i);
+			if (aStats.getWindows() == 0 || aStats.getCount() == 0) {
+				continue;
+			}
+			writer.write(String.format(Locale.US, "%s,%s,%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n", window,
+					names.get(i), parents.get(i) >= 0 ? names.get(parents.get(i)) : "",
+					aStats.getWindows(), aStats.getCount(), toMillis(aStats.getTotal()),
+					toMillis(aStats.getSelf()), toMillis(aStats.getMax()),
+					toMillis(aStats.getTotal()) / aStats.getWindows(), toMillis(aStats.getPercentile(0.5f)),
+					toMillis(aStats.getPercentile(0.99f))));
+		}
+	}
+
+	/**
+	 * Write the stats of all scopes that ran as CSV to the given file
+	 *
+	 * @param file the file
+	 * @return true if the file was written
+	 * @see #writeCsv(Writer)
+	 */
+	public boolean dumpCsv(FileHandle file) {
+		Writer writer = file.writer(false, "UTF-8");
+		try {
+			writeCsv(writer);
+			if (getDropped() > 0) {
+				System.out.println("Profiler dropped " + getDropped() + " scopes");
+			}
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		} finally {
+			try {
+				writer.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * Convert nanoseconds to milliseconds
+	 *
+	 * @param nanos the time in nanoseconds
+	 * @return the time in milliseconds
+	 */
+	public static float toMillis(long nanos) {
+		return nanos / 1000000f;
+	}
+
+	/**
+	 * The scopes of one thread. Only the thread writes the scopes and moves the head, only the collecting thread
+	 * reads them and moves the tail.
+	 */
+	private static class EventBuffer {
+		final int[] scopes;
+		final int[] parents;
+		final long[] times;
+		final long[] selfTimes;
+		volatile long head;
+		volatile long tail;
+		volatile int dropped;
+		/**
+		 * the value of dropped at the last collection, only used by the collecting thread
+		 */
+		int collectedDropped;
+
+		/**
+		 * the scopes that were started but not stopped yet
+		 */
+		final int[] stack;
+		final long[] startTimes;
+		/**
+		 * the time of the nested scopes of the scopes on the stack
+		 */
+		final long[] childTimes;
+		int depth;
+
+		/**
+		 * Create a new instance
+		 *
+		 * @param size     the number of finished scopes the buffer can hold
+		 * @param maxDepth the maximal depth of nested scopes, deeper scopes are not measured
+		 */
+		EventBuffer(int size, int maxDepth) {
+			scopes = new int[size];
+			parents = new int[size];
+			times = new long[size];
+			selfTimes = new long[size];
+			stack = new int[maxDepth];
+			startTimes = new long[maxDepth];
+			childTimes = new long[maxDepth];
+		}
+
+		/**
+		 * Push a scope
+		 *
+		 * @param scope the id of the scope, -1 to not measure it
+		 */
+		void start(int scope) {
+			if (depth < stack.length) {
+				stack[depth] = scope;
+				childTimes[depth] = 0;
+				startTimes[depth] = System.nanoTime();
+			}
+			depth++;
+		}
+
+		/**
+		 * Pop a scope and write it to the buffer
+		 */
+		void stop() {
+			long now = System.nanoTime();
+			if (depth == 0) {
+				return;
+			}
+			depth--;
+			if (depth >= stack.length) {
+				return;
+			}
+			long time = now - startTimes[depth];
+			if (depth > 0) {
+				childTimes[depth - 1] += time;
+			}
+			if (stack[depth] < 0) {
+				return;
+			}
+
+			long aHead = head;
+			if (aHead - tail >= scopes.length) {
+				dropped++;
+				return;
+			}
+			int index = (int) (aHead % scopes.length);
+			scopes[index] = stack[depth];
+			parents[index] = depth > 0 ? stack[depth - 1] : -1;
+			times[index] = time;
+			selfTimes[index] = time - childTimes[depth];
+			// publish the scope only after it is written
+			head = aHead + 1;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.smeanox.games.sg002.debug;
+
+import java.util.Arrays;
+
+/**
+ * The times of one scope of the {@link Profiler}, aggregated over windows, i.e. frames or turns. The total time of
+ * the scope in each of the last windows is kept, so percentiles can be computed.
+ *
+ * @author Benjamin Schmid
+ */
+public class ProfilerStats {
+	/**
+	 * the total time of the scope in the last windows, a ring buffer
+	 */
+	private long[] history;
+	private long[] sorted;
+	private int historySize;
+	private int historyStart;
+
+	private int windowCount;
+	private long windowTotal;
+	private long windowSelf;
+	private long windowMax;
+
+	private int lastCount;
+	private long lastTotal;
+	private long lastMax;
+
+	private int windows;
+	private long count;
+	private long total;
+	private long self;
+	private long max;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param historySize the number of windows kept for the percentiles
+	 */
+	ProfilerStats(int historySize) {
+		history = new long[historySize];
+		sorted = new long[historySize];
+	}
+
+	/**
+	 * Add one run of the scope to the current window
+	 *
+	 * @param time     the time of the run in nanoseconds
+	 * @param selfTime the time of the run without the nested scopes
+	 */
+	void add(long time, long selfTime) {
+		windowCount++;
+		windowTotal += time;
+		windowSelf += selfTime;
+		windowMax = Math.max(windowMax, time);
+	}
+
+	/**
+	 * Close the current window and start a new one
+	 */
+	void endWindow() {
+		if (historySize < history.length) {
+			history[(historyStart + historySize) % history.length] = windowTotal;
+			historySize++;
+		} else {
+			history[historyStart] = windowTotal;
+			historyStart = (historyStart + 1) % history.length;
+		}
+		windows++;
+		count += windowCount;
+		total += windowTotal;
+		self += windowSelf;
+		max = Math.max(max, windowMax);
+		lastCount = windowCount;
+		lastTotal = windowTotal;
+		lastMax = windowMax;
+		windowCount = 0;
+		windowTotal = 0;
+		windowSelf = 0;
+		windowMax = 0;
+	}
+
+	/**
+	 * Forget everything
+	 */
+	void reset() {
+		historySize = 0;
+		historyStart = 0;
+		windowCount = 0;
+		windowTotal = 0;
+		windowSelf = 0;
+		windowMax = 0;
+		lastCount = 0;
+		lastTotal = 0;
+		lastMax = 0;
+		windows = 0;
+		count = 0;
+		total = 0;
+		self = 0;
+		max = 0;
+	}
+
+	/**
+	 * The number of windows closed so far
+	 *
+	 * @return the number of windows
+	 */
+	public int getWindows() {
+		return windows;
+	}
+
+	/**
+	 * The number of runs in all windows
+	 *
+	 * @return the number of runs
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * The time of all runs in all windows
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * The time of all runs in all windows without the nested scopes
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getSelf() {
+		return self;
+	}
+
+	/**
+	 * The time of the longest run
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * The number of runs in the last window
+	 *
+	 * @return the number of runs
+	 */
+	public int getLastCount() {
+		return lastCount;
+	}
+
+	/**
+	 * The time of all runs in the last window
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getLastTotal() {
+		return lastTotal;
+	}
+
+	/**
+	 * The time of the longest run in the last window
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getLastMax() {
+		return lastMax;
+	}
+
+	/**
+	 * The number of windows in the history
+	 *
+	 * @return the number of windows
+	 */
+	public int getHistorySize() {
+		return historySize;
+	}
+
+	/**
+	 * The time of all runs in a window of the history
+	 *
+	 * @param index the index of the window, 0 is the oldest one
+	 * @return the time in nanoseconds
+	 */
+	public long getHistory(int index) {
+		return history[(historyStart + index) % history.length];
+	}
+
+	/**
+	 * The given percentile of the time per window over the windows in the history
+	 *
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the time in nanoseconds, 0 if there are no windows yet
+	 */
+	public long getPercentile(float percentile) {
+		if (historySize == 0) {
+			return 0;
+		}
+		for (int i = 0; i < historySize; i++) {
+			sorted[i] = getHistory(i);
+		}
+		Arrays.sort(sorted, 0, historySize);
+		int index = (int) Math.ceil(percentile * historySize) - 1;
+		return sorted[Math.max(0, Math.min(historySize - 1, index))];
+	}
+}
@@ -0,0 +1,73 @@
+package com.smeanox.games.sg002.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A value that only grows, e.g. the number of applied actions
+ *
+ * @author Benjamin Schmid
+ */
+public class Counter extends Metric {
+	private final AtomicLongArray cells;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param name the name
+	 */
+	Counter(String name) {
+		super(name);
+		cells = new AtomicLongArray(stripes * padding);
+	}
+
+	/**
+	 * Add one
+	 */
+	public void inc() {
+		cells.getAndIncrement(stripe() * padding);
+	}
+
+	/**
+	 * Add the given amount
+	 *
+	 * @param amount the amount
+	 */
+	public void add(long amount) {
+		cells.getAndAdd(stripe() * padding, amount);
+	}
+
+	/**
+	 * Return the sum of all additions
+	 *
+	 * @return the value
+	 */
+	public long get() {
+		long sum = 0;
+		for (int i = 0; i < stripes; i++) {
+			sum += cells.get(i * padding);
+		}
+		return sum;
+	}
+
+	@Override
+	public String getType() {
+		return "counter";
+	}
+
+	@Override
+	void appendJson(StringBuilder stringBuilder) {
+		stringBuilder.append("\"value\":").append(get());
+	}
+
+	@Override
+	void appendCsv(StringBuilder stringBuilder) {
+		stringBuilder.append(get()).append(",,,,,");
+	}
+
+	@Override
+	void reset() {
+		for (int i = 0; i < stripes; i++) {
+			cells.set(i * padding, 0);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.smeanox.games.sg002.metrics;
+
+/**
+ * A value that is set, e.g. the number of GameObjects alive
+ *
+ * @author Benjamin Schmid
+ */
+public class Gauge extends Metric {
+	private volatile long value;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param name the name
+	 */
+	Gauge(String name) {
+		super(name);
+	}
+
+	/**
+	 * Set the value
+	 *
+	 * @param value the value
+	 */
+	public void set(long value) {
+		this.value = value;
+	}
+
+	/**
+	 * Return the last value set
+	 *
+	 * @return the value
+	 */
+	public long get() {
+		return value;
+	}
+
+	@Override
+	public String getType() {
+		return "gauge";
+	}
+
+	@Override
+	void appendJson(StringBuilder stringBuilder) {
+		stringBuilder.append("\"value\":").append(value);
+	}
+
+	@Override
+	void appendCsv(StringBuilder stringBuilder) {
+		stringBuilder.append(value).append(",,,,,");
+	}
+
+	@Override
+	void reset() {
+		value = 0;
+	}
+}
@@ -0,0 +1,178 @@
+package com.smeanox.games.sg002.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of a value, e.g. the duration of a turn in nanoseconds. The values are counted in buckets whose
+ * bounds are powers of two: bucket 0 holds 0, bucket i holds the values from 2^(i-1) to 2^i - 1. So the percentiles
+ * are only exact up to a factor of two, but recording a value is a few atomic additions.
+ *
+ * @author Benjamin Schmid
+ */
+public class Histogram extends Metric {
+	static final int bucketCount = 64;
+
+	/**
+	 * the buckets of each cell, one after another
+	 */
+	private final AtomicLongArray buckets;
+	/**
+	 * count and sum of each cell
+	 */
+	private final AtomicLongArray sums;
+	private final AtomicLong max;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param name the name
+	 */
+	Histogram(String name) {
+		super(name);
+		buckets = new AtomicLongArray(stripes * bucketCount);
+		sums = new AtomicLongArray(stripes * padding);
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Return the bucket of the given value
+	 *
+	 * @param value the value, negative values count as 0
+	 * @return the index of the bucket
+	 */
+	static int getBucket(long value) {
+		if (value <= 0) {
+			return 0;
+		}
+		return Math.min(bucketCount - 1, 64 - Long.numberOfLeadingZeros(value));
+	}
+
+	/**
+	 * Record a value
+	 *
+	 * @param value the value
+	 */
+	public void record(long value) {
+		int stripe = stripe();
+		buckets.getAndIncrement(stripe * bucketCount + getBucket(value));
+		sums.getAndIncrement(stripe * padding);
+		sums.getAndAdd(stripe * padding + 1, value);
+		long aMax = max.get();
+		while (value > aMax && !max.compareAndSet(aMax, value)) {
+			aMax = max.get();
+		}
+	}
+
+	/**
+	 * Return the number of recorded values
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		long sum = 0;
+		for (int i = 0; i < stripes; i++) {
+			sum += sums.get(i * padding);
+		}
+		return sum;
+	}
+
+	/**
+	 * Return the sum of the recorded values
+	 *
+	 * @return the sum
+	 */
+	public long getSum() {
+		long sum = 0;
+		for (int i = 0; i < stripes; i++) {
+			sum += sums.get(i * padding + 1);
+		}
+		return sum;
+	}
+
+	/**
+	 * Return the largest recorded value
+	 *
+	 * @return the value, 0 if nothing was recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Return the number of recorded values in the given bucket
+	 *
+	 * @param bucket the index of the bucket
+	 * @return the number of values
+	 */
+	public long getBucketCount(int bucket) {
+		long sum = 0;
+		for (int i = 0; i < stripes; i++) {
+			sum += buckets.get(i * bucketCount + bucket);
+		}
+		return sum;
+	}
+
+	/**
+	 * Return an upper bound of the given percentile: the upper bound of the bucket that contains it, but at most the
+	 * largest value
+	 *
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the value, 0 if nothing was recorded
+	 */
+	public long getPercentile(float percentile) {
+		long[] counts = new long[bucketCount];
+		long count = 0;
+		for (int i = 0; i < bucketCount; i++) {
+			counts[i] = getBucketCount(i);
+			count += counts[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long seen = 0;
+		for (int i = 0; i < bucketCount; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				long upperBound = i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+				return Math.min(upperBound, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	@Override
+	public String getType() {
+		return "histogram";
+	}
+
+	@Override
+	void appendJson(StringBuilder stringBuilder) {
+		stringBuilder.append("\"count\":").append(getCount())
+				.append(",\"sum\":").append(getSum())
+				.append(",\"max\":").append(getMax())
+				.append(",\"p50\":").append(getPercentile(0.5f))
+				.append(",\"p99\":").append(getPercentile(0.99f));
+	}
+
+	@Override
+	void appendCsv(StringBuilder stringBuilder) {
+		stringBuilder.append(',').append(getCount())
+				.append(',').append(getSum())
+				.append(',').append(getMax())
+				.append(',').append(getPercentile(0.5f))
+				.append(',').append(getPercentile(0.99f));
+	}
+
+	@Override
+	void reset() {
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, 0);
+		}
+		for (int i = 0; i < sums.length(); i++) {
+			sums.set(i, 0);
+		}
+		max.set(0);
+	}
+}
@@ -0,0 +1,84 @@
+package com.smeanox.games.sg002.metrics;
+
+/**
+ * A named value that is measured while the game runs, see {@link Metrics}. Counters and histograms are striped: each
+ * thread adds to one of several cells, which are only summed up when the value is read, so threads don't contend for
+ * the same cache line.
+ *
+ * @author Benjamin Schmid
+ */
+public abstract class Metric {
+	/**
+	 * the number of cells of a striped value, a power of two
+	 */
+	static final int stripes = computeStripes();
+	/**
+	 * the distance of two cells in longs, so they are in different cache lines
+	 */
+	static final int padding = 8;
+
+	private final String name;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param name the name
+	 */
+	Metric(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Return the type written to the exported files
+	 *
+	 * @return the type
+	 */
+	public abstract String getType();
+
+	/**
+	 * Append the values as members of a JSON object, without braces
+	 *
+	 * @param stringBuilder the StringBuilder to append to
+	 */
+	abstract void appendJson(StringBuilder stringBuilder);
+
+	/**
+	 * Append the values as the columns value, count, sum, max, p50 and p99 of a CSV line, empty if the metric doesn't
+	 * have them
+	 *
+	 * @param stringBuilder the StringBuilder to append to
+	 */
+	abstract void appendCsv(StringBuilder stringBuilder);
+
+	/**
+	 * Forget all values
+	 */
+	abstract void reset();
+
+	/**
+	 * Return the cell of the current thread
+	 *
+	 * @return the index of the cell, between 0 and {@link #stripes} - 1
+	 */
+	static int stripe() {
+		return (int) Thread.currentThread().getId() & (stripes - 1);
+	}
+
+	/**
+	 * Return the number of cells: the number of processors rounded up to a power of two, at most 16
+	 *
+	 * @return the number of cells
+	 */
+	private static int computeStripes() {
+		int processors = Math.min(16, Runtime.getRuntime().availableProcessors());
+		int sol = 1;
+		while (sol < processors) {
+			sol *= 2;
+		}
+		return sol;
+	}
+}
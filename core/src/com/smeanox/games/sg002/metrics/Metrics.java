@@ -0,0 +1,194 @@
+package com.smeanox.games.sg002.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Registry of all {@link Metric}s. A metric is created on the first request for its name and kept, so callers should
+ * keep the instance instead of looking it up every time. Reading the metrics, e.g. by the {@link MetricsExporter},
+ * doesn't stop the game from updating them.
+ *
+ * @author Benjamin Schmid
+ */
+public class Metrics {
+	private static Metrics singleton;
+
+	private LinkedHashMap<String, Metric> metrics;
+
+	/**
+	 * Create a new instance
+	 */
+	private Metrics() {
+		metrics = new LinkedHashMap<String, Metric>();
+	}
+
+	/**
+	 * Returns the singleton instance
+	 *
+	 * @return the singleton instance
+	 */
+	public static synchronized Metrics get() {
+		if (singleton == null) {
+			singleton = new Metrics();
+		}
+		return singleton;
+	}
+
+	/**
+	 * Return the counter with the given name, create it if necessary
+	 *
+	 * @param name the name
+	 * @return the counter
+	 * @throws IllegalArgumentException if there is another metric with the name
+	 */
+	public synchronized Counter counter(String name) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			metric = new Counter(name);
+			metrics.put(name, metric);
+		}
+		return cast(metric, Counter.class);
+	}
+
+	/**
+	 * Return the gauge with the given name, create it if necessary
+	 *
+	 * @param name the name
+	 * @return the gauge
+	 * @throws IllegalArgumentException if there is another metric with the name
+	 */
+	public synchronized Gauge gauge(String name) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			metric = new Gauge(name);
+			metrics.put(name, metric);
+		}
+		return cast(metric, Gauge.class);
+	}
+
+	/**
+	 * Return the histogram with the given name, create it if necessary
+	 *
+	 * @param name the name
+	 * @return the histogram
+	 * @throws IllegalArgumentException if there is another metric with the name
+	 */
+	public synchronized Histogram histogram(String name) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			metric = new Histogram(name);
+			metrics.put(name, metric);
+		}
+		return cast(metric, Histogram.class);
+	}
+
+	/**
+	 * Cast the metric to the requested type
+	 *
+	 * @param metric the metric
+	 * @param type   the requested type
+	 * @param <T>    the requested type
+	 * @return the metric
+	 * @throws IllegalArgumentException if the metric has another type
+	 */
+	private static <T extends Metric> T cast(Metric metric, Class<T> type) {
+		if (!type.isInstance(metric)) {
+			throw new IllegalArgumentException("Metric " + metric.getName() + " is a " + metric.getType());
+		}
+		return type.cast(metric);
+	}
+
+	/**
+	 * Return all metrics, in the order they were created
+	 *
+	 * @return a copy of the list of metrics
+	 */
+	public synchronized List<Metric> getMetrics() {
+		return new ArrayList<Metric>(metrics.values());
+	}
+
+	/**
+	 * Set all metrics back to 0, e.g. between two simulations
+	 */
+	public void reset() {
+		for (Metric metric : getMetrics()) {
+			metric.reset();
+		}
+	}
+
+	/**
+	 * Write the current values of all metrics as one line of JSON
+	 *
+	 * @param writer the writer to write to
+	 * @param time   the time of the snapshot in milliseconds
+	 * @throws IOException if writing fails
+	 */
+	public void writeJson(Writer writer, long time) throws IOException {
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append("{\"time\":").append(time).append(",\"metrics\":{");
+		boolean first = true;
+		for (Metric metric : getMetrics()) {
+			if (!first) {
+				stringBuilder.append(',');
+			}
+			first = false;
+			appendJsonString(stringBuilder, metric.getName());
+			stringBuilder.append(":{\"type\":\"").append(metric.getType()).append("\",");
+			metric.appendJson(stringBuilder);
+			stringBuilder.append('}');
+		}
+		stringBuilder.append("}}\n");
+		writer.write(stringBuilder.toString());
+	}
+
+	/**
+	 * Write the header of the CSV files
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 * @see #writeCsv(Writer, long)
+	 */
+	public static void writeCsvHeader(Writer writer) throws IOException {
+		writer.write("time,name,type,value,count,sum,max,p50,p99\n");
+	}
+
+	/**
+	 * Write the current values of all metrics as CSV, one line per metric
+	 *
+	 * @param writer the writer to write to
+	 * @param time   the time of the snapshot in milliseconds
+	 * @throws IOException if writing fails
+	 * @see #writeCsvHeader(Writer)
+	 */
+	public void writeCsv(Writer writer, long time) throws IOException {
+		StringBuilder stringBuilder = new StringBuilder();
+		for (Metric metric : getMetrics()) {
+			stringBuilder.append(time).append(',').append(metric.getName()).append(',').append(metric.getType())
+					.append(',');
+			metric.appendCsv(stringBuilder);
+			stringBuilder.append('\n');
+		}
+		writer.write(stringBuilder.toString());
+	}
+
+	/**
+	 * Append the given string as JSON string
+	 *
+	 * @param stringBuilder the StringBuilder to append to
+	 * @param string        the string
+	 */
+	private static void appendJsonString(StringBuilder stringBuilder, String string) {
+		stringBuilder.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '"' || c == '\\') {
+				stringBuilder.append('\\');
+			}
+			stringBuilder.append(c);
+		}
+		stringBuilder.append('"');
+	}
+}
@@ -0,0 +1,141 @@
+package com.smeanox.games.sg002.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Appends snapshots of all {@link Metrics} to a file at a fixed interval, on a background thread. The values are
+ * totals since the start (or the last {@link Metrics#reset()}), the rates can be computed from two snapshots.
+ *
+ * @author Benjamin Schmid
+ */
+public class MetricsExporter {
+	/**
+	 * The format of the file
+	 */
+	public enum Format {
+		/**
+		 * one JSON object per snapshot and line
+		 */
+		JSON_LINES,
+		/**
+		 * one line per snapshot and metric, with a header
+		 */
+		CSV
+	}
+
+	private final Metrics metrics;
+	private final File file;
+	private final Format format;
+	private final long interval;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param metrics  the metrics to export
+	 * @param file     the file to append to
+	 * @param format   the format of the file
+	 * @param interval the time between two snapshots in milliseconds
+	 */
+	public MetricsExporter(Metrics metrics, File file, Format format, long interval) {
+		this.metrics = metrics;
+		this.file = file;
+		this.format = format;
+		this.interval = interval;
+	}
+
+	/**
+	 * Choose the format by the extension of the file: CSV for .csv, JSON lines otherwise
+	 *
+	 * @param file the file
+	 * @return the format
+	 */
+	public static Format getFormat(File file) {
+		return file.getName().toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+	}
+
+	/**
+	 * Start writing snapshots
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			return;
+		}
+		running = true;
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (running) {
+					try {
+						Thread.sleep(interval);
+					} catch (InterruptedException e) {
+						// stop() writes the last snapshot
+						return;
+					}
+					export();
+				}
+			}
+		}, "MetricsExporter");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Stop writing snapshots and write a last one
+	 */
+	public synchronized void stop() {
+		if (thread == null) {
+			return;
+		}
+		running = false;
+		thread.interrupt();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+		export();
+	}
+
+	/**
+	 * Append a snapshot to the file
+	 *
+	 * @return true if it was written
+	 */
+	public boolean export() {
+		synchronized (file) {
+			boolean header = format == Format.CSV && (!file.exists() || file.length() == 0);
+			Writer writer = null;
+			try {
+				writer = new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8");
+				long time = System.currentTimeMillis();
+				if (format == Format.CSV) {
+					if (header) {
+						Metrics.writeCsvHeader(writer);
+					}
+					metrics.writeCsv(writer, time);
+				} else {
+					metrics.writeJson(writer, time);
+				}
+				return true;
+			} catch (IOException e) {
+				System.out.println("Metrics could not be written to " + file.getPath() + ": " + e.getMessage());
+				return false;
+			} finally {
+				if (writer != null) {
+					try {
+						writer.close();
+					} catch (IOException ignored) {
+					}
+				}
+			}
+		}
+	}
+}
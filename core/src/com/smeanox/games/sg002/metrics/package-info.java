@@ -0,0 +1,4 @@
+/**
+ * Contains the metrics registry and the exporter that writes the metrics to a file
+ */
+package com.smeanox.games.sg002.metrics;
\ No newline at end of file
@@ -2,10 +2,16 @@ package com.smeanox.games.sg002.player;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.metrics.Histogram;
+import com.smeanox.games.sg002.metrics.Metrics;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.world.GameObject;
 import com.smeanox.games.sg002.world.GameObjectType;
 
+import java.io.IOException;
 import java.util.LinkedList;
 
 /**
@@ -14,11 +20,27 @@ import java.util.LinkedList;
  * @author Benjamin Schmid
  */
 public abstract class AIPlayer extends Player {
+	/**
+	 * the scope of the {@link Profiler} that measures {@link #playAI()}
+	 */
+	public static final int scopePlayAI = Profiler.get().register("AIPlayer.playAI");
+
 	protected boolean finishedPlaying;
 	protected float aiSleepLeft;
 
 	protected long seed0, seed1;
 
+	/**
+	 * the random numbers of the AI, every AI has its own so games can be played on several threads at once and still
+	 * be reproduced from the seeds
+	 */
+	protected final RandomXS128 random = new RandomXS128();
+
+	/**
+	 * the time {@link #playAI()} takes, per class of AI
+	 */
+	private Histogram thinkTime;
+
 	@Override
 	public final void update(float delta) {
 		updateAI(delta);
@@ -34,25 +56,81 @@ public abstract class AIPlayer extends Player {
 	private void finishPlaying(){
 		finishedPlaying = false;
 
-		if(MathUtils.random instanceof RandomXS128) {
-			seed0 = ((RandomXS128) MathUtils.random).getState(0);
-			seed1 = ((RandomXS128) MathUtils.random).getState(1);
-		}
+		seed0 = random.getState(0);
+		seed1 = random.getState(1);
 
 		endPlaying();
 	}
 
 	@Override
 	protected final void play() {
-		if(MathUtils.random instanceof RandomXS128) {
-			if(seed0 == 0 && seed1 == 0){
-				seed0 = System.currentTimeMillis();
-				seed1 = MathUtils.random(Long.MIN_VALUE, Long.MAX_VALUE);
-			}
-			((RandomXS128) MathUtils.random).setState(seed0, seed1);
+		initRandomState();
+		random.setState(seed0, seed1);
+
+		if (thinkTime == null) {
+			thinkTime = Metrics.get().histogram("ai.thinkTime." + getClass().getSimpleName());
+		}
+		long startTime = System.nanoTime();
+		Profiler.get().start(scopePlayAI);
+		try {
+			playAI();
+		} finally {
+			Profiler.get().stop();
+			thinkTime.record(System.nanoTime() - startTime);
 		}
+	}
+
+	/**
+	 * Choose a random state if the AI didn't play yet
+	 */
+	private void initRandomState() {
+		if (seed0 == 0 && seed1 == 0) {
+			seed0 = System.currentTimeMillis();
+			seed1 = MathUtils.random(Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+	}
 
-		playAI();
+	/**
+	 * Return the first part of the random state the AI uses in its next turn
+	 *
+	 * @return seed0
+	 */
+	public long getSeed0() {
+		initRandomState();
+		return seed0;
+	}
+
+	/**
+	 * Return the second part of the random state the AI uses in its next turn
+	 *
+	 * @return seed1
+	 */
+	public long getSeed1() {
+		initRandomState();
+		return seed1;
+	}
+
+	/**
+	 * Set the random state the AI uses in its next turn, e.g. to play a recorded turn again
+	 *
+	 * @param seed0 first part of the state
+	 * @param seed1 second part of the state
+	 */
+	public void setRandomState(long seed0, long seed1) {
+		this.seed0 = seed0;
+		this.seed1 = seed1;
+	}
+
+	@Override
+	protected void saveImpl(XmlWriter writer) throws IOException {
+		writer.attribute("seed0", seed0);
+		writer.attribute("seed1", seed1);
+	}
+
+	@Override
+	protected void loadImpl(XmlReader.Element reader) {
+		seed0 = Long.parseLong(reader.getAttribute("seed0", "0"));
+		seed1 = Long.parseLong(reader.getAttribute("seed1", "0"));
 	}
 
 	/**
@@ -255,7 +333,7 @@ public abstract class AIPlayer extends Player {
 		if (allFields.isEmpty()) {
 			return -1;
 		}
-		return allFields.get(MathUtils.random(allFields.size() - 1));
+		return allFields.get(random.nextInt(allFields.size()));
 	}
 
 	/**
@@ -293,7 +371,7 @@ public abstract class AIPlayer extends Player {
 		if (allFields.isEmpty()) {
 			return -1;
 		}
-		return allFields.get(MathUtils.random(allFields.size() - 1));
+		return allFields.get(random.nextInt(allFields.size()));
 	}
 
 	/**
@@ -331,7 +409,7 @@ public abstract class AIPlayer extends Player {
 		if (allFields.isEmpty()) {
 			return -1;
 		}
-		return allFields.get(MathUtils.random(allFields.size() - 1));
+		return allFields.get(random.nextInt(allFields.size()));
 	}
 
 	/**
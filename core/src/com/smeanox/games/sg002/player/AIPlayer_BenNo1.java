@@ -1,17 +1,115 @@
 package com.smeanox.games.sg002.player;
 
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlWriter;
 import com.smeanox.games.sg002.world.GameObjectType;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedList;
 
 /**
  * AI No1 by Benjamin
+ * <p>
+ * Its behaviour is controlled by a vector of parameters, see {@link #parameterNames}, so it can be tuned by self-play.
  *
  * @author Benjamin Schmid
  */
 public class AIPlayer_BenNo1 extends AIPlayer {
+	/**
+	 * index of the number of villagers that are produced before the army
+	 */
+	public static final int paramVillagers = 0;
+	/**
+	 * index of the chance that a town center doesn't produce a military unit
+	 */
+	public static final int paramSkipProduce = 1;
+	/**
+	 * index of the chance that a villager builds instead of moving
+	 */
+	public static final int paramBuild = 2;
+	/**
+	 * index of the chance that a villager builds a town center instead of a gold mine
+	 */
+	public static final int paramBuildTownCenter = 3;
+	/**
+	 * index of the chance that a military unit attacks instead of moving
+	 */
+	public static final int paramAttack = 4;
+
+	/**
+	 * the names of the parameters, by index
+	 */
+	public static final String[] parameterNames = new String[]{"villagers", "skipProduce", "build",
+			"buildTownCenter", "attack"};
+	/**
+	 * the parameters the AI plays with if no others are set
+	 */
+	public static final float[] defaultParameters = new float[]{3f, 0.1f, 0.1f, 0.1f, 0.5f};
+	/**
+	 * the smallest valid value of each parameter
+	 */
+	public static final float[] minParameters = new float[]{1f, 0f, 0f, 0f, 0f};
+	/**
+	 * the largest valid value of each parameter
+	 */
+	public static final float[] maxParameters = new float[]{10f, 1f, 1f, 1f, 1f};
+
+	private final float[] parameters = defaultParameters.clone();
+
+	/**
+	 * Return a copy of the parameters
+	 *
+	 * @return the parameters, by index
+	 */
+	public float[] getParameters() {
+		return parameters.clone();
+	}
+
+	/**
+	 * Set the parameters, values outside of {@link #minParameters} and {@link #maxParameters} are clamped
+	 *
+	 * @param parameters the parameters, by index
+	 * @throws IllegalArgumentException if the number of parameters is wrong
+	 */
+	public void setParameters(float[] parameters) {
+		if (parameters.length != this.parameters.length) {
+			throw new IllegalArgumentException("Expected " + this.parameters.length + " parameters, got "
+					+ parameters.length);
+		}
+		for (int i = 0; i < parameters.length; i++) {
+			this.parameters[i] = MathUtils.clamp(parameters[i], minParameters[i], maxParameters[i]);
+		}
+	}
+
+	@Override
+	protected void saveImpl(XmlWriter writer) throws IOException {
+		super.saveImpl(writer);
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < parameters.length; i++) {
+			if (i > 0) {
+				value.append(',');
+			}
+			value.append(parameters[i]);
+		}
+		writer.attribute("parameters", value.toString());
+	}
+
+	@Override
+	protected void loadImpl(XmlReader.Element reader) {
+		super.loadImpl(reader);
+		String value = reader.getAttribute("parameters", null);
+		if (value == null) {
+			return;
+		}
+		String[] values = value.split(",");
+		float[] loaded = new float[values.length];
+		for (int i = 0; i < values.length; i++) {
+			loaded[i] = Float.parseFloat(values[i]);
+		}
+		setParameters(loaded);
+	}
 
 	@Override
 	protected void playAI() {
@@ -26,7 +124,7 @@ public class AIPlayer_BenNo1 extends AIPlayer {
 		// we're still alive
 		if (positions.get("townCenter").size() > 0) {
 			// we need more villagers
-			if (positions.get("villager").size() < 3) {
+			if (positions.get("villager").size() < Math.round(parameters[paramVillagers])) {
 				int towncenter = positions.get("townCenter").get(0);
 				int field = getFirstFreeProduceField(towncenter, GameObjectType.getGameObjectTypeById("villager"));
 				if (field >= 0) {
@@ -37,11 +135,11 @@ public class AIPlayer_BenNo1 extends AIPlayer {
 				// build an army
 			} else {
 				for (Integer pos : positions.get("townCenter")) {
-					if (MathUtils.randomBoolean(0.1f)) {
+					if (random.nextFloat() < parameters[paramSkipProduce]) {
 						continue;
 					}
 
-					int toProduce = MathUtils.random(2);
+					int toProduce = random.nextInt(3);
 					int field = getFirstFreeProduceField(pos, military[toProduce]);
 					if (field >= 0) {
 						gameWorld.produce(extractX(pos), extractY(pos), extractX(field), extractY(field),
@@ -53,8 +151,9 @@ public class AIPlayer_BenNo1 extends AIPlayer {
 			// move villagers / build something
 			for (Integer pos : positions.get("villager")) {
 				// build
-				if (MathUtils.randomBoolean(0.1f)) {
-					String toBuild = MathUtils.randomBoolean(0.1f) ? "townCenter" : "goldMine";
+				if (random.nextFloat() < parameters[paramBuild]) {
+					String toBuild = random.nextFloat() < parameters[paramBuildTownCenter] ? "townCenter"
+							: "goldMine";
 					int field = getFirstFreeProduceField(pos, GameObjectType.getGameObjectTypeById(toBuild));
 					if (field >= 0) {
 						gameWorld.produce(extractX(pos), extractY(pos), extractX(field), extractY(field),
@@ -84,7 +183,7 @@ public class AIPlayer_BenNo1 extends AIPlayer {
 		for (GameObjectType aMilitary : military) {
 			for (Integer pos : positions.get(aMilitary.getId())) {
 				// attack
-				if (MathUtils.randomBoolean(0.5f)) {
+				if (random.nextFloat() < parameters[paramAttack]) {
 					int field = getRandomFightField(pos);
 					if (field >= 0) {
 						gameWorld.fight(extractX(pos), extractY(pos), extractX(field), extractY(field));
@@ -5,11 +5,11 @@ import com.badlogic.gdx.utils.XmlReader;
 import com.badlogic.gdx.utils.XmlWriter;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.ActionResult;
 import com.smeanox.games.sg002.world.GameController;
 import com.smeanox.games.sg002.world.GameWorld;
 
 import java.io.IOException;
-import java.util.HashMap;
 
 /**
  * a player that can play the game
@@ -20,14 +20,16 @@ public abstract class Player {
 	protected GameController gameController;
 	protected GameWorld gameWorld;
 
-	protected static HashMap<Integer, Player> idToPlayer = new HashMap<Integer, Player>();
-
 	protected int id = -1;
 	protected String name;
 	protected int money;
 	protected boolean isPlaying;
 	protected Color color;
 	protected boolean showGUI;
+	/**
+	 * the number of actions that weren't possible, per reason
+	 */
+	private long[] rejectionCounts = new long[ActionResult.values().length];
 
 	/**
 	 * Inform the player that he can start playing
@@ -68,6 +70,26 @@ public abstract class Player {
 		return false;
 	}
 
+	/**
+	 * Count an action of this player that wasn't possible
+	 *
+	 * @param reason the reason why it wasn't possible
+	 */
+	public void countRejection(ActionResult reason) {
+		rejectionCounts[reason.ordinal()]++;
+	}
+
+	/**
+	 * Return the number of actions of this player that weren't possible for the given reason, since the player was
+	 * created
+	 *
+	 * @param reason the reason
+	 * @return the number of actions
+	 */
+	public long getRejectionCount(ActionResult reason) {
+		return rejectionCounts[reason.ordinal()];
+	}
+
 	/**
 	 * Propose to end the round (e.g. the GUI can propose this)
 	 *
@@ -132,9 +154,19 @@ public abstract class Player {
 	 * @throws IOException
 	 */
 	public static Player loadStatic(XmlReader.Element reader) throws IOException {
+		return create(reader.getAttribute("class"));
+	}
+
+	/**
+	 * Create a Player instance of the given class
+	 *
+	 * @param className the fully qualified name of a subclass of Player
+	 * @return a new instance of the class
+	 * @throws IOException if the class can't be instantiated
+	 */
+	public static Player create(String className) throws IOException {
 		try {
-			Player player = (Player) ClassReflection.newInstance(ClassReflection.forName(reader.getAttribute("class")));
-			return player;
+			return (Player) ClassReflection.newInstance(ClassReflection.forName(className));
 		} catch (Exception e) {
 			throw new IOException(e);
 		}
@@ -149,11 +181,7 @@ public abstract class Player {
 	}
 
 	public final void setId(int id) {
-		if (idToPlayer.containsKey(this.id)) {
-			idToPlayer.remove(this.id);
-		}
 		this.id = id;
-		idToPlayer.put(id, this);
 	}
 
 	public final String getName() {
@@ -191,21 +219,4 @@ public abstract class Player {
 	public void setShowGUI(boolean showGUI) {
 		this.showGUI = showGUI;
 	}
-
-	/**
-	 * Return the player associated to the given id
-	 *
-	 * @param id the id to search
-	 * @return the player with the given id
-	 */
-	public static Player getPlayerById(int id) {
-		return idToPlayer.get(id);
-	}
-
-	/**
-	 * Reset the list of ids of players
-	 */
-	public static void resetPlayerIds() {
-		idToPlayer.clear();
-	}
 }
@@ -9,6 +9,8 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.smeanox.games.sg002.debug.Profiler;
 import com.smeanox.games.sg002.screen.gui.AbstractGUIElement;
 import com.smeanox.games.sg002.screen.gui.GUIElement;
 import com.smeanox.games.sg002.screen.gui.Resizer;
@@ -42,6 +44,23 @@ public abstract class AbstractScreen implements Screen {
 	private Camera guiCamera;
 	private Vector2 vector2;
 	private Vector3 vector3;
+	private Rectangle visibleArea;
+	/**
+	 * draw calls in the current frame so far
+	 */
+	private int frameRenderCalls;
+	/**
+	 * draw calls in the last complete frame
+	 */
+	private int renderCalls;
+	/**
+	 * frames rendered since the screen was shown
+	 */
+	private int frameCount;
+	/**
+	 * the time the screen was shown, in milliseconds
+	 */
+	private long showTime;
 
 	/**
 	 * Create a new instance
@@ -55,6 +74,7 @@ public abstract class AbstractScreen implements Screen {
 
 		vector2 = new Vector2();
 		vector3 = new Vector3();
+		visibleArea = new Rectangle();
 	}
 
 	/**
@@ -125,6 +145,8 @@ public abstract class AbstractScreen implements Screen {
 
 	@Override
 	public void show() {
+		frameCount = 0;
+		showTime = TimeUtils.millis();
 	}
 
 	/**
@@ -164,8 +186,115 @@ public abstract class AbstractScreen implements Screen {
 		for (GUIElement guiElement : guiElements) {
 			guiElement.render(delta, spriteBatch);
 		}
-		spriteBatch.end();
+		endSpriteBatch();
 		spriteBatch.setProjectionMatrix(camera.combined);
+
+		// the GUI is drawn last
+		renderCalls = frameRenderCalls;
+		frameRenderCalls = 0;
+		frameCount++;
+		Profiler.get().endFrame();
+	}
+
+	/**
+	 * Return the number of frames rendered since the screen was shown. With {@link Consts#renderOnDemand} this is
+	 * far less than the frame rate times the time shown while nothing happens.
+	 *
+	 * @return the number of frames
+	 */
+	public int getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Return the time since the screen was shown
+	 *
+	 * @return the time in seconds
+	 */
+	public float getTimeShown() {
+		return (TimeUtils.millis() - showTime) / 1000f;
+	}
+
+	/**
+	 * Request that another frame is rendered, necessary if something changed while the screen doesn't render
+	 * continuously
+	 */
+	protected void requestRendering() {
+		Gdx.graphics.requestRendering();
+	}
+
+	/**
+	 * Render continuously or only when requested, see {@link #requestRendering()}. Input events request a frame,
+	 * too. Has no effect unless {@link Consts#renderOnDemand} is set.
+	 *
+	 * @param continuous whether to render continuously
+	 */
+	protected void setContinuousRendering(boolean continuous) {
+		if (!Consts.renderOnDemand || Gdx.graphics.isContinuousRendering() == continuous) {
+			return;
+		}
+		Gdx.graphics.setContinuousRendering(continuous);
+		if (!continuous) {
+			// one more frame, so the last changes are shown
+			Gdx.graphics.requestRendering();
+		}
+	}
+
+	/**
+	 * Return the area of the world space that the camera shows
+	 *
+	 * @return the area, the instance is reused
+	 */
+	protected Rectangle getVisibleArea() {
+		float zoom = camera instanceof OrthographicCamera ? ((OrthographicCamera) camera).zoom : 1f;
+		float width = camera.viewportWidth * zoom;
+		float height = camera.viewportHeight * zoom;
+		return visibleArea.set(camera.position.x - width / 2f, camera.position.y - height / 2f, width, height);
+	}
+
+	/**
+	 * End the sprite batch and count its draw calls
+	 */
+	protected void endSpriteBatch() {
+		spriteBatch.end();
+		addRenderCalls(spriteBatch.renderCalls);
+	}
+
+	/**
+	 * Count draw calls that were made in the current frame
+	 *
+	 * @param renderCalls the number of draw calls
+	 */
+	protected void addRenderCalls(int renderCalls) {
+		frameRenderCalls += renderCalls;
+	}
+
+	/**
+	 * Return the number of draw calls in the last frame. Every flush of the sprite batch, e.g. because the texture
+	 * changed, is one draw call.
+	 *
+	 * @return the number of draw calls
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	/**
+	 * Return the number of draw calls since the screen was created
+	 *
+	 * @return the number of draw calls
+	 */
+	public int getTotalRenderCalls() {
+		return spriteBatch.totalRenderCalls;
+	}
+
+	/**
+	 * Return the maximal number of sprites drawn with a single draw call
+	 *
+	 * @return the number of sprites
+	 */
+	public int getMaxSpritesInBatch() {
+		return spriteBatch.maxSpritesInBatch;
 	}
 
 	@Override
@@ -257,6 +386,7 @@ public abstract class AbstractScreen implements Screen {
 		camera.translate(x, y, 0);
 		camera.update();
 		spriteBatch.setProjectionMatrix(camera.combined);
+		requestRendering();
 	}
 
 	/**
@@ -269,6 +399,7 @@ public abstract class AbstractScreen implements Screen {
 		camera.position.set(x, y, 0);
 		camera.update();
 		spriteBatch.setProjectionMatrix(camera.combined);
+		requestRendering();
 	}
 
 	/**
@@ -292,7 +423,8 @@ public abstract class AbstractScreen implements Screen {
 
 	@Override
 	public void hide() {
-
+		// the next screen may rely on continuous rendering
+		setContinuousRendering(true);
 	}
 
 	@Override
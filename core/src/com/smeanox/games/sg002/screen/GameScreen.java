@@ -28,20 +28,31 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.metrics.Counter;
+import com.smeanox.games.sg002.metrics.Metrics;
+import com.smeanox.games.sg002.player.AIPlayer;
 import com.smeanox.games.sg002.player.Player;
 import com.smeanox.games.sg002.screen.gui.Button;
 import com.smeanox.games.sg002.screen.gui.ClickHandler;
+import com.smeanox.games.sg002.screen.gui.Minimap;
+import com.smeanox.games.sg002.screen.gui.PerfOverlay;
+import com.smeanox.games.sg002.screen.gui.Resizer;
 import com.smeanox.games.sg002.util.Assets;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.util.Language;
 import com.smeanox.games.sg002.view.GameView;
 import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.ActionResult;
 import com.smeanox.games.sg002.world.GameController;
 import com.smeanox.games.sg002.world.GameObject;
 import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
 import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+import com.smeanox.games.sg002.world.actionHandler.SaveGameHandler;
 
 import com.smeanox.games.sg002.data.Point;
 import java.util.HashMap;
@@ -53,6 +64,10 @@ import java.util.LinkedList;
  * @author Benjamin Schmid
  */
 public class GameScreen extends AbstractScreen {
+	private static final int scopeUpdate = Profiler.get().register("GameScreen.update");
+	private static final int scopeRender = Profiler.get().register("GameScreen.render");
+	private static final Counter renderedFrames = Metrics.get().counter("gameScreen.frames");
+
 	private GameView gameView;
 	private GameController gameController;
 	private Action aAction;
@@ -70,6 +85,10 @@ public class GameScreen extends AbstractScreen {
 	private Button nextPlayerButton;
 	private Button moneyLabel;
 	private Button nameLabel;
+	private Button statusLabel;
+	private Minimap minimap;
+	private PerfOverlay perfOverlay;
+	private float statusTimeLeft;
 	private LinkedList<Button> produceButtons;
 	private HashMap<GameObjectType, Button> gameObjectTypeToProduceButton;
 
@@ -92,6 +111,27 @@ public class GameScreen extends AbstractScreen {
 				centerCameraOnActivePlayer();
 				cancelAction();
 				setActionButtonsVisible(false);
+				requestRendering();
+			}
+		});
+
+		gameController.getGameWorld().addAppliedActionHandler(new AppliedActionHandler() {
+			@Override
+			public void onActionApplied(Action action) {
+				requestRendering();
+			}
+		});
+
+		gameController.addSaveGameHandler(new SaveGameHandler() {
+			@Override
+			public void onSaveFinished(String fileName) {
+				showStatus(Language.getStrings().get("gameScreen.saved"));
+			}
+
+			@Override
+			public void onSaveFailed(String fileName, Exception e) {
+				e.printStackTrace();
+				showStatus(Language.getStrings().get("gameScreen.saveFailed"));
 			}
 		});
 
@@ -144,6 +184,40 @@ public class GameScreen extends AbstractScreen {
 
 		layout(toLayout, 2, 1, -1, -1, -0.48f, -0.48f, 40, 40, 10, 0);
 
+		// minimap, above + and -
+		minimap = new Minimap(gameController.getGameWorld(), Color.WHITE);
+		minimap.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				setCameraPosition(minimap.getClickedFieldX() * gameView.getFieldSizeX(),
+						minimap.getClickedFieldY() * gameView.getFieldSizeY());
+			}
+		});
+		minimap.setResizer(new Resizer() {
+			@Override
+			public Rectangle getNewSize(float width, float height) {
+				int mapSizeX = gameController.getGameWorld().getMapSizeX();
+				int mapSizeY = gameController.getGameWorld().getMapSizeY();
+				float size = Consts.minimapSize * Consts.devScaleY / Math.max(mapSizeX, mapSizeY);
+				return new Rectangle(-0.48f * width, -0.48f * height + 50 * Consts.devScaleY,
+						mapSizeX * size, mapSizeY * size);
+			}
+		});
+		addGUIElement(minimap);
+
+		// performance overlay, below the action buttons
+		perfOverlay = new PerfOverlay(Assets.liberationMicro, scopeUpdate, scopeRender, AIPlayer.scopePlayAI);
+		perfOverlay.setResizer(new Resizer() {
+			@Override
+			public Rectangle getNewSize(float width, float height) {
+				float perfOverlayHeight = 100 * Consts.devScaleY;
+				return new Rectangle(-0.48f * width, 0.48f * height - 100 * Consts.devScaleY - perfOverlayHeight,
+						300 * Consts.devScaleY, perfOverlayHeight);
+			}
+		});
+		perfOverlay.setVisible(Consts.showPerfOverlay);
+		addGUIElement(perfOverlay);
+
 		toLayout.clear();
 		// money label
 		b = new Button(null, Assets.liberationMedium, Language.getStrings().format("gameScreen.currency", 0),
@@ -160,6 +234,17 @@ public class GameScreen extends AbstractScreen {
 
 		layout(toLayout, 1, 2, 1, -1, 0.48f, -0.48f, 150, 40, 0, 10);
 
+		toLayout.clear();
+		// status label
+		b = new Button(null, Assets.liberationSmall, "", Color.WHITE, Color.WHITE, Color.LIGHT_GRAY,
+				Color.DARK_GRAY);
+		b.setVisible(false);
+		addGUIElement(b);
+		toLayout.add(b);
+		statusLabel = b;
+
+		layout(toLayout, 1, 1, 0, 1, 0, 0.48f, 300, 40, 0, 0);
+
 		toLayout.clear();
 		// produce
 		b = new Button(new Sprite(Assets.button), Assets.liberationSmall,
@@ -271,15 +356,43 @@ public class GameScreen extends AbstractScreen {
 
 	@Override
 	public void render(float delta) {
+		Profiler.get().start(scopeUpdate);
 		boolean wasClick = updateGUI(delta, wasDrag);
 		updateInput(delta, wasClick);
 		gameController.update(delta);
+		updateStatus(delta);
+		Profiler.get().stop();
 
+		Profiler.get().start(scopeRender);
 		clearScreen();
-		spriteBatch.begin();
-		gameView.render(spriteBatch, gameController.getActivePlayer());
-		spriteBatch.end();
+		gameView.render(spriteBatch, gameController.getActivePlayer(), getVisibleArea());
+		addRenderCalls(gameView.getRenderCalls());
+		minimap.setView(getVisibleArea(), gameView.getFieldSizeX(), gameView.getFieldSizeY());
+		Profiler.get().stop();
+		perfOverlay.setFrameInfo(getRenderCalls(), gameView.getVisibleFields().getFieldCount());
 		renderGUI(delta);
+
+		setContinuousRendering(isAnimating());
+	}
+
+	/**
+	 * Whether something changes without input, so the screen has to be rendered continuously: an AI is playing, a
+	 * status message is counting down, the user is dragging or the performance overlay measures the frames
+	 *
+	 * @return true if the screen has to be rendered continuously
+	 */
+	private boolean isAnimating() {
+		return !gameController.getActivePlayer().isShowGUI() || statusTimeLeft > 0 || Gdx.input.isTouched()
+				|| perfOverlay.isVisible();
+	}
+
+	@Override
+	public void hide() {
+		renderedFrames.add(getFrameCount());
+		super.hide();
+		// the cached layers are created again when the screen is shown
+		gameView.dispose();
+		minimap.dispose();
 	}
 
 	/**
@@ -338,12 +451,22 @@ public class GameScreen extends AbstractScreen {
 	private void updateKeyboardShortcuts() {
 		if (wasKeyDown.get(Consts.KeyboardShortcuts.quickSave)
 				&& !Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.quickSave)) {
-			gameController.saveGame(Consts.quickSaveFileName);
+			gameController.saveGameAsync(Consts.quickSaveFileName);
 		}
 		if (wasKeyDown.get(Consts.KeyboardShortcuts.quickLoad)
 				&& !Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.quickLoad)) {
 			gameController.loadGame(Consts.quickSaveFileName);
 		}
+		if (wasKeyDown.get(Consts.KeyboardShortcuts.perfOverlay)
+				&& !Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.perfOverlay)) {
+			perfOverlay.setVisible(!perfOverlay.isVisible());
+		}
+		if (wasKeyDown.get(Consts.KeyboardShortcuts.profilerDump)
+				&& !Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.profilerDump)) {
+			if (Profiler.get().dumpCsv(Gdx.files.local(Consts.profilerFileName))) {
+				showStatus(Language.getStrings().get("gameScreen.profilerDumped"));
+			}
+		}
 		if (wasKeyDown.get(Consts.KeyboardShortcuts.nextPlayer)
 				&& !Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.nextPlayer)) {
 			proposeEndPlaying();
@@ -428,6 +551,31 @@ public class GameScreen extends AbstractScreen {
 		nameLabel.setTextColor(gameController.getActivePlayer().getColor());
 	}
 
+	/**
+	 * Display the given message for a short time
+	 *
+	 * @param message the message to display
+	 */
+	private void showStatus(String message) {
+		statusLabel.setText(message);
+		statusLabel.setVisible(true);
+		statusTimeLeft = Consts.statusMessageDuration;
+	}
+
+	/**
+	 * Hide the status message once it was displayed long enough
+	 *
+	 * @param delta The time in seconds since the last render.
+	 */
+	private void updateStatus(float delta) {
+		if (statusTimeLeft > 0) {
+			statusTimeLeft -= delta;
+			if (statusTimeLeft <= 0) {
+				statusLabel.setVisible(false);
+			}
+		}
+	}
+
 	/**
 	 * Set the visibility of all action buttons to the given value
 	 *
@@ -630,6 +778,11 @@ public class GameScreen extends AbstractScreen {
 			setActionButtonsVisible(false);
 			setProduceButtonsVisible(false);
 			aAction.actionType = Action.ActionType.NONE;
+		} else {
+			ActionResult result = gameController.getGameWorld().checkAction(aAction);
+			if (result != ActionResult.OK) {
+				showStatus(Language.getStrings().get("actionResult." + result.name()));
+			}
 		}
 	}
 
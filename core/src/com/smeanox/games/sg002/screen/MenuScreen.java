@@ -37,8 +37,11 @@ import com.smeanox.games.sg002.util.Assets;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.util.Language;
 import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameRecorder;
+import com.smeanox.games.sg002.world.ReplayPlayer;
 import com.smeanox.games.sg002.world.Scenario;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedList;
 
@@ -58,6 +61,8 @@ public class MenuScreen extends AbstractScreen {
 	private Button playerCountLabel;
 	private Button scenarioLabel;
 	private Button scenarioInfoLabel;
+	private Button resumeGameButton;
+	private Button watchReplayButton;
 
 	private Iterator<Scenario> scenarioIterator;
 
@@ -115,6 +120,32 @@ public class MenuScreen extends AbstractScreen {
 		addGUIElement(b);
 		scenarioLabel = b;
 		toLayout.add(b);
+		// watch replay
+		b = new Button(new Sprite(Assets.button), Assets.liberationMedium,
+				Language.getStrings().get("menu.watchReplay"), Color.BLACK, Color.WHITE, Color.LIGHT_GRAY,
+				Color.DARK_GRAY);
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				watchReplay();
+			}
+		});
+		addGUIElement(b);
+		watchReplayButton = b;
+		toLayout.add(b);
+		// resume game
+		b = new Button(new Sprite(Assets.button), Assets.liberationMedium,
+				Language.getStrings().get("menu.resumeGame"), Color.BLACK, Color.WHITE, Color.LIGHT_GRAY,
+				Color.DARK_GRAY);
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				resumeGame();
+			}
+		});
+		addGUIElement(b);
+		resumeGameButton = b;
+		toLayout.add(b);
 		// start game
 		b = new Button(new Sprite(Assets.button), Assets.liberationMedium,
 				Language.getStrings().get("menu.startGame"), Color.BLACK, Color.WHITE, Color.LIGHT_GRAY,
@@ -133,7 +164,7 @@ public class MenuScreen extends AbstractScreen {
 		addGUIElement(b);
 		toLayout.add(b);
 
-		layout(toLayout, 1, 5, 0, 0, 0, 0, 300, 60, 0, 30);
+		layout(toLayout, 1, 7, 0, 0, 0, 0, 300, 60, 0, 30);
 
 		toLayout.clear();
 	}
@@ -142,16 +173,36 @@ public class MenuScreen extends AbstractScreen {
 	 * cycle through scenarios
 	 */
 	private void nextScenario() {
-		if (!scenarioIterator.hasNext()) {
-			scenarioIterator = Scenario.getAllScenariosSorted().iterator();
-		}
-		scenario = scenarioIterator.next();
+		int remaining = Scenario.getAllScenarios().size();
+		do {
+			if (!scenarioIterator.hasNext()) {
+				scenarioIterator = Scenario.getAllScenariosSorted().iterator();
+			}
+			scenario = scenarioIterator.next();
+			remaining--;
+		} while (!materializeScenario(scenario) && remaining > 0);
 		playerCount = Math.min(playerCount, scenario.getMaxPlayerCount());
 
 		setScenarioLabelText();
 		setPlayerCountText();
 	}
 
+	/**
+	 * Generate the positions of the given scenario, scenarios are only generated once they are selected
+	 *
+	 * @param scenario the scenario
+	 * @return false if the scenario can't be played
+	 */
+	private boolean materializeScenario(Scenario scenario) {
+		try {
+			scenario.materialize();
+			return true;
+		} catch (IllegalArgumentException e) {
+			System.out.println("Scenario " + scenario.getId() + " can't be created: " + e.getMessage());
+			return false;
+		}
+	}
+
 	/**
 	 * increase the playerCount and reset it if its too high
 	 */
@@ -178,9 +229,42 @@ public class MenuScreen extends AbstractScreen {
 	}
 
 	/**
-	 * load a saved game
+	 * resume the autosaved game
 	 */
 	private void resumeGame() {
+		GameController gameController = GameRecorder.recover(Consts.autosaveDirName);
+		if (gameController == null) {
+			resumeGameButton.setVisible(false);
+			return;
+		}
+		gameController.enableAutosave(Consts.autosaveInterval);
+		if (Consts.recordReplays) {
+			gameController.recordReplay();
+		}
+		ScreenManager.showGame(gameController);
+	}
+
+	/**
+	 * show the replay of the last game
+	 */
+	private void watchReplay() {
+		String replayDirName = ReplayPlayer.findNewestReplay(Consts.replayDirName);
+		if (replayDirName != null) {
+			try {
+				ScreenManager.showReplay(new ReplayPlayer(replayDirName));
+				return;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		watchReplayButton.setVisible(false);
+	}
+
+	@Override
+	public void show() {
+		super.show();
+		resumeGameButton.setVisible(GameRecorder.hasRecording(Consts.autosaveDirName));
+		watchReplayButton.setVisible(ReplayPlayer.findNewestReplay(Consts.replayDirName) != null);
 	}
 
 	@Override
@@ -241,6 +325,10 @@ public class MenuScreen extends AbstractScreen {
 			player.setShowGUI(player instanceof LocalPlayer);
 			player.setName(playerNames.get(i));
 		}
+		gameController.enableAutosave(Consts.autosaveInterval);
+		if (Consts.recordReplays) {
+			gameController.recordReplay();
+		}
 		ScreenManager.showGame(gameController);
 	}
 
@@ -134,7 +134,7 @@ public class PauseScreen extends AbstractScreen {
 	 * save the game (quicksave)
 	 */
 	private void saveGame() {
-		gameController.saveGame(Consts.quickSaveFileName);
+		gameController.saveGameAsync(Consts.quickSaveFileName);
 		resumeGame();
 	}
 
@@ -0,0 +1,327 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Benjamin Schmid
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.smeanox.games.sg002.screen;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.smeanox.games.sg002.screen.gui.Button;
+import com.smeanox.games.sg002.screen.gui.ClickHandler;
+import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.util.Language;
+import com.smeanox.games.sg002.view.GameView;
+import com.smeanox.games.sg002.world.ReplayPlayer;
+
+import java.io.IOException;
+import java.util.LinkedList;
+
+/**
+ * Shows a recorded game. The replay can be played forwards and backwards at different speeds or stepped through turn
+ * by turn.
+ *
+ * @author Benjamin Schmid
+ */
+public class ReplayScreen extends AbstractScreen {
+	private ReplayPlayer replayPlayer;
+	private GameView gameView;
+
+	/**
+	 * turns per second, negative values play backwards, 0 pauses
+	 */
+	private float speed;
+	private float lastSpeed;
+	private float timeToNextTurn;
+
+	private boolean wasTouchDown;
+	private boolean wasBackDown;
+
+	private Button turnLabel;
+	private Button speedLabel;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param replayPlayer the replay to show
+	 */
+	public ReplayScreen(ReplayPlayer replayPlayer) {
+		super();
+		this.replayPlayer = replayPlayer;
+		gameView = new GameView(replayPlayer.getGameController().getGameWorld());
+		lastSpeed = 1;
+
+		createUI();
+
+		moveCamera((replayPlayer.getGameController().getGameWorld().getMapSizeX() * Consts.fieldSizeX
+						* gameView.getZoom()),
+				(replayPlayer.getGameController().getGameWorld().getMapSizeY() * Consts.fieldSizeY
+						* gameView.getZoom()));
+
+		updateLabels();
+	}
+
+	/**
+	 * Create all GUI elements
+	 */
+	private void createUI() {
+		LinkedList<Button> toLayout = new LinkedList<Button>();
+		Button b;
+
+		// step back
+		b = createControlButton("|<");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				step(false);
+			}
+		});
+		toLayout.add(b);
+		// play backwards
+		b = createControlButton("<");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				setSpeed(-Math.abs(lastSpeed));
+			}
+		});
+		toLayout.add(b);
+		// pause
+		b = createControlButton("||");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				togglePause();
+			}
+		});
+		toLayout.add(b);
+		// play
+		b = createControlButton(">");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				setSpeed(Math.abs(lastSpeed));
+			}
+		});
+		toLayout.add(b);
+		// step forward
+		b = createControlButton(">|");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				step(true);
+			}
+		});
+		toLayout.add(b);
+		// slower
+		b = createControlButton("-");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				changeSpeed(false);
+			}
+		});
+		toLayout.add(b);
+		// faster
+		b = createControlButton("+");
+		b.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick() {
+				changeSpeed(true);
+			}
+		});
+		toLayout.add(b);
+
+		layout(toLayout, 7, 1, 0, -1, 0, -0.48f, 40, 40, 10, 0);
+
+		toLayout.clear();
+		// speed label
+		b = new Button(null, Assets.liberationSmall, "speed",
+				Color.WHITE, Color.WHITE, Color.LIGHT_GRAY, Color.DARK_GRAY);
+		addGUIElement(b);
+		toLayout.add(b);
+		speedLabel = b;
+		// turn label
+		b = new Button(null, Assets.liberationMedium, "turn",
+				Color.WHITE, Color.WHITE, Color.LIGHT_GRAY, Color.DARK_GRAY);
+		addGUIElement(b);
+		toLayout.add(b);
+		turnLabel = b;
+
+		layout(toLayout, 1, 2, 1, 1, 0.48f, 0.48f, 300, 40, 0, 10);
+
+		toLayout.clear();
+	}
+
+	/**
+	 * Create a small button for the replay controls
+	 *
+	 * @param text the text on the button
+	 * @return the button
+	 */
+	private Button createControlButton(String text) {
+		Button b = new Button(new Sprite(Assets.button), Assets.liberationMedium, text, Color.BLACK,
+				Color.WHITE, Color.LIGHT_GRAY, Color.DARK_GRAY);
+		addGUIElement(b);
+		return b;
+	}
+
+	@Override
+	public void render(float delta) {
+		boolean wasClick = updateGUI(delta, false);
+		updateInput(wasClick);
+		updateReplay(delta);
+
+		clearScreen();
+		gameView.render(spriteBatch, replayPlayer.getGameController().getActivePlayer(), getVisibleArea());
+		addRenderCalls(gameView.getRenderCalls());
+		renderGUI(delta);
+	}
+
+	@Override
+	public void hide() {
+		super.hide();
+		// the cached layers are created again when the screen is shown
+		gameView.dispose();
+	}
+
+	/**
+	 * Show the next turns if the replay is playing
+	 *
+	 * @param delta The time in seconds since the last render.
+	 */
+	private void updateReplay(float delta) {
+		if (speed == 0) {
+			return;
+		}
+		timeToNextTurn -= delta;
+		while (timeToNextTurn <= 0 && speed != 0) {
+			timeToNextTurn += 1 / Math.abs(speed);
+			if (!step(speed > 0)) {
+				setSpeed(0);
+			}
+		}
+	}
+
+	/**
+	 * Update the Input
+	 *
+	 * @param wasClick true if there was already a click in this frame
+	 */
+	private void updateInput(boolean wasClick) {
+		if (wasTouchDown && Gdx.input.isTouched() && !wasClick) {
+			moveCamera(-Gdx.input.getDeltaX(), Gdx.input.getDeltaY());
+		}
+		wasTouchDown = Gdx.input.isTouched();
+
+		if (Gdx.input.isKeyJustPressed(Consts.KeyboardShortcuts.replayPause)) {
+			togglePause();
+		}
+		if (Gdx.input.isKeyJustPressed(Consts.KeyboardShortcuts.replayStepForward)) {
+			step(true);
+		}
+		if (Gdx.input.isKeyJustPressed(Consts.KeyboardShortcuts.replayStepBack)) {
+			step(false);
+		}
+		if (Gdx.input.isKeyJustPressed(Consts.KeyboardShortcuts.replayFaster)) {
+			changeSpeed(true);
+		}
+		if (Gdx.input.isKeyJustPressed(Consts.KeyboardShortcuts.replaySlower)) {
+			changeSpeed(false);
+		}
+
+		if (wasBackDown && !(Gdx.input.isKeyPressed(Input.Keys.BACK)
+				|| Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.backKey))) {
+			ScreenManager.showMenu();
+		}
+		wasBackDown = Gdx.input.isKeyPressed(Input.Keys.BACK)
+				|| Gdx.input.isKeyPressed(Consts.KeyboardShortcuts.backKey);
+	}
+
+	/**
+	 * Show the next or previous turn
+	 *
+	 * @param forward whether the next turn should be shown
+	 * @return false if there is no such turn or the replay is broken
+	 */
+	private boolean step(boolean forward) {
+		boolean stepped;
+		try {
+			stepped = forward ? replayPlayer.stepForward() : replayPlayer.stepBack();
+		} catch (IOException e) {
+			e.printStackTrace();
+			stepped = false;
+		}
+		updateLabels();
+		return stepped;
+	}
+
+	/**
+	 * Pause the replay or continue playing
+	 */
+	private void togglePause() {
+		setSpeed(speed == 0 ? lastSpeed : 0);
+	}
+
+	/**
+	 * Double or halve the speed, keeping the direction
+	 *
+	 * @param faster whether the replay should be played faster
+	 */
+	private void changeSpeed(boolean faster) {
+		float newSpeed = faster ? lastSpeed * 2 : lastSpeed / 2;
+		if (Math.abs(newSpeed) > Consts.replayMaxSpeed || Math.abs(newSpeed) < 1 / Consts.replayMaxSpeed) {
+			return;
+		}
+		setSpeed(speed == 0 ? 0 : newSpeed);
+		lastSpeed = newSpeed;
+		updateLabels();
+	}
+
+	/**
+	 * Set the speed of the replay
+	 *
+	 * @param speed turns per second, negative values play backwards, 0 pauses
+	 */
+	private void setSpeed(float speed) {
+		this.speed = speed;
+		if (speed != 0) {
+			lastSpeed = speed;
+		}
+		timeToNextTurn = 0;
+		updateLabels();
+	}
+
+	/**
+	 * Update the labels
+	 */
+	private void updateLabels() {
+		turnLabel.setText(Language.getStrings().format("replay.turn", replayPlayer.getRound(),
+				replayPlayer.getGameController().getActivePlayer().getName(),
+				replayPlayer.getTurn() + 1, replayPlayer.getTurnCount()));
+		turnLabel.setTextColor(replayPlayer.getGameController().getActivePlayer().getColor());
+		speedLabel.setText(Language.getStrings().format(speed == 0 ? "replay.paused" : "replay.speed", lastSpeed));
+	}
+}
@@ -2,6 +2,7 @@ package com.smeanox.games.sg002.screen;
 
 import com.badlogic.gdx.Game;
 import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.ReplayPlayer;
 
 /**
  * Manage the different Screens
@@ -78,4 +79,13 @@ public class ScreenManager {
 		gameScreen = new GameScreen(gameController);
 		game.setScreen(gameScreen);
 	}
+
+	/**
+	 * Set the replay screen as active screen showing the given replay
+	 *
+	 * @param replayPlayer the replay to show
+	 */
+	public static void showReplay(ReplayPlayer replayPlayer) {
+		game.setScreen(new ReplayScreen(replayPlayer));
+	}
 }
@@ -0,0 +1,108 @@
+package com.smeanox.games.sg002.screen.gui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Disposable;
+import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.view.WorldColorMap;
+import com.smeanox.games.sg002.world.GameWorld;
+
+/**
+ * A small map of the whole world that shows the MapObjects, the owners of the GameObjects and the area the camera
+ * shows. The map is a {@link WorldColorMap}, so only the pixels of changed fields are drawn again.
+ *
+ * @author Benjamin Schmid
+ */
+public class Minimap extends AbstractGUIElement implements Disposable {
+	private GameWorld gameWorld;
+	private WorldColorMap worldColorMap;
+	/**
+	 * the area the camera shows, in fields
+	 */
+	private Rectangle view;
+	private Color viewColor;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param gameWorld the world to show
+	 * @param viewColor the color of the frame around the area the camera shows
+	 */
+	public Minimap(GameWorld gameWorld, Color viewColor) {
+		super();
+		this.gameWorld = gameWorld;
+		this.viewColor = viewColor;
+		worldColorMap = new WorldColorMap(gameWorld, Consts.minimapTextureSize);
+		view = new Rectangle();
+	}
+
+	/**
+	 * Set the area the camera shows
+	 *
+	 * @param visibleArea the area in world space
+	 * @param fieldSizeX  the width of a field in world space
+	 * @param fieldSizeY  the height of a field in world space
+	 */
+	public void setView(Rectangle visibleArea, float fieldSizeX, float fieldSizeY) {
+		view.set(visibleArea.x / fieldSizeX, visibleArea.y / fieldSizeY,
+				visibleArea.width / fieldSizeX, visibleArea.height / fieldSizeY);
+	}
+
+	/**
+	 * The field at the position of the last click
+	 *
+	 * @return x coordinate of the field, fractional
+	 */
+	public float getClickedFieldX() {
+		return (lastTouchPos.x - position.x) / size.x * gameWorld.getMapSizeX();
+	}
+
+	/**
+	 * The field at the position of the last click
+	 *
+	 * @return y coordinate of the field, fractional
+	 */
+	public float getClickedFieldY() {
+		return (lastTouchPos.y - position.y) / size.y * gameWorld.getMapSizeY();
+	}
+
+	@Override
+	public void render(float delta, SpriteBatch spriteBatch) {
+		if (!visible) {
+			return;
+		}
+		Texture texture = worldColorMap.getTexture();
+		float fieldsPerPixel = worldColorMap.getFieldsPerPixel();
+		// the last pixel may show less fields than the others
+		float scaleX = size.x / gameWorld.getMapSizeX() * fieldsPerPixel;
+		float scaleY = size.y / gameWorld.getMapSizeY() * fieldsPerPixel;
+		spriteBatch.setColor(Color.WHITE);
+		spriteBatch.draw(texture, position.x, position.y, texture.getWidth() * scaleX, texture.getHeight() * scaleY,
+				0, 0, texture.getWidth(), texture.getHeight(), false, true);
+
+		float x1 = position.x + Math.max(0, view.x) / gameWorld.getMapSizeX() * size.x;
+		float y1 = position.y + Math.max(0, view.y) / gameWorld.getMapSizeY() * size.y;
+		float x2 = position.x + Math.min(gameWorld.getMapSizeX(), view.x + view.width) / gameWorld.getMapSizeX() * size.x;
+		float y2 = position.y + Math.min(gameWorld.getMapSizeY(), view.y + view.height) / gameWorld.getMapSizeY() * size.y;
+		if (x2 <= x1 || y2 <= y1) {
+			return;
+		}
+		float lineWidth = Math.max(1f, Consts.devScaleY);
+		spriteBatch.setColor(viewColor);
+		spriteBatch.draw(Assets.white, x1, y1, x2 - x1, lineWidth);
+		spriteBatch.draw(Assets.white, x1, y2 - lineWidth, x2 - x1, lineWidth);
+		spriteBatch.draw(Assets.white, x1, y1, lineWidth, y2 - y1);
+		spriteBatch.draw(Assets.white, x2 - lineWidth, y1, lineWidth, y2 - y1);
+	}
+
+	/**
+	 * Free the texture, it is created again when needed
+	 */
+	@Override
+	public void dispose() {
+		worldColorMap.dispose();
+	}
+}
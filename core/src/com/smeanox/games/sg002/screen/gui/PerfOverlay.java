@@ -0,0 +1,257 @@
+package com.smeanox.games.sg002.screen.gui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Align;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.BitmapFontRapper;
+import com.smeanox.games.sg002.util.Consts;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Shows the frame rate, a histogram of the last frame times, the time used for updating, rendering and the AI, the
+ * draw calls, the number of visible fields and the memory usage. The numbers are averaged over the frames since the
+ * text was last built, which happens every {@link Consts#perfOverlayUpdateInterval} seconds. Rendering the overlay
+ * doesn't allocate.
+ *
+ * @author Benjamin Schmid
+ */
+public class PerfOverlay extends AbstractGUIElement {
+	private static final Color backgroundColor = new Color(0f, 0f, 0f, 0.6f);
+	private static final Color textColor = Color.WHITE;
+	private static final Color fastColor = Color.GREEN;
+	private static final Color slowColor = Color.YELLOW;
+	private static final Color tooSlowColor = Color.RED;
+	/**
+	 * frames that take longer are drawn as slow, frames that take twice as long as too slow
+	 */
+	private static final float targetFrameTime = 1f / 60f;
+	private static boolean gcCountAvailable = true;
+
+	private BitmapFontRapper font;
+	private int updateScope;
+	private int renderScope;
+	private int aiScope;
+
+	/**
+	 * the times of the last frames, a ring buffer
+	 */
+	private float[] frameTimes;
+	private int frameTimesStart;
+
+	private StringBuilder text;
+	private GlyphLayout layout;
+	private BitmapFont layoutFont;
+	private float timeUntilUpdate;
+
+	private int frames;
+	private float frameTimeSum;
+	private float frameTimeMax;
+	private long updateTime;
+	private long renderTime;
+	private long aiTime;
+	private int renderCalls;
+	private int visibleFields;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param font        the font of the text
+	 * @param updateScope the scope of the {@link Profiler} that measures updating the game
+	 * @param renderScope the scope of the {@link Profiler} that measures rendering the game
+	 * @param aiScope     the scope of the {@link Profiler} that measures the AI
+	 */
+	public PerfOverlay(BitmapFontRapper font, int updateScope, int renderScope, int aiScope) {
+		super();
+		this.font = font;
+		this.updateScope = updateScope;
+		this.renderScope = renderScope;
+		this.aiScope = aiScope;
+		frameTimes = new float[Consts.perfOverlayFrames];
+		text = new StringBuilder(256);
+		layout = new GlyphLayout();
+	}
+
+	/**
+	 * Set the numbers of the last frame that only the screen knows
+	 *
+	 * @param renderCalls   the draw calls of the last frame
+	 * @param visibleFields the number of fields that were rendered
+	 */
+	public void setFrameInfo(int renderCalls, int visibleFields) {
+		this.renderCalls = renderCalls;
+		this.visibleFields = visibleFields;
+	}
+
+	/**
+	 * The overlay doesn't react to clicks, so the world below it can be clicked
+	 */
+	@Override
+	public boolean updateClickable(Vector2 touchPos, boolean wasClick) {
+		return false;
+	}
+
+	@Override
+	public void render(float delta, SpriteBatch spriteBatch) {
+		if (!visible) {
+			return;
+		}
+		sample(delta);
+		timeUntilUpdate -= delta;
+		if (timeUntilUpdate <= 0 || layoutFont != font.bitmapFont) {
+			buildText();
+			timeUntilUpdate = Consts.perfOverlayUpdateInterval;
+		}
+
+		spriteBatch.setColor(backgroundColor);
+		spriteBatch.draw(Assets.white, position.x, position.y, size.x, size.y);
+
+		float padding = 5 * Consts.devScaleY;
+		font.bitmapFont.draw(spriteBatch, layout, position.x + padding, position.y + size.y - padding);
+
+		// one bar per frame, the newest one on the right
+		float histogramHeight = size.y - layout.height - 3 * padding;
+		if (histogramHeight <= 0) {
+			return;
+		}
+		float barWidth = (size.x - 2 * padding) / frameTimes.length;
+		for (int i = 0; i < frameTimes.length; i++) {
+			float frameTime = frameTimes[(frameTimesStart + i) % frameTimes.length];
+			if (frameTime <= 0) {
+				continue;
+			}
+			if (frameTime > 2 * targetFrameTime) {
+				spriteBatch.setColor(tooSlowColor);
+			} else if (frameTime > targetFrameTime) {
+				spriteBatch.setColor(slowColor);
+			} else {
+				spriteBatch.setColor(fastColor);
+			}
+			float height = Math.min(1f, frameTime / (4 * targetFrameTime)) * histogramHeight;
+			spriteBatch.draw(Assets.white, position.x + padding + i * barWidth, position.y + padding,
+					Math.max(1f, barWidth - 1f), height);
+		}
+		spriteBatch.setColor(Color.WHITE);
+	}
+
+	/**
+	 * Add the last frame to the histogram and the averages
+	 *
+	 * @param delta the time of the last frame
+	 */
+	private void sample(float delta) {
+		frameTimes[frameTimesStart] = delta;
+		frameTimesStart = (frameTimesStart + 1) % frameTimes.length;
+
+		frames++;
+		frameTimeSum += delta;
+		frameTimeMax = Math.max(frameTimeMax, delta);
+		Profiler profiler = Profiler.get();
+		updateTime += profiler.getFrameStats(updateScope).getLastTotal();
+		renderTime += profiler.getFrameStats(renderScope).getLastTotal();
+		aiTime += profiler.getFrameStats(aiScope).getLastTotal();
+	}
+
+	/**
+	 * Build the text from the frames since the last time and start averaging again
+	 */
+	private void buildText() {
+		Runtime runtime = Runtime.getRuntime();
+		long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+
+		text.setLength(0);
+		text.append("FPS ").append(frameTimeSum > 0 ? Math.round(frames / frameTimeSum) : 0);
+		text.append("  frame ");
+		appendMillis(text, frames > 0 ? (long) (frameTimeSum / frames * 1e9) : 0);
+		text.append(" ms, max ");
+		appendMillis(text, (long) (frameTimeMax * 1e9));
+		text.append(" ms\nupdate ");
+		appendMillis(text, frames > 0 ? updateTime / frames : 0);
+		text.append(" ms  AI ");
+		appendMillis(text, frames > 0 ? aiTime / frames : 0);
+		text.append(" ms  render ");
+		appendMillis(text, frames > 0 ? renderTime / frames : 0);
+		text.append(" ms\ndraw calls ").append(renderCalls).append("  visible fields ").append(visibleFields);
+		text.append("\nheap ").append(usedMemory >> 20).append(" / ").append(runtime.maxMemory() >> 20)
+				.append(" MB  GC ");
+		long gcCount = getGCCount();
+		if (gcCount >= 0) {
+			text.append(gcCount);
+		} else {
+			text.append('-');
+		}
+
+		layoutFont = font.bitmapFont;
+		layout.setText(layoutFont, text, textColor, 0, Align.left, false);
+
+		frames = 0;
+		frameTimeSum = 0;
+		frameTimeMax = 0;
+		updateTime = 0;
+		renderTime = 0;
+		aiTime = 0;
+	}
+
+	/**
+	 * Append the given time in milliseconds with one decimal, without building a string
+	 *
+	 * @param stringBuilder the StringBuilder to append to
+	 * @param nanos         the time in nanoseconds
+	 */
+	private static void appendMillis(StringBuilder stringBuilder, long nanos) {
+		long tenths = (nanos + 50000) / 100000;
+		stringBuilder.append(tenths / 10).append('.').append(tenths % 10);
+	}
+
+	/**
+	 * Return the number of garbage collections since the start
+	 *
+	 * @return the number of collections, -1 if the platform doesn't tell
+	 */
+	private static long getGCCount() {
+		if (!gcCountAvailable) {
+			return -1;
+		}
+		try {
+			return GCCounter.getCount();
+		} catch (LinkageError e) {
+			// e.g. android has no java.lang.management
+			gcCountAvailable = false;
+			return -1;
+		}
+	}
+
+	/**
+	 * Counts the garbage collections, in its own class, so only it fails to load where java.lang.management is
+	 * missing
+	 */
+	private static class GCCounter {
+		private static List<GarbageCollectorMXBean> beans;
+
+		/**
+		 * Return the number of garbage collections of all collectors
+		 *
+		 * @return the number of collections, -1 if no collector tells
+		 */
+		static long getCount() {
+			if (beans == null) {
+				beans = ManagementFactory.getGarbageCollectorMXBeans();
+			}
+			long count = -1;
+			for (int i = 0; i < beans.size(); i++) {
+				long beanCount = beans.get(i).getCollectionCount();
+				if (beanCount >= 0) {
+					count = Math.max(0, count) + beanCount;
+				}
+			}
+			return count;
+		}
+	}
+}
@@ -3,20 +3,41 @@ package com.smeanox.games.sg002.util;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.smeanox.games.sg002.world.GameObjectType;
 import com.smeanox.games.sg002.world.MapObjectType;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
- * Manage all Assets
+ * Manage all Assets. All images that are drawn on the map or in the GUI are packed into one TextureAtlas when they
+ * are loaded, so drawing them doesn't require switching textures.
  *
  * @author Benjamin Schmid
  */
 public class Assets {
 	private static AssetManager manager;
+	/**
+	 * packs the images of the atlas, kept to restore the textures
+	 */
+	private static PixmapPacker packer;
+	/**
+	 * the atlas with all images except the background
+	 */
+	private static TextureAtlas atlas;
+	/**
+	 * the names of the field images that are packed into the atlas
+	 */
+	private static Set<String> atlasFieldImages = new LinkedHashSet<String>();
 
 	/**
 	 * smeanox logo
@@ -26,7 +47,7 @@ public class Assets {
 	/**
 	 * button
 	 */
-	public static Texture button;
+	public static TextureRegion button;
 
 	/**
 	 * background
@@ -36,29 +57,33 @@ public class Assets {
 	/**
 	 * selection
 	 */
-	public static Texture selection;
+	public static TextureRegion selection;
 	/**
 	 * healthbar tex
 	 */
-	public static Texture healthbar;
+	public static TextureRegion healthbar;
 	/**
 	 * grid
 	 */
-	public static Texture grid;
+	public static TextureRegion grid;
 	/**
 	 * possible field for movement
 	 */
-	public static Texture possibleFieldMove;
+	public static TextureRegion possibleFieldMove;
 	/**
 	 * possible field for fight
 	 */
-	public static Texture possibleFieldFight;
+	public static TextureRegion possibleFieldFight;
 	/**
 	 * possible field for production
 	 */
-	public static Texture possibleFieldProduce;
+	public static TextureRegion possibleFieldProduce;
 	/** possible field for goldmine */
-	public static Texture gold;
+	public static TextureRegion gold;
+	/**
+	 * a white region, e.g. to draw lines
+	 */
+	public static TextureRegion white;
 
 	/**
 	 * liberation font
@@ -69,6 +94,11 @@ public class Assets {
 	public static BitmapFontRapper liberationMedium;
 	public static BitmapFontRapper liberationLarge;
 
+	/**
+	 * the generated fonts of all sizes used so far
+	 */
+	private static FontCache fontCache;
+
 	private static boolean finishedCompletly;
 
 	private Assets() {
@@ -108,15 +138,15 @@ public class Assets {
 		param.minFilter = Consts.textureFilter;
 		param.genMipMaps = param.minFilter == Texture.TextureFilter.MipMapLinearLinear;
 
-		manager.load("images/button.png", Texture.class);
+		manager.load("images/button.png", Pixmap.class);
 		manager.load("images/background.png", Texture.class, param);
-		manager.load("images/selection.png", Texture.class, param);
-		manager.load("images/grid.png", Texture.class, param);
-		manager.load("images/possibleFieldMove.png", Texture.class, param);
-		manager.load("images/possibleFieldFight.png", Texture.class, param);
-		manager.load("images/possibleFieldProduce.png", Texture.class, param);
-		manager.load("images/gold.png", Texture.class, param);
-		manager.load("images/healthbar.png", Texture.class, param);
+		addToAtlas("images/selection.png");
+		addToAtlas("images/grid.png");
+		addToAtlas("images/possibleFieldMove.png");
+		addToAtlas("images/possibleFieldFight.png");
+		addToAtlas("images/possibleFieldProduce.png");
+		addToAtlas("images/gold.png");
+		addToAtlas("images/healthbar.png");
 
 		finishedCompletly = false;
 	}
@@ -135,6 +165,27 @@ public class Assets {
 		manager.load(filename, type, param);
 	}
 
+	/**
+	 * Add an image that is drawn on a field to be loaded into the atlas
+	 *
+	 * @param filename filename of the image
+	 */
+	public static void addToAtlas(String filename) {
+		if (atlasFieldImages.add(filename)) {
+			manager.load(filename, Pixmap.class);
+		}
+	}
+
+	/**
+	 * Return the region of an image in the atlas
+	 *
+	 * @param filename filename of the image
+	 * @return the region
+	 */
+	public static TextureRegion getAtlasRegion(String filename) {
+		return atlas.findRegion(filename);
+	}
+
 	/**
 	 * load the assets
 	 *
@@ -166,15 +217,19 @@ public class Assets {
 	 * assign the loaded assets to variables
 	 */
 	private static void finishedLoading() {
-		button = manager.get("images/button.png", Texture.class);
+		createAtlas();
+
+		button = getAtlasRegion("images/button.png");
 		background = manager.get("images/background.png", Texture.class);
-		selection = manager.get("images/selection.png", Texture.class);
-		grid = manager.get("images/grid.png", Texture.class);
-		possibleFieldMove = manager.get("images/possibleFieldMove.png", Texture.class);
-		possibleFieldFight = manager.get("images/possibleFieldFight.png", Texture.class);
-		possibleFieldProduce = manager.get("images/possibleFieldProduce.png", Texture.class);
-		gold = manager.get("images/gold.png", Texture.class);
-		healthbar = manager.get("images/healthbar.png", Texture.class);
+		selection = getAtlasRegion("images/selection.png");
+		grid = getAtlasRegion("images/grid.png");
+		possibleFieldMove = getAtlasRegion("images/possibleFieldMove.png");
+		possibleFieldFight = getAtlasRegion("images/possibleFieldFight.png");
+		possibleFieldProduce = getAtlasRegion("images/possibleFieldProduce.png");
+		gold = getAtlasRegion("images/gold.png");
+		healthbar = getAtlasRegion("images/healthbar.png");
+		// the inner pixels, so filtering doesn't blend in the padding
+		white = new TextureRegion(getAtlasRegion("white"), 1, 1, 2, 2);
 
 
 		setGameObjectTypeTextures();
@@ -185,12 +240,73 @@ public class Assets {
 		finishedCompletly = true;
 	}
 
+	/**
+	 * Pack the loaded images into the atlas. Field images are scaled down to {@link Consts#atlasFieldSize}, so all of
+	 * them fit on one page. The source images are unloaded afterwards.
+	 */
+	private static void createAtlas() {
+		if (packer != null) {
+			packer.dispose();
+		}
+		if (atlas != null) {
+			atlas.dispose();
+		}
+		boolean useMipMaps = Consts.textureFilter == Texture.TextureFilter.MipMapLinearLinear;
+		packer = new PixmapPacker(Consts.atlasPageSize, Consts.atlasPageSize, Pixmap.Format.RGBA8888,
+				Consts.atlasPadding, true);
+
+		packer.pack("images/button.png", manager.get("images/button.png", Pixmap.class));
+		manager.unload("images/button.png");
+		Pixmap whitePixmap = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+		whitePixmap.setColor(Color.WHITE);
+		whitePixmap.fill();
+		packer.pack("white", whitePixmap);
+		whitePixmap.dispose();
+		for (String filename : atlasFieldImages) {
+			packScaled(filename, manager.get(filename, Pixmap.class), Consts.atlasFieldSize);
+			manager.unload(filename);
+		}
+		atlasFieldImages.clear();
+
+		// magnified sprites look like the single textures did, mipmaps only apply to minification
+		Texture.TextureFilter magFilter = Consts.textureFilter.isMipMap() ? Texture.TextureFilter.Nearest
+				: Consts.textureFilter;
+		atlas = packer.generateTextureAtlas(Consts.textureFilter, magFilter, useMipMaps);
+	}
+
+	/**
+	 * Pack an image into the atlas, scaled down if it is larger than the given size
+	 *
+	 * @param name    name of the region
+	 * @param pixmap  the image
+	 * @param maxSize the maximal width and height
+	 */
+	private static void packScaled(String name, Pixmap pixmap, int maxSize) {
+		if (pixmap.getWidth() <= maxSize && pixmap.getHeight() <= maxSize) {
+			packer.pack(name, pixmap);
+			return;
+		}
+		float scale = Math.min((float) maxSize / pixmap.getWidth(), (float) maxSize / pixmap.getHeight());
+		Pixmap scaled = new Pixmap(Math.round(pixmap.getWidth() * scale), Math.round(pixmap.getHeight() * scale),
+				Pixmap.Format.RGBA8888);
+		Pixmap.Blending blending = Pixmap.getBlending();
+		Pixmap.setBlending(Pixmap.Blending.None);
+		Pixmap.setFilter(Pixmap.Filter.BiLinear);
+		scaled.drawPixmap(pixmap, 0, 0, pixmap.getWidth(), pixmap.getHeight(),
+				0, 0, scaled.getWidth(), scaled.getHeight());
+		Pixmap.setBlending(blending);
+		// this version of libGDX has no getter for the filter, nothing else changes the default
+		Pixmap.setFilter(Pixmap.Filter.NearestNeighbour);
+		packer.pack(name, scaled);
+		scaled.dispose();
+	}
+
 	/**
 	 * assign the loaded assets to gameObjectTypes
 	 */
 	private static void setGameObjectTypeTextures(){
 		for(GameObjectType gameObjectType : GameObjectType.getAllGameObjectTypes()){
-			gameObjectType.setTexture(manager.get(gameObjectType.getTextureName(), Texture.class));
+			gameObjectType.setTexture(getAtlasRegion(gameObjectType.getTextureName()));
 		}
 	}
 
@@ -199,7 +315,7 @@ public class Assets {
 	 */
 	private static void setMapObjectTypeTextures(){
 		for(MapObjectType mapObjectType : MapObjectType.getMapObjectTypes()){
-			mapObjectType.setTexture(manager.get(mapObjectType.getTextureName(), Texture.class));
+			mapObjectType.setTexture(getAtlasRegion(mapObjectType.getTextureName()));
 		}
 	}
 
@@ -223,38 +339,33 @@ public class Assets {
 			liberationLarge = new BitmapFontRapper();
 		}
 
-		if (liberationSmall.bitmapFont != null) {
-			liberationSmall.bitmapFont.dispose();
-		}
-		if (liberationMedium.bitmapFont != null) {
-			liberationMedium.bitmapFont.dispose();
-		}
-		if (liberationLarge.bitmapFont != null) {
-			liberationLarge.bitmapFont.dispose();
+		if (fontCache == null) {
+			FileHandle cacheDir = null;
+			if (Consts.persistFontCache && Gdx.files.isLocalStorageAvailable()) {
+				cacheDir = Gdx.files.local(Consts.fontCacheDirName);
+			}
+			fontCache = new FontCache(Gdx.files.internal("fonts/LiberationSans-Regular.ttf"), cacheDir,
+					Consts.fontCacheMaxFonts);
 		}
-
-		FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("fonts/LiberationSans-Regular.ttf"));
 		FreeTypeFontParameter parameter = new FreeTypeFontParameter();
 
 		// add Eur sign
 		parameter.characters = FreeTypeFontGenerator.DEFAULT_CHARS + "\u20AC";
 
 		parameter.size = (int) Math.ceil(Consts.fontSizeMicro * Consts.devScaleY);
-		liberationMicro.bitmapFont = generator.generateFont(parameter);
+		liberationMicro.bitmapFont = fontCache.getFont(parameter);
 		parameter.size = (int) Math.ceil(Consts.fontSizeSmall * Consts.devScaleY);
-		liberationSmall.bitmapFont = generator.generateFont(parameter);
+		liberationSmall.bitmapFont = fontCache.getFont(parameter);
 		parameter.size = (int) Math.ceil(Consts.fontSizeMedium * Consts.devScaleY);
-		liberationMedium.bitmapFont = generator.generateFont(parameter);
+		liberationMedium.bitmapFont = fontCache.getFont(parameter);
 		parameter.size = (int) Math.ceil(Consts.fontSizeLarge * Consts.devScaleY);
-		liberationLarge.bitmapFont = generator.generateFont(parameter);
+		liberationLarge.bitmapFont = fontCache.getFont(parameter);
 
 		parameter.size = (int) Math.ceil(Consts.fontSizeMicro * Consts.devScaleY);
 		parameter.shadowColor = Color.BLACK;
 		parameter.shadowOffsetX = (int) Math.ceil(0.5 * Consts.devScaleX);
 		parameter.shadowOffsetY = (int) Math.ceil(0.5 * Consts.devScaleY);
-		liberationMicroShadow.bitmapFont = generator.generateFont(parameter);
-
-		generator.dispose();
+		liberationMicroShadow.bitmapFont = fontCache.getFont(parameter);
 	}
 
 	/**
@@ -262,5 +373,17 @@ public class Assets {
 	 */
 	public static void unload() {
 		manager.dispose();
+		if (atlas != null) {
+			atlas.dispose();
+			atlas = null;
+		}
+		if (packer != null) {
+			packer.dispose();
+			packer = null;
+		}
+		if (fontCache != null) {
+			fontCache.dispose();
+			fontCache = null;
+		}
 	}
 }
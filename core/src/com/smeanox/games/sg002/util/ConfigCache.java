@@ -0,0 +1,312 @@
+package com.smeanox.games.sg002.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.XmlReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the config files through a binary cache. The cache holds the already parsed documents with all names and
+ * values in a shared string table and is keyed by a hash of the config files, so it is rebuilt whenever one of them
+ * changes. The readers get the same documents either way, translations are still resolved when reading.
+ * <pre>
+ * int     magic, int version, long CRC32 of the config files
+ * int     number of strings, then each string
+ * int     number of documents, then each document as element tree:
+ *         name, number of attributes, (name, value)*, text or -1, number of children, children*
+ * </pre>
+ *
+ * @author Benjamin Schmid
+ */
+public class ConfigCache {
+	private static final int magic = 0x53473032;
+	private static final int version = 2;
+
+	private ConfigCache() {
+	}
+
+	/**
+	 * Read the GameObjectTypes, MapObjectTypes and Scenarios, from the cache if it is up to date, from the XML files
+	 * otherwise. An outdated or broken cache is rebuilt.
+	 *
+	 * @param gameObjectTypes the GameObjectTypes file
+	 * @param mapObjectTypes  the MapObjectTypes file
+	 * @param scenarios       the Scenarios file
+	 * @param cache           the cache file
+	 * @return true if the cache was used
+	 */
+	public static boolean readConfig(FileHandle gameObjectTypes, FileHandle mapObjectTypes, FileHandle scenarios,
+									 FileHandle cache) {
+		FileHandle[] files = new FileHandle[]{gameObjectTypes, mapObjectTypes, scenarios};
+		byte[][] contents = new byte[files.length][];
+		long hash;
+		try {
+			for (int i = 0; i < files.length; i++) {
+				contents[i] = files[i].readBytes();
+			}
+			hash = hash(contents);
+		} catch (GdxRuntimeException e) {
+			// let the readers report the missing file
+			readConfig(files, null);
+			return false;
+		}
+
+		XmlReader.Element[] roots = readCache(cache, hash, files.length);
+		if (roots != null) {
+			readConfig(files, roots);
+			return true;
+		}
+
+		roots = new XmlReader.Element[files.length];
+		XmlReader reader = new XmlReader();
+		try {
+			for (int i = 0; i < files.length; i++) {
+				roots[i] = reader.parse(new InputStreamReader(new ByteArrayInputStream(contents[i]), "UTF-8"));
+			}
+		} catch (IOException e) {
+			readConfig(files, null);
+			return false;
+		} catch (RuntimeException e) {
+			// malformed XML, let the readers report it
+			readConfig(files, null);
+			return false;
+		}
+		readConfig(files, roots);
+		writeCache(cache, hash, roots);
+		return false;
+	}
+
+	/**
+	 * Pass the documents to the readers
+	 *
+	 * @param files the config files
+	 * @param roots the parsed documents, or null to let the readers parse the files
+	 */
+	private static void readConfig(FileHandle[] files, XmlReader.Element[] roots) {
+		if (roots == null) {
+			GameObjectTypeReader.readGameObjectTypes(files[0]);
+			MapObjectTypeReader.readMapObjectTypes(files[1]);
+			ScenarioReader.readScenarios(files[2]);
+		} else {
+			GameObjectTypeReader.readGameObjectTypes(roots[0], files[0].name());
+			MapObjectTypeReader.readMapObjectTypes(roots[1], files[1].name());
+			ScenarioReader.readScenarios(roots[2], files[2].name());
+		}
+	}
+
+	/**
+	 * Hash the contents of the config files. A CRC32 is enough to notice changes, a MessageDigest takes longer to
+	 * create than the whole config takes to read.
+	 *
+	 * @param contents the contents
+	 * @return the CRC32
+	 */
+	private static long hash(byte[][] contents) {
+		CRC32 crc = new CRC32();
+		for (byte[] content : contents) {
+			// the length separates the files
+			int length = content.length;
+			crc.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8),
+					(byte) length});
+			crc.update(content);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Read the documents from the cache
+	 *
+	 * @param cache the cache file
+	 * @param hash  the hash of the current config files
+	 * @param count the number of documents
+	 * @return the documents, or null if the cache is missing, outdated or broken
+	 */
+	private static XmlReader.Element[] readCache(FileHandle cache, long hash, int count) {
+		if (!cache.exists()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(cache.read()));
+			if (in.readInt() != magic || in.readInt() != version) {
+				return null;
+			}
+			if (in.readLong() != hash) {
+				return null;
+			}
+			String[] strings = new String[in.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = in.readUTF();
+			}
+			if (in.readInt() != count) {
+				return null;
+			}
+			XmlReader.Element[] roots = new XmlReader.Element[count];
+			for (int i = 0; i < count; i++) {
+				roots[i] = readElement(in, strings, null);
+			}
+			return roots;
+		} catch (IOException e) {
+			System.out.println("Config cache is broken: " + cache.name());
+			return null;
+		} catch (RuntimeException e) {
+			// index out of bounds etc.
+			System.out.println("Config cache is broken: " + cache.name());
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read an element and its children
+	 *
+	 * @param in      the stream to read from
+	 * @param strings the string table
+	 * @param parent  the parent of the element
+	 * @return the element
+	 * @throws IOException if reading fails
+	 */
+	private static XmlReader.Element readElement(DataInputStream in, String[] strings, XmlReader.Element parent)
+			throws IOException {
+		XmlReader.Element element = new XmlReader.Element(strings[in.readInt()], parent);
+		int attributeCount = in.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			element.setAttribute(strings[in.readInt()], strings[in.readInt()]);
+		}
+		int text = in.readInt();
+		if (text >= 0) {
+			element.setText(strings[text]);
+		}
+		int childCount = in.readInt();
+		for (int i = 0; i < childCount; i++) {
+			element.addChild(readElement(in, strings, element));
+		}
+		return element;
+	}
+
+	/**
+	 * Write the documents to the cache. Failures are reported, the config is read from XML next time.
+	 *
+	 * @param cache the cache file
+	 * @param hash  the hash of the config files
+	 * @param roots the documents
+	 */
+	private static void writeCache(FileHandle cache, long hash, XmlReader.Element[] roots) {
+		List<String> strings = new ArrayList<String>();
+		HashMap<String, Integer> stringIds = new HashMap<String, Integer>();
+		for (XmlReader.Element root : roots) {
+			collectStrings(root, strings, stringIds);
+		}
+
+		// write to a temporary file first, so an interrupted write doesn't leave a broken cache behind. Several
+		// headless workers may start at once, each one needs its own.
+		FileHandle tmp = cache.sibling(cache.name() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(tmp.write(false)));
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeLong(hash);
+			out.writeInt(strings.size());
+			for (String string : strings) {
+				out.writeUTF(string);
+			}
+			out.writeInt(roots.length);
+			for (XmlReader.Element root : roots) {
+				writeElement(out, root, stringIds);
+			}
+			out.close();
+			out = null;
+			tmp.moveTo(cache);
+		} catch (IOException e) {
+			System.out.println("Could not write config cache: " + cache.name());
+			e.printStackTrace();
+		} catch (GdxRuntimeException e) {
+			System.out.println("Could not write config cache: " + cache.name());
+			e.printStackTrace();
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add all names, values and texts of an element and its children to the string table
+	 *
+	 * @param element   the element
+	 * @param strings   the string table
+	 * @param stringIds the index of each string in the table
+	 */
+	private static void collectStrings(XmlReader.Element element, List<String> strings,
+									   HashMap<String, Integer> stringIds) {
+		addString(element.getName(), strings, stringIds);
+		if (element.getAttributes() != null) {
+			for (ObjectMap.Entry<String, String> attribute : element.getAttributes().entries()) {
+				addString(attribute.key, strings, stringIds);
+				addString(attribute.value, strings, stringIds);
+			}
+		}
+		if (element.getText() != null) {
+			addString(element.getText(), strings, stringIds);
+		}
+		for (int i = 0; i < element.getChildCount(); i++) {
+			collectStrings(element.getChild(i), strings, stringIds);
+		}
+	}
+
+	private static void addString(String string, List<String> strings, HashMap<String, Integer> stringIds) {
+		if (!stringIds.containsKey(string)) {
+			stringIds.put(string, strings.size());
+			strings.add(string);
+		}
+	}
+
+	/**
+	 * Write an element and its children
+	 *
+	 * @param out       the stream to write to
+	 * @param element   the element
+	 * @param stringIds the index of each string in the table
+	 * @throws IOException if writing fails
+	 */
+	private static void writeElement(DataOutputStream out, XmlReader.Element element,
+									 HashMap<String, Integer> stringIds) throws IOException {
+		out.writeInt(stringIds.get(element.getName()));
+		if (element.getAttributes() == null) {
+			out.writeInt(0);
+		} else {
+			out.writeInt(element.getAttributes().size);
+			for (ObjectMap.Entry<String, String> attribute : element.getAttributes().entries()) {
+				out.writeInt(stringIds.get(attribute.key));
+				out.writeInt(stringIds.get(attribute.value));
+			}
+		}
+		out.writeInt(element.getText() == null ? -1 : stringIds.get(element.getText()));
+		out.writeInt(element.getChildCount());
+		for (int i = 0; i < element.getChildCount(); i++) {
+			writeElement(out, element.getChild(i), stringIds);
+		}
+	}
+}
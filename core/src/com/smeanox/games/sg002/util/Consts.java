@@ -37,11 +37,32 @@ public class Consts {
 	 */
 	public static float devScaleY = 1.0f;
 
+	/**
+	 * Whether the game screen only renders when something changes instead of continuously, which saves battery.
+	 * Set by the launchers.
+	 */
+	public static boolean renderOnDemand = false;
+
 	/**
 	 * The textureFilter to use to render the graphics
 	 */
 	public static Texture.TextureFilter textureFilter = Texture.TextureFilter.Nearest;
 
+	/**
+	 * The width and height of a page of the texture atlas
+	 */
+	public static final int atlasPageSize = 2048;
+
+	/**
+	 * The space between two images in the texture atlas, keeps them from bleeding into each other when filtered
+	 */
+	public static final int atlasPadding = 4;
+
+	/**
+	 * The maximal size of a field image in the texture atlas, larger images are scaled down
+	 */
+	public static final int atlasFieldSize = 256;
+
 	/**
 	 * The font size for micro
 	 */
@@ -58,6 +79,18 @@ public class Consts {
 	 * The font size for large
 	 */
 	public static final int fontSizeLarge = 42;
+	/**
+	 * The number of generated fonts kept in memory, should be at least the number of fonts in use
+	 */
+	public static final int fontCacheMaxFonts = 20;
+	/**
+	 * Whether generated fonts are written to local storage, so they don't have to be generated on the next start
+	 */
+	public static boolean persistFontCache = true;
+	/**
+	 * The directory in local storage for the generated fonts
+	 */
+	public static final String fontCacheDirName = "cache/fonts";
 
 	/**
 	 * The size of a single tile on the map
@@ -106,6 +139,49 @@ public class Consts {
 	 */
 	public static final float hpDisplayMinZoom = 0.06f;
 
+	/**
+	 * Below this zoom factor the world is rendered from a texture with one pixel per field, see
+	 * {@link com.smeanox.games.sg002.view.WorldColorMap}
+	 */
+	public static final float lodMaxZoom = 0.02f;
+
+	/**
+	 * The maximal width and height of the texture the world is rendered from when zoomed out. On larger maps a pixel
+	 * shows several fields.
+	 */
+	public static final int lodMaxTextureSize = 2048;
+
+	/**
+	 * The maximal width and height in pixels of the texture of the minimap
+	 */
+	public static final int minimapTextureSize = 256;
+
+	/**
+	 * The width and height of the minimap
+	 */
+	public static final float minimapSize = 120;
+
+	/**
+	 * The color of a MapObjectType that doesn't specify one
+	 */
+	public static final Color defaultMapObjectColor = Color.DARK_GRAY;
+
+	/**
+	 * The number of fields rendered beyond each border of the screen
+	 */
+	public static final int cullingMargin = 1;
+
+	/**
+	 * The width and height in fields of a chunk of the cached background, grid and MapObjects
+	 */
+	public static final int staticLayerChunkSize = 32;
+
+	/**
+	 * The maximal number of fields of the cached background, grid and MapObjects. If more fields are visible, they
+	 * are drawn without the cache.
+	 */
+	public static final int staticLayerMaxFields = 128 * 128;
+
 	/**
 	 * The color for the different players
 	 */
@@ -145,11 +221,95 @@ public class Consts {
 	 */
 	public static int startGameObjectMinDistance = 2;
 
+	/**
+	 * Whether the {@link com.smeanox.games.sg002.debug.Profiler} measures the instrumented scopes
+	 */
+	public static boolean profilerEnabled = true;
+	/**
+	 * The number of finished scopes a thread can buffer until the profiler collects them
+	 */
+	public static final int profilerBufferSize = 4096;
+	/**
+	 * The maximal depth of nested scopes the profiler measures
+	 */
+	public static final int profilerMaxDepth = 32;
+	/**
+	 * The number of frames and turns the profiler keeps for the percentiles
+	 */
+	public static final int profilerHistorySize = 256;
+	/**
+	 * Whether the performance overlay is shown when the game starts, it can be toggled with
+	 * {@link KeyboardShortcuts#perfOverlay}
+	 */
+	public static boolean showPerfOverlay = false;
+	/**
+	 * The number of frames in the histogram of the performance overlay
+	 */
+	public static final int perfOverlayFrames = 120;
+	/**
+	 * The time in seconds between two updates of the text of the performance overlay
+	 */
+	public static final float perfOverlayUpdateInterval = 0.25f;
+	/**
+	 * The file the profiler writes its stats to
+	 */
+	public static final String profilerFileName = "profile.csv";
+
 	/**
 	 * The name of the file used for QuickSaving
 	 */
 	public static final String quickSaveFileName = "quicksave.xml";
 
+	/**
+	 * Whether save games are written compressed. Both compressed and uncompressed save games can be loaded.
+	 */
+	public static boolean compressSaveGames = true;
+
+	/**
+	 * The directory the autosave is written to
+	 */
+	public static final String autosaveDirName = "autosave";
+
+	/**
+	 * The number of rounds between two full autosave snapshots, the actions in between are journaled
+	 */
+	public static int autosaveInterval = 5;
+
+	/**
+	 * Whether a replay of every game is recorded
+	 */
+	public static boolean recordReplays = true;
+
+	/**
+	 * The directory replays are written to, every game gets its own sub directory
+	 */
+	public static final String replayDirName = "replays";
+
+	/**
+	 * The number of replays that are kept, the oldest ones are deleted when a new game is recorded
+	 */
+	public static int replayMaxCount = 5;
+
+	/**
+	 * The number of rounds between two keyframes in a replay, seeking replays the rounds since the last keyframe
+	 */
+	public static int replayKeyframeInterval = 10;
+
+	/**
+	 * The maximal number of turns per second a replay is played at
+	 */
+	public static final float replayMaxSpeed = 64f;
+
+	/**
+	 * The file the compiled config files are cached in
+	 */
+	public static final String configCacheFileName = "cache/config.bin";
+
+	/**
+	 * number of seconds a status message is displayed
+	 */
+	public static final float statusMessageDuration = 2f;
+
 	/**
 	 * Keyboard Shortcuts
 	 */
@@ -168,6 +328,13 @@ public class Consts {
 		public static final int move = Input.Keys.M;
 		public static final int fight = Input.Keys.F;
 		public static final int cancel = Input.Keys.BACKSPACE;
+		public static final int replayPause = Input.Keys.SPACE;
+		public static final int replayStepForward = Input.Keys.RIGHT;
+		public static final int replayStepBack = Input.Keys.LEFT;
+		public static final int replayFaster = Input.Keys.UP;
+		public static final int replaySlower = Input.Keys.DOWN;
+		public static final int profilerDump = Input.Keys.F9;
+		public static final int perfOverlay = Input.Keys.F3;
 
 		private static LinkedList<Integer> allShortcuts;
 
@@ -193,6 +360,13 @@ public class Consts {
 				allShortcuts.add(move);
 				allShortcuts.add(fight);
 				allShortcuts.add(cancel);
+				allShortcuts.add(replayPause);
+				allShortcuts.add(replayStepForward);
+				allShortcuts.add(replayStepBack);
+				allShortcuts.add(replayFaster);
+				allShortcuts.add(replaySlower);
+				allShortcuts.add(profilerDump);
+				allShortcuts.add(perfOverlay);
 			}
 			return allShortcuts;
 		}
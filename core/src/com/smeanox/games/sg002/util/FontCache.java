@@ -0,0 +1,359 @@
+package com.smeanox.games.sg002.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the fonts generated with FreeType, so resizing to a size that was used before doesn't generate them again.
+ * The fonts are kept in memory, the least recently used ones are disposed when there are too many. Optionally they
+ * are also written to disk as .fnt file with .png pages, in a directory named after a hash of the font file and the
+ * characters, so only the first start at a size generates the fonts.
+ * <p>
+ * The .fnt files are in the text format of BMFont. The metrics of the generated font are stored in an additional
+ * "metrics" line, which BitmapFont ignores, and restored after loading.
+ *
+ * @author Benjamin Schmid
+ */
+public class FontCache implements Disposable {
+	/**
+	 * changes whenever the format of the files on disk changes
+	 */
+	private static final int version = 1;
+	/**
+	 * the width and height of the pages of a generated font
+	 */
+	private static final int pageSize = 512;
+
+	private FileHandle fontFile;
+	private FileHandle cacheDir;
+	private int maxSize;
+	private LinkedHashMap<String, BitmapFont> fonts;
+	private FreeTypeFontGenerator generator;
+	private String hash;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param fontFile the TrueType font
+	 * @param cacheDir the directory to write the fonts to, null to keep them in memory only
+	 * @param maxSize  the number of fonts kept in memory, at least the number of fonts used at once
+	 */
+	public FontCache(FileHandle fontFile, FileHandle cacheDir, int maxSize) {
+		this.fontFile = fontFile;
+		this.cacheDir = cacheDir;
+		this.maxSize = maxSize;
+		fonts = new LinkedHashMap<String, BitmapFont>(16, 0.75f, true);
+	}
+
+	/**
+	 * Return the font for the given parameters, from memory, from disk or newly generated. The font belongs to the
+	 * cache and must not be disposed.
+	 *
+	 * @param parameter the parameters, only the size, the characters and the shadow are used
+	 * @return the font
+	 */
+	public BitmapFont getFont(FreeTypeFontParameter parameter) {
+		String key = getKey(parameter);
+		BitmapFont font = fonts.get(key);
+		if (font != null) {
+			return font;
+		}
+
+		FileHandle file = cacheDir == null ? null : getCacheDir(parameter.characters).child(key + ".fnt");
+		if (file != null && file.exists()) {
+			font = readFont(file);
+		}
+		if (font == null) {
+			font = generateFont(parameter, file);
+		}
+		fonts.put(key, font);
+		evict();
+		return font;
+	}
+
+	/**
+	 * Dispose the least recently used fonts until there are at most maxSize
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, BitmapFont>> iterator = fonts.entrySet().iterator();
+		while (fonts.size() > maxSize && iterator.hasNext()) {
+			iterator.next().getValue().dispose();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * The number of fonts kept in memory
+	 *
+	 * @return the number of fonts
+	 */
+	public int size() {
+		return fonts.size();
+	}
+
+	/**
+	 * Return the name of a font in the cache
+	 *
+	 * @param parameter the parameters of the font
+	 * @return the name
+	 */
+	static String getKey(FreeTypeFontParameter parameter) {
+		String key = "s" + parameter.size;
+		if (parameter.shadowColor != null && (parameter.shadowOffsetX != 0 || parameter.shadowOffsetY != 0)) {
+			key += "_shadow" + parameter.shadowColor + "_" + parameter.shadowOffsetX + "_" + parameter.shadowOffsetY;
+		}
+		return key;
+	}
+
+	/**
+	 * Return the directory of the fonts with the given characters
+	 *
+	 * @param characters the characters
+	 * @return the directory
+	 */
+	private FileHandle getCacheDir(String characters) {
+		if (hash == null) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-1");
+				digest.update(fontFile.readBytes());
+				digest.update((version + characters).getBytes("UTF-8"));
+				StringBuilder stringBuilder = new StringBuilder();
+				for (byte b : digest.digest()) {
+					stringBuilder.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+				}
+				hash = stringBuilder.toString();
+			} catch (NoSuchAlgorithmException e) {
+				throw new GdxRuntimeException(e);
+			} catch (IOException e) {
+				throw new GdxRuntimeException(e);
+			}
+		}
+		return cacheDir.child(hash);
+	}
+
+	/**
+	 * Generate the font with FreeType and write it to the given file
+	 *
+	 * @param parameter the parameters
+	 * @param file      the file to write to or null
+	 * @return the font
+	 */
+	private BitmapFont generateFont(FreeTypeFontParameter parameter, FileHandle file) {
+		if (generator == null) {
+			generator = new FreeTypeFontGenerator(fontFile);
+		}
+		PixmapPacker packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 2, false);
+		parameter.packer = packer;
+		BitmapFont font = generator.generateFont(parameter);
+		parameter.packer = null;
+		// the textures of the pages dispose their pixmaps, the packer has nothing else to dispose
+		font.setOwnsTexture(true);
+		if (file != null) {
+			Array<Pixmap> pages = new Array<Pixmap>();
+			for (PixmapPacker.Page page : packer.getPages()) {
+				pages.add(page.getPixmap());
+			}
+			try {
+				writeFont(file, font.getData(), pages);
+			} catch (GdxRuntimeException e) {
+				System.out.println("Font cache could not be written: " + file.path());
+			}
+		}
+		packer.dispose();
+		return font;
+	}
+
+	/**
+	 * Write the font as .fnt file with a .png file per page
+	 *
+	 * @param file  the .fnt file
+	 * @param data  the data of the font
+	 * @param pages the pages
+	 */
+	static void writeFont(FileHandle file, BitmapFont.BitmapFontData data, Array<Pixmap> pages) {
+		String name = file.nameWithoutExtension();
+		for (int i = 0; i < pages.size; i++) {
+			PixmapIO.writePNG(file.sibling(name + "_" + i + ".png"), pages.get(i));
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("info face=\"").append(name).append("\" size=0 bold=0 italic=0 charset=\"\" unicode=1 ")
+				.append("stretchH=100 smooth=1 aa=1 padding=0,0,0,0 spacing=0,0\n");
+		sb.append("common lineHeight=").append(Math.round(data.lineHeight))
+				.append(" base=").append(Math.round(data.ascent + data.capHeight))
+				.append(" scaleW=").append(pages.size > 0 ? pages.get(0).getWidth() : 0)
+				.append(" scaleH=").append(pages.size > 0 ? pages.get(0).getHeight() : 0)
+				.append(" pages=").append(pages.size).append(" packed=0\n");
+		for (int i = 0; i < pages.size; i++) {
+			sb.append("page id=").append(i).append(" file=\"").append(name).append("_").append(i).append(".png\"\n");
+		}
+
+		int count = 0;
+		StringBuilder chars = new StringBuilder();
+		StringBuilder kernings = new StringBuilder();
+		int kerningCount = 0;
+		for (BitmapFont.Glyph[] glyphPage : data.glyphs) {
+			if (glyphPage == null) {
+				continue;
+			}
+			for (BitmapFont.Glyph glyph : glyphPage) {
+				if (glyph == null) {
+					continue;
+				}
+				count++;
+				// BitmapFont reads the offset from the top of the line, not from the base line
+				chars.append("char id=").append(glyph.id).append(" x=").append(glyph.srcX)
+						.append(" y=").append(glyph.srcY).append(" width=").append(glyph.width)
+						.append(" height=").append(glyph.height).append(" xoffset=").append(glyph.xoffset)
+						.append(" yoffset=").append(-(glyph.yoffset + glyph.height))
+						.append(" xadvance=").append(glyph.xadvance).append(" page=").append(glyph.page)
+						.append(" chnl=0\n");
+				if (glyph.kerning == null) {
+					continue;
+				}
+				for (int i = 0; i < glyph.kerning.length; i++) {
+					if (glyph.kerning[i] == null) {
+						continue;
+					}
+					for (int j = 0; j < glyph.kerning[i].length; j++) {
+						if (glyph.kerning[i][j] != 0) {
+							kerningCount++;
+							kernings.append("kerning first=").append(glyph.id)
+									.append(" second=").append(i * glyph.kerning[i].length + j)
+									.append(" amount=").append(glyph.kerning[i][j]).append("\n");
+						}
+					}
+				}
+			}
+		}
+		sb.append("chars count=").append(count).append("\n");
+		sb.append(chars);
+		sb.append("metrics lineHeight=").append(data.lineHeight).append(" capHeight=").append(data.capHeight)
+				.append(" ascent=").append(data.ascent).append(" descent=").append(data.descent)
+				.append(" down=").append(data.down).append(" spaceWidth=").append(data.spaceWidth)
+				.append(" xHeight=").append(data.xHeight).append(" padTop=").append(data.padTop)
+				.append(" padRight=").append(data.padRight).append(" padBottom=").append(data.padBottom)
+				.append(" padLeft=").append(data.padLeft).append("\n");
+		sb.append("kernings count=").append(kerningCount).append("\n");
+		sb.append(kernings);
+
+		// write to a temporary file first, so an interrupted write doesn't leave a broken font
+		FileHandle tmp = file.sibling(file.name() + ".tmp");
+		Writer writer = tmp.writer(false, "UTF-8");
+		try {
+			writer.write(sb.toString());
+		} catch (IOException e) {
+			throw new GdxRuntimeException(e);
+		} finally {
+			try {
+				writer.close();
+			} catch (IOException ignored) {
+			}
+		}
+		tmp.moveTo(file);
+	}
+
+	/**
+	 * Read a font written by {@link #writeFont(FileHandle, BitmapFont.BitmapFontData, Array)}
+	 *
+	 * @param file the .fnt file
+	 * @return the font or null if the file is broken
+	 */
+	private static BitmapFont readFont(FileHandle file) {
+		try {
+			BitmapFont.BitmapFontData data = readFontData(file);
+			return new BitmapFont(data, (TextureRegion) null, false);
+		} catch (RuntimeException e) {
+			System.out.println("Font cache is broken: " + file.path());
+			return null;
+		}
+	}
+
+	/**
+	 * Read the data of a font written by {@link #writeFont(FileHandle, BitmapFont.BitmapFontData, Array)}
+	 *
+	 * @param file the .fnt file
+	 * @return the data
+	 */
+	static BitmapFont.BitmapFontData readFontData(FileHandle file) {
+		BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData(file, false);
+		BufferedReader reader = file.reader(512, "UTF-8");
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.startsWith("metrics ")) {
+					continue;
+				}
+				for (String entry : line.substring("metrics ".length()).split(" ")) {
+					String[] keyValue = entry.split("=");
+					float value = Float.parseFloat(keyValue[1]);
+					if ("lineHeight".equals(keyValue[0])) {
+						data.lineHeight = value;
+					} else if ("capHeight".equals(keyValue[0])) {
+						data.capHeight = value;
+					} else if ("ascent".equals(keyValue[0])) {
+						data.ascent = value;
+					} else if ("descent".equals(keyValue[0])) {
+						data.descent = value;
+					} else if ("down".equals(keyValue[0])) {
+						data.down = value;
+					} else if ("spaceWidth".equals(keyValue[0])) {
+						data.spaceWidth = value;
+					} else if ("xHeight".equals(keyValue[0])) {
+						data.xHeight = value;
+					} else if ("padTop".equals(keyValue[0])) {
+						data.padTop = value;
+					} else if ("padRight".equals(keyValue[0])) {
+						data.padRight = value;
+					} else if ("padBottom".equals(keyValue[0])) {
+						data.padBottom = value;
+					} else if ("padLeft".equals(keyValue[0])) {
+						data.padLeft = value;
+					}
+				}
+				return data;
+			}
+		} catch (IOException e) {
+			throw new GdxRuntimeException(e);
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException ignored) {
+			}
+		}
+		throw new GdxRuntimeException("Font without metrics: " + file.path());
+	}
+
+	/**
+	 * Dispose all fonts and the generator
+	 */
+	@Override
+	public void dispose() {
+		for (BitmapFont font : fonts.values()) {
+			font.dispose();
+		}
+		fonts.clear();
+		if (generator != null) {
+			generator.dispose();
+			generator = null;
+		}
+	}
+}
@@ -1,7 +1,6 @@
 package com.smeanox.games.sg002.util;
 
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.utils.XmlReader;
 import com.smeanox.games.sg002.world.GameObjectType;
 
@@ -26,12 +25,28 @@ public class GameObjectTypeReader {
 	 * @return list with all the read ids
 	 */
 	public static ArrayList<String> readGameObjectTypes(FileHandle file) {
+		XmlReader reader = new XmlReader();
+		try {
+			return readGameObjectTypes(reader.parse(file), file.name());
+		} catch (IOException e) {
+			System.out.println("Config file (GameObjectTypes) not found: " + file.name());
+			e.printStackTrace();
+		}
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * Read all the GameObjectTypes from the given document
+	 *
+	 * @param root     the root element of the document
+	 * @param fileName the name of the file the document was read from
+	 * @return list with all the read ids
+	 */
+	public static ArrayList<String> readGameObjectTypes(XmlReader.Element root, String fileName) {
 		ArrayList<String> ids = new ArrayList<String>();
 		HashMap<GameObjectType, XmlReader.Element> damageTables = new HashMap<GameObjectType, XmlReader.Element>();
 		HashMap<GameObjectType, XmlReader.Element> canProduces = new HashMap<GameObjectType, XmlReader.Element>();
-		XmlReader reader = new XmlReader();
 		try {
-			XmlReader.Element root = reader.parse(file);
 			for (XmlReader.Element gameObjectType : root.getChildByName("GameObjectTypes").getChildrenByName("GameObjectType")) {
 				XmlReader.Element damageTable = gameObjectType.getChildByName("DamageTable");
 				XmlReader.Element canProduce = gameObjectType.getChildByName("CanProduce");
@@ -40,7 +55,7 @@ public class GameObjectTypeReader {
 				damageTables.put(aGameObjectType, damageTable);
 				canProduces.put(aGameObjectType, canProduce);
 				if (!Consts.headlessMode) {
-					Assets.addToLoadQueue(gameObjectType.getAttribute("texture"), Texture.class);
+					Assets.addToAtlas(gameObjectType.getAttribute("texture"));
 				}
 				ids.add(gameObjectType.getAttribute("id"));
 
@@ -69,11 +84,8 @@ public class GameObjectTypeReader {
 					}
 				}
 			}
-		} catch (IOException e) {
-			System.out.println("Config file (GameObjectTypes) not found: " + file.name());
-			e.printStackTrace();
 		} catch (NullPointerException e) {
-			System.out.println("Config file (GameObjectTypes) is bad: " + file.name());
+			System.out.println("Config file (GameObjectTypes) is bad: " + fileName);
 			e.printStackTrace();
 		}
 		return ids;
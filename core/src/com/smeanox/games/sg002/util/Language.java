@@ -46,7 +46,19 @@ public class Language {
 	 * @param locale the locale to load
 	 */
 	public static void loadStringsForHeadless(Locale locale) {
-		strings = I18NBundle.createBundle(new FileHandle("i18n/Strings"), locale);
+		loadStringsForHeadless(new FileHandle("."), locale);
+	}
+
+	/**
+	 * Load the i18n bundle for strings with the given locale from the given assets directory
+	 * <br>
+	 * Does not use {@link Gdx#files} and will only work on desktop
+	 *
+	 * @param assetsDir the assets directory
+	 * @param locale    the locale to load
+	 */
+	public static void loadStringsForHeadless(FileHandle assetsDir, Locale locale) {
+		strings = I18NBundle.createBundle(assetsDir.child("i18n/Strings"), locale);
 	}
 
 	/**
@@ -1,7 +1,7 @@
 package com.smeanox.games.sg002.util;
 
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader;
 import com.smeanox.games.sg002.world.GameObjectType;
@@ -29,10 +29,25 @@ public class MapObjectTypeReader {
 	 * @return list with all the read ids
 	 */
 	public static ArrayList<String> readMapObjectTypes(FileHandle file){
-		ArrayList<String> ids = new ArrayList<String>();
 		XmlReader reader = new XmlReader();
 		try {
-			XmlReader.Element root = reader.parse(file);
+			return readMapObjectTypes(reader.parse(file), file.name());
+		} catch (IOException e) {
+			System.out.println("Config file (MapObjectTypes) not found: " + file.name());
+			e.printStackTrace();
+		}
+		return new ArrayList<String>();
+	}
+
+	/**
+	 * Reads all the MapObjectTypes from the given document
+	 * @param root the root element of the document
+	 * @param fileName the name of the file the document was read from
+	 * @return list with all the read ids
+	 */
+	public static ArrayList<String> readMapObjectTypes(XmlReader.Element root, String fileName){
+		ArrayList<String> ids = new ArrayList<String>();
+		try {
 			for(XmlReader.Element mapObjectType : root.getChildByName("MapObjectTypes").getChildrenByName("MapObjectType")){
 
 				String id = mapObjectType.getAttribute("id");
@@ -57,7 +72,11 @@ public class MapObjectTypeReader {
 				}
 
 				MapObjectType aMapObjectType = new MapObjectType(textureName, id, allowedGameObjects);
-				Assets.addToLoadQueue(textureName, Texture.class);
+				String color = mapObjectType.getAttribute("color", null);
+				aMapObjectType.setColor(color != null ? Color.valueOf(color) : Consts.defaultMapObjectColor);
+				if (!Consts.headlessMode) {
+					Assets.addToAtlas(textureName);
+				}
 				ids.add(id);
 
 				if(mapObjectType.getBooleanAttribute("default", false)){
@@ -65,11 +84,8 @@ public class MapObjectTypeReader {
 				}
 			}
 
-		} catch (IOException e) {
-			System.out.println("Config file (MapObjectTypes) not found: " + file.name());
-			e.printStackTrace();
 		} catch (NullPointerException e){
-			System.out.println("Config file (MapObjectTypes) is bad: " + file.name());
+			System.out.println("Config file (MapObjectTypes) is bad: " + fileName);
 			e.printStackTrace();
 		}
 		return ids;
@@ -0,0 +1,194 @@
+package com.smeanox.games.sg002.util;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.smeanox.games.sg002.data.Point;
+
+import java.util.Random;
+
+/**
+ * Places points on the fields of a map so that no two points are closer than a minimal distance, measured as
+ * max(diffX, diffY). A background grid with cells of the minimal distance holds at most one point per cell, so a
+ * candidate only has to be compared to the points in the 3x3 neighbouring cells.
+ * <p>
+ * Points are first placed by dart throwing, which spreads them uniformly over the map. If the map is too crowded for
+ * that, the remaining space is filled with Poisson-disk sampling (Bridson) and a final scan, and the missing points
+ * are picked at random from the filled ones.
+ *
+ * @author Benjamin Schmid
+ */
+public class PoissonDiskSampler {
+	/**
+	 * number of candidates tried around an active point before it is retired
+	 */
+	private static final int candidatesPerPoint = 30;
+	/**
+	 * number of random darts thrown per requested point before falling back to filling the map
+	 */
+	private static final int dartsPerPoint = 30;
+
+	private final int mapSizeX;
+	private final int mapSizeY;
+	private final int minDist;
+	private final int gridSizeX;
+	private final int gridSizeY;
+	private final Random random;
+
+	/**
+	 * index + 1 of the point in each grid cell, 0 if empty
+	 */
+	private int[] grid;
+	/**
+	 * the placed points as y * mapSizeX + x
+	 */
+	private IntArray points;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param mapSizeX width of the map
+	 * @param mapSizeY height of the map
+	 * @param minDist  the minimal distance between two points, values below 1 only forbid equal points
+	 * @param random   the source of randomness, the result only depends on its state
+	 */
+	public PoissonDiskSampler(int mapSizeX, int mapSizeY, int minDist, Random random) {
+		this.mapSizeX = mapSizeX;
+		this.mapSizeY = mapSizeY;
+		this.minDist = Math.max(1, minDist);
+		this.random = random;
+		gridSizeX = (mapSizeX + this.minDist - 1) / this.minDist;
+		gridSizeY = (mapSizeY + this.minDist - 1) / this.minDist;
+	}
+
+	/**
+	 * Place the given number of points
+	 *
+	 * @param count the number of points
+	 * @return the points in random order
+	 * @throws IllegalArgumentException if the points don't fit on the map
+	 */
+	public Point[] sample(int count) {
+		if (count < 0 || mapSizeX <= 0 || mapSizeY <= 0) {
+			throw new IllegalArgumentException("Can't place " + count + " points on " + mapSizeX + "x" + mapSizeY);
+		}
+		grid = new int[gridSizeX * gridSizeY];
+		points = new IntArray(count);
+
+		throwDarts(count);
+		int placedByDarts = points.size;
+		if (placedByDarts < count) {
+			fillBridson();
+			fillScan();
+			if (points.size < count) {
+				throw new IllegalArgumentException("Can't place " + count + " points with a distance of " + minDist
+						+ " on " + mapSizeX + "x" + mapSizeY + ", only " + points.size + " fit");
+			}
+			// keep the darts, choose the rest at random from the filled points. The grid is invalid afterwards.
+			for (int i = placedByDarts; i < count; i++) {
+				points.swap(i, i + random.nextInt(points.size - i));
+			}
+		}
+
+		Point[] sol = new Point[count];
+		for (int i = 0; i < count; i++) {
+			sol[i] = new Point(points.get(i) % mapSizeX, points.get(i) / mapSizeX);
+		}
+		if (placedByDarts < count) {
+			// the order of the darts is already random, the filled points are in scan order
+			for (int i = count - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				Point tmp = sol[i];
+				sol[i] = sol[j];
+				sol[j] = tmp;
+			}
+		}
+		return sol;
+	}
+
+	/**
+	 * Place points at uniformly random positions until count points are placed or too many darts missed
+	 *
+	 * @param count the number of points
+	 */
+	private void throwDarts(int count) {
+		long darts = (long) count * dartsPerPoint;
+		for (long i = 0; i < darts && points.size < count; i++) {
+			tryAdd(random.nextInt(mapSizeX), random.nextInt(mapSizeY));
+		}
+	}
+
+	/**
+	 * Fill the space around the placed points with Poisson-disk sampling. Starts at a random point if there is none.
+	 */
+	private void fillBridson() {
+		if (points.size == 0) {
+			tryAdd(random.nextInt(mapSizeX), random.nextInt(mapSizeY));
+		}
+		IntArray active = new IntArray(points);
+		int range = 2 * minDist - 1;
+		while (active.size > 0) {
+			int activeIndex = random.nextInt(active.size);
+			int x = active.get(activeIndex) % mapSizeX;
+			int y = active.get(activeIndex) / mapSizeX;
+			boolean added = false;
+			for (int i = 0; i < candidatesPerPoint && !added; i++) {
+				// candidate in the ring [minDist, 2 * minDist) around the point
+				int dx, dy;
+				do {
+					dx = random.nextInt(2 * range + 1) - range;
+					dy = random.nextInt(2 * range + 1) - range;
+				} while (Math.max(Math.abs(dx), Math.abs(dy)) < minDist);
+				if (tryAdd(x + dx, y + dy)) {
+					active.add(points.peek());
+					added = true;
+				}
+			}
+			if (!added) {
+				active.removeIndex(activeIndex);
+			}
+		}
+	}
+
+	/**
+	 * Add a point wherever there is still space left, so the result is maximal
+	 */
+	private void fillScan() {
+		for (int y = 0; y < mapSizeY; y++) {
+			for (int x = 0; x < mapSizeX; x++) {
+				tryAdd(x, y);
+			}
+		}
+	}
+
+	/**
+	 * Add the given point if it is on the map and not too close to any other point
+	 *
+	 * @param x coordinate
+	 * @param y coordinate
+	 * @return true if the point was added
+	 */
+	private boolean tryAdd(int x, int y) {
+		if (x < 0 || x >= mapSizeX || y < 0 || y >= mapSizeY) {
+			return false;
+		}
+		int cellX = x / minDist;
+		int cellY = y / minDist;
+		if (grid[cellY * gridSizeX + cellX] != 0) {
+			// there can only be one point per cell
+			return false;
+		}
+		for (int aCellY = Math.max(0, cellY - 1); aCellY <= Math.min(gridSizeY - 1, cellY + 1); aCellY++) {
+			for (int aCellX = Math.max(0, cellX - 1); aCellX <= Math.min(gridSizeX - 1, cellX + 1); aCellX++) {
+				int index = grid[aCellY * gridSizeX + aCellX] - 1;
+				if (index >= 0) {
+					int point = points.get(index);
+					if (Math.max(Math.abs(point % mapSizeX - x), Math.abs(point / mapSizeX - y)) < minDist) {
+						return false;
+					}
+				}
+			}
+		}
+		points.add(y * mapSizeX + x);
+		grid[cellY * gridSizeX + cellX] = points.size;
+		return true;
+	}
+}
@@ -10,7 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Read a given XML file and create the Scenarios
+ * Read a given XML file and create the Scenarios. Random positions are only generated when a scenario is used.
  *
  * @author Benjamin Schmid
  */
@@ -25,60 +25,88 @@ public class ScenarioReader {
 	 * @return list with all the read ids
 	 */
 	public static ArrayList<String> readScenarios(FileHandle file) {
-		ArrayList<String> ids = new ArrayList<String>();
 		XmlReader reader = new XmlReader();
 		try {
-			XmlReader.Element root = reader.parse(file);
-			for(XmlReader.Element scenario : root.getChildByName("Scenarios").getChildrenByName("Scenario")){
-
-				if (scenario.getChildByName("GoldPos") != null && scenario.getChildByName("StartPos") != null){
-
-					List<Point> goldPos = new ArrayList<Point>();
-					for (XmlReader.Element pos : scenario.getChildByName("GoldPos").getChildrenByName("Gold")){
-						goldPos.add(new Point(pos.getIntAttribute("x"),pos.getIntAttribute("y")));
-					}
-					List<Point> startPos = new ArrayList<Point>();
-					for (XmlReader.Element pos : scenario.getChildByName("StartPos").getChildrenByName("Start")){
-						startPos.add(new Point(pos.getIntAttribute("x"),pos.getIntAttribute("y")));
-					}
+			return readScenarios(reader.parse(file), file.name());
+		} catch (IOException e) {
+			System.out.println("Config file (Scenarios) not found: " + file.name());
+			e.printStackTrace();
+		}
+		return new ArrayList<String>();
+	}
 
-					new Scenario(
-							scenario.getAttribute("id"),
-							Language.getStrings().get(scenario.getAttribute("name")),
-							scenario.getIntAttribute("startMoney"),
-							scenario.getIntAttribute("maxPlayerCount"),
-							scenario.getIntAttribute("mapSizeX"),
-							scenario.getIntAttribute("mapSizeY"),
-							scenario.getBooleanAttribute("walkDiagonal"),
-							scenario.getIntAttribute("startGameObjectMinDistance"),
-							Long.parseLong(scenario.getAttribute("seed")),
-							scenario.getIntAttribute("maxGold"),
-							scenario.getBooleanAttribute("multipleActionsPerObject"),
-							goldPos.toArray(new Point[goldPos.size()]),
-							startPos.toArray(new Point[startPos.size()]));
-				}else {
-					new Scenario(
-							scenario.getAttribute("id"),
-							Language.getStrings().get(scenario.getAttribute("name")),
-							scenario.getIntAttribute("startMoney"),
-							scenario.getIntAttribute("maxPlayerCount"),
-							scenario.getIntAttribute("mapSizeX"),
-							scenario.getIntAttribute("mapSizeY"),
-							scenario.getBooleanAttribute("walkDiagonal"),
-							scenario.getIntAttribute("startGameObjectMinDistance"),
-							Long.parseLong(scenario.getAttribute("seed")),
-							scenario.getIntAttribute("maxGold"),
-							scenario.getBooleanAttribute("multipleActionsPerObject"));
+	/**
+	 * Read all the Scenarios from the given document
+	 *
+	 * @param root     the root element of the document
+	 * @param fileName the name of the file the document was read from
+	 * @return list with all the read ids
+	 */
+	public static ArrayList<String> readScenarios(XmlReader.Element root, String fileName) {
+		ArrayList<String> ids = new ArrayList<String>();
+		try {
+			for(XmlReader.Element scenario : root.getChildByName("Scenarios").getChildrenByName("Scenario")){
+				try {
+					readScenario(scenario);
+				} catch (IllegalArgumentException e) {
+					System.out.println("Scenario " + scenario.getAttribute("id") + " is bad: "
+							+ e.getMessage());
+					continue;
 				}
 				ids.add(scenario.getAttribute("id"));
 			}
-		} catch (IOException e) {
-			System.out.println("Config file (GameObjectTypes) not found: " + file.name());
-			e.printStackTrace();
 		} catch (NullPointerException e) {
-			System.out.println("Config file (GameObjectTypes) is bad: " + file.name());
+			System.out.println("Config file (Scenarios) is bad: " + fileName);
 			e.printStackTrace();
 		}
 		return ids;
 	}
+
+	/**
+	 * Create the Scenario described by the given element
+	 *
+	 * @param scenario the element to read from
+	 * @throws IllegalArgumentException if the scenario is inconsistent
+	 */
+	private static void readScenario(XmlReader.Element scenario) {
+		if (scenario.getChildByName("GoldPos") != null && scenario.getChildByName("StartPos") != null){
+
+			List<Point> goldPos = new ArrayList<Point>();
+			for (XmlReader.Element pos : scenario.getChildByName("GoldPos").getChildrenByName("Gold")){
+				goldPos.add(new Point(pos.getIntAttribute("x"),pos.getIntAttribute("y")));
+			}
+			List<Point> startPos = new ArrayList<Point>();
+			for (XmlReader.Element pos : scenario.getChildByName("StartPos").getChildrenByName("Start")){
+				startPos.add(new Point(pos.getIntAttribute("x"),pos.getIntAttribute("y")));
+			}
+
+			new Scenario(
+					scenario.getAttribute("id"),
+					Language.getStrings().get(scenario.getAttribute("name")),
+					scenario.getIntAttribute("startMoney"),
+					scenario.getIntAttribute("maxPlayerCount"),
+					scenario.getIntAttribute("mapSizeX"),
+					scenario.getIntAttribute("mapSizeY"),
+					scenario.getBooleanAttribute("walkDiagonal"),
+					scenario.getIntAttribute("startGameObjectMinDistance"),
+					Long.parseLong(scenario.getAttribute("seed")),
+					scenario.getIntAttribute("maxGold"),
+					scenario.getBooleanAttribute("multipleActionsPerObject"),
+					goldPos.toArray(new Point[goldPos.size()]),
+					startPos.toArray(new Point[startPos.size()]));
+		}else {
+			new Scenario(
+					scenario.getAttribute("id"),
+					Language.getStrings().get(scenario.getAttribute("name")),
+					scenario.getIntAttribute("startMoney"),
+					scenario.getIntAttribute("maxPlayerCount"),
+					scenario.getIntAttribute("mapSizeX"),
+					scenario.getIntAttribute("mapSizeY"),
+					scenario.getBooleanAttribute("walkDiagonal"),
+					scenario.getIntAttribute("startGameObjectMinDistance"),
+					Long.parseLong(scenario.getAttribute("seed")),
+					scenario.getIntAttribute("maxGold"),
+					scenario.getBooleanAttribute("multipleActionsPerObject"));
+		}
+	}
 }
@@ -2,17 +2,21 @@ package com.smeanox.games.sg002.view;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.smeanox.games.sg002.debug.Profiler;
 import com.smeanox.games.sg002.player.Player;
 import com.smeanox.games.sg002.util.Assets;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.ActionRange;
 import com.smeanox.games.sg002.world.GameObject;
 import com.smeanox.games.sg002.world.GameWorld;
-import com.smeanox.games.sg002.world.MapObject;
 
 import com.smeanox.games.sg002.data.Point;
 
@@ -22,14 +26,21 @@ import com.smeanox.games.sg002.data.Point;
  * @author Benjamin Schmid
  */
 public class GameView {
+	private static final int scopeRender = Profiler.get().register("GameView.render");
+
 	private GameWorld gameWorld;
-	private GlyphLayout glyphLayout;
+	private GlyphLayoutCache hpLabels;
 	private float zoom;
 	private float aFieldSizeX;
 	private float aFieldSizeY;
 	private int activeX;
 	private int activeY;
 	private TextureRegion backgroundRegions[][];
+	private VisibleFields visibleFields;
+	private StaticLayerCache staticLayerCache;
+	private ActionRange actionRange;
+	private WorldColorMap worldColorMap;
+	private int renderCalls;
 
 	/**
 	 * Create a new instance
@@ -41,8 +52,12 @@ public class GameView {
 		activeX = -1;
 		activeY = -1;
 		zoom = 0.1f;
-		glyphLayout = new GlyphLayout();
+		hpLabels = new GlyphLayoutCache(Consts.hpColor);
+		visibleFields = new VisibleFields();
 		initBackgroundRegions();
+		staticLayerCache = new StaticLayerCache(gameWorld, backgroundRegions);
+		actionRange = new ActionRange(gameWorld);
+		worldColorMap = new WorldColorMap(gameWorld, Consts.lodMaxTextureSize);
 	}
 
 	/**
@@ -94,6 +109,33 @@ public class GameView {
 		this.activeY = activeY;
 	}
 
+	/**
+	 * Return the width of a field in world space at the current zoom
+	 *
+	 * @return the width
+	 */
+	public float getFieldSizeX() {
+		return Consts.fieldSizeX * Consts.devScaleY * zoom;
+	}
+
+	/**
+	 * Return the height of a field in world space at the current zoom
+	 *
+	 * @return the height
+	 */
+	public float getFieldSizeY() {
+		return Consts.fieldSizeY * Consts.devScaleY * zoom;
+	}
+
+	/**
+	 * Return the range of fields rendered in the last frame
+	 *
+	 * @return the visible fields
+	 */
+	public VisibleFields getVisibleFields() {
+		return visibleFields;
+	}
+
 	/**
 	 * Return the GameObject at the position [acitveX, acitveY]
 	 *
@@ -169,22 +211,22 @@ public class GameView {
 	}
 
 	/**
-	 * render a Texture on a given field
+	 * render a TextureRegion on a given field
 	 *
 	 * @param spriteBatch spriteBatch to use
-	 * @param texture     the texture to draw
+	 * @param texture     the region to draw
 	 * @param x           coordinate of the field to draw
 	 * @param y           coordinate of the field to draw
 	 */
-	private void renderField(SpriteBatch spriteBatch, Texture texture, int x, int y) {
+	private void renderField(SpriteBatch spriteBatch, TextureRegion texture, int x, int y) {
 		renderField(spriteBatch, texture, x, y, 0f, 0f, 1f, 1f);
 	}
 
 	/**
-	 * render a Texture on a given field with a specified offset and size
+	 * render a TextureRegion on a given field with a specified offset and size
 	 *
 	 * @param spriteBatch spriteBatch to use
-	 * @param texture     the texture to draw
+	 * @param texture     the region to draw
 	 * @param x           coordinate of the field to draw
 	 * @param y           coordinate of the field to draw
 	 * @param offX        relative offset of the texture, 0.0 is left border, 1.0 is right border of the field
@@ -192,7 +234,7 @@ public class GameView {
 	 * @param width       relative width of the texture, 1.0 is width of the field
 	 * @param height      relative height of the texture, 1.0 is height of the field
 	 */
-	private void renderField(SpriteBatch spriteBatch, Texture texture, int x, int y, float offX, float offY, float width, float height) {
+	private void renderField(SpriteBatch spriteBatch, TextureRegion texture, int x, int y, float offX, float offY, float width, float height) {
 		spriteBatch.draw(texture,
 				(x + offX) * aFieldSizeX,
 				(y + offY) * aFieldSizeY,
@@ -207,8 +249,8 @@ public class GameView {
 	 */
 	private void renderBackground(SpriteBatch spriteBatch) {
 		spriteBatch.setColor(Color.WHITE);
-		for (int y = 0; y < gameWorld.getMapSizeY(); y++) {
-			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+		for (int y = visibleFields.getStartY(); y < visibleFields.getEndY(); y++) {
+			for (int x = visibleFields.getStartX(); x < visibleFields.getEndX(); x++) {
 				spriteBatch.draw(backgroundRegions[y % Consts.backgroundFieldsY][x % Consts.backgroundFieldsX],
 						x * aFieldSizeX, y * aFieldSizeY, aFieldSizeX, aFieldSizeY);
 			}
@@ -222,36 +264,176 @@ public class GameView {
 	 */
 	private void renderGrid(SpriteBatch spriteBatch) {
 		spriteBatch.setColor(Consts.gridColor);
-		for (int y = 0; y < gameWorld.getMapSizeY(); y++) {
-			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+		for (int y = visibleFields.getStartY(); y < visibleFields.getEndY(); y++) {
+			for (int x = visibleFields.getStartX(); x < visibleFields.getEndX(); x++) {
 				renderField(spriteBatch, Assets.grid, x, y);
 			}
 		}
 	}
 
 	/**
-	 * render the GameWorld
+	 * render the hp of all GameObjects. The font has its own texture, so all text is drawn after the fields. The
+	 * layouts are cached, so this doesn't allocate.
+	 *
+	 * @param spriteBatch spriteBatch
+	 */
+	private void renderHP(SpriteBatch spriteBatch) {
+		if (zoom < Consts.hpDisplayMinZoom) {
+			return;
+		}
+		BitmapFont font = Assets.liberationMicroShadow.bitmapFont;
+		for (int y = visibleFields.getStartY(); y < visibleFields.getEndY(); y++) {
+			for (int x = visibleFields.getStartX(); x < visibleFields.getEndX(); x++) {
+				GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+				if (gameObject == null) {
+					continue;
+				}
+				GlyphLayout glyphLayout = hpLabels.get(font, gameObject.getHp());
+				font.draw(spriteBatch, glyphLayout,
+						x * aFieldSizeX + (aFieldSizeX - glyphLayout.width) / 2f,
+						y * aFieldSizeY + aFieldSizeY * 0.95f);
+			}
+		}
+	}
+
+	/**
+	 * render the MapObjects
 	 *
 	 * @param spriteBatch spriteBatch
+	 */
+	private void renderMapObjects(SpriteBatch spriteBatch) {
+		spriteBatch.setColor(Color.WHITE);
+		for (int y = visibleFields.getStartY(); y < visibleFields.getEndY(); y++) {
+			for (int x = visibleFields.getStartX(); x < visibleFields.getEndX(); x++) {
+				renderField(spriteBatch, gameWorld.getWorldMapObject(x, y).getMapObjectType().getTexture(), x, y);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of draw calls of the last render
+	 *
+	 * @return the number of draw calls
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	/**
+	 * Free the cached layers, they are created again when needed
+	 */
+	public void dispose() {
+		staticLayerCache.dispose();
+		worldColorMap.dispose();
+	}
+
+	/**
+	 * Render the whole world as a single quad from the {@link WorldColorMap}, used when the fields are too small to
+	 * show their details. Only the selection is drawn on top.
+	 *
+	 * @param spriteBatch  spriteBatch, must not be drawing
 	 * @param activePlayer the player that is playing
 	 */
-	public void render(SpriteBatch spriteBatch, Player activePlayer) {
+	private void renderColorMap(SpriteBatch spriteBatch, Player activePlayer) {
+		Texture texture = worldColorMap.getTexture();
+		int fieldsPerPixel = worldColorMap.getFieldsPerPixel();
+		spriteBatch.begin();
+		spriteBatch.setColor(Color.WHITE);
+		spriteBatch.draw(texture, 0, 0,
+				texture.getWidth() * fieldsPerPixel * aFieldSizeX, texture.getHeight() * fieldsPerPixel * aFieldSizeY,
+				0, 0, texture.getWidth(), texture.getHeight(), false, true);
+		if (visibleFields.contains(activeX, activeY)) {
+			spriteBatch.setColor(activePlayer.getColor());
+			renderField(spriteBatch, Assets.selection, activeX, activeY);
+		}
+		spriteBatch.end();
+		renderCalls = spriteBatch.renderCalls;
+	}
+
+	/**
+	 * Render the fields the active GameObject can move to, fight and produce to. The fields come from the
+	 * {@link ActionRange}, which only computes them again when the selection or the world changes.
+	 *
+	 * @param spriteBatch spriteBatch
+	 */
+	private void renderActionRange(SpriteBatch spriteBatch) {
+		actionRange.update(activeX, activeY);
+		GameObject activeGameObject = actionRange.getGameObject();
+		if (activeGameObject == null) {
+			return;
+		}
+		spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.MOVE) ? Consts.usedColor : Consts.canMoveColor);
+		renderFields(spriteBatch, Assets.possibleFieldMove, actionRange.getMoveFields());
+		spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.FIGHT) ? Consts.usedColor : Consts.canFightColor);
+		renderFields(spriteBatch, Assets.possibleFieldFight, actionRange.getFightFields());
+		spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.PRODUCE) ? Consts.usedColor : Consts.canProduceColor);
+		renderFields(spriteBatch, Assets.possibleFieldProduce, actionRange.getProduceFields());
+	}
+
+	/**
+	 * Render a texture on each of the given fields that is visible
+	 *
+	 * @param spriteBatch spriteBatch
+	 * @param texture     the texture
+	 * @param fields      the fields as y * mapSizeX + x
+	 */
+	private void renderFields(SpriteBatch spriteBatch, TextureRegion texture, IntArray fields) {
+		int mapSizeX = gameWorld.getMapSizeX();
+		for (int i = 0; i < fields.size; i++) {
+			int x = fields.get(i) % mapSizeX;
+			int y = fields.get(i) / mapSizeX;
+			if (visibleFields.contains(x, y)) {
+				renderField(spriteBatch, texture, x, y);
+			}
+		}
+	}
+
+	/**
+	 * render the GameWorld. The background, the grid and the MapObjects come from the {@link StaticLayerCache}, the
+	 * fields and the text each use a single texture, so the whole world is drawn with a few draw calls. Only the
+	 * fields in the visible area are rendered. Below {@link Consts#lodMaxZoom} the world is drawn from the
+	 * {@link WorldColorMap} instead. The spriteBatch must not be drawing, it is begun and ended here.
+	 *
+	 * @param spriteBatch spriteBatch
+	 * @param activePlayer the player that is playing
+	 * @param visibleArea the area of the world space that is visible, everything if null
+	 */
+	public void render(SpriteBatch spriteBatch, Player activePlayer, Rectangle visibleArea) {
+		Profiler.get().start(scopeRender);
+		try {
+			renderWorld(spriteBatch, activePlayer, visibleArea);
+		} finally {
+			Profiler.get().stop();
+		}
+	}
+
+	private void renderWorld(SpriteBatch spriteBatch, Player activePlayer, Rectangle visibleArea) {
 		aFieldSizeX = (Consts.fieldSizeX * Consts.devScaleY * zoom);
 		aFieldSizeY = (Consts.fieldSizeY * Consts.devScaleY * zoom);
+		if (visibleArea == null) {
+			visibleFields.setAll(gameWorld.getMapSizeX(), gameWorld.getMapSizeY());
+		} else {
+			visibleFields.set(visibleArea, aFieldSizeX, aFieldSizeY, gameWorld.getMapSizeX(), gameWorld.getMapSizeY(),
+					Consts.cullingMargin);
+		}
 
-		renderBackground(spriteBatch);
-		renderGrid(spriteBatch);
+		if (zoom < Consts.lodMaxZoom) {
+			renderColorMap(spriteBatch, activePlayer);
+			return;
+		}
 
-		GameObject gameObject;
-		MapObject mapObject;
-		GameObject activeGameObject = gameWorld.getWorldGameObject(activeX, activeY);
-		for(int y = 0; y < gameWorld.getMapSizeY(); y++){
-			for(int x = 0; x < gameWorld.getMapSizeX(); x++){
-				//render MapObjects
-				mapObject = gameWorld.getWorldMapObject(x, y);
-				spriteBatch.setColor(Color.WHITE);
-				renderField(spriteBatch, mapObject.getMapObjectType().getTexture(), x, y);
+		boolean staticLayerCached = staticLayerCache.render(spriteBatch.getProjectionMatrix(), visibleFields,
+				aFieldSizeX, aFieldSizeY);
+		spriteBatch.begin();
+		if (!staticLayerCached) {
+			renderBackground(spriteBatch);
+			renderGrid(spriteBatch);
+			renderMapObjects(spriteBatch);
+		}
 
+		GameObject gameObject;
+		for(int y = visibleFields.getStartY(); y < visibleFields.getEndY(); y++){
+			for(int x = visibleFields.getStartX(); x < visibleFields.getEndX(); x++){
 				//render GameObjects
 				gameObject = gameWorld.getWorldGameObject(x, y);
 				if (gameObject != null) {
@@ -264,36 +446,18 @@ public class GameView {
 						spriteBatch.setColor(Consts.usedColor);
 					}
 					renderField(spriteBatch, gameObject.getGameObjectType().getTexture(), x, y);
-
-
-					if (zoom >= Consts.hpDisplayMinZoom) {
-						Assets.liberationMicroShadow.bitmapFont.setColor(Consts.hpColor);
-						glyphLayout.setText(Assets.liberationMicroShadow.bitmapFont, "" + gameObject.getHp());
-
-						Assets.liberationMicroShadow.bitmapFont.draw(spriteBatch, glyphLayout,
-								x * aFieldSizeX + (aFieldSizeX - glyphLayout.width) / 2f,
-								y * aFieldSizeY + aFieldSizeY * 0.95f);
-					}
 				}
 
 				if (x == activeX && y == activeY) {
 					spriteBatch.setColor(activePlayer.getColor());
 					renderField(spriteBatch, Assets.selection, x, y);
-				} else {
-					if (activeGameObject != null && activeGameObject.canMoveTo(x, y)) {
-						spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.MOVE) ? Consts.usedColor : Consts.canMoveColor);
-						renderField(spriteBatch, Assets.possibleFieldMove, x, y);
-					}
-					if (activeGameObject != null && activeGameObject.canFightTo(x, y)) {
-						spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.FIGHT) ? Consts.usedColor : Consts.canFightColor);
-						renderField(spriteBatch, Assets.possibleFieldFight, x, y);
-					}
-					if (activeGameObject != null && activeGameObject.canProduceTo(x, y)) {
-						spriteBatch.setColor(activeGameObject.wasUsed(Action.ActionType.PRODUCE) ? Consts.usedColor : Consts.canProduceColor);
-						renderField(spriteBatch, Assets.possibleFieldProduce, x, y);
-					}
 				}
 			}
 		}
+
+		renderActionRange(spriteBatch);
+		renderHP(spriteBatch);
+		spriteBatch.end();
+		renderCalls = staticLayerCache.getRenderCalls() + spriteBatch.renderCalls;
 	}
 }
@@ -0,0 +1,70 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Keeps the layouts of numbers, so drawing a number every frame doesn't build a string and lay out its glyphs. The
+ * layouts belong to a font and its scale, they are dropped when either changes, e.g. because the fonts were created
+ * again after a resize.
+ *
+ * @author Benjamin Schmid
+ */
+public class GlyphLayoutCache {
+	/**
+	 * more layouts than this are dropped, so rarely seen numbers don't pile up
+	 */
+	private static final int maxSize = 1024;
+
+	private IntMap<GlyphLayout> layouts;
+	private BitmapFont font;
+	private float scaleX;
+	private float scaleY;
+	private Color color;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param color the color of the text
+	 */
+	public GlyphLayoutCache(Color color) {
+		this.color = new Color(color);
+		layouts = new IntMap<GlyphLayout>();
+	}
+
+	/**
+	 * Return the layout of the given number
+	 *
+	 * @param font   the font to use
+	 * @param number the number
+	 * @return the layout, must not be changed
+	 */
+	public GlyphLayout get(BitmapFont font, int number) {
+		if (font != this.font || font.getData().scaleX != scaleX || font.getData().scaleY != scaleY) {
+			clear();
+			this.font = font;
+			scaleX = font.getData().scaleX;
+			scaleY = font.getData().scaleY;
+		}
+		GlyphLayout layout = layouts.get(number);
+		if (layout == null) {
+			if (layouts.size >= maxSize) {
+				layouts.clear();
+			}
+			layout = new GlyphLayout(font, Integer.toString(number), color, 0, Align.left, false);
+			layouts.put(number, layout);
+		}
+		return layout;
+	}
+
+	/**
+	 * Drop all layouts
+	 */
+	public void clear() {
+		layouts.clear();
+		font = null;
+	}
+}
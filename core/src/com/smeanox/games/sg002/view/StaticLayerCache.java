@@ -0,0 +1,194 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.smeanox.games.sg002.util.Assets;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.world.GameWorld;
+
+/**
+ * Keeps the background, the grid and the MapObjects, which don't change during a game, on the GPU. The map is split
+ * into chunks of {@link Consts#staticLayerChunkSize} fields, each chunk is one cache. Only the chunks around the visible
+ * fields are cached, they are rebuilt when the view leaves them or a MapObject changes.
+ * <p>
+ * The caches are built with a field size of 1, the field size of the current zoom is applied with the transform matrix,
+ * so zooming doesn't require a rebuild.
+ *
+ * @author Benjamin Schmid
+ */
+public class StaticLayerCache implements Disposable {
+	/**
+	 * sprites per field: background, grid and MapObject
+	 */
+	private static final int spritesPerField = 3;
+
+	private GameWorld gameWorld;
+	private TextureRegion[][] backgroundRegions;
+	private SpriteCache spriteCache;
+	private Matrix4 transform;
+
+	/**
+	 * the cache ids of the cached chunks, relative to the first cached chunk
+	 */
+	private int[][] cacheIds;
+	private int cachedStartX;
+	private int cachedStartY;
+	private int cachedEndX;
+	private int cachedEndY;
+	private int cachedRevision;
+	private int renderCalls;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param gameWorld         the world to display
+	 * @param backgroundRegions the regions of the background, repeated over the map
+	 */
+	public StaticLayerCache(GameWorld gameWorld, TextureRegion[][] backgroundRegions) {
+		this.gameWorld = gameWorld;
+		this.backgroundRegions = backgroundRegions;
+		transform = new Matrix4();
+	}
+
+	/**
+	 * Render the chunks that contain the visible fields
+	 *
+	 * @param projection    the projection matrix of the camera
+	 * @param visibleFields the visible fields
+	 * @param fieldSizeX    the width of a field in world space
+	 * @param fieldSizeY    the height of a field in world space
+	 * @return false if too many fields are visible to cache them, nothing was rendered then
+	 */
+	public boolean render(Matrix4 projection, VisibleFields visibleFields, float fieldSizeX, float fieldSizeY) {
+		renderCalls = 0;
+		int chunkSize = Consts.staticLayerChunkSize;
+		int startX = visibleFields.getStartX() / chunkSize;
+		int startY = visibleFields.getStartY() / chunkSize;
+		int endX = (visibleFields.getEndX() + chunkSize - 1) / chunkSize;
+		int endY = (visibleFields.getEndY() + chunkSize - 1) / chunkSize;
+		if ((endX - startX) * (endY - startY) > getMaxChunks()) {
+			return false;
+		}
+		if (cacheIds == null || gameWorld.getMapObjectRevision() != cachedRevision
+				|| startX < cachedStartX || startY < cachedStartY || endX > cachedEndX || endY > cachedEndY) {
+			rebuild(startX, startY, endX, endY);
+		}
+
+		spriteCache.setProjectionMatrix(projection);
+		spriteCache.setTransformMatrix(transform.setToScaling(fieldSizeX, fieldSizeY, 1f));
+		spriteCache.begin();
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				spriteCache.draw(cacheIds[y - cachedStartY][x - cachedStartX]);
+			}
+		}
+		spriteCache.end();
+		renderCalls = spriteCache.renderCalls;
+		return true;
+	}
+
+	/**
+	 * Return the number of draw calls of the last render
+	 *
+	 * @return the number of draw calls
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	/**
+	 * The number of chunks that fit into the cache
+	 *
+	 * @return the number of chunks
+	 */
+	private int getMaxChunks() {
+		return Consts.staticLayerMaxFields / (Consts.staticLayerChunkSize * Consts.staticLayerChunkSize);
+	}
+
+	/**
+	 * Cache the given chunks and the chunks around them, as far as they fit
+	 *
+	 * @param startX first chunk that has to be cached
+	 * @param startY first chunk that has to be cached
+	 * @param endX   chunk after the last one that has to be cached
+	 * @param endY   chunk after the last one that has to be cached
+	 */
+	private void rebuild(int startX, int startY, int endX, int endY) {
+		int chunkSize = Consts.staticLayerChunkSize;
+		int chunksX = (gameWorld.getMapSizeX() + chunkSize - 1) / chunkSize;
+		int chunksY = (gameWorld.getMapSizeY() + chunkSize - 1) / chunkSize;
+		// one chunk more on each side, so scrolling doesn't require a rebuild immediately
+		int extStartX = Math.max(0, startX - 1);
+		int extStartY = Math.max(0, startY - 1);
+		int extEndX = Math.min(chunksX, endX + 1);
+		int extEndY = Math.min(chunksY, endY + 1);
+		if ((extEndX - extStartX) * (extEndY - extStartY) <= getMaxChunks()) {
+			startX = extStartX;
+			startY = extStartY;
+			endX = extEndX;
+			endY = extEndY;
+		}
+
+		if (spriteCache == null) {
+			spriteCache = new SpriteCache(Consts.staticLayerMaxFields * spritesPerField, false);
+		}
+		spriteCache.clear();
+		cacheIds = new int[endY - startY][endX - startX];
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				cacheIds[y - startY][x - startX] = buildChunk(x * chunkSize, y * chunkSize,
+						Math.min(gameWorld.getMapSizeX(), (x + 1) * chunkSize),
+						Math.min(gameWorld.getMapSizeY(), (y + 1) * chunkSize));
+			}
+		}
+		cachedStartX = startX;
+		cachedStartY = startY;
+		cachedEndX = endX;
+		cachedEndY = endY;
+		cachedRevision = gameWorld.getMapObjectRevision();
+	}
+
+	/**
+	 * Cache the given fields. The sprites are sorted by texture, so a chunk is drawn with a draw call per texture.
+	 *
+	 * @return the id of the cache
+	 */
+	private int buildChunk(int startX, int startY, int endX, int endY) {
+		spriteCache.beginCache();
+		spriteCache.setColor(Color.WHITE);
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				spriteCache.add(backgroundRegions[y % Consts.backgroundFieldsY][x % Consts.backgroundFieldsX],
+						x, y, 1f, 1f);
+			}
+		}
+		spriteCache.setColor(Consts.gridColor);
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				spriteCache.add(Assets.grid, x, y, 1f, 1f);
+			}
+		}
+		spriteCache.setColor(Color.WHITE);
+		for (int y = startY; y < endY; y++) {
+			for (int x = startX; x < endX; x++) {
+				spriteCache.add(gameWorld.getWorldMapObject(x, y).getMapObjectType().getTexture(), x, y, 1f, 1f);
+			}
+		}
+		return spriteCache.endCache();
+	}
+
+	/**
+	 * Free the cache
+	 */
+	@Override
+	public void dispose() {
+		if (spriteCache != null) {
+			spriteCache.dispose();
+			spriteCache = null;
+		}
+		cacheIds = null;
+	}
+}
@@ -0,0 +1,111 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * The range of fields that is visible on the screen. Fields outside of it don't have to be rendered.
+ *
+ * @author Benjamin Schmid
+ */
+public class VisibleFields {
+	private int startX;
+	private int startY;
+	private int endX;
+	private int endY;
+
+	/**
+	 * Create a new instance that contains no fields
+	 */
+	public VisibleFields() {
+	}
+
+	/**
+	 * Compute the fields that intersect the given area
+	 *
+	 * @param area       the visible area in world space
+	 * @param fieldSizeX the width of a field in world space
+	 * @param fieldSizeY the height of a field in world space
+	 * @param mapSizeX   the width of the map in fields
+	 * @param mapSizeY   the height of the map in fields
+	 * @param margin     the number of fields added on each side
+	 */
+	public void set(Rectangle area, float fieldSizeX, float fieldSizeY, int mapSizeX, int mapSizeY, int margin) {
+		startX = clamp((int) Math.floor(area.x / fieldSizeX) - margin, mapSizeX);
+		startY = clamp((int) Math.floor(area.y / fieldSizeY) - margin, mapSizeY);
+		endX = clamp((int) Math.ceil((area.x + area.width) / fieldSizeX) + margin, mapSizeX);
+		endY = clamp((int) Math.ceil((area.y + area.height) / fieldSizeY) + margin, mapSizeY);
+	}
+
+	/**
+	 * Make all fields of the map visible
+	 *
+	 * @param mapSizeX the width of the map in fields
+	 * @param mapSizeY the height of the map in fields
+	 */
+	public void setAll(int mapSizeX, int mapSizeY) {
+		startX = 0;
+		startY = 0;
+		endX = mapSizeX;
+		endY = mapSizeY;
+	}
+
+	private static int clamp(int value, int mapSize) {
+		return Math.max(0, Math.min(mapSize, value));
+	}
+
+	/**
+	 * First visible column
+	 *
+	 * @return the column
+	 */
+	public int getStartX() {
+		return startX;
+	}
+
+	/**
+	 * First visible row
+	 *
+	 * @return the row
+	 */
+	public int getStartY() {
+		return startY;
+	}
+
+	/**
+	 * The column after the last visible one
+	 *
+	 * @return the column
+	 */
+	public int getEndX() {
+		return endX;
+	}
+
+	/**
+	 * The row after the last visible one
+	 *
+	 * @return the row
+	 */
+	public int getEndY() {
+		return endY;
+	}
+
+	/**
+	 * Number of visible fields
+	 *
+	 * @return the number of fields
+	 */
+	public int getFieldCount() {
+		return (endX - startX) * (endY - startY);
+	}
+
+	/**
+	 * Whether the given field is visible
+	 *
+	 * @param x coordinate of the field
+	 * @param y coordinate of the field
+	 * @return true if it is visible
+	 */
+	public boolean contains(int x, int y) {
+		return x >= startX && x < endX && y >= startY && y < endY;
+	}
+}
@@ -0,0 +1,263 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameWorld;
+import com.smeanox.games.sg002.world.MapObjectType;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
+
+/**
+ * A map of the world with one pixel per field: the color of the owner if there is a GameObject, the color of the
+ * MapObjectType otherwise. It is used to render the world when the fields are only a few pixels large, and for the
+ * minimap. If the map is larger than the maximal size of the pixmap, a pixel shows a square of fields, with the
+ * GameObjects taking precedence over special MapObjects and those over the default MapObjectType.
+ * <p>
+ * The map is drawn once, afterwards only the pixels of the fields of applied actions are drawn again and uploaded to
+ * the texture. Everything is drawn again if GameObjects or MapObjects change in another way, see
+ * {@link GameWorld#getGameObjectRevision()}. Row y of the pixmap is the row y of the world, so the texture has to be
+ * drawn flipped.
+ *
+ * @author Benjamin Schmid
+ */
+public class WorldColorMap implements AppliedActionHandler, Disposable {
+	/**
+	 * if more pixels changed than this, the whole texture is uploaded at once
+	 */
+	private static final int maxChangedPixels = 1024;
+
+	private GameWorld gameWorld;
+	private int maxSize;
+	private int fieldsPerPixel;
+	private Pixmap pixmap;
+	private Texture texture;
+	private Pixmap pixelPixmap;
+
+	/**
+	 * the pixels that changed and are not yet drawn to the pixmap, as y * width + x
+	 */
+	private IntArray changedPixels;
+	/**
+	 * the pixels that are drawn to the pixmap but not yet uploaded to the texture
+	 */
+	private IntArray uploadPixels;
+	private boolean redraw;
+	private boolean upload;
+	private int mapObjectRevision;
+	private int gameObjectRevision;
+
+	/**
+	 * Create a new instance, it listens to the actions applied to the world from now on
+	 *
+	 * @param gameWorld the world
+	 * @param maxSize   the maximal width and height of the pixmap
+	 */
+	public WorldColorMap(GameWorld gameWorld, int maxSize) {
+		this.gameWorld = gameWorld;
+		this.maxSize = maxSize;
+		changedPixels = new IntArray();
+		uploadPixels = new IntArray();
+		redraw = true;
+		gameWorld.addAppliedActionHandler(this);
+	}
+
+	@Override
+	public void onActionApplied(Action action) {
+		if (redraw) {
+			return;
+		}
+		if (changedPixels.size + 2 > maxChangedPixels) {
+			redraw = true;
+			changedPixels.clear();
+			return;
+		}
+		changedPixels.add(action.startY / fieldsPerPixel * pixmap.getWidth() + action.startX / fieldsPerPixel);
+		changedPixels.add(action.endY / fieldsPerPixel * pixmap.getWidth() + action.endX / fieldsPerPixel);
+	}
+
+	/**
+	 * Return the color of the given field
+	 *
+	 * @param gameWorld the world
+	 * @param x         coordinates of the field
+	 * @param y         coordinates of the field
+	 * @return the color as RGBA8888
+	 */
+	public static int getFieldColor(GameWorld gameWorld, int x, int y) {
+		GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+		if (gameObject != null) {
+			return Color.rgba8888(gameObject.getPlayer().getColor());
+		}
+		return Color.rgba8888(gameWorld.getWorldMapObject(x, y).getMapObjectType().getColor());
+	}
+
+	/**
+	 * Return the color of the given pixel
+	 *
+	 * @param x coordinates of the pixel
+	 * @param y coordinates of the pixel
+	 * @return the color as RGBA8888
+	 */
+	private int getPixelColor(int x, int y) {
+		if (fieldsPerPixel == 1) {
+			return getFieldColor(gameWorld, x, y);
+		}
+		int endX = Math.min(gameWorld.getMapSizeX(), (x + 1) * fieldsPerPixel);
+		int endY = Math.min(gameWorld.getMapSizeY(), (y + 1) * fieldsPerPixel);
+		MapObjectType mapObjectType = MapObjectType.getDefaultMapObjectType();
+		for (int aY = y * fieldsPerPixel; aY < endY; aY++) {
+			for (int aX = x * fieldsPerPixel; aX < endX; aX++) {
+				GameObject gameObject = gameWorld.getWorldGameObject(aX, aY);
+				if (gameObject != null) {
+					return Color.rgba8888(gameObject.getPlayer().getColor());
+				}
+				if (mapObjectType == MapObjectType.getDefaultMapObjectType()) {
+					mapObjectType = gameWorld.getWorldMapObject(aX, aY).getMapObjectType();
+				}
+			}
+		}
+		return Color.rgba8888(mapObjectType.getColor());
+	}
+
+	/**
+	 * Bring the pixmap up to date with the world
+	 */
+	public void update() {
+		if (pixmap == null || fieldsPerPixel != computeFieldsPerPixel()
+				|| mapObjectRevision != gameWorld.getMapObjectRevision()
+				|| gameObjectRevision != gameWorld.getGameObjectRevision()) {
+			redraw = true;
+		}
+		if (redraw) {
+			drawAll();
+			return;
+		}
+		int width = pixmap.getWidth();
+		for (int i = 0; i < changedPixels.size; i++) {
+			int x = changedPixels.get(i) % width;
+			int y = changedPixels.get(i) / width;
+			pixmap.drawPixel(x, y, getPixelColor(x, y));
+		}
+		if (!upload) {
+			if (uploadPixels.size + changedPixels.size > maxChangedPixels) {
+				upload = true;
+				uploadPixels.clear();
+			} else {
+				uploadPixels.addAll(changedPixels);
+			}
+		}
+		changedPixels.clear();
+	}
+
+	/**
+	 * The number of fields in a row of the square a pixel shows, so the pixmap fits into the maximal size
+	 *
+	 * @return the number of fields
+	 */
+	private int computeFieldsPerPixel() {
+		int mapSize = Math.max(gameWorld.getMapSizeX(), gameWorld.getMapSizeY());
+		return Math.max(1, (mapSize + maxSize - 1) / maxSize);
+	}
+
+	/**
+	 * Draw the whole pixmap
+	 */
+	private void drawAll() {
+		fieldsPerPixel = computeFieldsPerPixel();
+		int width = (gameWorld.getMapSizeX() + fieldsPerPixel - 1) / fieldsPerPixel;
+		int height = (gameWorld.getMapSizeY() + fieldsPerPixel - 1) / fieldsPerPixel;
+		if (pixmap != null && (pixmap.getWidth() != width || pixmap.getHeight() != height)) {
+			dispose();
+		}
+		if (pixmap == null) {
+			pixmap = new Pixmap(width, height, Pixmap.Format.RGB565);
+		}
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				pixmap.drawPixel(x, y, getPixelColor(x, y));
+			}
+		}
+		mapObjectRevision = gameWorld.getMapObjectRevision();
+		gameObjectRevision = gameWorld.getGameObjectRevision();
+		redraw = false;
+		upload = true;
+		changedPixels.clear();
+		uploadPixels.clear();
+	}
+
+	/**
+	 * The number of fields in a row of the square a pixel shows, as of the last {@link #update()}
+	 *
+	 * @return the number of fields
+	 */
+	public int getFieldsPerPixel() {
+		return fieldsPerPixel;
+	}
+
+	/**
+	 * The map, up to date as of the last {@link #update()}
+	 *
+	 * @return the pixmap, must not be changed
+	 */
+	public Pixmap getPixmap() {
+		return pixmap;
+	}
+
+	/**
+	 * Bring the map up to date and upload the changed fields to the texture
+	 *
+	 * @return the texture
+	 */
+	public Texture getTexture() {
+		update();
+		if (texture == null) {
+			texture = new Texture(pixmap);
+			texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+			upload = false;
+			uploadPixels.clear();
+		} else if (upload) {
+			texture.draw(pixmap, 0, 0);
+			upload = false;
+			uploadPixels.clear();
+		} else if (uploadPixels.size > 0) {
+			if (pixelPixmap == null) {
+				pixelPixmap = new Pixmap(1, 1, Pixmap.Format.RGB565);
+			}
+			int width = pixmap.getWidth();
+			for (int i = 0; i < uploadPixels.size; i++) {
+				int x = uploadPixels.get(i) % width;
+				int y = uploadPixels.get(i) / width;
+				pixelPixmap.drawPixel(0, 0, pixmap.getPixel(x, y));
+				texture.draw(pixelPixmap, x, y);
+			}
+			uploadPixels.clear();
+		}
+		return texture;
+	}
+
+	/**
+	 * Free the pixmap and the texture, they are drawn again when needed. The instance keeps listening to the world.
+	 */
+	@Override
+	public void dispose() {
+		if (texture != null) {
+			texture.dispose();
+			texture = null;
+		}
+		if (pixmap != null) {
+			pixmap.dispose();
+			pixmap = null;
+		}
+		if (pixelPixmap != null) {
+			pixelPixmap.dispose();
+			pixelPixmap = null;
+		}
+		redraw = true;
+		changedPixels.clear();
+		uploadPixels.clear();
+	}
+}
@@ -0,0 +1,217 @@
+package com.smeanox.games.sg002.world;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+
+/**
+ * An append-only text file of the turns and the actions applied in them. One record per line:
+ * <pre>
+ * T round player seed0 seed1    a new turn started, seeds are the random state of an AIPlayer
+ * M sx sy ex ey     move
+ * F sx sy ex ey     fight
+ * P sx sy ex ey got produce
+ * </pre>
+ *
+ * @author Benjamin Schmid
+ */
+public class ActionJournal {
+	private Writer writer;
+	/**
+	 * the record that is written, reused so appending doesn't allocate
+	 */
+	private final StringBuilder line = new StringBuilder(64);
+	private char[] chars = new char[64];
+
+	/**
+	 * Open the given journal for appending
+	 *
+	 * @param file the journal file
+	 * @throws IOException if the file can't be opened
+	 */
+	public ActionJournal(File file) throws IOException {
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+	}
+
+	/**
+	 * Append the start of a turn
+	 *
+	 * @param round    the round the turn belongs to
+	 * @param playerId the player that plays the turn
+	 * @param seed0    the first part of the random state the player starts with
+	 * @param seed1    the second part of the random state the player starts with
+	 * @throws IOException if writing fails
+	 */
+	public void writeTurn(int round, int playerId, long seed0, long seed1) throws IOException {
+		line.setLength(0);
+		line.append("T ").append(round).append(' ').append(playerId).append(' ').append(seed0).append(' ')
+				.append(seed1);
+		writeLine();
+	}
+
+	/**
+	 * Append an applied action
+	 *
+	 * @param action the action
+	 * @throws IOException if writing fails
+	 */
+	public void writeAction(Action action) throws IOException {
+		line.setLength(0);
+		switch (action.actionType) {
+			case MOVE:
+				line.append("M ");
+				break;
+			case FIGHT:
+				line.append("F ");
+				break;
+			case PRODUCE:
+				line.append("P ");
+				break;
+			default:
+				return;
+		}
+		line.append(action.startX).append(' ').append(action.startY).append(' ').append(action.endX).append(' ')
+				.append(action.endY);
+		if (action.actionType == Action.ActionType.PRODUCE) {
+			line.append(' ').append(action.produceGameObjectType.getId());
+		}
+		writeLine();
+	}
+
+	/**
+	 * Write the record in line and end it. Writer.append would copy it to a new String first.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private void writeLine() throws IOException {
+		line.append('\n');
+		if (chars.length < line.length()) {
+			chars = new char[line.length()];
+		}
+		line.getChars(0, line.length(), chars, 0);
+		writer.write(chars, 0, line.length());
+	}
+
+	/**
+	 * Write everything appended so far to disk
+	 *
+	 * @throws IOException if writing fails
+	 */
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * Flush and close the journal
+	 *
+	 * @throws IOException if writing fails
+	 */
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Read all records of the given journal. A trailing incomplete record (e.g. after a crash) is ignored.
+	 *
+	 * @param file    the journal file
+	 * @param handler the handler to pass the records to
+	 * @throws IOException if the file can't be read or a record can't be applied
+	 */
+	public static void read(File file, EntryHandler handler) throws IOException {
+		boolean complete = endsWithNewLine(file);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			Action action = new Action();
+			String line;
+			String nextLine = reader.readLine();
+			while ((line = nextLine) != null) {
+				nextLine = reader.readLine();
+				if (nextLine == null && !complete) {
+					// the last record was only written partially
+					break;
+				}
+				String[] parts = line.split(" ");
+				try {
+					if ("T".equals(parts[0])) {
+						handler.onTurn(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+								Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+						continue;
+					}
+					if ("M".equals(parts[0])) {
+						action.actionType = Action.ActionType.MOVE;
+					} else if ("F".equals(parts[0])) {
+						action.actionType = Action.ActionType.FIGHT;
+					} else if ("P".equals(parts[0])) {
+						action.actionType = Action.ActionType.PRODUCE;
+					} else {
+						break;
+					}
+					action.startX = Integer.parseInt(parts[1]);
+					action.startY = Integer.parseInt(parts[2]);
+					action.endX = Integer.parseInt(parts[3]);
+					action.endY = Integer.parseInt(parts[4]);
+					action.produceGameObjectType = action.actionType == Action.ActionType.PRODUCE
+							? GameObjectType.getGameObjectTypeById(parts[5]) : null;
+				} catch (NumberFormatException e) {
+					break;
+				} catch (ArrayIndexOutOfBoundsException e) {
+					break;
+				}
+				handler.onAction(action);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Check whether the last record of the given file is complete
+	 *
+	 * @param file the journal file
+	 * @return true if the file is empty or ends with a line break
+	 * @throws IOException if the file can't be read
+	 */
+	private static boolean endsWithNewLine(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			if (randomAccessFile.length() == 0) {
+				return true;
+			}
+			randomAccessFile.seek(randomAccessFile.length() - 1);
+			return randomAccessFile.read() == '\n';
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Receives the records of a journal
+	 */
+	public interface EntryHandler {
+		/**
+		 * A new turn started
+		 *
+		 * @param round    the round the turn belongs to
+		 * @param playerId the player that plays the turn
+		 * @param seed0    the first part of the random state the player starts with
+		 * @param seed1    the second part of the random state the player starts with
+		 * @throws IOException if the record can't be applied
+		 */
+		void onTurn(int round, int playerId, long seed0, long seed1) throws IOException;
+
+		/**
+		 * An action was applied
+		 *
+		 * @param action the action, the instance is reused and must not be kept
+		 * @throws IOException if the record can't be applied
+		 */
+		void onAction(Action action) throws IOException;
+	}
+}
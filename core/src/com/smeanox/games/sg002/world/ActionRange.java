@@ -0,0 +1,145 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The fields the GameObject on a field can move to, fight and produce to. The fields are only computed again when a
+ * different field is selected, the world changes or the money of the owner changes, and only the fields within the
+ * radius of the GameObject are checked.
+ * <p>
+ * The fields are legal targets except that the action may have been used already this round, see
+ * {@link GameObject#wasUsed(Action.ActionType)}. Fields are stored as y * mapSizeX + x.
+ *
+ * @author Benjamin Schmid
+ */
+public class ActionRange {
+	private GameWorld gameWorld;
+	private IntArray moveFields;
+	private IntArray fightFields;
+	private IntArray produceFields;
+
+	private int x;
+	private int y;
+	private GameObject gameObject;
+	private int revision;
+	private int money;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param gameWorld the world
+	 */
+	public ActionRange(GameWorld gameWorld) {
+		this.gameWorld = gameWorld;
+		moveFields = new IntArray();
+		fightFields = new IntArray();
+		produceFields = new IntArray();
+		x = -1;
+		y = -1;
+	}
+
+	/**
+	 * Select the given field, the fields are computed again if necessary
+	 *
+	 * @param x coordinates of the field
+	 * @param y coordinates of the field
+	 */
+	public void update(int x, int y) {
+		GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+		int money = gameObject == null ? 0 : gameObject.getPlayer().getMoney();
+		if (x == this.x && y == this.y && gameObject == this.gameObject && gameWorld.getRevision() == revision
+				&& money == this.money) {
+			return;
+		}
+		this.x = x;
+		this.y = y;
+		this.gameObject = gameObject;
+		this.revision = gameWorld.getRevision();
+		this.money = money;
+		compute();
+	}
+
+	/**
+	 * Compute the fields of the selected GameObject
+	 */
+	private void compute() {
+		moveFields.clear();
+		fightFields.clear();
+		produceFields.clear();
+		if (gameObject == null) {
+			return;
+		}
+		GameObjectType type = gameObject.getGameObjectType();
+		int radius = Math.max(type.getRadiusWalkMax(), Math.max(type.getRadiusFightMax(), type.getRadiusProduceMax()));
+		int mapSizeX = gameWorld.getMapSizeX();
+		int startX = Math.max(0, x - radius);
+		int startY = Math.max(0, y - radius);
+		int endX = Math.min(mapSizeX - 1, x + radius);
+		int endY = Math.min(gameWorld.getMapSizeY() - 1, y + radius);
+		for (int aY = startY; aY <= endY; aY++) {
+			for (int aX = startX; aX <= endX; aX++) {
+				if (gameWorld.isMoveTarget(gameObject, aX, aY)) {
+					moveFields.add(aY * mapSizeX + aX);
+				}
+				if (gameWorld.isFightTarget(gameObject, aX, aY)) {
+					fightFields.add(aY * mapSizeX + aX);
+				}
+				if (canProduceAny(aX, aY)) {
+					produceFields.add(aY * mapSizeX + aX);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether the owner can afford any type the selected GameObject can produce to the given field
+	 *
+	 * @param aX coordinates of the field
+	 * @param aY coordinates of the field
+	 * @return true if something can be produced there
+	 */
+	private boolean canProduceAny(int aX, int aY) {
+		for (GameObjectType produceType : gameObject.getGameObjectType().getCanProduceList()) {
+			if (money >= produceType.getValue() && gameWorld.isProduceTarget(gameObject, aX, aY, produceType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The selected GameObject
+	 *
+	 * @return the GameObject or null if the selected field is empty
+	 */
+	public GameObject getGameObject() {
+		return gameObject;
+	}
+
+	/**
+	 * The fields the selected GameObject can move to
+	 *
+	 * @return the fields as y * mapSizeX + x, must not be changed
+	 */
+	public IntArray getMoveFields() {
+		return moveFields;
+	}
+
+	/**
+	 * The fields with GameObjects the selected GameObject can fight
+	 *
+	 * @return the fields as y * mapSizeX + x, must not be changed
+	 */
+	public IntArray getFightFields() {
+		return fightFields;
+	}
+
+	/**
+	 * The fields the selected GameObject can produce an affordable type to
+	 *
+	 * @return the fields as y * mapSizeX + x, must not be changed
+	 */
+	public IntArray getProduceFields() {
+		return produceFields;
+	}
+}
@@ -0,0 +1,63 @@
+package com.smeanox.games.sg002.world;
+
+/**
+ * The result of checking whether an action is possible: {@link #OK} or the reason why it isn't. The first reason that
+ * applies is returned, in the order the checks are made.
+ *
+ * @author Benjamin Schmid
+ * @see GameWorld#checkAction(Action)
+ */
+public enum ActionResult {
+	/**
+	 * the action is possible
+	 */
+	OK,
+	/**
+	 * the action type can't be applied, e.g. {@link Action.ActionType#NONE}
+	 */
+	INVALID_ACTION,
+	/**
+	 * the start or the destination is not on the map
+	 */
+	OUT_OF_BOUNDS,
+	/**
+	 * there is no GameObject at the start
+	 */
+	EMPTY_START,
+	/**
+	 * there is a GameObject at the destination
+	 */
+	BLOCKED_TARGET,
+	/**
+	 * there is no GameObject at the destination to fight
+	 */
+	EMPTY_TARGET,
+	/**
+	 * the destination is not within the radius of the GameObject
+	 */
+	OUT_OF_RADIUS,
+	/**
+	 * the MapObject at the destination doesn't allow the GameObjectType
+	 */
+	TERRAIN_DISALLOWS,
+	/**
+	 * the GameObjectType can't produce the requested GameObjectType
+	 */
+	CANNOT_PRODUCE_TYPE,
+	/**
+	 * the GameObjectType can't fight
+	 */
+	CANNOT_FIGHT,
+	/**
+	 * the GameObject at the destination belongs to the same player
+	 */
+	OWN_TARGET,
+	/**
+	 * the player doesn't have enough money
+	 */
+	TOO_EXPENSIVE,
+	/**
+	 * the GameObject already did this action in this round
+	 */
+	ALREADY_USED
+}
@@ -3,15 +3,23 @@ package com.smeanox.games.sg002.world;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.XmlReader;
-import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.metrics.Counter;
+import com.smeanox.games.sg002.metrics.Gauge;
+import com.smeanox.games.sg002.metrics.Histogram;
+import com.smeanox.games.sg002.metrics.Metrics;
+import com.smeanox.games.sg002.player.AIPlayer;
 import com.smeanox.games.sg002.player.Player;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+import com.smeanox.games.sg002.world.actionHandler.SaveGameHandler;
 
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Control the game flow
@@ -19,28 +27,47 @@ import java.util.LinkedList;
  * @author Benjamin Schmid
  */
 public class GameController {
+	private static final int scopeFinishedRound = Profiler.get().register("GameController.finishedRound");
+	private static final int scopeSnapshot = Profiler.get().register("GameController.createSnapshot");
+	private static final int scopeLoad = Profiler.get().register("GameController.loadGame");
+	private static final Counter turns = Metrics.get().counter("turns");
+	private static final Histogram turnTime = Metrics.get().histogram("turn.time");
+	private static final Gauge gameObjectsAlive = Metrics.get().gauge("gameObjects.alive");
+	private static final Histogram loadTime = Metrics.get().histogram("load.time");
+	private static final Histogram loadBytes = Metrics.get().histogram("load.bytes");
+
 	private Scenario scenario;
 	private GameWorld gameWorld;
 	private LinkedList<Player> players;
 	private Iterator<Player> playerIterator;
 	private Player activePlayer;
+	private int round;
+	/**
+	 * the time the active player started his turn, as of System.nanoTime(), 0 if he didn't start yet
+	 */
+	private long turnStartTime;
+
+	private GameRecorder autosave;
+	private GameRecorder replayRecorder;
 
 	private LinkedList<NextPlayerHandler> nextPlayerHandlers;
+	private LinkedList<SaveGameHandler> saveGameHandlers;
 
 	/**
-	 * Create a new instance and load the given save file
+	 * Create a new instance and load the given save file. {@link #startGame()} resumes the loaded game.
 	 *
 	 * @param fileName the file to load
 	 */
 	public GameController(String fileName) {
 		players = new LinkedList<Player>();
-		loadGame(fileName);
+		loadGame(fileName, false);
 	}
 
 	/**
 	 * Create a new instance
 	 *
 	 * @param scenario the scenario to use
+	 * @throws IllegalArgumentException if the positions of the scenario can't be generated
 	 */
 	public GameController(Scenario scenario) {
 		this.scenario = scenario;
@@ -57,6 +84,8 @@ public class GameController {
 	 * @param scenario the scenario
 	 */
 	private void initScenario(Scenario scenario) {
+		scenario.materialize();
+		this.scenario = scenario;
 		Consts.seed = scenario.getSeed();
 		Consts.walkDiagonal = scenario.isWalkDiagonal();
 		Consts.multipleActionsPerObject = scenario.isMultipleActionsPerObject();
@@ -81,9 +110,13 @@ public class GameController {
 	}
 
 	/**
-	 * Start the game
+	 * Start the game, or resume it if it was loaded
 	 */
 	public void startGame() {
+		if (activePlayer != null) {
+			startRound(activePlayer, false);
+			return;
+		}
 		playerIterator = players.iterator();
 		finishedRound();
 	}
@@ -92,14 +125,33 @@ public class GameController {
 	 * Called by the active player when he finished his round
 	 */
 	public void finishedRound() {
+		if (turnStartTime != 0) {
+			turns.inc();
+			turnTime.record(System.nanoTime() - turnStartTime);
+		}
+		gameObjectsAlive.set(gameWorld.getGameObjects().size());
+		Profiler.get().endTurn();
+		Profiler.get().start(scopeFinishedRound);
+		try {
+			nextPlayer();
+		} finally {
+			Profiler.get().stop();
+		}
+	}
+
+	/**
+	 * Start the round of the next player that is still alive
+	 */
+	private void nextPlayer() {
 		if (!playerIterator.hasNext()) {
 			playerIterator = players.iterator();
+			round++;
 		}
 		activePlayer = playerIterator.next();
 		if (gameWorld.isPlayerStillAlive(activePlayer)) {
 			startRound(activePlayer);
 		} else {
-			finishedRound();
+			nextPlayer();
 		}
 	}
 
@@ -116,7 +168,6 @@ public class GameController {
 				break;
 			}
 		}
-		startRound(activePlayer, false);
 	}
 
 	/**
@@ -136,6 +187,7 @@ public class GameController {
 	 */
 	private void startRound(Player player, boolean reenableUsedActions) {
 		gameWorld.startRound(player, reenableUsedActions);
+		turnStartTime = System.nanoTime();
 		fireOnNextPlayer(player);
 		player.startPlaying();
 	}
@@ -155,10 +207,76 @@ public class GameController {
 		return activePlayer;
 	}
 
+	/**
+	 * Returns all players in the order of their turns, including the ones that are not alive anymore
+	 *
+	 * @return the players, direct reference - DO NOT MODIFY
+	 */
+	public LinkedList<Player> getPlayers() {
+		return players;
+	}
+
+	/**
+	 * Return the player of this game with the given id
+	 *
+	 * @param id the id to search
+	 * @return the player with the given id, null if there is none
+	 */
+	public Player getPlayerById(int id) {
+		for (Player player : players) {
+			if (player.getId() == id) {
+				return player;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The number of times every player had his turn
+	 *
+	 * @return the round
+	 */
+	public int getRound() {
+		return round;
+	}
+
+	public Scenario getScenario() {
+		return scenario;
+	}
+
 	public GameWorld getGameWorld() {
 		return gameWorld;
 	}
 
+	/**
+	 * Return the FileHandle for the given save game
+	 *
+	 * @param fileName the name of the save game
+	 * @return the FileHandle
+	 */
+	static FileHandle getSaveFile(String fileName) {
+		if (Consts.headlessMode) {
+			return new FileHandle(fileName);
+		} else {
+			return Gdx.files.local(fileName);
+		}
+	}
+
+	/**
+	 * Capture a snapshot of the current game state
+	 *
+	 * @return the snapshot
+	 * @throws IOException if the game state is inconsistent
+	 */
+	public GameSnapshot createSnapshot() throws IOException {
+		Profiler.get().start(scopeSnapshot);
+		try {
+			return new GameSnapshot(scenario, round, players, activePlayer, gameWorld);
+		} finally {
+			Profiler.get().stop();
+		}
+	}
+
 	/**
 	 * save the game state to the given file
 	 *
@@ -166,55 +284,102 @@ public class GameController {
 	 */
 	public void saveGame(String fileName) {
 		try {
-			FileHandle file;
-			if(Consts.headlessMode){
-				file = new FileHandle(fileName);
-			} else {
-				file = Gdx.files.local(fileName);
-			}
-			XmlWriter writer = new XmlWriter(new FileWriter(file.file()));
-			writer.element("Game");
-			writer.attribute("scenario", scenario.getId());
-			writer.element("Players");
-			for (Player player : players) {
-				writer.element("Player");
-				if (player == activePlayer) {
-					writer.attribute("active", true);
-				}
-				player.save(writer);
-				writer.pop();
-			}
-			writer.pop();
-			writer.element("GameWorld");
-			gameWorld.save(writer);
-			writer.pop();
-			writer.close();
+			SaveGameWriter.write(createSnapshot(), getSaveFile(fileName).file());
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
 	/**
-	 * load the game state from the given file
+	 * save the game state to the given file without blocking the game. Only the snapshot is taken immediately, the
+	 * file is written on a background thread. The registered {@link SaveGameHandler}s are informed on the game thread
+	 * (on the writing thread in headless mode) when the save finished.
+	 *
+	 * @param fileName the file to save to
+	 */
+	public void saveGameAsync(final String fileName) {
+		GameSnapshot snapshot;
+		try {
+			snapshot = createSnapshot();
+		} catch (IOException e) {
+			fireOnSaveFailed(fileName, e);
+			return;
+		}
+		SaveGameWriter.writeAsync(snapshot, getSaveFile(fileName).file(), new SaveGameHandler() {
+			@Override
+			public void onSaveFinished(String path) {
+				runOnGameThread(new Runnable() {
+					@Override
+					public void run() {
+						fireOnSaveFinished(fileName);
+					}
+				});
+			}
+
+			@Override
+			public void onSaveFailed(String path, final Exception e) {
+				runOnGameThread(new Runnable() {
+					@Override
+					public void run() {
+						fireOnSaveFailed(fileName, e);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Run the given runnable on the game thread, or immediately in headless mode
+	 *
+	 * @param runnable the runnable
+	 */
+	private void runOnGameThread(Runnable runnable) {
+		if (Consts.headlessMode || Gdx.app == null) {
+			runnable.run();
+		} else {
+			Gdx.app.postRunnable(runnable);
+		}
+	}
+
+	/**
+	 * load the game state from the given file and continue playing
 	 *
 	 * @param fileName the file to load from
 	 */
 	public void loadGame(String fileName) {
+		if (autosave != null) {
+			// the loaded game doesn't continue the recorded one
+			autosave.restart();
+		}
+		if (replayRecorder != null) {
+			// a replay has to be continuous, record the loaded game separately
+			recordReplay();
+		}
+		loadGame(fileName, true);
+	}
+
+	/**
+	 * load the game state from the given file
+	 *
+	 * @param fileName the file to load from
+	 * @param resume   whether the active player should continue playing immediately
+	 * @return true if the game was loaded
+	 */
+	boolean loadGame(String fileName, boolean resume) {
+		long startTime = System.nanoTime();
+		Profiler.get().start(scopeLoad);
 		try {
 			XmlReader reader = new XmlReader();
-			FileHandle file;
-			if(Consts.headlessMode) {
-				file = new FileHandle(fileName);
-			} else {
-				file = Gdx.files.local(fileName);
-			}
+			FileHandle file = getSaveFile(fileName);
 			if (!file.exists()) {
-				return;
+				return false;
 			}
-			XmlReader.Element root = reader.parse(file);
+			loadBytes.record(file.length());
+			XmlReader.Element root = reader.parse(openSaveFile(file));
 			Scenario scenarioLoad = Scenario.getScanarioById(root.getAttribute("scenario"));
 			initScenario(scenarioLoad);
 			gameWorld.initScenario(scenarioLoad);
+			round = root.getIntAttribute("round", 0);
 			XmlReader.Element playersXML = root.getChildByName("Players");
 			players.clear();
 			for (XmlReader.Element aPlayer : playersXML.getChildrenByName("Player")) {
@@ -226,22 +391,125 @@ public class GameController {
 					activePlayer = player;
 				}
 			}
-			// make sure the players are associated to the correct ids
-			Player.resetPlayerIds();
-			for (Player player : players) {
-				player.setId(player.getId());
-			}
-
 			XmlReader.Element gameWorldXML = root.getChildByName("GameWorld");
-			gameWorld.load(gameWorldXML);
+			gameWorld.load(gameWorldXML, this);
 
 			forwardToPlayer(activePlayer);
+			if (resume) {
+				startRound(activePlayer, false);
+			} else {
+				gameWorld.startRound(activePlayer, false);
+			}
 
-			// TODO remove me
-			System.out.println("finished loading");
+			loadTime.record(System.nanoTime() - startTime);
+			return true;
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			Profiler.get().stop();
 		}
+		return false;
+	}
+
+	/**
+	 * Start the turn of the given player without letting him play, used to replay a recorded game
+	 *
+	 * @param round    the round the turn belongs to
+	 * @param playerId the id of the player
+	 * @param seed0    the first part of the random state of the player, if it is an AIPlayer
+	 * @param seed1    the second part of the random state of the player, if it is an AIPlayer
+	 * @throws IOException if there is no such player
+	 */
+	void replayTurn(int round, int playerId, long seed0, long seed1) throws IOException {
+		Player player = getPlayerById(playerId);
+		if (player == null) {
+			throw new IOException("Unknown player " + playerId);
+		}
+		if (player instanceof AIPlayer) {
+			((AIPlayer) player).setRandomState(seed0, seed1);
+		}
+		this.round = round;
+		forwardToPlayer(player);
+		gameWorld.startRound(player, true);
+	}
+
+	/**
+	 * Apply the given action for the active player, used to replay a recorded game
+	 *
+	 * @param action the action
+	 * @throws IOException if the action is not possible
+	 */
+	void replayAction(Action action) throws IOException {
+		// doAction checks the action only once
+		if (!gameWorld.doAction(action)) {
+			throw new IOException("Action not possible: " + action.actionType + " " + action.startX + " "
+					+ action.startY + " " + action.endX + " " + action.endY);
+		}
+	}
+
+	/**
+	 * Write a rolling autosave to {@link Consts#autosaveDirName}: a full snapshot every few rounds and a journal of
+	 * the applied actions in between
+	 *
+	 * @param interval the number of rounds between two snapshots
+	 * @see GameRecorder#recover(String)
+	 */
+	public void enableAutosave(int interval) {
+		disableAutosave();
+		autosave = new GameRecorder(this, Consts.autosaveDirName, interval, true);
+		autosave.start();
+	}
+
+	/**
+	 * Record a replay of the game to a new directory in {@link Consts#replayDirName}, only the newest
+	 * {@link Consts#replayMaxCount} replays are kept
+	 *
+	 * @see ReplayPlayer
+	 */
+	public void recordReplay() {
+		stopRecordingReplay();
+		ReplayPlayer.deleteOldReplays(Consts.replayDirName, Consts.replayMaxCount - 1);
+		replayRecorder = new GameRecorder(this, Consts.replayDirName + "/" + System.currentTimeMillis(),
+				Consts.replayKeyframeInterval, false);
+		replayRecorder.start();
+	}
+
+	/**
+	 * Stop recording the replay
+	 */
+	public void stopRecordingReplay() {
+		if (replayRecorder != null) {
+			replayRecorder.stop();
+			replayRecorder = null;
+		}
+	}
+
+	/**
+	 * Stop writing autosaves
+	 */
+	public void disableAutosave() {
+		if (autosave != null) {
+			autosave.stop();
+			autosave = null;
+		}
+	}
+
+	/**
+	 * Open the given save game, it may be compressed or not
+	 *
+	 * @param file the save game
+	 * @return a stream of the uncompressed save game
+	 * @throws IOException if the file can't be read
+	 */
+	static InputStream openSaveFile(FileHandle file) throws IOException {
+		InputStream inputStream = new BufferedInputStream(file.read());
+		inputStream.mark(2);
+		int magic = inputStream.read() | (inputStream.read() << 8);
+		inputStream.reset();
+		if (magic == GZIPInputStream.GZIP_MAGIC) {
+			return new GZIPInputStream(inputStream);
+		}
+		return inputStream;
 	}
 
 	/**
@@ -283,4 +551,58 @@ public class GameController {
 			nextPlayerHandlers = null;
 		}
 	}
+
+	/**
+	 * Fire an event that a save game was written
+	 *
+	 * @param fileName the save game
+	 */
+	protected void fireOnSaveFinished(String fileName) {
+		if (saveGameHandlers != null) {
+			for (SaveGameHandler c : saveGameHandlers) {
+				c.onSaveFinished(fileName);
+			}
+		}
+	}
+
+	/**
+	 * Fire an event that a save game could not be written
+	 *
+	 * @param fileName the save game
+	 * @param e        the reason
+	 */
+	protected void fireOnSaveFailed(String fileName, Exception e) {
+		if (saveGameHandlers != null) {
+			for (SaveGameHandler c : saveGameHandlers) {
+				c.onSaveFailed(fileName, e);
+			}
+		}
+	}
+
+	/**
+	 * add a {@link SaveGameHandler}
+	 *
+	 * @param handler the SaveGameHandler
+	 */
+	public void addSaveGameHandler(SaveGameHandler handler) {
+		if (saveGameHandlers == null) {
+			saveGameHandlers = new LinkedList<SaveGameHandler>();
+		}
+		saveGameHandlers.add(handler);
+	}
+
+	/**
+	 * remove a {@link SaveGameHandler}
+	 *
+	 * @param handler the SaveGameHandler
+	 */
+	public void removeSaveGameHandler(SaveGameHandler handler) {
+		if (saveGameHandlers == null) {
+			return;
+		}
+		saveGameHandlers.remove(handler);
+		if (saveGameHandlers.isEmpty()) {
+			saveGameHandlers = null;
+		}
+	}
 }
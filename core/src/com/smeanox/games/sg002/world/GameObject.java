@@ -7,8 +7,7 @@ import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.world.Action.ActionType;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
@@ -17,6 +16,8 @@ import java.util.Set;
  * @author Benjamin Schmid
  */
 public class GameObject {
+	private static final Set<ActionType> allActions = EnumSet.allOf(ActionType.class);
+
 	private GameObjectType gameObjectType;
 	private int positionX;
 	private int positionY;
@@ -25,15 +26,19 @@ public class GameObject {
 	// Stats
 	private int hp;
 
-	private Set<ActionType> usedActions = new HashSet();
+	/**
+	 * an EnumSet, so using and resetting actions doesn't allocate
+	 */
+	private Set<ActionType> usedActions = EnumSet.noneOf(ActionType.class);
 
 	/**
 	 * Create a new instance and load the state from the given reader
 	 *
-	 * @param reader the reader to read from
+	 * @param reader         the reader to read from
+	 * @param gameController the game the GameObject belongs to, to find its player
 	 */
-	public GameObject(XmlReader.Element reader) {
-		load(reader);
+	public GameObject(XmlReader.Element reader, GameController gameController) {
+		load(reader, gameController);
 	}
 
 	/**
@@ -48,6 +53,20 @@ public class GameObject {
 		this.hp = gameObjectType.getDefaultHP();
 	}
 
+	/**
+	 * Create a copy of the given GameObject
+	 *
+	 * @param gameObject the GameObject to copy
+	 */
+	public GameObject(GameObject gameObject) {
+		this.gameObjectType = gameObject.gameObjectType;
+		this.positionX = gameObject.positionX;
+		this.positionY = gameObject.positionY;
+		this.player = gameObject.player;
+		this.hp = gameObject.hp;
+		this.usedActions.addAll(gameObject.usedActions);
+	}
+
 	public GameObjectType getGameObjectType() {
 		return gameObjectType;
 	}
@@ -126,7 +145,7 @@ public class GameObject {
 		usedActions.add(action);
 
 		if(!Consts.multipleActionsPerObject){
-			Collections.addAll(usedActions, ActionType.values());
+			usedActions.addAll(allActions);
 		}
 	}
 
@@ -237,14 +256,15 @@ public class GameObject {
 	/**
 	 * Load the GameObject
 	 *
-	 * @param reader the XmlReader.Element to read from
+	 * @param reader         the XmlReader.Element to read from
+	 * @param gameController the game the GameObject belongs to, to find its player
 	 */
-	public void load(XmlReader.Element reader) {
+	public void load(XmlReader.Element reader, GameController gameController) {
 		positionX = reader.getIntAttribute("x");
 		positionY = reader.getIntAttribute("y");
 		hp = reader.getIntAttribute("hp");
 		gameObjectType = GameObjectType.getGameObjectTypeById(reader.getAttribute("gameObjectType"));
-		player = Player.getPlayerById(reader.getIntAttribute("player"));
+		player = gameController.getPlayerById(reader.getIntAttribute("player"));
 		for (XmlReader.Element element : reader.getChildByName("usedActions").getChildrenByName("action")) {
 			usedActions.add(ActionType.valueOf(element.getAttribute("name")));
 		}
@@ -1,6 +1,6 @@
 package com.smeanox.games.sg002.world;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,7 +21,7 @@ public class GameObjectType {
 	private String id;
 	private String name;
 	private String textureName;
-	private Texture texture;
+	private TextureRegion texture;
 
 	// Stats
 	private int defaultHP;
@@ -91,11 +91,11 @@ public class GameObjectType {
 		return textureName;
 	}
 
-	public Texture getTexture() {
+	public TextureRegion getTexture() {
 		return texture;
 	}
 
-	public void setTexture(Texture texture) {
+	public void setTexture(TextureRegion texture) {
 		this.texture = texture;
 	}
 
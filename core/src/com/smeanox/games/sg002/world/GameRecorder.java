@@ -0,0 +1,305 @@
+package com.smeanox.games.sg002.world;
+
+import com.smeanox.games.sg002.player.AIPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
+import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+import com.smeanox.games.sg002.world.actionHandler.SaveGameHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records a running game to a directory. Every few rounds a full snapshot is written, the turns and actions in between
+ * are appended to a journal. Snapshot and journal of a segment share a sequence number:
+ * <pre>
+ * segment-&lt;seq&gt;.xml       the game state when the segment started
+ * segment-&lt;seq&gt;.journal   the turn the segment started in, then the turns and actions since then
+ * </pre>
+ * The game can be restored from the newest complete snapshot and all journals that follow it. As every journal starts
+ * with its turn, the journals can also be applied one after another if a snapshot is missing.
+ *
+ * @author Benjamin Schmid
+ */
+public class GameRecorder implements NextPlayerHandler, AppliedActionHandler {
+	private static final String filePrefix = "segment-";
+	static final String snapshotSuffix = ".xml";
+	static final String journalSuffix = ".journal";
+	private static final Pattern fileNamePattern = Pattern.compile(Pattern.quote(filePrefix) + "(\\d+)("
+			+ Pattern.quote(snapshotSuffix) + "|" + Pattern.quote(journalSuffix) + ")");
+
+	private GameController gameController;
+	private File dir;
+	private int interval;
+	private boolean compact;
+
+	private ActionJournal journal;
+	private int seq;
+	private int lastSnapshotRound;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param gameController the game to record
+	 * @param dirName        the directory to write to
+	 * @param interval       the number of rounds between two snapshots
+	 * @param compact        whether older segments are deleted once a newer snapshot was written
+	 */
+	public GameRecorder(GameController gameController, String dirName, int interval, boolean compact) {
+		this.gameController = gameController;
+		this.dir = GameController.getSaveFile(dirName).file();
+		this.interval = Math.max(1, interval);
+		this.compact = compact;
+	}
+
+	/**
+	 * Start recording. The first snapshot is written when the next turn starts.
+	 */
+	public void start() {
+		gameController.addNextPlayerHandler(this);
+		gameController.getGameWorld().addAppliedActionHandler(this);
+	}
+
+	/**
+	 * Stop recording and close the journal
+	 */
+	public void stop() {
+		gameController.removeNextPlayerHandler(this);
+		gameController.getGameWorld().removeAppliedActionHandler(this);
+		closeJournal();
+	}
+
+	/**
+	 * Start a new recording with a new snapshot when the next turn starts, e.g. because a different game was loaded
+	 */
+	public void restart() {
+		closeJournal();
+	}
+
+	@Override
+	public void onNextPlayer(Player nextPlayer) {
+		int round = gameController.getRound();
+		try {
+			if (journal == null || round - lastSnapshotRound >= interval) {
+				startSegment(round);
+			}
+			long seed0 = 0, seed1 = 0;
+			if (nextPlayer instanceof AIPlayer) {
+				seed0 = ((AIPlayer) nextPlayer).getSeed0();
+				seed1 = ((AIPlayer) nextPlayer).getSeed1();
+			}
+			journal.writeTurn(round, nextPlayer.getId(), seed0, seed1);
+			journal.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			// try again with a new snapshot next turn
+			closeJournal();
+		}
+	}
+
+	@Override
+	public void onActionApplied(Action action) {
+		if (journal == null) {
+			return;
+		}
+		try {
+			journal.writeAction(action);
+		} catch (IOException e) {
+			e.printStackTrace();
+			closeJournal();
+		}
+	}
+
+	/**
+	 * Write a snapshot of the current state and start a new journal after it. The first snapshot of a recording is
+	 * written immediately, because there is no older one to fall back to; all others are written in the background.
+	 *
+	 * @param round the current round
+	 * @throws IOException if the snapshot or the journal can't be created
+	 */
+	private void startSegment(int round) throws IOException {
+		boolean firstSegment = journal == null;
+		closeJournal();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Could not create " + dir.getPath());
+		}
+		int[] snapshotSeqs = listSeqs(dir, snapshotSuffix);
+		int[] journalSeqs = listSeqs(dir, journalSuffix);
+		seq = Math.max(seq, snapshotSeqs.length > 0 ? snapshotSeqs[snapshotSeqs.length - 1] : 0);
+		seq = Math.max(seq, journalSeqs.length > 0 ? journalSeqs[journalSeqs.length - 1] : 0) + 1;
+		final int snapshotSeq = seq;
+
+		GameSnapshot snapshot = gameController.createSnapshot();
+		File snapshotFile = getFile(dir, snapshotSeq, snapshotSuffix);
+		if (firstSegment) {
+			SaveGameWriter.write(snapshot, snapshotFile);
+			SaveGameWriter.execute(new Runnable() {
+				@Override
+				public void run() {
+					deleteOlderSegments(snapshotSeq);
+				}
+			});
+		} else {
+			SaveGameWriter.writeAsync(snapshot, snapshotFile, new SaveGameHandler() {
+				@Override
+				public void onSaveFinished(String fileName) {
+					// already on the save game thread
+					deleteOlderSegments(snapshotSeq);
+				}
+
+				@Override
+				public void onSaveFailed(String fileName, Exception e) {
+					// the older segments remain usable
+					e.printStackTrace();
+				}
+			});
+		}
+		lastSnapshotRound = round;
+		journal = new ActionJournal(getFile(dir, snapshotSeq, journalSuffix));
+	}
+
+	/**
+	 * Delete all segments before the given one, if compacting is enabled. Has to run on the save game thread, so no
+	 * segment is deleted while a newer snapshot is still being written.
+	 *
+	 * @param seq the oldest segment to keep
+	 */
+	private void deleteOlderSegments(int seq) {
+		if (!compact) {
+			return;
+		}
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			Matcher matcher = fileNamePattern.matcher(file.getName());
+			if (matcher.matches() && Integer.parseInt(matcher.group(1)) < seq) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Close the current journal, a new segment is started on the next turn
+	 */
+	private void closeJournal() {
+		if (journal == null) {
+			return;
+		}
+		try {
+			journal.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		journal = null;
+	}
+
+	/**
+	 * Check whether the given directory contains a recorded game
+	 *
+	 * @param dirName the directory
+	 * @return true if there is at least one snapshot
+	 */
+	public static boolean hasRecording(String dirName) {
+		return listSeqs(GameController.getSaveFile(dirName).file(), snapshotSuffix).length > 0;
+	}
+
+	/**
+	 * Restore the recorded game from the given directory. The newest snapshot that can be loaded is restored and all
+	 * journaled turns and actions after it are applied again. If a journal contains a record that can't be applied,
+	 * the game is restored up to that record.
+	 *
+	 * @param dirName the directory
+	 * @return the restored game, not started yet, or null if there is no recorded game
+	 */
+	public static GameController recover(String dirName) {
+		File dir = GameController.getSaveFile(dirName).file();
+		int[] snapshotSeqs = listSeqs(dir, snapshotSuffix);
+		int[] journalSeqs = listSeqs(dir, journalSuffix);
+		for (int i = snapshotSeqs.length - 1; i >= 0; i--) {
+			final GameController gameController;
+			try {
+				gameController = new GameController(
+						getFile(new File(dirName), snapshotSeqs[i], snapshotSuffix).getPath());
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				continue;
+			}
+			if (gameController.getActivePlayer() == null) {
+				// couldn't be loaded, try an older one
+				continue;
+			}
+			final int snapshotSeq = snapshotSeqs[i];
+			final boolean[] skipTurn = new boolean[1];
+			ActionJournal.EntryHandler handler = new ActionJournal.EntryHandler() {
+				@Override
+				public void onTurn(int round, int playerId, long seed0, long seed1) throws IOException {
+					if (skipTurn[0]) {
+						// the snapshot was taken after this turn started
+						skipTurn[0] = false;
+						return;
+					}
+					gameController.replayTurn(round, playerId, seed0, seed1);
+				}
+
+				@Override
+				public void onAction(Action action) throws IOException {
+					gameController.replayAction(action);
+				}
+			};
+			try {
+				for (int journalSeq : journalSeqs) {
+					if (journalSeq >= snapshotSeq) {
+						skipTurn[0] = journalSeq == snapshotSeq;
+						ActionJournal.read(getFile(dir, journalSeq, journalSuffix), handler);
+					}
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return gameController;
+		}
+		return null;
+	}
+
+	/**
+	 * Return the file of the given segment
+	 *
+	 * @param dir    the directory
+	 * @param seq    the sequence number of the segment
+	 * @param suffix {@link #snapshotSuffix} or {@link #journalSuffix}
+	 * @return the file
+	 */
+	static File getFile(File dir, int seq, String suffix) {
+		return new File(dir, filePrefix + seq + suffix);
+	}
+
+	/**
+	 * Return the sorted sequence numbers of all files with the given suffix
+	 *
+	 * @param dir    the directory
+	 * @param suffix {@link #snapshotSuffix} or {@link #journalSuffix}
+	 * @return the sequence numbers in ascending order
+	 */
+	static int[] listSeqs(File dir, String suffix) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return new int[0];
+		}
+		int[] seqs = new int[files.length];
+		int count = 0;
+		for (File file : files) {
+			Matcher matcher = fileNamePattern.matcher(file.getName());
+			if (matcher.matches() && suffix.equals(matcher.group(2))) {
+				seqs[count++] = Integer.parseInt(matcher.group(1));
+			}
+		}
+		seqs = Arrays.copyOf(seqs, count);
+		Arrays.sort(seqs);
+		return seqs;
+	}
+}
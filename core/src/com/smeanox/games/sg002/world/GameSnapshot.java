@@ -0,0 +1,156 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.player.Player;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A consistent in-memory copy of the game state that can be written from any thread
+ *
+ * @author Benjamin Schmid
+ */
+public class GameSnapshot {
+	private String scenarioId;
+	private int round;
+	private PlayerState[] players;
+	private GameObject[] gameObjects;
+
+	/**
+	 * Capture the current state of the game. Has to be called on the game thread.
+	 *
+	 * @param scenario     the scenario that is played
+	 * @param round        the round that is played
+	 * @param players      all players
+	 * @param activePlayer the player that is playing
+	 * @param gameWorld    the world to copy
+	 * @throws IOException if the state of the world is inconsistent
+	 */
+	public GameSnapshot(Scenario scenario, int round, List<Player> players, Player activePlayer,
+						GameWorld gameWorld) throws IOException {
+		scenarioId = scenario.getId();
+		this.round = round;
+
+		this.players = new PlayerState[players.size()];
+		int i = 0;
+		for (Player player : players) {
+			this.players[i++] = new PlayerState(player, player == activePlayer);
+		}
+
+		gameObjects = new GameObject[gameWorld.getGameObjects().size()];
+		i = 0;
+		for (int y = 0; y < gameWorld.getMapSizeY(); y++) {
+			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+				GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+				if (gameObject == null) {
+					continue;
+				}
+				if (gameObject.getPositionX() != x || gameObject.getPositionY() != y) {
+					throw new IOException("Position in worldGameObjects and gameObject doesn't correspond!");
+				}
+				if (i == gameObjects.length) {
+					throw new IOException("worldGameObjects and gameObjects don't correspond!");
+				}
+				gameObjects[i++] = new GameObject(gameObject);
+			}
+		}
+	}
+
+	public String getScenarioId() {
+		return scenarioId;
+	}
+
+	public int getRound() {
+		return round;
+	}
+
+	/**
+	 * Write the snapshot in the save game format
+	 *
+	 * @param writer the XmlWriter to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(XmlWriter writer) throws IOException {
+		writer.element("Game");
+		writer.attribute("scenario", scenarioId);
+		writer.attribute("round", round);
+		writer.element("Players");
+		for (PlayerState player : players) {
+			writer.element("Player");
+			player.write(writer);
+			writer.pop();
+		}
+		writer.pop();
+		writer.element("GameWorld");
+		writer.element("GameObjects");
+		for (GameObject gameObject : gameObjects) {
+			writer.element("GameObject");
+			gameObject.save(writer);
+			writer.pop();
+		}
+		writer.pop();
+		writer.pop();
+		writer.pop();
+	}
+
+	/**
+	 * The saved attributes of a single player
+	 */
+	private static class PlayerState {
+		private List<String> names;
+		private List<String> values;
+
+		/**
+		 * Record the state of the given player
+		 *
+		 * @param player the player
+		 * @param active whether the player is the active player
+		 * @throws IOException if the player can't be saved
+		 */
+		public PlayerState(Player player, boolean active) throws IOException {
+			names = new ArrayList<String>();
+			values = new ArrayList<String>();
+			if (active) {
+				names.add("active");
+				values.add(String.valueOf(true));
+			}
+			player.save(new AttributeRecorder());
+		}
+
+		/**
+		 * Write the recorded attributes to the current element
+		 *
+		 * @param writer the writer to write to
+		 * @throws IOException if writing fails
+		 */
+		public void write(XmlWriter writer) throws IOException {
+			for (int i = 0; i < names.size(); i++) {
+				writer.attribute(names.get(i), values.get(i));
+			}
+		}
+
+		/**
+		 * Records the attributes a player saves instead of writing them. Players may only save attributes.
+		 */
+		private class AttributeRecorder extends XmlWriter {
+			public AttributeRecorder() {
+				super(new StringWriter());
+			}
+
+			@Override
+			public XmlWriter attribute(String name, Object value) throws IOException {
+				names.add(name);
+				values.add(String.valueOf(value));
+				return this;
+			}
+
+			@Override
+			public XmlWriter element(String name) throws IOException {
+				throw new IOException("Players can only save attributes");
+			}
+		}
+	}
+}
@@ -1,12 +1,15 @@
 package com.smeanox.games.sg002.world;
 
 import com.badlogic.gdx.utils.XmlReader;
-import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.metrics.Counter;
+import com.smeanox.games.sg002.metrics.Metrics;
 import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
 
 import com.smeanox.games.sg002.data.Point;
-import java.io.IOException;
 import java.util.HashSet;
+import java.util.LinkedList;
 
 /**
  * Contains all information about the active game
@@ -14,17 +17,49 @@ import java.util.HashSet;
  * @author Benjamin Schmid
  */
 public class GameWorld {
+	private static final int scopeDoAction = Profiler.get().register("GameWorld.doAction");
+	private static final Counter[] actionsApplied = new Counter[Action.ActionType.values().length];
+	private static final Counter[] actionsRejected = new Counter[Action.ActionType.values().length];
+	private static final Counter[] rejectionReasons = new Counter[ActionResult.values().length];
+
+	static {
+		for (Action.ActionType actionType : Action.ActionType.values()) {
+			String name = actionType.name().toLowerCase();
+			actionsApplied[actionType.ordinal()] = Metrics.get().counter("actions.applied." + name);
+			actionsRejected[actionType.ordinal()] = Metrics.get().counter("actions.rejected." + name);
+		}
+		for (ActionResult result : ActionResult.values()) {
+			rejectionReasons[result.ordinal()] = Metrics.get().counter("actions.rejectedBy."
+					+ result.name().toLowerCase());
+		}
+	}
+
 	private int mapSizeX;
 	private int mapSizeY;
 
 	private GameObject[][] worldGameObjects;
 	private MapObject[][] worldMapObjects;
+	/**
+	 * changes whenever a MapObject changes
+	 */
+	private int mapObjectRevision;
+	/**
+	 * changes whenever GameObjects change in a way the AppliedActionHandlers aren't told about
+	 */
+	private int gameObjectRevision;
+	/**
+	 * changes whenever anything in the world changes
+	 */
+	private int revision;
 
 	private Player activePlayer;
 	private HashSet<GameObject> gameObjects;
 
 	private Scenario scenario;
 
+	private LinkedList<AppliedActionHandler> appliedActionHandlers;
+	private Action appliedAction;
+
 	/**
 	 * Create a new instance
 	 *
@@ -34,6 +69,7 @@ public class GameWorld {
 		initScenario(scenario);
 
 		gameObjects = new HashSet<GameObject>();
+		appliedAction = new Action();
 	}
 
 	/**
@@ -57,6 +93,9 @@ public class GameWorld {
 		for (Point point : scenario.getGoldPos()) {
 			worldMapObjects[point.y][point.x] = new MapObject(MapObjectType.getMapObjectTypeById("gold"), point.x, point.y);
 		}
+		mapObjectRevision++;
+		gameObjectRevision++;
+		revision++;
 	}
 
 	public int getMapSizeX() {
@@ -75,6 +114,17 @@ public class GameWorld {
 		return gameObjects;
 	}
 
+	/**
+	 * Check whether the given field is on the map
+	 *
+	 * @param x coordinates
+	 * @param y coordinates
+	 * @return true if it is on the map
+	 */
+	public boolean isOnMap(int x, int y) {
+		return x >= 0 && y >= 0 && x < mapSizeX && y < mapSizeY;
+	}
+
 	/**
 	 * Return the GameObject at the given position or null if there is no GameObject
 	 *
@@ -111,6 +161,49 @@ public class GameWorld {
 		return worldMapObjects;
 	}
 
+	/**
+	 * Change the type of the MapObject at the given position
+	 *
+	 * @param x             position
+	 * @param y             position
+	 * @param mapObjectType the new type
+	 */
+	public void setWorldMapObjectType(int x, int y, MapObjectType mapObjectType) {
+		worldMapObjects[y][x].setMapObjectType(mapObjectType);
+		mapObjectRevision++;
+		revision++;
+	}
+
+	/**
+	 * Return a number that changes whenever a MapObject changes, e.g. to know when cached MapObjects are outdated
+	 *
+	 * @return the revision
+	 */
+	public int getMapObjectRevision() {
+		return mapObjectRevision;
+	}
+
+	/**
+	 * Return a number that changes whenever GameObjects are placed, removed or change their owner other than on the
+	 * fields of an applied action, e.g. when the GameWorld is loaded or a player is conquered. Together with an
+	 * {@link AppliedActionHandler} this tells which fields have changed.
+	 *
+	 * @return the revision
+	 */
+	public int getGameObjectRevision() {
+		return gameObjectRevision;
+	}
+
+	/**
+	 * Return a number that changes whenever the world changes: a GameObject or MapObject changes, an action is
+	 * applied or a round starts. The money of the players is not part of the world.
+	 *
+	 * @return the revision
+	 */
+	public int getRevision() {
+		return revision;
+	}
+
 	/**
 	 * Add the starting GameObjects for the given player at a random position
 	 *
@@ -118,17 +211,37 @@ public class GameWorld {
 	 * @param gameObjectType the type of the object to add
 	 */
 	public void addStartGameObjects(Player player, GameObjectType gameObjectType) {
-		int x, y;
-		x = scenario.getStartPos(player.getId()).x;
-		y = scenario.getStartPos(player.getId()).y;
-		worldGameObjects[y][x] = new GameObject(gameObjectType, player);
-		worldGameObjects[y][x].setPositionX(x);
-		worldGameObjects[y][x].setPositionY(y);
-		gameObjects.add(worldGameObjects[y][x]);
+		addGameObject(gameObjectType, player, scenario.getStartPos(player.getId()).x,
+				scenario.getStartPos(player.getId()).y);
 	}
 
 	/**
-	 * Called when a player starts his round
+	 * Place a new GameObject at the given position without an action, e.g. to set up a world. An existing
+	 * GameObject at this position is replaced.
+	 *
+	 * @param gameObjectType the type of the new GameObject
+	 * @param player         the owner
+	 * @param x              coordinates
+	 * @param y              coordinates
+	 * @return the new GameObject
+	 */
+	public GameObject addGameObject(GameObjectType gameObjectType, Player player, int x, int y) {
+		if (worldGameObjects[y][x] != null) {
+			gameObjects.remove(worldGameObjects[y][x]);
+		}
+		GameObject gameObject = new GameObject(gameObjectType, player);
+		gameObject.setPositionX(x);
+		gameObject.setPositionY(y);
+		worldGameObjects[y][x] = gameObject;
+		gameObjects.add(gameObject);
+		gameObjectRevision++;
+		revision++;
+		return gameObject;
+	}
+
+	/**
+	 * Called when a player starts his round. The used actions are cleared and the money is calculated in a single
+	 * pass over the GameObjects.
 	 *
 	 * @param activePlayer        the player
 	 * @param reenableUsedActions whether usedActions should be cleared
@@ -136,43 +249,85 @@ public class GameWorld {
 	public void startRound(Player activePlayer, boolean reenableUsedActions) {
 		this.activePlayer = activePlayer;
 		if (reenableUsedActions) {
-			for (GameObject go : gameObjects) {
-				go.resetUsedActions();
+			int moneyPerRound = 0;
+			for (GameObject gameObject : gameObjects) {
+				gameObject.resetUsedActions();
+				if (gameObject.getPlayer() == activePlayer) {
+					moneyPerRound += gameObject.getGameObjectType().getValuePerRound();
+				}
 			}
+			activePlayer.addMoney(moneyPerRound);
 		}
-		activePlayer.addMoney(calcMoneyPerRound(activePlayer));
+		revision++;
 	}
 
 	/**
-	 * Return the amount the given player receives per round
+	 * check if the given action is possible
 	 *
-	 * @param activePlayer the player for which the amount should be calculated
-	 * @return the amount the player receives per round
+	 * @param action the action
+	 * @return OK or the reason why it isn't possible
 	 */
-	private int calcMoneyPerRound(Player activePlayer) {
-		int sol = 0;
-		for (GameObject gameObject : gameObjects) {
-			if (gameObject.getPlayer() == activePlayer) {
-				sol += gameObject.getGameObjectType().getValuePerRound();
-			}
+	public ActionResult checkAction(Action action) {
+		switch (action.actionType) {
+			case MOVE:
+				return checkMove(action.startX, action.startY, action.endX, action.endY);
+			case FIGHT:
+				return checkFight(action.startX, action.startY, action.endX, action.endY);
+			case PRODUCE:
+				return checkProduce(action.startX, action.startY, action.endX, action.endY,
+						action.produceGameObjectType);
 		}
-		return sol;
+		return ActionResult.INVALID_ACTION;
 	}
 
 	/**
-	 * execute the given action
+	 * execute the given action. If it isn't possible, the reason is counted for the active player, see
+	 * {@link Player#getRejectionCount(ActionResult)}.
 	 *
 	 * @param action the action
 	 * @return true if the action was successful
 	 */
 	public boolean doAction(Action action) {
-		switch (action.actionType) {
-			case MOVE:
-				return move(action.startX, action.startY, action.endX, action.endY);
-			case FIGHT:
-				return fight(action.startX, action.startY, action.endX, action.endY) < 0;
-			case PRODUCE:
-				return produce(action.startX, action.startY, action.endX, action.endY, action.produceGameObjectType);
+		Profiler.get().start(scopeDoAction);
+		try {
+			if (!accept(action.actionType, checkAction(action))) {
+				return false;
+			}
+			// already checked, don't check again
+			switch (action.actionType) {
+				case MOVE:
+					applyMove(action.startX, action.startY, action.endX, action.endY);
+					return true;
+				case FIGHT:
+					return applyFight(action.startX, action.startY, action.endX, action.endY) < 0;
+				case PRODUCE:
+					applyProduce(action.startX, action.startY, action.endX, action.endY,
+							action.produceGameObjectType);
+					return true;
+			}
+			return false;
+		} finally {
+			Profiler.get().stop();
+		}
+	}
+
+	/**
+	 * Count the result of a check, every action of {@link #doAction}, {@link #move}, {@link #produce} and {@link
+	 * #fight} is counted here exactly once
+	 *
+	 * @param actionType the type of the action
+	 * @param result     the result of the check
+	 * @return true if the action can be applied
+	 */
+	private boolean accept(Action.ActionType actionType, ActionResult result) {
+		if (result == ActionResult.OK) {
+			actionsApplied[actionType.ordinal()].inc();
+			return true;
+		}
+		actionsRejected[actionType.ordinal()].inc();
+		rejectionReasons[result.ordinal()].inc();
+		if (activePlayer != null) {
+			activePlayer.countRejection(result);
 		}
 		return false;
 	}
@@ -204,6 +359,7 @@ public class GameWorld {
 			gameObjects.remove(worldGameObjects[y][x]);
 		}
 		worldGameObjects[y][x] = null;
+		revision++;
 	}
 
 	/**
@@ -240,31 +396,69 @@ public class GameWorld {
 	 * @return true if it can be moved
 	 */
 	public boolean canMove(int startX, int startY, int endX, int endY) {
-		if (startX < 0 || startY < 0 || startX >= mapSizeX || startY >= mapSizeY) {
-			return false;
-		}
-		if (endX < 0 || endY < 0 || endX >= mapSizeX || endY >= mapSizeY) {
-			return false;
+		return checkMove(startX, startY, endX, endY) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject can be moved to the given position
+	 *
+	 * @param startX start coordinates
+	 * @param startY start coordinates
+	 * @param endX   end coordinates
+	 * @param endY   end coordinates
+	 * @return OK or the reason why it can't be moved
+	 */
+	public ActionResult checkMove(int startX, int startY, int endX, int endY) {
+		if (!isOnMap(startX, startY) || !isOnMap(endX, endY)) {
+			return ActionResult.OUT_OF_BOUNDS;
 		}
 
 		GameObject gameObject = getWorldGameObject(startX, startY);
 		// there is no GameObject at the start
 		if (gameObject == null) {
-			return false;
+			return ActionResult.EMPTY_START;
+		}
+		ActionResult result = checkMoveTarget(gameObject, endX, endY);
+		if (result != ActionResult.OK) {
+			return result;
+		}
+		// the gameObject has been used already
+		if (gameObject.wasUsed(Action.ActionType.MOVE)) {
+			return ActionResult.ALREADY_USED;
 		}
+		return ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could move to the given position, regardless of whether it already moved this round
+	 *
+	 * @param gameObject the GameObject
+	 * @param endX       end coordinates, on the map
+	 * @param endY       end coordinates, on the map
+	 * @return true if it could move there
+	 */
+	public boolean isMoveTarget(GameObject gameObject, int endX, int endY) {
+		return checkMoveTarget(gameObject, endX, endY) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could move to the given position, regardless of whether it already moved this round
+	 *
+	 * @param gameObject the GameObject
+	 * @param endX       end coordinates, on the map
+	 * @param endY       end coordinates, on the map
+	 * @return OK or the reason why it couldn't move there
+	 */
+	public ActionResult checkMoveTarget(GameObject gameObject, int endX, int endY) {
 		// the destination is blocked
 		if (getWorldGameObject(endX, endY) != null) {
-			return false;
+			return ActionResult.BLOCKED_TARGET;
 		}
 		// the destination is not within radius
 		if (!gameObject.canMoveTo(endX, endY)) {
-			return false;
+			return ActionResult.OUT_OF_RADIUS;
 		}
-		// the gameObject has been used already
-		if (gameObject.wasUsed(Action.ActionType.MOVE)) {
-			return false;
-		}
-		return true;
+		return ActionResult.OK;
 	}
 
 	/**
@@ -277,15 +471,23 @@ public class GameWorld {
 	 * @return true if the move was successful
 	 */
 	public boolean move(int startX, int startY, int endX, int endY) {
-		if (!canMove(startX, startY, endX, endY)) {
+		if (!accept(Action.ActionType.MOVE, checkMove(startX, startY, endX, endY))) {
 			return false;
 		}
+		applyMove(startX, startY, endX, endY);
+		return true;
+	}
+
+	/**
+	 * move the GameObject to the given position, without checking whether it can
+	 */
+	private void applyMove(int startX, int startY, int endX, int endY) {
 		worldGameObjects[endY][endX] = worldGameObjects[startY][startX];
 		worldGameObjects[startY][startX] = null;
 		getWorldGameObject(endX, endY).setPositionX(endX);
 		getWorldGameObject(endX, endY).setPositionY(endY);
 		getWorldGameObject(endX, endY).use(Action.ActionType.MOVE);
-		return true;
+		fireOnActionApplied(Action.ActionType.MOVE, startX, startY, endX, endY, null);
 	}
 
 	/**
@@ -298,43 +500,86 @@ public class GameWorld {
 	 * @return true if it can produce
 	 */
 	public boolean canProduce(int startX, int startY, int endX, int endY, GameObjectType gameObjectType) {
-		if (startX < 0 || startY < 0 || startX >= mapSizeX || startY >= mapSizeY) {
-			return false;
-		}
-		if (endX < 0 || endY < 0 || endX >= mapSizeX || endY >= mapSizeY) {
-			return false;
+		return checkProduce(startX, startY, endX, endY, gameObjectType) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject can produce to the given position
+	 *
+	 * @param startX start coordinates
+	 * @param startY start coordinates
+	 * @param endX   end coordinates
+	 * @param endY   end coordinates
+	 * @return OK or the reason why it can't produce
+	 */
+	public ActionResult checkProduce(int startX, int startY, int endX, int endY, GameObjectType gameObjectType) {
+		if (!isOnMap(startX, startY) || !isOnMap(endX, endY)) {
+			return ActionResult.OUT_OF_BOUNDS;
 		}
 
 		GameObject gameObject = getWorldGameObject(startX, startY);
 		// there is no GameObject at the start
 		if (gameObject == null) {
-			return false;
+			return ActionResult.EMPTY_START;
+		}
+		ActionResult result = checkProduceTarget(gameObject, endX, endY, gameObjectType);
+		if (result != ActionResult.OK) {
+			return result;
 		}
+		// the new GameObject is too expensive
+		if (getActivePlayer().getMoney() < gameObjectType.getValue()) {
+			return ActionResult.TOO_EXPENSIVE;
+		}
+		// the gameObject has been used already
+		if (gameObject.wasUsed(Action.ActionType.PRODUCE)) {
+			return ActionResult.ALREADY_USED;
+		}
+		return ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could produce the given type at the given position, regardless of the money and
+	 * whether it already produced this round
+	 *
+	 * @param gameObject     the GameObject
+	 * @param endX           end coordinates, on the map
+	 * @param endY           end coordinates, on the map
+	 * @param gameObjectType the type to produce
+	 * @return true if it could produce there
+	 */
+	public boolean isProduceTarget(GameObject gameObject, int endX, int endY, GameObjectType gameObjectType) {
+		return checkProduceTarget(gameObject, endX, endY, gameObjectType) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could produce the given type at the given position, regardless of the money and
+	 * whether it already produced this round
+	 *
+	 * @param gameObject     the GameObject
+	 * @param endX           end coordinates, on the map
+	 * @param endY           end coordinates, on the map
+	 * @param gameObjectType the type to produce
+	 * @return OK or the reason why it couldn't produce there
+	 */
+	public ActionResult checkProduceTarget(GameObject gameObject, int endX, int endY,
+										   GameObjectType gameObjectType) {
 		// the destination is blocked
 		if (getWorldGameObject(endX, endY) != null) {
-			return false;
+			return ActionResult.BLOCKED_TARGET;
 		}
 		// the destination is not within radius
 		if (!gameObject.canProduceTo(endX, endY)) {
-			return false;
+			return ActionResult.OUT_OF_RADIUS;
 		}
 		// target mapObject does not allow this gameObjectType
 		if (!getWorldMapObject(endX, endY).getMapObjectType().isGameObjectTypeAllowed(gameObjectType)) {
-			return false;
+			return ActionResult.TERRAIN_DISALLOWS;
 		}
 		// the active GameObjectType can't produce the desired GameObjectType
 		if (!gameObject.getGameObjectType().getCanProduceList().contains(gameObjectType)) {
-			return false;
-		}
-		// the new GameObject is too expensive
-		if (getActivePlayer().getMoney() < gameObjectType.getValue()) {
-			return false;
+			return ActionResult.CANNOT_PRODUCE_TYPE;
 		}
-		// the gameObject has been used already
-		if (gameObject.wasUsed(Action.ActionType.PRODUCE)) {
-			return false;
-		}
-		return true;
+		return ActionResult.OK;
 	}
 
 	/**
@@ -347,9 +592,17 @@ public class GameWorld {
 	 * @return true if the production was successful
 	 */
 	public boolean produce(int startX, int startY, int endX, int endY, GameObjectType gameObjectType) {
-		if (!canProduce(startX, startY, endX, endY, gameObjectType)) {
+		if (!accept(Action.ActionType.PRODUCE, checkProduce(startX, startY, endX, endY, gameObjectType))) {
 			return false;
 		}
+		applyProduce(startX, startY, endX, endY, gameObjectType);
+		return true;
+	}
+
+	/**
+	 * Produce a new GameObject at the given position, without checking whether it can
+	 */
+	private void applyProduce(int startX, int startY, int endX, int endY, GameObjectType gameObjectType) {
 		GameObject newGameObject = new GameObject(gameObjectType, getActivePlayer());
 		newGameObject.setPositionX(endX);
 		newGameObject.setPositionY(endY);
@@ -360,7 +613,7 @@ public class GameWorld {
 		for (Action.ActionType a : Action.ActionType.values()) {
 			newGameObject.use(a);//not able to do anything after being built
 		}
-		return true;
+		fireOnActionApplied(Action.ActionType.PRODUCE, startX, startY, endX, endY, gameObjectType);
 	}
 
 	/**
@@ -373,31 +626,78 @@ public class GameWorld {
 	 * @return true if it can fight
 	 */
 	public boolean canFight(int startX, int startY, int endX, int endY) {
-		if (startX < 0 || startY < 0 || startX >= mapSizeX || startY >= mapSizeY) {
-			return false;
-		}
-		if (endX < 0 || endY < 0 || endX >= mapSizeX || endY >= mapSizeY) {
-			return false;
+		return checkFight(startX, startY, endX, endY) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject can fight the other GameObject
+	 *
+	 * @param startX start coordinates
+	 * @param startY start coordinates
+	 * @param endX   end coordinates
+	 * @param endY   end coordinates
+	 * @return OK or the reason why it can't fight
+	 */
+	public ActionResult checkFight(int startX, int startY, int endX, int endY) {
+		if (!isOnMap(startX, startY) || !isOnMap(endX, endY)) {
+			return ActionResult.OUT_OF_BOUNDS;
 		}
 
 		GameObject gameObject = getWorldGameObject(startX, startY);
 		// there is no GameObject at the start
 		if (gameObject == null) {
-			return false;
+			return ActionResult.EMPTY_START;
+		}
+		ActionResult result = checkFightTarget(gameObject, endX, endY);
+		if (result != ActionResult.OK) {
+			return result;
+		}
+		// the gameObject has been used already
+		if (gameObject.wasUsed(Action.ActionType.FIGHT)) {
+			return ActionResult.ALREADY_USED;
 		}
+		return ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could fight the GameObject at the given position, regardless of whether it already
+	 * fought this round
+	 *
+	 * @param gameObject the GameObject
+	 * @param endX       end coordinates, on the map
+	 * @param endY       end coordinates, on the map
+	 * @return true if it could fight there
+	 */
+	public boolean isFightTarget(GameObject gameObject, int endX, int endY) {
+		return checkFightTarget(gameObject, endX, endY) == ActionResult.OK;
+	}
+
+	/**
+	 * check if the GameObject could fight the GameObject at the given position, regardless of whether it already
+	 * fought this round
+	 *
+	 * @param gameObject the GameObject
+	 * @param endX       end coordinates, on the map
+	 * @param endY       end coordinates, on the map
+	 * @return OK or the reason why it couldn't fight there
+	 */
+	public ActionResult checkFightTarget(GameObject gameObject, int endX, int endY) {
+		GameObject other = getWorldGameObject(endX, endY);
 		// there is no GameObject at the destination
-		if (getWorldGameObject(endX, endY) == null) {
-			return false;
+		if (other == null) {
+			return ActionResult.EMPTY_TARGET;
+		}
+		if (!gameObject.getGameObjectType().isCanFight()) {
+			return ActionResult.CANNOT_FIGHT;
 		}
 		// the destination is not within radius
-		if (!gameObject.canFight(getWorldGameObject(endX, endY))) {
-			return false;
+		if (!gameObject.canFightTo(endX, endY)) {
+			return ActionResult.OUT_OF_RADIUS;
 		}
-		// the gameObject has been used already
-		if (gameObject.wasUsed(Action.ActionType.FIGHT)) {
-			return false;
+		if (other.getPlayer() == gameObject.getPlayer()) {
+			return ActionResult.OWN_TARGET;
 		}
-		return true;
+		return ActionResult.OK;
 	}
 
 	/**
@@ -410,9 +710,18 @@ public class GameWorld {
 	 * @return the difference in HP
 	 */
 	public int fight(int startX, int startY, int endX, int endY) {
-		if (!canFight(startX, startY, endX, endY)) {
+		if (!accept(Action.ActionType.FIGHT, checkFight(startX, startY, endX, endY))) {
 			return 0;
 		}
+		return applyFight(startX, startY, endX, endY);
+	}
+
+	/**
+	 * fight the other GameObject, without checking whether it can
+	 *
+	 * @return the difference in HP
+	 */
+	private int applyFight(int startX, int startY, int endX, int endY) {
 		int damage = getWorldGameObject(startX, startY).fight(getWorldGameObject(endX, endY));
 		if (getWorldGameObject(endX, endY).getHp() <= 0) {
 			getActivePlayer().addMoney(getWorldGameObject(endX, endY).getGameObjectType().getValueOnDestruction());
@@ -423,6 +732,7 @@ public class GameWorld {
 			}
 		}
 		getWorldGameObject(startX, startY).use(Action.ActionType.FIGHT);
+		fireOnActionApplied(Action.ActionType.FIGHT, startX, startY, endX, endY, null);
 		return damage;
 	}
 
@@ -439,42 +749,79 @@ public class GameWorld {
 				gameObject.setPlayer(conqueror);
 			}
 		}
-	}
-
-	/**
-	 * Save the GameWorld
-	 *
-	 * @param writer the XmlWriter to write to
-	 */
-	public void save(XmlWriter writer) throws IOException {
-		writer.element("GameObjects");
-		for (int y = 0; y < mapSizeY; y++) {
-			for (int x = 0; x < mapSizeX; x++) {
-				if (getWorldGameObject(x, y) != null) {
-					writer.element("GameObject");
-					if (getWorldGameObject(x, y).getPositionX() != x || getWorldGameObject(x, y).getPositionY() != y) {
-						throw new IOException("Position in worldGameObjects and gameObject doesn't correspond!");
-					}
-					getWorldGameObject(x, y).save(writer);
-					writer.pop();
-				}
-			}
-		}
-		writer.pop();
+		gameObjectRevision++;
 	}
 
 	/**
 	 * load the GameWorld
 	 *
-	 * @param reader the XmlReader.Element to read from
+	 * @param reader         the XmlReader.Element to read from
+	 * @param gameController the game, to find the players of the GameObjects
 	 */
-	public void load(XmlReader.Element reader) {
+	public void load(XmlReader.Element reader, GameController gameController) {
 		worldGameObjects = new GameObject[mapSizeY][mapSizeX];
+		this.gameObjects.clear();
 		XmlReader.Element gameObjects = reader.getChildByName("GameObjects");
 		for (XmlReader.Element gameObjectXML : gameObjects.getChildrenByName("GameObject")) {
-			GameObject gameObject = new GameObject(gameObjectXML);
+			GameObject gameObject = new GameObject(gameObjectXML, gameController);
 			worldGameObjects[gameObject.getPositionY()][gameObject.getPositionX()] = gameObject;
 			this.gameObjects.add(gameObject);
 		}
+		gameObjectRevision++;
+		revision++;
+	}
+
+	/**
+	 * Fire an event that an action was applied
+	 *
+	 * @param actionType            the type of the action
+	 * @param startX                start coordinates
+	 * @param startY                start coordinates
+	 * @param endX                  end coordinates
+	 * @param endY                  end coordinates
+	 * @param produceGameObjectType the produced type or null
+	 */
+	protected void fireOnActionApplied(Action.ActionType actionType, int startX, int startY, int endX, int endY,
+									   GameObjectType produceGameObjectType) {
+		revision++;
+		if (appliedActionHandlers == null) {
+			return;
+		}
+		appliedAction.actionType = actionType;
+		appliedAction.startX = startX;
+		appliedAction.startY = startY;
+		appliedAction.endX = endX;
+		appliedAction.endY = endY;
+		appliedAction.produceGameObjectType = produceGameObjectType;
+		for (AppliedActionHandler c : appliedActionHandlers) {
+			c.onActionApplied(appliedAction);
+		}
+	}
+
+	/**
+	 * add a {@link AppliedActionHandler}
+	 *
+	 * @param handler the AppliedActionHandler
+	 */
+	public void addAppliedActionHandler(AppliedActionHandler handler) {
+		if (appliedActionHandlers == null) {
+			appliedActionHandlers = new LinkedList<AppliedActionHandler>();
+		}
+		appliedActionHandlers.add(handler);
+	}
+
+	/**
+	 * remove a {@link AppliedActionHandler}
+	 *
+	 * @param handler the AppliedActionHandler
+	 */
+	public void removeAppliedActionHandler(AppliedActionHandler handler) {
+		if (appliedActionHandlers == null) {
+			return;
+		}
+		appliedActionHandlers.remove(handler);
+		if (appliedActionHandlers.isEmpty()) {
+			appliedActionHandlers = null;
+		}
 	}
 }
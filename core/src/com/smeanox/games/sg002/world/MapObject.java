@@ -29,6 +29,10 @@ public class MapObject {
         return mapObjectType;
     }
 
+    /**
+     * Change the type, use {@link GameWorld#setWorldMapObjectType} so cached views notice the change
+     * @param mapObjectType the new type
+     */
     public void setMapObjectType(MapObjectType mapObjectType){
         this.mapObjectType = mapObjectType;
     }
@@ -1,6 +1,7 @@
 package com.smeanox.games.sg002.world;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -17,8 +18,9 @@ public class MapObjectType {
 
 	private static MapObjectType defaultMapObjectType; // field without anything special(i.e. gold)
 
-	private Texture texture;
+	private TextureRegion texture;
 	private String textureName;
+	private Color color;
 
 	private Set<GameObjectType> allowedGameObjectTypes;
 
@@ -43,14 +45,27 @@ public class MapObjectType {
 		return textureName;
 	}
 
-	public void setTexture(Texture texture) {
+	public void setTexture(TextureRegion texture) {
 		this.texture = texture;
 	}
 
-	public Texture getTexture() {
+	public TextureRegion getTexture() {
 		return texture;
 	}
 
+	/**
+	 * The color this type is shown in when a field is only a few pixels large, e.g. on the minimap
+	 *
+	 * @return the color
+	 */
+	public Color getColor() {
+		return color;
+	}
+
+	public void setColor(Color color) {
+		this.color = color;
+	}
+
 	/**
 	 * Checks whether a gameObjectType is allowed to be placed on this map tile
 	 *
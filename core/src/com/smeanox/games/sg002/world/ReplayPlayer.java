@@ -0,0 +1,477 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.utils.XmlReader;
+import com.smeanox.games.sg002.player.AIPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plays a game recorded by a {@link GameRecorder}. Every turn of the recording can be shown, seeking only has to
+ * replay the turns since the previous keyframe.
+ *
+ * @author Benjamin Schmid
+ */
+public class ReplayPlayer {
+	private String dirName;
+	private File dir;
+	private ArrayList<Turn> turns;
+	private GameController gameController;
+	private int turn;
+
+	/**
+	 * Read the replay in the given directory and show its first turn
+	 *
+	 * @param dirName the directory the replay was recorded to
+	 * @throws IOException if there is no replay or it can't be read
+	 */
+	public ReplayPlayer(String dirName) throws IOException {
+		this.dirName = dirName;
+		dir = GameController.getSaveFile(dirName).file();
+		readTurns();
+		if (turns.isEmpty()) {
+			throw new IOException("No replay in " + dirName);
+		}
+		turn = -1;
+		seekTurn(0);
+	}
+
+	/**
+	 * Read all journals starting at the first keyframe
+	 *
+	 * @throws IOException if a journal can't be read
+	 */
+	private void readTurns() throws IOException {
+		turns = new ArrayList<Turn>();
+		final int[] keyframeSeqs = GameRecorder.listSeqs(dir, GameRecorder.snapshotSuffix);
+		if (keyframeSeqs.length == 0) {
+			return;
+		}
+		for (final int seq : GameRecorder.listSeqs(dir, GameRecorder.journalSuffix)) {
+			if (seq < keyframeSeqs[0]) {
+				continue;
+			}
+			final boolean[] firstTurn = new boolean[]{true};
+			ActionJournal.read(GameRecorder.getFile(dir, seq, GameRecorder.journalSuffix),
+					new ActionJournal.EntryHandler() {
+						@Override
+						public void onTurn(int round, int playerId, long seed0, long seed1) {
+							// the keyframe of a segment shows the start of its first turn
+							boolean keyframe = firstTurn[0] && Arrays.binarySearch(keyframeSeqs, seq) >= 0;
+							turns.add(new Turn(round, playerId, seed0, seed1, keyframe ? seq : -1));
+							firstTurn[0] = false;
+						}
+
+						@Override
+						public void onAction(Action action) {
+							if (!turns.isEmpty()) {
+								turns.get(turns.size() - 1).addAction(action);
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * Show the given turn with all of its actions applied
+	 *
+	 * @param target the index of the turn
+	 * @throws IOException if the replay can't be applied
+	 */
+	public void seekTurn(int target) throws IOException {
+		target = Math.max(0, Math.min(turns.size() - 1, target));
+		int keyframe = target;
+		while (turns.get(keyframe).keyframeSeq < 0) {
+			keyframe--;
+		}
+		int from;
+		if (turn >= keyframe && turn <= target) {
+			// the current turn is on the way
+			from = turn + 1;
+		} else {
+			turn = -1;
+			loadKeyframe(turns.get(keyframe));
+			applyActions(turns.get(keyframe));
+			from = keyframe + 1;
+		}
+		for (int i = from; i <= target; i++) {
+			turn = -1;
+			startTurn(turns.get(i));
+			applyActions(turns.get(i));
+		}
+		turn = target;
+	}
+
+	/**
+	 * Show the first turn of the given round
+	 *
+	 * @param round the round
+	 * @throws IOException if the replay can't be applied
+	 */
+	public void seekRound(int round) throws IOException {
+		int target = 0;
+		while (target < turns.size() - 1 && turns.get(target).round < round) {
+			target++;
+		}
+		seekTurn(target);
+	}
+
+	/**
+	 * Show the next turn
+	 *
+	 * @return false if the last turn is already shown
+	 * @throws IOException if the replay can't be applied
+	 */
+	public boolean stepForward() throws IOException {
+		if (turn >= turns.size() - 1) {
+			return false;
+		}
+		seekTurn(turn + 1);
+		return true;
+	}
+
+	/**
+	 * Show the previous turn
+	 *
+	 * @return false if the first turn is already shown
+	 * @throws IOException if the replay can't be applied
+	 */
+	public boolean stepBack() throws IOException {
+		if (turn <= 0) {
+			return false;
+		}
+		seekTurn(turn - 1);
+		return true;
+	}
+
+	/**
+	 * Play the whole replay as fast as possible and check that it is consistent: every action has to be possible and
+	 * every keyframe has to match the replayed state. If rerunAI is set, the turns of AIPlayers are played by the AI
+	 * again with the recorded random state and have to result in the same actions.
+	 *
+	 * @param rerunAI whether the AIs should play their turns again
+	 * @return a description of all problems found, empty if the replay is consistent
+	 */
+	public List<String> verify(boolean rerunAI) {
+		List<String> problems = new ArrayList<String>();
+		turn = -1;
+		try {
+			loadKeyframe(turns.get(0));
+			for (int i = 0; i < turns.size(); i++) {
+				Turn aTurn = turns.get(i);
+				if (i > 0) {
+					startTurn(aTurn);
+					if (aTurn.keyframeSeq >= 0 && !matchesKeyframe(aTurn, problems)) {
+						// continue from the recorded state
+						loadKeyframe(aTurn);
+					}
+				}
+				if (rerunAI && gameController.getActivePlayer() instanceof AIPlayer) {
+					if (!rerunAI(aTurn, problems)) {
+						return problems;
+					}
+				} else {
+					applyActions(aTurn);
+				}
+				turn = i;
+			}
+		} catch (IOException e) {
+			problems.add(describe(turns.get(turn + 1)) + e.getMessage());
+			turn = -1;
+		}
+		return problems;
+	}
+
+	/**
+	 * Let the active AIPlayer play the given turn again and compare its actions to the recorded ones
+	 *
+	 * @param aTurn    the turn
+	 * @param problems list to add a problem to
+	 * @return true if the AI played the same actions
+	 */
+	private boolean rerunAI(Turn aTurn, List<String> problems) {
+		final ArrayList<Action> played = new ArrayList<Action>();
+		AppliedActionHandler handler = new AppliedActionHandler() {
+			@Override
+			public void onActionApplied(Action action) {
+				played.add(copyAction(action));
+			}
+		};
+		gameController.getGameWorld().addAppliedActionHandler(handler);
+		try {
+			gameController.getActivePlayer().startPlaying();
+		} finally {
+			gameController.getGameWorld().removeAppliedActionHandler(handler);
+		}
+		for (int i = 0; i < Math.max(played.size(), aTurn.actions.size()); i++) {
+			Action recorded = i < aTurn.actions.size() ? aTurn.actions.get(i) : null;
+			Action actual = i < played.size() ? played.get(i) : null;
+			if (!sameAction(recorded, actual)) {
+				problems.add(describe(aTurn) + "AI diverged at action " + i + ", recorded " + describe(recorded)
+						+ ", played " + describe(actual));
+				turn = -1;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare the state of the game to the keyframe of the given turn
+	 *
+	 * @param aTurn    the turn
+	 * @param problems list to add a problem to
+	 * @return true if the state matches
+	 * @throws IOException if the keyframe can't be read
+	 */
+	private boolean matchesKeyframe(Turn aTurn, List<String> problems) throws IOException {
+		XmlReader.Element root = new XmlReader().parse(GameController.openSaveFile(GameController.getSaveFile(
+				GameRecorder.getFile(new File(dirName), aTurn.keyframeSeq, GameRecorder.snapshotSuffix).getPath())));
+		if (root.getIntAttribute("round", 0) != gameController.getRound()) {
+			problems.add(describe(aTurn) + "keyframe is in round " + root.getIntAttribute("round", 0));
+			return false;
+		}
+		for (XmlReader.Element playerXML : root.getChildByName("Players").getChildrenByName("Player")) {
+			Player player = gameController.getPlayerById(playerXML.getIntAttribute("id"));
+			if (player == null || player.getMoney() != playerXML.getIntAttribute("money")) {
+				problems.add(describe(aTurn) + "money of player " + playerXML.getIntAttribute("id")
+						+ " differs from keyframe");
+				return false;
+			}
+		}
+		GameWorld gameWorld = gameController.getGameWorld();
+		XmlReader.Element gameObjectsXML = root.getChildByName("GameWorld").getChildByName("GameObjects");
+		for (XmlReader.Element gameObjectXML : gameObjectsXML.getChildrenByName("GameObject")) {
+			int x = gameObjectXML.getIntAttribute("x");
+			int y = gameObjectXML.getIntAttribute("y");
+			GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+			if (gameObject == null
+					|| !gameObject.getGameObjectType().getId().equals(gameObjectXML.getAttribute("gameObjectType"))
+					|| gameObject.getHp() != gameObjectXML.getIntAttribute("hp")
+					|| gameObject.getPlayer().getId() != gameObjectXML.getIntAttribute("player")) {
+				problems.add(describe(aTurn) + "GameObject at " + x + ", " + y + " differs from keyframe");
+				return false;
+			}
+		}
+		if (gameObjectsXML.getChildCount() != gameWorld.getGameObjects().size()) {
+			problems.add(describe(aTurn) + "keyframe has " + gameObjectsXML.getChildCount() + " GameObjects instead of "
+					+ gameWorld.getGameObjects().size());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Load the keyframe of the given turn
+	 *
+	 * @param aTurn the turn
+	 * @throws IOException if the keyframe can't be loaded
+	 */
+	private void loadKeyframe(Turn aTurn) throws IOException {
+		String fileName = GameRecorder.getFile(new File(dirName), aTurn.keyframeSeq, GameRecorder.snapshotSuffix)
+				.getPath();
+		boolean loaded;
+		if (gameController == null) {
+			gameController = new GameController(fileName);
+			loaded = gameController.getActivePlayer() != null;
+		} else {
+			loaded = gameController.loadGame(fileName, false);
+		}
+		if (!loaded) {
+			throw new IOException("Could not load keyframe " + fileName);
+		}
+		if (gameController.getActivePlayer() instanceof AIPlayer) {
+			// the journal is authoritative
+			((AIPlayer) gameController.getActivePlayer()).setRandomState(aTurn.seed0, aTurn.seed1);
+		}
+	}
+
+	/**
+	 * Start the given turn
+	 *
+	 * @param aTurn the turn
+	 * @throws IOException if the turn can't be started
+	 */
+	private void startTurn(Turn aTurn) throws IOException {
+		gameController.replayTurn(aTurn.round, aTurn.playerId, aTurn.seed0, aTurn.seed1);
+	}
+
+	/**
+	 * Apply all recorded actions of the given turn
+	 *
+	 * @param aTurn the turn
+	 * @throws IOException if an action is not possible
+	 */
+	private void applyActions(Turn aTurn) throws IOException {
+		for (Action action : aTurn.actions) {
+			gameController.replayAction(action);
+		}
+	}
+
+	/**
+	 * Return the game that shows the replay. The same instance is used for the whole replay.
+	 *
+	 * @return the GameController
+	 */
+	public GameController getGameController() {
+		return gameController;
+	}
+
+	/**
+	 * Return the index of the shown turn
+	 *
+	 * @return the index, or -1 if the shown state doesn't belong to a turn after a failed verification
+	 */
+	public int getTurn() {
+		return turn;
+	}
+
+	public int getTurnCount() {
+		return turns.size();
+	}
+
+	/**
+	 * Return the round of the shown turn
+	 *
+	 * @return the round
+	 */
+	public int getRound() {
+		return gameController.getRound();
+	}
+
+	/**
+	 * Return the sub directory of the given directory that contains the newest replay
+	 *
+	 * @param dirName the directory the replays are recorded to
+	 * @return the name of the directory of the newest replay or null if there is none
+	 */
+	public static String findNewestReplay(String dirName) {
+		File[] files = GameController.getSaveFile(dirName).file().listFiles();
+		if (files == null) {
+			return null;
+		}
+		File newest = null;
+		for (File file : files) {
+			if (file.isDirectory() && GameRecorder.listSeqs(file, GameRecorder.snapshotSuffix).length > 0
+					&& (newest == null || file.lastModified() > newest.lastModified())) {
+				newest = file;
+			}
+		}
+		return newest == null ? null : dirName + "/" + newest.getName();
+	}
+
+	/**
+	 * Delete the oldest replays in the given directory
+	 *
+	 * @param dirName the directory the replays are in
+	 * @param keep    the number of replays to keep
+	 */
+	public static void deleteOldReplays(String dirName, int keep) {
+		File[] files = GameController.getSaveFile(dirName).file().listFiles();
+		if (files == null) {
+			return;
+		}
+		List<File> replays = new ArrayList<File>();
+		for (File file : files) {
+			if (file.isDirectory()) {
+				replays.add(file);
+			}
+		}
+		// newest first, like findNewestReplay
+		Collections.sort(replays, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				long difference = o2.lastModified() - o1.lastModified();
+				return difference > 0 ? 1 : (difference < 0 ? -1 : 0);
+			}
+		});
+		for (int i = Math.max(0, keep); i < replays.size(); i++) {
+			File[] replayFiles = replays.get(i).listFiles();
+			if (replayFiles != null) {
+				for (File file : replayFiles) {
+					file.delete();
+				}
+			}
+			if (!replays.get(i).delete()) {
+				System.out.println("Could not delete replay " + replays.get(i).getPath());
+			}
+		}
+	}
+
+	/**
+	 * Copy the given action, the instances passed to handlers are reused
+	 *
+	 * @param action the action
+	 * @return a new instance
+	 */
+	private static Action copyAction(Action action) {
+		Action copy = new Action();
+		copy.actionType = action.actionType;
+		copy.startX = action.startX;
+		copy.startY = action.startY;
+		copy.endX = action.endX;
+		copy.endY = action.endY;
+		copy.produceGameObjectType = action.produceGameObjectType;
+		return copy;
+	}
+
+	private static boolean sameAction(Action a, Action b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		return a.actionType == b.actionType && a.startX == b.startX && a.startY == b.startY
+				&& a.endX == b.endX && a.endY == b.endY && a.produceGameObjectType == b.produceGameObjectType;
+	}
+
+	private static String describe(Turn aTurn) {
+		return "round " + aTurn.round + ", player " + aTurn.playerId + ": ";
+	}
+
+	private static String describe(Action action) {
+		if (action == null) {
+			return "nothing";
+		}
+		return action.actionType + " " + action.startX + "," + action.startY + " -> " + action.endX + "," + action.endY
+				+ (action.produceGameObjectType != null ? " " + action.produceGameObjectType.getId() : "");
+	}
+
+	/**
+	 * A recorded turn
+	 */
+	private static class Turn {
+		private int round;
+		private int playerId;
+		private long seed0, seed1;
+		private int keyframeSeq;
+		private ArrayList<Action> actions;
+
+		/**
+		 * Create a new instance
+		 *
+		 * @param round       the round the turn belongs to
+		 * @param playerId    the player playing the turn
+		 * @param seed0       the random state of the player
+		 * @param seed1       the random state of the player
+		 * @param keyframeSeq the sequence number of the keyframe showing the start of this turn or -1
+		 */
+		public Turn(int round, int playerId, long seed0, long seed1, int keyframeSeq) {
+			this.round = round;
+			this.playerId = playerId;
+			this.seed0 = seed0;
+			this.seed1 = seed1;
+			this.keyframeSeq = keyframeSeq;
+			actions = new ArrayList<Action>();
+		}
+
+		public void addAction(Action action) {
+			actions.add(copyAction(action));
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.debug.Profiler;
+import com.smeanox.games.sg002.metrics.Histogram;
+import com.smeanox.games.sg002.metrics.Metrics;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.world.actionHandler.SaveGameHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes {@link GameSnapshot}s to disk, either directly or on a background thread
+ *
+ * @author Benjamin Schmid
+ */
+public class SaveGameWriter {
+	private static final int scopeWrite = Profiler.get().register("SaveGameWriter.write");
+	private static final Histogram saveTime = Metrics.get().histogram("save.time");
+	private static final Histogram saveBytes = Metrics.get().histogram("save.bytes");
+
+	private static ExecutorService executor;
+
+	private SaveGameWriter() {
+	}
+
+	/**
+	 * Return the executor that writes the save games. All saves run on the same thread, so they are written in the
+	 * order they were requested.
+	 *
+	 * @return the executor
+	 */
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "SaveGameWriter");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Write the snapshot to the given file. The snapshot is written to a temporary file first which then replaces the
+	 * given file, so an existing save game is never left half written.
+	 *
+	 * @param snapshot the snapshot to write
+	 * @param file     the file to write to
+	 * @throws IOException if writing fails
+	 */
+	public static void write(GameSnapshot snapshot, File file) throws IOException {
+		long startTime = System.nanoTime();
+		Profiler.get().start(scopeWrite);
+		try {
+			writeFile(snapshot, file);
+		} finally {
+			Profiler.get().stop();
+		}
+		saveTime.record(System.nanoTime() - startTime);
+		saveBytes.record(file.length());
+	}
+
+	/**
+	 * Write the snapshot to the given file
+	 *
+	 * @param snapshot the snapshot to write
+	 * @param file     the file to write to
+	 * @throws IOException if writing fails
+	 * @see #write(GameSnapshot, File)
+	 */
+	private static void writeFile(GameSnapshot snapshot, File file) throws IOException {
+		File tmpFile = new File(file.getPath() + ".tmp");
+		OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tmpFile));
+		boolean written = false;
+		try {
+			if (Consts.compressSaveGames) {
+				outputStream = new GZIPOutputStream(outputStream);
+			}
+			XmlWriter writer = new XmlWriter(new OutputStreamWriter(outputStream, "UTF-8"));
+			snapshot.write(writer);
+			writer.close();
+			written = true;
+		} finally {
+			// also on RuntimeExceptions, the incomplete file must not be left behind
+			if (!written) {
+				try {
+					outputStream.close();
+				} catch (IOException e) {
+					// the original exception is more important
+				}
+				tmpFile.delete();
+			}
+		}
+
+		if (tmpFile.renameTo(file)) {
+			return;
+		}
+		// some platforms can't rename onto an existing file, move the old save aside until the new one is in place
+		File oldFile = new File(file.getPath() + ".old");
+		oldFile.delete();
+		if (!file.renameTo(oldFile)) {
+			if (!file.exists()) {
+				throw new IOException("Could not write " + file.getPath() + ", the new save is " + tmpFile.getPath());
+			}
+			tmpFile.delete();
+			throw new IOException("Could not replace " + file.getPath());
+		}
+		if (!tmpFile.renameTo(file)) {
+			if (oldFile.renameTo(file)) {
+				tmpFile.delete();
+				throw new IOException("Could not replace " + file.getPath());
+			}
+			// neither file is in place, keep both so nothing is lost
+			throw new IOException("Could not replace " + file.getPath() + ", the new save is " + tmpFile.getPath()
+					+ " and the old one " + oldFile.getPath());
+		}
+		oldFile.delete();
+	}
+
+	/**
+	 * Run the given task on the save game thread after all previously requested saves
+	 *
+	 * @param task the task
+	 */
+	public static void execute(Runnable task) {
+		getExecutor().execute(task);
+	}
+
+	/**
+	 * Write the snapshot to the given file on a background thread
+	 *
+	 * @param snapshot the snapshot to write
+	 * @param file     the file to write to
+	 * @param handler  informed on the background thread when writing finished or failed, may be null
+	 * @see #write(GameSnapshot, File)
+	 */
+	public static void writeAsync(final GameSnapshot snapshot, final File file, final SaveGameHandler handler) {
+		getExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					write(snapshot, file);
+				} catch (Exception e) {
+					if (handler != null) {
+						handler.onSaveFailed(file.getPath(), e);
+					}
+					return;
+				}
+				if (handler != null) {
+					handler.onSaveFinished(file.getPath());
+				}
+			}
+		});
+	}
+}
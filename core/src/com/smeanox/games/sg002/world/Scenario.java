@@ -1,15 +1,16 @@
 package com.smeanox.games.sg002.world;
 
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 
 import com.smeanox.games.sg002.data.Point;
+import com.smeanox.games.sg002.util.PoissonDiskSampler;
+
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Set;
 
 /**
  * Describes a Scenario
@@ -32,7 +33,15 @@ public class Scenario {
 	private long seed;
 	private Point[] startPos;
 	private Point[] goldPos;
+	/**
+	 * the reason why the positions couldn't be generated, if they couldn't
+	 */
+	private String materializeError;
 
+	/**
+	 * Create a new Scenario with random start and gold positions. The positions are generated when they are first
+	 * needed, see {@link #materialize()}.
+	 */
 	public Scenario(String id,
 					String name,
 					int startMoney,
@@ -44,44 +53,17 @@ public class Scenario {
 					long seed,
 					int maxGold,
 					boolean multipleActionsPerObject) {
-		this.id = id;
-		this.name = name;
-		this.startMoney = startMoney;
-		this.maxPlayerCount = maxPlayerCount;
-		this.mapSizeX = mapSizeX;
-		this.mapSizeY = mapSizeY;
-		this.walkDiagonal = walkDiagonal;
-		this.startGameObjectMinDistance = startGameObjectMinDistance;
-		this.maxGold = maxGold;
-		this.multipleActionsPerObject = multipleActionsPerObject;
-		this.seed = seed;
-		MathUtils.random.setSeed(seed);
-
-		idToScenario.put(id, this);
-
-		Set<Point> usedPos = new HashSet<Point>();
-		goldPos = new Point[maxGold];
-		startPos = new Point[maxPlayerCount];
-
-		for (int i = 0; i < maxPlayerCount; i++) {
-			Point pt;
-			do {
-				pt = new Point(MathUtils.random(mapSizeX - 1), MathUtils.random(mapSizeY - 1));
-			} while (!checkMinDist(usedPos, pt, startGameObjectMinDistance));
-			usedPos.add(pt);
-			startPos[i] = pt;
-		}
-
-		for (int i = 0; i < maxGold; i++) {
-			Point pt;
-			do {
-				pt = new Point(MathUtils.random(mapSizeX - 1), MathUtils.random(mapSizeY - 1));
-			} while (usedPos.contains(pt));
-			usedPos.add(pt);
-			goldPos[i] = pt;
-		}
+		this(id, name, startMoney, maxPlayerCount, mapSizeX, mapSizeY, walkDiagonal, startGameObjectMinDistance,
+				seed, maxGold, multipleActionsPerObject, null, null);
 	}
 
+	/**
+	 * Create a new Scenario with the given start and gold positions
+	 *
+	 * @param goldPos  the gold positions, random if null
+	 * @param startPos the start positions, random if null
+	 * @throws IllegalArgumentException if there are less start positions than players
+	 */
 	public Scenario(String id,
 					String name,
 					int startMoney,
@@ -95,34 +77,120 @@ public class Scenario {
 					boolean multipleActionsPerObject,
 					Point[] goldPos,
 					Point[] startPos) {
-		this(id, name, startMoney, maxPlayerCount, mapSizeX, mapSizeY, walkDiagonal, startGameObjectMinDistance,
-				seed, maxGold, multipleActionsPerObject);
+		this.id = id;
+		this.name = name;
+		this.startMoney = startMoney;
+		this.maxPlayerCount = maxPlayerCount;
+		this.mapSizeX = mapSizeX;
+		this.mapSizeY = mapSizeY;
+		this.walkDiagonal = walkDiagonal;
+		this.startGameObjectMinDistance = startGameObjectMinDistance;
+		this.maxGold = maxGold;
+		this.multipleActionsPerObject = multipleActionsPerObject;
+		this.seed = seed;
 		this.goldPos = goldPos;
 		this.startPos = startPos;
+
+		if (startPos != null && startPos.length < maxPlayerCount) {
+			throw new IllegalArgumentException("Only " + startPos.length + " start positions for " + maxPlayerCount
+					+ " players");
+		}
+
+		idToScenario.put(id, this);
+	}
+
+	/**
+	 * Whether the start and gold positions are known
+	 *
+	 * @return true if {@link #materialize()} won't generate anything
+	 */
+	public synchronized boolean isMaterialized() {
+		return goldPos != null && startPos != null;
+	}
+
+	/**
+	 * Generate the missing start and gold positions, if that didn't happen yet. The start positions obey the minimal
+	 * distance, gold is placed on free fields. The result only depends on the seed, not on when or in which order the
+	 * scenarios are materialized.
+	 *
+	 * @throws IllegalArgumentException if the positions don't fit on the map
+	 */
+	public synchronized void materialize() {
+		if (isMaterialized()) {
+			return;
+		}
+		if (materializeError != null) {
+			// don't try again, the result would be the same
+			throw new IllegalArgumentException(materializeError);
+		}
+		try {
+			generatePositions();
+		} catch (IllegalArgumentException e) {
+			materializeError = e.getMessage();
+			throw e;
+		}
 	}
 
 	/**
-	 * Check whether the minimal distance is obeyed
-	 * @param usedPoints the points that are already set
-	 * @param newPoint the new point that might get added
-	 * @param minDist the minimal distance to obey
-	 * @return true if it is possible to add the newPoint
+	 * Choose the missing start and gold positions
+	 *
+	 * @throws IllegalArgumentException if the positions don't fit on the map
 	 */
-	private boolean checkMinDist(Set<Point> usedPoints, Point newPoint, int minDist){
-		if(usedPoints.contains(newPoint)){
-			return false;
+	private void generatePositions() {
+		RandomXS128 random = new RandomXS128(seed);
+		Point[] startPos = this.startPos;
+
+		if (startPos == null) {
+			startPos = new PoissonDiskSampler(mapSizeX, mapSizeY, startGameObjectMinDistance, random)
+					.sample(maxPlayerCount);
 		}
 
-		for(Point point : usedPoints){
-			int distX, distY;
-			distX = Math.abs(point.x - newPoint.x);
-			distY = Math.abs(point.y - newPoint.y);
-			if(Math.max(distX, distY) < minDist){
-				return false;
+		Point[] goldPos = this.goldPos;
+		if (goldPos == null) {
+			int fieldCount = mapSizeX * mapSizeY;
+			BitSet usedPos = new BitSet(fieldCount);
+			for (Point point : startPos) {
+				usedPos.set(point.y * mapSizeX + point.x);
+			}
+			if (fieldCount - usedPos.cardinality() < maxGold) {
+				throw new IllegalArgumentException("Can't place " + maxGold + " gold on " + mapSizeX + "x" + mapSizeY
+						+ " with " + startPos.length + " start positions");
+			}
+			goldPos = new Point[maxGold];
+			for (int i = 0; i < maxGold; i++) {
+				int pos = randomClearBit(usedPos, fieldCount, random);
+				usedPos.set(pos);
+				goldPos[i] = new Point(pos % mapSizeX, pos / mapSizeX);
 			}
 		}
 
-		return true;
+		this.startPos = startPos;
+		this.goldPos = goldPos;
+	}
+
+	/**
+	 * Choose one of the clear bits uniformly. Draws random fields while at least half of them are clear, otherwise
+	 * counts to a random clear bit.
+	 *
+	 * @param bits   the used fields
+	 * @param length the number of fields
+	 * @param random the random generator
+	 * @return the index of a clear bit below length
+	 */
+	static int randomClearBit(BitSet bits, int length, RandomXS128 random) {
+		int clear = length - bits.cardinality();
+		if (clear * 2 >= length) {
+			int pos;
+			do {
+				pos = random.nextInt(length);
+			} while (bits.get(pos));
+			return pos;
+		}
+		int pos = bits.nextClearBit(0);
+		for (int k = random.nextInt(clear); k > 0; k--) {
+			pos = bits.nextClearBit(pos + 1);
+		}
+		return pos;
 	}
 
 	/**
@@ -225,6 +293,7 @@ public class Scenario {
 		if (player >= maxPlayerCount || player < 0) {
 			throw new IllegalArgumentException("" + player);
 		}
+		materialize();
 		return startPos[player];
 	}
 
@@ -234,6 +303,7 @@ public class Scenario {
 	 * @return an array of points representing x and y coordinates of the gold resources
 	 */
 	public Point[] getGoldPos() {
+		materialize();
 		return goldPos.clone();
 	}
 
@@ -0,0 +1,17 @@
+package com.smeanox.games.sg002.world.actionHandler;
+
+import com.smeanox.games.sg002.world.Action;
+
+/**
+ * Handle an action that was applied to the GameWorld
+ *
+ * @author Benjamin Schmid
+ */
+public interface AppliedActionHandler {
+	/**
+	 * Called after an action was applied successfully
+	 *
+	 * @param action the action, the instance is reused and must not be kept
+	 */
+	void onActionApplied(Action action);
+}
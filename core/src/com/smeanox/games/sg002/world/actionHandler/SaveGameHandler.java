@@ -0,0 +1,23 @@
+package com.smeanox.games.sg002.world.actionHandler;
+
+/**
+ * Handle the completion of a save game that was written in the background
+ *
+ * @author Benjamin Schmid
+ */
+public interface SaveGameHandler {
+	/**
+	 * Called when the save game was written completely
+	 *
+	 * @param fileName the file that was written
+	 */
+	void onSaveFinished(String fileName);
+
+	/**
+	 * Called when the save game could not be written. The previous save game is left untouched.
+	 *
+	 * @param fileName the file that should have been written
+	 * @param e        the reason
+	 */
+	void onSaveFailed(String fileName, Exception e);
+}
@@ -0,0 +1,97 @@
+package com.smeanox.games.sg002;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes the current thread allocates while running a block of code, using the ThreadMXBean of HotSpot.
+ * The operations are run several times first, so the JIT has compiled them and lazily created caches are filled, and
+ * only the allocations of the steady state are measured.
+ *
+ * @author Benjamin Schmid
+ */
+public class AllocationMeter {
+	private static final int warmupRuns = 2000;
+	private static final int measuredRuns = 20;
+
+	private static com.sun.management.ThreadMXBean threadMXBean;
+	/**
+	 * the bytes allocated by measuring itself
+	 */
+	private static long overhead;
+
+	static {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadMXBean = (com.sun.management.ThreadMXBean) bean;
+			threadMXBean.setThreadAllocatedMemoryEnabled(true);
+			overhead = measure(new Runnable() {
+				@Override
+				public void run() {
+				}
+			});
+		}
+	}
+
+	/**
+	 * Whether the JVM can measure allocations, tests should be skipped otherwise
+	 *
+	 * @return true if it is supported
+	 */
+	public static boolean isSupported() {
+		return threadMXBean != null;
+	}
+
+	/**
+	 * Return the number of bytes the current thread allocated since it was started
+	 *
+	 * @return the number of bytes
+	 */
+	public static long getAllocatedBytes() {
+		return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Return the bytes allocated by a single run of the given operation
+	 *
+	 * @param operation the operation
+	 * @return the number of bytes
+	 */
+	public static long measure(Runnable operation) {
+		long start = getAllocatedBytes();
+		operation.run();
+		return Math.max(0, getAllocatedBytes() - start - overhead);
+	}
+
+	/**
+	 * Return the bytes the given operation allocates per run in the steady state. The operation is warmed up, then the
+	 * least bytes of several runs are returned, so allocations that only happen now and then, e.g. when a collection
+	 * grows, don't count.
+	 *
+	 * @param operation the operation, has to be repeatable
+	 * @return the number of bytes
+	 */
+	public static long measureSteadyState(Runnable operation) {
+		return measureSteadyState(operation, warmupRuns);
+	}
+
+	/**
+	 * Return the bytes the given operation allocates per run in the steady state, see
+	 * {@link #measureSteadyState(Runnable)}
+	 *
+	 * @param operation the operation, has to be repeatable
+	 * @param warmup    the number of runs before measuring
+	 * @return the number of bytes
+	 */
+	public static long measureSteadyState(Runnable operation, int warmup) {
+		for (int i = 0; i < warmup; i++) {
+			operation.run();
+		}
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < measuredRuns; i++) {
+			min = Math.min(min, measure(operation));
+		}
+		return min;
+	}
+}
@@ -0,0 +1,212 @@
+package com.smeanox.games.sg002;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.smeanox.games.sg002.debug.MockGraphics;
+import com.smeanox.games.sg002.player.AIPlayer_BenNo1;
+import com.smeanox.games.sg002.player.LocalPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.view.GameView;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.ActionJournal;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure the operations that run every frame or every turn don't allocate more than they do now, GC pauses are
+ * visible stutters on Android. The budgets are bytes per call in the steady state, see {@link AllocationMeter}.
+ *
+ * @author Benjamin Schmid
+ */
+public class AllocationTest {
+	/**
+	 * finishing a turn only creates the iterators over the GameObjects, to check whether the next player is alive and
+	 * to start his round
+	 */
+	private static final long finishedRoundBudget = 128;
+	/**
+	 * the AI creates lists of the positions of its GameObjects and of the free fields around them
+	 */
+	private static final long aiTurnBudgetPerGameObject = 80;
+
+	GameController gameController;
+	GameWorld gameWorld;
+
+	@BeforeClass
+	public static void loadNatives() {
+		GdxNativesLoader.load();
+	}
+
+	@Before
+	public void setup() {
+		assumeTrue(AllocationMeter.isSupported());
+		TestUtil.setupConfig();
+		gameController = new GameController(TestUtil.createTestScenario());
+		gameWorld = gameController.getGameWorld();
+	}
+
+	private void addLocalPlayers(int count) {
+		for (int i = 0; i < count; i++) {
+			Player player = new LocalPlayer();
+			gameController.addPlayer(player);
+			player.setColor(Color.BLUE);
+			player.setName("player" + i);
+		}
+	}
+
+	private static Action createMove(int startX, int startY, int endX, int endY) {
+		Action action = new Action();
+		action.actionType = Action.ActionType.MOVE;
+		action.startX = startX;
+		action.startY = startY;
+		action.endX = endX;
+		action.endY = endY;
+		return action;
+	}
+
+	@Test
+	public void testDoAction() {
+		addLocalPlayers(2);
+		gameController.startGame();
+		final GameObject villager = TestUtil.place(gameWorld, "villager", gameController.getActivePlayer(), 1, 1);
+		final Action there = createMove(1, 1, 2, 1);
+		final Action back = createMove(2, 1, 1, 1);
+
+		long bytes = AllocationMeter.measureSteadyState(new Runnable() {
+			@Override
+			public void run() {
+				gameWorld.doAction(there);
+				// rejected, the villager already moved
+				gameWorld.doAction(back);
+				villager.resetUsedActions();
+				gameWorld.doAction(back);
+				villager.resetUsedActions();
+			}
+		});
+		assertEquals(0, bytes);
+	}
+
+	@Test
+	public void testJournal() throws IOException {
+		File file = File.createTempFile("sg002", ".journal");
+		file.deleteOnExit();
+		final ActionJournal journal = new ActionJournal(file);
+		final Action move = createMove(12, 3, 13, 4);
+		final Action produce = createMove(12, 3, 11, 3);
+		produce.actionType = Action.ActionType.PRODUCE;
+		produce.produceGameObjectType = GameObjectType.getGameObjectTypeById("villager");
+
+		long bytes = AllocationMeter.measureSteadyState(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					journal.writeTurn(17, 1, -1234567890123L, 42L);
+					journal.writeAction(move);
+					journal.writeAction(produce);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		journal.close();
+		assertEquals(0, bytes);
+	}
+
+	@Test
+	public void testFinishedRound() {
+		addLocalPlayers(2);
+		gameController.startGame();
+		Runnable finishedRound = new Runnable() {
+			@Override
+			public void run() {
+				gameController.finishedRound();
+			}
+		};
+		long bytes = AllocationMeter.measureSteadyState(finishedRound);
+		assertTrue(bytes + " bytes", bytes <= finishedRoundBudget);
+
+		// doesn't depend on the number of GameObjects
+		for (int y = 0; y < gameWorld.getMapSizeY(); y += 2) {
+			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+				if (gameWorld.getWorldGameObject(x, y) == null) {
+					TestUtil.place(gameWorld, "villager", gameController.getPlayers().get(x % 2), x, y);
+				}
+			}
+		}
+		assertEquals(bytes, AllocationMeter.measureSteadyState(finishedRound));
+	}
+
+	@Test
+	public void testAITurn() {
+		AIPlayer_BenNo1 player = new AIPlayer_BenNo1();
+		gameController.addPlayer(player);
+		player.setColor(Color.RED);
+		player.setName("ai");
+		player.setRandomState(TestUtil.createTestScenario().getSeed(), 1);
+		gameController.startGame();
+		// a single AI fills the map, afterwards every turn is the same
+		int mapSize = gameWorld.getMapSizeX() * gameWorld.getMapSizeY();
+		for (int i = 0; i < 1000 && gameWorld.getGameObjects().size() < mapSize; i++) {
+			gameController.update(Consts.aiSleep);
+		}
+		assertEquals(mapSize, gameWorld.getGameObjects().size());
+
+		long bytes = AllocationMeter.measureSteadyState(new Runnable() {
+			@Override
+			public void run() {
+				gameController.update(Consts.aiSleep);
+			}
+		}, 100);
+		assertTrue(bytes + " bytes", bytes <= aiTurnBudgetPerGameObject * mapSize);
+	}
+
+	@Test
+	public void testRender() {
+		MockGraphics.install();
+		try {
+			MockGraphics.createAssets();
+			addLocalPlayers(2);
+			gameController.startGame();
+			final Player activePlayer = gameController.getActivePlayer();
+			final GameView gameView = new GameView(gameWorld);
+			final SpriteBatch spriteBatch = new SpriteBatch();
+			GameObject gameObject = gameWorld.getGameObjects().iterator().next();
+			gameView.setActiveX(gameObject.getPositionX());
+			gameView.setActiveY(gameObject.getPositionY());
+			final Rectangle visibleArea = new Rectangle(0, 0, 1f, 1f);
+
+			// the color map, without and with the hp
+			for (float zoom : new float[]{Consts.lodMaxZoom / 2f, Consts.hpDisplayMinZoom / 2f, Consts.hpDisplayMinZoom}) {
+				gameView.setZoom(zoom);
+				long bytes = AllocationMeter.measureSteadyState(new Runnable() {
+					@Override
+					public void run() {
+						gameView.render(spriteBatch, activePlayer, null);
+						gameView.render(spriteBatch, activePlayer, visibleArea);
+					}
+				});
+				assertEquals("zoom " + zoom, 0, bytes);
+			}
+			gameView.dispose();
+			spriteBatch.dispose();
+		} finally {
+			MockGraphics.uninstall();
+		}
+	}
+}
@@ -1,10 +1,15 @@
 package com.smeanox.games.sg002;
 
 import com.badlogic.gdx.files.FileHandle;
+import com.smeanox.games.sg002.player.Player;
 import com.smeanox.games.sg002.util.Consts;
 import com.smeanox.games.sg002.util.GameObjectTypeReader;
 import com.smeanox.games.sg002.util.Language;
+import com.smeanox.games.sg002.util.MapObjectTypeReader;
 import com.smeanox.games.sg002.util.ScenarioReader;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
 import com.smeanox.games.sg002.world.Scenario;
 
 import java.util.Locale;
@@ -20,9 +25,17 @@ public class TestUtil {
 		Consts.headlessMode = true;
 		Language.loadStringsForHeadless(Locale.getDefault());
 		GameObjectTypeReader.readGameObjectTypes(new FileHandle("config/GameObjectTypes.xml"));
+		MapObjectTypeReader.readMapObjectTypes(new FileHandle("config/MapObjectTypes.xml"));
 		ScenarioReader.readScenarios(new FileHandle("config/Scenarios.xml"));
 	}
 
+	/**
+	 * Place a new GameObject, see {@link GameWorld#addGameObject(GameObjectType, Player, int, int)}
+	 */
+	public static GameObject place(GameWorld gameWorld, String gameObjectTypeId, Player player, int x, int y) {
+		return gameWorld.addGameObject(GameObjectType.getGameObjectTypeById(gameObjectTypeId), player, x, y);
+	}
+
 	public static Scenario createTestScenario() {
 		return new Scenario("test", "test", 1000, 8, 15, 20, true, 4, 314159265358979L, 2, true);
 	}
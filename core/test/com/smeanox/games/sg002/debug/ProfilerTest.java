@@ -0,0 +1,135 @@
+package com.smeanox.games.sg002.debug;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the Profiler
+ *
+ * @author Benjamin Schmid
+ */
+public class ProfilerTest {
+
+	Profiler profiler;
+	int outer;
+	int inner;
+
+	@Before
+	public void setup() {
+		profiler = Profiler.get();
+		profiler.setEnabled(true);
+		outer = profiler.register("ProfilerTest.outer");
+		inner = profiler.register("ProfilerTest.inner");
+		profiler.reset();
+	}
+
+	@After
+	public void tearDown() {
+		profiler.reset();
+	}
+
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void testRegister() {
+		assertEquals(outer, profiler.register("ProfilerTest.outer"));
+		assertEquals("ProfilerTest.inner", profiler.getName(inner));
+	}
+
+	@Test
+	public void testNested() {
+		profiler.start(outer);
+		profiler.start(inner);
+		sleep(5);
+		profiler.stop();
+		profiler.start(inner);
+		profiler.stop();
+		profiler.stop();
+		profiler.endFrame();
+
+		ProfilerStats outerStats = profiler.getFrameStats(outer);
+		ProfilerStats innerStats = profiler.getFrameStats(inner);
+		assertEquals(1, outerStats.getLastCount());
+		assertEquals(2, innerStats.getLastCount());
+		assertEquals(-1, profiler.getParent(outer));
+		assertEquals(outer, profiler.getParent(inner));
+		assertTrue(innerStats.getLastTotal() >= 5000000L);
+		assertTrue(outerStats.getLastTotal() >= innerStats.getLastTotal());
+		assertEquals(outerStats.getTotal() - innerStats.getTotal(), outerStats.getSelf());
+		assertEquals(innerStats.getTotal(), innerStats.getSelf());
+	}
+
+	@Test
+	public void testWindows() {
+		for (int i = 0; i < 3; i++) {
+			profiler.start(outer);
+			profiler.stop();
+			profiler.endFrame();
+		}
+		profiler.endTurn();
+		profiler.endFrame();
+
+		ProfilerStats frameStats = profiler.getFrameStats(outer);
+		assertEquals(4, frameStats.getWindows());
+		assertEquals(3, frameStats.getCount());
+		assertEquals(0, frameStats.getLastCount());
+		ProfilerStats turnStats = profiler.getTurnStats(outer);
+		assertEquals(1, turnStats.getWindows());
+		assertEquals(3, turnStats.getLastCount());
+	}
+
+	@Test
+	public void testDisabled() {
+		profiler.setEnabled(false);
+		profiler.start(outer);
+		profiler.setEnabled(true);
+		profiler.start(inner);
+		profiler.stop();
+		profiler.stop();
+		profiler.endFrame();
+
+		assertEquals(0, profiler.getFrameStats(outer).getCount());
+		assertEquals(1, profiler.getFrameStats(inner).getCount());
+	}
+
+	@Test
+	public void testOtherThread() throws InterruptedException {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				profiler.start(outer);
+				profiler.stop();
+			}
+		});
+		thread.start();
+		thread.join();
+		profiler.endFrame();
+
+		assertEquals(1, profiler.getFrameStats(outer).getLastCount());
+	}
+
+	@Test
+	public void testPercentile() {
+		ProfilerStats stats = new ProfilerStats(100);
+		for (int i = 1; i <= 200; i++) {
+			stats.add(i, i);
+			stats.endWindow();
+		}
+		// only the last 100 windows are kept
+		assertEquals(100, stats.getHistorySize());
+		assertEquals(101, stats.getHistory(0));
+		assertEquals(150, stats.getPercentile(0.5f));
+		assertEquals(199, stats.getPercentile(0.99f));
+		assertEquals(200, stats.getMax());
+	}
+}
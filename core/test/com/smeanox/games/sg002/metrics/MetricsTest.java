@@ -0,0 +1,130 @@
+package com.smeanox.games.sg002.metrics;
+
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameWorld;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the metrics and their export
+ *
+ * @author Benjamin Schmid
+ */
+public class MetricsTest {
+
+	@Test
+	public void testCounterThreads() throws InterruptedException {
+		final Counter counter = Metrics.get().counter("MetricsTest.threads");
+		counter.reset();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						counter.inc();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(40000, counter.get());
+		assertTrue(counter == Metrics.get().counter("MetricsTest.threads"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		Metrics.get().gauge("MetricsTest.mismatch");
+		Metrics.get().counter("MetricsTest.mismatch");
+	}
+
+	@Test
+	public void testHistogram() {
+		assertEquals(0, Histogram.getBucket(0));
+		assertEquals(1, Histogram.getBucket(1));
+		assertEquals(2, Histogram.getBucket(2));
+		assertEquals(2, Histogram.getBucket(3));
+		assertEquals(11, Histogram.getBucket(1024));
+		assertEquals(63, Histogram.getBucket(Long.MAX_VALUE));
+
+		Histogram histogram = new Histogram("test");
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050, histogram.getSum());
+		assertEquals(100, histogram.getMax());
+		// 50 is in the bucket from 32 to 63
+		assertEquals(63, histogram.getPercentile(0.5f));
+		assertEquals(100, histogram.getPercentile(0.99f));
+		assertEquals(0, new Histogram("empty").getPercentile(0.5f));
+	}
+
+	@Test
+	public void testActionCounters() {
+		TestUtil.setupConfig();
+		GameWorld gameWorld = new GameController(TestUtil.createTestScenario()).getGameWorld();
+		Counter rejected = Metrics.get().counter("actions.rejected.move");
+		long before = rejected.get();
+		Action action = new Action();
+		action.actionType = Action.ActionType.MOVE;
+		action.startX = 0;
+		action.startY = 0;
+		action.endX = 1;
+		action.endY = 1;
+		gameWorld.doAction(action);
+		assertEquals(before + 1, rejected.get());
+	}
+
+	@Test
+	public void testJson() throws IOException {
+		Metrics.get().gauge("MetricsTest.json").set(42);
+		StringWriter writer = new StringWriter();
+		Metrics.get().writeJson(writer, 1234);
+		String json = writer.toString();
+		assertTrue(json.startsWith("{\"time\":1234,\"metrics\":{"));
+		assertTrue(json.contains("\"MetricsTest.json\":{\"type\":\"gauge\",\"value\":42}"));
+		assertTrue(json.endsWith("}}\n"));
+	}
+
+	@Test
+	public void testExportCsv() throws IOException {
+		File file = File.createTempFile("metrics", ".csv");
+		file.delete();
+		Metrics.get().counter("MetricsTest.csv").add(7);
+		MetricsExporter exporter = new MetricsExporter(Metrics.get(), file, MetricsExporter.getFormat(file), 1000);
+		assertTrue(exporter.export());
+		assertTrue(exporter.export());
+
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		int headers = 0;
+		int lines = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.startsWith("time,")) {
+				headers++;
+			}
+			if (line.contains(",MetricsTest.csv,counter,7,")) {
+				lines++;
+			}
+		}
+		reader.close();
+		file.delete();
+		assertEquals(1, headers);
+		assertEquals(2, lines);
+	}
+}
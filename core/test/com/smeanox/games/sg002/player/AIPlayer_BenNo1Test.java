@@ -0,0 +1,160 @@
+package com.smeanox.games.sg002.player;
+
+import com.badlogic.gdx.graphics.Color;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.metrics.Metrics;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.ActionResult;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the parameters and the random states of AIPlayer_BenNo1
+ *
+ * @author Benjamin Schmid
+ */
+public class AIPlayer_BenNo1Test {
+
+	@Before
+	public void setup() {
+		TestUtil.setupConfig();
+	}
+
+	private GameController createGame(float[] parameters) {
+		GameController gameController = new GameController(TestUtil.createTestScenario());
+		for (int i = 0; i < 2; i++) {
+			AIPlayer_BenNo1 player = new AIPlayer_BenNo1();
+			gameController.addPlayer(player);
+			player.setColor(Color.RED);
+			player.setName("ai" + i);
+			player.setRandomState(42, i + 1);
+			player.setParameters(i == 0 ? parameters : AIPlayer_BenNo1.defaultParameters);
+		}
+		gameController.startGame();
+		return gameController;
+	}
+
+	private static int countGameObjects(GameController gameController, Player player) {
+		int count = 0;
+		for (GameObject gameObject : gameController.getGameWorld().getGameObjects()) {
+			if (gameObject.getPlayer() == player) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testSetParametersClamps() {
+		AIPlayer_BenNo1 player = new AIPlayer_BenNo1();
+		assertArrayEquals(AIPlayer_BenNo1.defaultParameters, player.getParameters(), 0f);
+
+		player.setParameters(new float[]{100f, -1f, 0.3f, 2f, 0.7f});
+		assertArrayEquals(new float[]{AIPlayer_BenNo1.maxParameters[AIPlayer_BenNo1.paramVillagers], 0f, 0.3f, 1f,
+				0.7f}, player.getParameters(), 0f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetParametersWrongLength() {
+		new AIPlayer_BenNo1().setParameters(new float[]{1f, 0.5f});
+	}
+
+	@Test
+	public void testSaveLoadParameters() throws IOException {
+		float[] parameters = new float[]{5f, 0.2f, 0.3f, 0.4f, 0.9f};
+		GameController gameController = createGame(parameters);
+		File file = File.createTempFile("sg002", ".xml");
+		file.deleteOnExit();
+		gameController.saveGame(file.getAbsolutePath());
+
+		GameController loaded = new GameController(file.getAbsolutePath());
+		assertArrayEquals(parameters, ((AIPlayer_BenNo1) loaded.getPlayers().get(0)).getParameters(), 0f);
+		assertArrayEquals(AIPlayer_BenNo1.defaultParameters,
+				((AIPlayer_BenNo1) loaded.getPlayers().get(1)).getParameters(), 0f);
+	}
+
+	@Test
+	public void testGamesDontShareRandomStates() {
+		float[] parameters = new float[]{4f, 0.05f, 0.2f, 0.1f, 0.8f};
+		GameController alone = createGame(parameters);
+		for (int i = 0; i < 200; i++) {
+			alone.update(Consts.aiSleep);
+		}
+
+		// the turns of another game in between don't change the outcome
+		GameController first = createGame(parameters);
+		GameController second = createGame(AIPlayer_BenNo1.defaultParameters);
+		for (int i = 0; i < 200; i++) {
+			first.update(Consts.aiSleep);
+			second.update(Consts.aiSleep);
+		}
+
+		assertEquals(alone.getRound(), first.getRound());
+		for (int i = 0; i < 2; i++) {
+			assertEquals(countGameObjects(alone, alone.getPlayers().get(i)),
+					countGameObjects(first, first.getPlayers().get(i)));
+		}
+	}
+
+	private static long sumActionCounters(String prefix) {
+		long sum = 0;
+		for (Action.ActionType actionType : Action.ActionType.values()) {
+			sum += Metrics.get().counter(prefix + actionType.name().toLowerCase()).get();
+		}
+		return sum;
+	}
+
+	/**
+	 * An AI that moves its GameObjects to random fields without checking them first
+	 */
+	private static class CarelessAIPlayer extends AIPlayer {
+		@Override
+		protected void playAI() {
+			for (Integer pos : getMyPositions()) {
+				gameWorld.move(extractX(pos), extractY(pos), random.nextInt(gameWorld.getMapSizeX()),
+						random.nextInt(gameWorld.getMapSizeY()));
+			}
+			setFinishedPlaying();
+		}
+	}
+
+	@Test
+	public void testActionsCounted() {
+		long moves = Metrics.get().counter("actions.applied.move").get();
+		long produced = Metrics.get().counter("actions.applied.produce").get();
+		long rejected = sumActionCounters("actions.rejected.");
+		GameController gameController = new GameController(TestUtil.createTestScenario());
+		AIPlayer[] players = new AIPlayer[]{new AIPlayer_BenNo1(), new CarelessAIPlayer()};
+		for (int i = 0; i < players.length; i++) {
+			gameController.addPlayer(players[i]);
+			players[i].setColor(Color.RED);
+			players[i].setName("ai" + i);
+			players[i].setRandomState(42, i + 1);
+		}
+		gameController.startGame();
+		for (int i = 0; i < 200; i++) {
+			gameController.update(Consts.aiSleep);
+		}
+
+		// the AIs call move, produce and fight directly, not doAction
+		assertTrue(Metrics.get().counter("actions.applied.move").get() > moves);
+		assertTrue(Metrics.get().counter("actions.applied.produce").get() > produced);
+		long rejections = 0;
+		for (ActionResult reason : ActionResult.values()) {
+			rejections += players[1].getRejectionCount(reason);
+		}
+		assertTrue(players[1].getRejectionCount(ActionResult.OUT_OF_RADIUS) > 0);
+		assertEquals(sumActionCounters("actions.rejected.") - rejected, rejections);
+	}
+}
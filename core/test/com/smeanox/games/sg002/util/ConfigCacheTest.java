@@ -0,0 +1,120 @@
+package com.smeanox.games.sg002.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.MapObjectType;
+import com.smeanox.games.sg002.world.Scenario;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the ConfigCache
+ *
+ * @author Benjamin Schmid
+ */
+public class ConfigCacheTest {
+
+	private FileHandle dir;
+	private FileHandle gameObjectTypes;
+	private FileHandle mapObjectTypes;
+	private FileHandle scenarios;
+	private FileHandle cache;
+
+	@Before
+	public void setup() {
+		TestUtil.setupConfig();
+		dir = FileHandle.tempDirectory("configCacheTest");
+		gameObjectTypes = dir.child("GameObjectTypes.xml");
+		mapObjectTypes = dir.child("MapObjectTypes.xml");
+		scenarios = dir.child("Scenarios.xml");
+		cache = dir.child("cache").child("config.bin");
+		new FileHandle("config/GameObjectTypes.xml").copyTo(gameObjectTypes);
+		new FileHandle("config/MapObjectTypes.xml").copyTo(mapObjectTypes);
+		new FileHandle("config/Scenarios.xml").copyTo(scenarios);
+	}
+
+	@After
+	public void tearDown() {
+		dir.deleteDirectory();
+	}
+
+	/**
+	 * Describe everything that was read from the config files
+	 *
+	 * @return the description
+	 */
+	private String describeConfig() {
+		List<String> lines = new ArrayList<String>();
+		for (GameObjectType type : GameObjectType.getAllGameObjectTypes()) {
+			StringBuilder line = new StringBuilder();
+			line.append(type.getId()).append(' ').append(type.getName()).append(' ').append(type.getTextureName())
+					.append(' ').append(type.getDefaultHP()).append(' ').append(type.getValue()).append(' ')
+					.append(type.getValuePerRound()).append(' ').append(type.getValueOnDestruction()).append(' ')
+					.append(type.getRadiusWalkMin()).append(' ').append(type.getRadiusWalkMax()).append(' ')
+					.append(type.getRadiusProduceMin()).append(' ').append(type.getRadiusProduceMax()).append(' ')
+					.append(type.getRadiusFightMin()).append(' ').append(type.getRadiusFightMax());
+			for (GameObjectType other : GameObjectType.getAllGameObjectTypesSorted()) {
+				line.append(' ').append(type.getDamageTable().get(other));
+			}
+			for (GameObjectType produce : type.getCanProduceList()) {
+				line.append(' ').append(produce.getId());
+			}
+			lines.add(line.toString());
+		}
+		lines.add("start " + GameObjectType.getStartGameObjectType().getId());
+		for (MapObjectType type : MapObjectType.getMapObjectTypes()) {
+			lines.add(type.getTextureName() + " " + type.getAllowedGameObjectTypes().size());
+		}
+		lines.add("default " + MapObjectType.getDefaultMapObjectType().getTextureName());
+		for (Scenario scenario : Scenario.getAllScenariosSorted()) {
+			lines.add(scenario.getId() + " " + scenario.getName() + " " + scenario.getMapSizeX() + " "
+					+ scenario.getMapSizeY() + " " + scenario.getMaxPlayerCount() + " " + scenario.getSeed());
+		}
+		Collections.sort(lines);
+		return lines.toString();
+	}
+
+	@Test
+	public void testSameResult() {
+		String fromXml = describeConfig();
+
+		assertFalse(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		assertTrue(cache.exists());
+		assertEquals(fromXml, describeConfig());
+
+		assertTrue(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		assertEquals(fromXml, describeConfig());
+	}
+
+	@Test
+	public void testStale() {
+		assertFalse(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		scenarios.writeString("\n", true);
+		assertFalse(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		assertTrue(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+	}
+
+	@Test
+	public void testBroken() {
+		String fromXml = describeConfig();
+		assertFalse(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		byte[] bytes = cache.readBytes();
+		cache.writeBytes(Arrays.copyOf(bytes, bytes.length / 2), false);
+
+		assertFalse(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+		assertEquals(fromXml, describeConfig());
+		assertTrue(ConfigCache.readConfig(gameObjectTypes, mapObjectTypes, scenarios, cache));
+	}
+}
@@ -0,0 +1,128 @@
+package com.smeanox.games.sg002.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the files of the FontCache
+ *
+ * @author Benjamin Schmid
+ */
+public class FontCacheTest {
+
+	FileHandle dir;
+
+	@BeforeClass
+	public static void loadNatives() {
+		GdxNativesLoader.load();
+	}
+
+	@Before
+	public void setup() throws IOException {
+		File file = File.createTempFile("fontcache", "");
+		file.delete();
+		dir = new FileHandle(file);
+		dir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		dir.deleteDirectory();
+	}
+
+	private BitmapFont.Glyph createGlyph(BitmapFont.BitmapFontData data, char c, int srcX) {
+		BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+		glyph.id = c;
+		glyph.srcX = srcX;
+		glyph.srcY = 3;
+		glyph.width = 10;
+		glyph.height = 14;
+		glyph.xoffset = 1;
+		glyph.yoffset = -4;
+		glyph.xadvance = 12;
+		data.setGlyph(c, glyph);
+		return glyph;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+		createGlyph(data, 'A', 2);
+		BitmapFont.Glyph v = createGlyph(data, 'V', 20);
+		v.setKerning('A', -2);
+		data.lineHeight = 25.5f;
+		data.capHeight = 13f;
+		data.ascent = 4.25f;
+		data.descent = -5.5f;
+		data.down = -25.5f;
+		data.spaceWidth = 6f;
+		data.xHeight = 9f;
+
+		Pixmap page = new Pixmap(64, 32, Pixmap.Format.RGBA8888);
+		page.setColor(Color.WHITE);
+		page.fill();
+		Array<Pixmap> pages = new Array<Pixmap>();
+		pages.add(page);
+		FileHandle file = dir.child("s16.fnt");
+		FontCache.writeFont(file, data, pages);
+		page.dispose();
+		assertTrue(file.exists());
+		assertTrue(dir.child("s16_0.png").exists());
+
+		BitmapFont.BitmapFontData read = FontCache.readFontData(file);
+		assertEquals(1, read.imagePaths.length);
+		BitmapFont.Glyph glyph = read.getGlyph('V');
+		assertEquals(20, glyph.srcX);
+		assertEquals(3, glyph.srcY);
+		assertEquals(10, glyph.width);
+		assertEquals(14, glyph.height);
+		assertEquals(1, glyph.xoffset);
+		assertEquals(-4, glyph.yoffset);
+		assertEquals(12, glyph.xadvance);
+		assertEquals(-2, glyph.getKerning('A'));
+		assertEquals(0, read.getGlyph('A').getKerning('V'));
+
+		assertEquals(25.5f, read.lineHeight, 0f);
+		assertEquals(13f, read.capHeight, 0f);
+		assertEquals(4.25f, read.ascent, 0f);
+		assertEquals(-5.5f, read.descent, 0f);
+		assertEquals(-25.5f, read.down, 0f);
+		assertEquals(6f, read.spaceWidth, 0f);
+		assertEquals(9f, read.xHeight, 0f);
+	}
+
+	@Test
+	public void testKey() {
+		FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+		parameter.size = 16;
+		String plain = FontCache.getKey(parameter);
+		assertEquals("s16", plain);
+
+		parameter.shadowColor = Color.BLACK;
+		parameter.shadowOffsetX = 1;
+		parameter.shadowOffsetY = 1;
+		assertNotEquals(plain, FontCache.getKey(parameter));
+
+		parameter.shadowOffsetY = 2;
+		String shadow = FontCache.getKey(parameter);
+		parameter.shadowOffsetY = 1;
+		assertNotEquals(shadow, FontCache.getKey(parameter));
+	}
+}
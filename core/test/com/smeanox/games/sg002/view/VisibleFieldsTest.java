@@ -0,0 +1,74 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.math.Rectangle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the culling of invisible fields
+ *
+ * @author Benjamin Schmid
+ */
+public class VisibleFieldsTest {
+
+	@Test
+	public void testInside() {
+		VisibleFields visibleFields = new VisibleFields();
+		// fields of 50x50, the screen shows [1025, 1985] x [510, 1050]
+		visibleFields.set(new Rectangle(1025, 510, 960, 540), 50, 50, 400, 400, 0);
+		assertEquals(20, visibleFields.getStartX());
+		assertEquals(10, visibleFields.getStartY());
+		assertEquals(40, visibleFields.getEndX());
+		assertEquals(21, visibleFields.getEndY());
+		assertTrue(visibleFields.contains(20, 10));
+		assertTrue(visibleFields.contains(39, 20));
+		assertFalse(visibleFields.contains(40, 20));
+		assertFalse(visibleFields.contains(19, 20));
+	}
+
+	@Test
+	public void testMargin() {
+		VisibleFields visibleFields = new VisibleFields();
+		visibleFields.set(new Rectangle(1025, 510, 960, 540), 50, 50, 400, 400, 2);
+		assertEquals(18, visibleFields.getStartX());
+		assertEquals(8, visibleFields.getStartY());
+		assertEquals(42, visibleFields.getEndX());
+		assertEquals(23, visibleFields.getEndY());
+		assertEquals(24 * 15, visibleFields.getFieldCount());
+	}
+
+	@Test
+	public void testClampedToMap() {
+		VisibleFields visibleFields = new VisibleFields();
+		// the camera shows more than the map and is partly left of it
+		visibleFields.set(new Rectangle(-300, -100, 2000, 2000), 50, 50, 15, 20, 1);
+		assertEquals(0, visibleFields.getStartX());
+		assertEquals(0, visibleFields.getStartY());
+		assertEquals(15, visibleFields.getEndX());
+		assertEquals(20, visibleFields.getEndY());
+	}
+
+	@Test
+	public void testOutsideMap() {
+		VisibleFields visibleFields = new VisibleFields();
+		visibleFields.set(new Rectangle(5000, 5000, 960, 540), 50, 50, 15, 20, 1);
+		assertEquals(0, visibleFields.getFieldCount());
+		visibleFields.set(new Rectangle(-5000, -5000, 960, 540), 50, 50, 15, 20, 1);
+		assertEquals(0, visibleFields.getFieldCount());
+	}
+
+	@Test
+	public void testIndependentOfMapSize() {
+		VisibleFields visibleFields = new VisibleFields();
+		Rectangle area = new Rectangle(10000, 10000, 1920, 1080);
+		visibleFields.set(area, 51.2f, 51.2f, 400, 400, 1);
+		int fieldCount = visibleFields.getFieldCount();
+		visibleFields.set(area, 51.2f, 51.2f, 2000, 2000, 1);
+		assertEquals(fieldCount, visibleFields.getFieldCount());
+		assertTrue(fieldCount <= 40 * 24);
+	}
+}
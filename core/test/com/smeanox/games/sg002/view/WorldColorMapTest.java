@@ -0,0 +1,121 @@
+package com.smeanox.games.sg002.view;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.player.LocalPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+import com.smeanox.games.sg002.world.GameObjectType;
+import com.smeanox.games.sg002.world.GameWorld;
+import com.smeanox.games.sg002.world.MapObjectType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the map of field colors
+ *
+ * @author Benjamin Schmid
+ */
+public class WorldColorMapTest {
+
+	GameWorld gameWorld;
+	Player player;
+	WorldColorMap worldColorMap;
+
+	@BeforeClass
+	public static void loadNatives() {
+		GdxNativesLoader.load();
+	}
+
+	@Before
+	public void setup() {
+		TestUtil.setupConfig();
+		gameWorld = new GameController(TestUtil.createTestScenario()).getGameWorld();
+		player = new LocalPlayer();
+		player.setColor(Color.RED);
+		worldColorMap = new WorldColorMap(gameWorld, Consts.lodMaxTextureSize);
+	}
+
+	@After
+	public void tearDown() {
+		worldColorMap.dispose();
+	}
+
+	private void assertField(int x, int y) {
+		// the pixmap stores 16 bit colors, compare the colors after the same conversion
+		assertEquals(toRGB565(WorldColorMap.getFieldColor(gameWorld, x, y)),
+				toRGB565(worldColorMap.getPixmap().getPixel(x, y)));
+	}
+
+	private static int toRGB565(int rgba8888) {
+		return ((rgba8888 >>> 27) << 11) | (((rgba8888 >>> 18) & 0x3f) << 5) | ((rgba8888 >>> 11) & 0x1f);
+	}
+
+	@Test
+	public void testDrawAll() {
+		TestUtil.place(gameWorld, "villager", player, 3, 4);
+		worldColorMap.update();
+		assertEquals(gameWorld.getMapSizeX(), worldColorMap.getPixmap().getWidth());
+		assertEquals(gameWorld.getMapSizeY(), worldColorMap.getPixmap().getHeight());
+		assertEquals(Color.rgba8888(Color.RED), WorldColorMap.getFieldColor(gameWorld, 3, 4));
+		for (int y = 0; y < gameWorld.getMapSizeY(); y++) {
+			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+				assertField(x, y);
+			}
+		}
+	}
+
+	@Test
+	public void testActionApplied() {
+		TestUtil.place(gameWorld, "villager", player, 3, 4);
+		worldColorMap.update();
+		int empty = worldColorMap.getPixmap().getPixel(3, 5);
+
+		gameWorld.move(3, 4, 3, 5);
+		worldColorMap.update();
+		assertField(3, 4);
+		assertField(3, 5);
+		assertEquals(toRGB565(empty), toRGB565(worldColorMap.getPixmap().getPixel(3, 4)));
+	}
+
+	@Test
+	public void testMapObjectChanged() {
+		worldColorMap.update();
+		gameWorld.setWorldMapObjectType(7, 8, MapObjectType.getMapObjectTypeById("gold"));
+		worldColorMap.update();
+		assertEquals(toRGB565(Color.rgba8888(MapObjectType.getMapObjectTypeById("gold").getColor())),
+				toRGB565(worldColorMap.getPixmap().getPixel(7, 8)));
+	}
+
+	@Test
+	public void testFieldsPerPixel() {
+		WorldColorMap minimap = new WorldColorMap(gameWorld, 8);
+		TestUtil.place(gameWorld, "villager", player, 4, 4);
+		gameWorld.setWorldMapObjectType(7, 8, MapObjectType.getMapObjectTypeById("gold"));
+		minimap.update();
+		// 15x20 fields, 3x3 fields per pixel
+		assertEquals(3, minimap.getFieldsPerPixel());
+		assertEquals(5, minimap.getPixmap().getWidth());
+		assertEquals(7, minimap.getPixmap().getHeight());
+		assertEquals(toRGB565(Color.rgba8888(Color.RED)), toRGB565(minimap.getPixmap().getPixel(1, 1)));
+		assertEquals(toRGB565(Color.rgba8888(MapObjectType.getMapObjectTypeById("gold").getColor())),
+				toRGB565(minimap.getPixmap().getPixel(2, 2)));
+		assertEquals(toRGB565(Color.rgba8888(MapObjectType.getDefaultMapObjectType().getColor())),
+				toRGB565(minimap.getPixmap().getPixel(4, 6)));
+
+		gameWorld.move(4, 4, 6, 4);
+		minimap.update();
+		assertEquals(toRGB565(Color.rgba8888(MapObjectType.getDefaultMapObjectType().getColor())),
+				toRGB565(minimap.getPixmap().getPixel(1, 1)));
+		assertEquals(toRGB565(Color.rgba8888(Color.RED)), toRGB565(minimap.getPixmap().getPixel(2, 1)));
+		minimap.dispose();
+	}
+}
@@ -0,0 +1,103 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.player.LocalPlayer;
+import com.smeanox.games.sg002.player.Player;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the fields of the ActionRange
+ *
+ * @author Benjamin Schmid
+ */
+public class ActionRangeTest {
+
+	GameWorld gameWorld;
+	Player player;
+	Player enemy;
+
+	@Before
+	public void setup() {
+		TestUtil.setupConfig();
+		gameWorld = new GameController(TestUtil.createTestScenario()).getGameWorld();
+		player = new LocalPlayer();
+		player.setId(0);
+		enemy = new LocalPlayer();
+		enemy.setId(1);
+	}
+
+	private boolean contains(IntArray fields, int x, int y) {
+		return fields.contains(y * gameWorld.getMapSizeX() + x);
+	}
+
+	@Test
+	public void testMoveBlocked() {
+		TestUtil.place(gameWorld, "villager", player, 5, 5);
+		TestUtil.place(gameWorld, "villager", player, 6, 5);
+		ActionRange actionRange = new ActionRange(gameWorld);
+		actionRange.update(5, 5);
+		// walk radius 2: 5x5 fields without the villager and the blocked field
+		assertEquals(23, actionRange.getMoveFields().size);
+		assertFalse(contains(actionRange.getMoveFields(), 5, 5));
+		assertFalse(contains(actionRange.getMoveFields(), 6, 5));
+		assertTrue(contains(actionRange.getMoveFields(), 7, 5));
+	}
+
+	@Test
+	public void testFightOnlyEnemies() {
+		TestUtil.place(gameWorld, "villager", player, 5, 5);
+		TestUtil.place(gameWorld, "villager", player, 6, 5);
+		TestUtil.place(gameWorld, "villager", enemy, 4, 4);
+		TestUtil.place(gameWorld, "villager", enemy, 9, 9);
+		ActionRange actionRange = new ActionRange(gameWorld);
+		actionRange.update(5, 5);
+		assertEquals(1, actionRange.getFightFields().size);
+		assertTrue(contains(actionRange.getFightFields(), 4, 4));
+	}
+
+	@Test
+	public void testProduceMoney() {
+		TestUtil.place(gameWorld, "villager", player, 0, 0);
+		TestUtil.place(gameWorld, "villager", player, 1, 0);
+		ActionRange actionRange = new ActionRange(gameWorld);
+		player.setMoney(GameObjectType.getGameObjectTypeById("townCenter").getValue() - 1);
+		actionRange.update(0, 0);
+		assertEquals(0, actionRange.getProduceFields().size);
+
+		player.setMoney(GameObjectType.getGameObjectTypeById("townCenter").getValue());
+		actionRange.update(0, 0);
+		// produce radius 1 in the corner, one field is blocked
+		assertEquals(2, actionRange.getProduceFields().size);
+		assertTrue(contains(actionRange.getProduceFields(), 0, 1));
+		assertTrue(contains(actionRange.getProduceFields(), 1, 1));
+	}
+
+	@Test
+	public void testProduceTerrain() {
+		GameObject villager = TestUtil.place(gameWorld, "villager", player, 5, 5);
+		GameObjectType goldMine = GameObjectType.getGameObjectTypeById("goldMine");
+		gameWorld.setWorldMapObjectType(6, 5, MapObjectType.getMapObjectTypeById("gold"));
+		assertTrue(gameWorld.isProduceTarget(villager, 6, 5, goldMine));
+		assertFalse(gameWorld.isProduceTarget(villager, 4, 5, goldMine));
+	}
+
+	@Test
+	public void testRecomputedAfterMove() {
+		TestUtil.place(gameWorld, "villager", player, 5, 5);
+		ActionRange actionRange = new ActionRange(gameWorld);
+		actionRange.update(7, 5);
+		assertEquals(0, actionRange.getMoveFields().size);
+
+		assertTrue(gameWorld.move(5, 5, 7, 5));
+		actionRange.update(7, 5);
+		assertEquals(24, actionRange.getMoveFields().size);
+		assertTrue(contains(actionRange.getMoveFields(), 5, 5));
+	}
+}
@@ -0,0 +1,216 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.XmlWriter;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.player.LocalPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.actionHandler.SaveGameHandler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the GameController
+ *
+ * @author Benjamin Schmid
+ */
+public class GameControllerTest {
+
+	Scenario scenario;
+	GameController gameController;
+	GameWorld gameWorld;
+
+	@Before
+	public void setup() {
+		TestUtil.setupConfig();
+		scenario = TestUtil.createTestScenario();
+		gameController = new GameController(scenario);
+		gameWorld = gameController.getGameWorld();
+		for (int i = 0; i < 2; i++) {
+			Player player = new LocalPlayer();
+			gameController.addPlayer(player);
+			player.setColor(Color.BLUE);
+			player.setName("player" + i);
+		}
+		gameController.startGame();
+	}
+
+	private File createTempFile() throws IOException {
+		File file = File.createTempFile("sg002", ".xml");
+		file.deleteOnExit();
+		return file;
+	}
+
+	@Test
+	public void testSaveLoad() throws IOException {
+		File file = createTempFile();
+		gameController.saveGame(file.getAbsolutePath());
+
+		GameController loaded = new GameController(file.getAbsolutePath());
+		assertEquals(gameWorld.getGameObjects().size(), loaded.getGameWorld().getGameObjects().size());
+		for (GameObject gameObject : gameWorld.getGameObjects()) {
+			GameObject loadedObject = loaded.getGameWorld().getWorldGameObject(gameObject.getPositionX(),
+					gameObject.getPositionY());
+			assertNotNull(loadedObject);
+			assertEquals(gameObject.getGameObjectType(), loadedObject.getGameObjectType());
+			assertEquals(gameObject.getHp(), loadedObject.getHp());
+		}
+		assertFalse(new File(file.getAbsolutePath() + ".tmp").exists());
+	}
+
+	@Test
+	public void testFailedSaveLeavesNoTmpFile() throws IOException {
+		File file = createTempFile();
+		file.delete();
+		GameSnapshot snapshot = new GameSnapshot(scenario, 0, gameController.getPlayers(),
+				gameController.getActivePlayer(), gameWorld) {
+			@Override
+			public void write(XmlWriter writer) throws IOException {
+				throw new IllegalStateException("broken snapshot");
+			}
+		};
+		try {
+			SaveGameWriter.write(snapshot, file);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testLoadBindsOwnPlayers() throws IOException {
+		File file = createTempFile();
+		gameController.saveGame(file.getAbsolutePath());
+
+		// every game numbers its players from 0, loading one game must not affect the other
+		GameController first = new GameController(file.getAbsolutePath());
+		GameController second = new GameController(file.getAbsolutePath());
+		for (GameController loaded : new GameController[]{first, second}) {
+			for (GameObject gameObject : loaded.getGameWorld().getGameObjects()) {
+				assertTrue(loaded.getPlayers().contains(gameObject.getPlayer()));
+			}
+		}
+		assertEquals(first.getPlayers().get(1), first.getPlayerById(1));
+		assertNull(first.getPlayerById(5));
+	}
+
+	@Test
+	public void testSaveGameAsyncUsesSnapshot() throws Exception {
+		File file = createTempFile();
+		final CountDownLatch latch = new CountDownLatch(1);
+		final boolean[] success = new boolean[1];
+		gameController.addSaveGameHandler(new SaveGameHandler() {
+			@Override
+			public void onSaveFinished(String fileName) {
+				success[0] = true;
+				latch.countDown();
+			}
+
+			@Override
+			public void onSaveFailed(String fileName, Exception e) {
+				latch.countDown();
+			}
+		});
+
+		GameObject gameObject = gameWorld.getGameObjects().iterator().next();
+		int x = gameObject.getPositionX();
+		int y = gameObject.getPositionY();
+		gameController.saveGameAsync(file.getAbsolutePath());
+		// continue playing while the save is written
+		gameWorld.removeGameObject(x, y);
+
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertTrue(success[0]);
+		assertNull(gameWorld.getWorldGameObject(x, y));
+
+		GameController loaded = new GameController(file.getAbsolutePath());
+		assertNotNull(loaded.getGameWorld().getWorldGameObject(x, y));
+	}
+
+	/**
+	 * Let the active player move or produce anything
+	 *
+	 * @return true if an action was applied
+	 */
+	private boolean doAnything() {
+		for (GameObject gameObject : new ArrayList<GameObject>(gameWorld.getGameObjects())) {
+			if (gameObject.getPlayer() != gameController.getActivePlayer()) {
+				continue;
+			}
+			int x = gameObject.getPositionX();
+			int y = gameObject.getPositionY();
+			for (int dx = -2; dx <= 2; dx++) {
+				for (int dy = -2; dy <= 2; dy++) {
+					if (gameWorld.canMove(x, y, x + dx, y + dy)) {
+						return gameWorld.move(x, y, x + dx, y + dy);
+					}
+					for (GameObjectType type : gameObject.getGameObjectType().getCanProduceList()) {
+						if (gameWorld.canProduce(x, y, x + dx, y + dy, type)) {
+							return gameWorld.produce(x, y, x + dx, y + dy, type);
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testRecordAndRecover() throws Exception {
+		File dir = createTempFile();
+		dir.delete();
+		GameRecorder recorder = new GameRecorder(gameController, dir.getAbsolutePath(), 2, true);
+		recorder.start();
+		for (int i = 0; i < 11; i++) {
+			gameController.finishedRound();
+			assertTrue(doAnything());
+		}
+		recorder.stop();
+
+		// wait for the background snapshots and the compaction
+		final CountDownLatch latch = new CountDownLatch(1);
+		SaveGameWriter.execute(new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		});
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertFalse(new File(dir, "segment-1.xml").exists());
+
+		GameController recovered = GameRecorder.recover(dir.getAbsolutePath());
+		assertNotNull(recovered);
+		assertEquals(gameController.getRound(), recovered.getRound());
+		assertEquals(gameController.getActivePlayer().getId(), recovered.getActivePlayer().getId());
+		assertEquals(gameController.getActivePlayer().getMoney(), recovered.getActivePlayer().getMoney());
+		assertEquals(gameWorld.getGameObjects().size(), recovered.getGameWorld().getGameObjects().size());
+		for (GameObject gameObject : gameWorld.getGameObjects()) {
+			GameObject recoveredObject = recovered.getGameWorld().getWorldGameObject(gameObject.getPositionX(),
+					gameObject.getPositionY());
+			assertNotNull(recoveredObject);
+			assertEquals(gameObject.getGameObjectType(), recoveredObject.getGameObjectType());
+			assertEquals(gameObject.getHp(), recoveredObject.getHp());
+			assertEquals(gameObject.wasUsed(Action.ActionType.MOVE), recoveredObject.wasUsed(Action.ActionType.MOVE));
+		}
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+}
@@ -11,6 +11,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -120,4 +121,63 @@ public class GameWorldTest {
 			}
 		}
 	}
+
+	@Test
+	public void testMapObjectRevision() {
+		int revision = gameWorld.getMapObjectRevision();
+		gameWorld.setWorldMapObjectType(3, 4, MapObjectType.getMapObjectTypeById("gold"));
+		assertEquals(MapObjectType.getMapObjectTypeById("gold"), gameWorld.getWorldMapObject(3, 4).getMapObjectType());
+		assertTrue(revision != gameWorld.getMapObjectRevision());
+
+		revision = gameWorld.getMapObjectRevision();
+		gameWorld.initScenario(scenario);
+		assertTrue(revision != gameWorld.getMapObjectRevision());
+	}
+
+	@Test
+	public void testRejectionReasons() {
+		Player player = new LocalPlayer();
+		player.setId(0);
+		Player enemy = new LocalPlayer();
+		enemy.setId(1);
+		TestUtil.place(gameWorld, "villager", player, 5, 5);
+		TestUtil.place(gameWorld, "townCenter", player, 3, 5);
+		TestUtil.place(gameWorld, "villager", enemy, 6, 6);
+		gameWorld.startRound(player, true);
+		player.setMoney(0);
+
+		GameObjectType knight = GameObjectType.getGameObjectTypeById("knight");
+		GameObjectType goldMine = GameObjectType.getGameObjectTypeById("goldMine");
+		GameObjectType villager = GameObjectType.getGameObjectTypeById("villager");
+		assertEquals(ActionResult.OUT_OF_BOUNDS, gameWorld.checkMove(5, 5, -1, 5));
+		assertEquals(ActionResult.EMPTY_START, gameWorld.checkMove(0, 0, 1, 1));
+		assertEquals(ActionResult.BLOCKED_TARGET, gameWorld.checkMove(5, 5, 6, 6));
+		assertEquals(ActionResult.OUT_OF_RADIUS, gameWorld.checkMove(5, 5, 9, 5));
+		assertEquals(ActionResult.EMPTY_TARGET, gameWorld.checkFight(5, 5, 5, 6));
+		assertEquals(ActionResult.CANNOT_FIGHT, gameWorld.checkFight(3, 5, 5, 5));
+		assertEquals(ActionResult.OWN_TARGET, gameWorld.checkFight(5, 5, 3, 5));
+		assertEquals(ActionResult.TERRAIN_DISALLOWS, gameWorld.checkProduce(5, 5, 5, 6, goldMine));
+		assertEquals(ActionResult.CANNOT_PRODUCE_TYPE, gameWorld.checkProduce(5, 5, 5, 6, knight));
+		assertEquals(ActionResult.TOO_EXPENSIVE, gameWorld.checkProduce(3, 5, 3, 6, villager));
+		assertEquals(ActionResult.OK, gameWorld.checkMove(5, 5, 5, 4));
+
+		Action action = new Action();
+		action.actionType = Action.ActionType.MOVE;
+		action.startX = 5;
+		action.startY = 5;
+		action.endX = 9;
+		action.endY = 5;
+		assertFalse(gameWorld.doAction(action));
+		assertEquals(1, player.getRejectionCount(ActionResult.OUT_OF_RADIUS));
+
+		action.endX = 5;
+		action.endY = 4;
+		assertTrue(gameWorld.doAction(action));
+		action.startY = 4;
+		action.endY = 3;
+		assertEquals(ActionResult.ALREADY_USED, gameWorld.checkAction(action));
+		assertFalse(gameWorld.doAction(action));
+		assertEquals(1, player.getRejectionCount(ActionResult.ALREADY_USED));
+		assertEquals(0, enemy.getRejectionCount(ActionResult.ALREADY_USED));
+	}
 }
@@ -0,0 +1,178 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.graphics.Color;
+import com.smeanox.games.sg002.TestUtil;
+import com.smeanox.games.sg002.player.AIPlayer_BenNo1;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the ReplayPlayer
+ *
+ * @author Benjamin Schmid
+ */
+public class ReplayPlayerTest {
+
+	File dir;
+	GameController gameController;
+	List<String> states;
+
+	@Before
+	public void setup() throws Exception {
+		TestUtil.setupConfig();
+		dir = File.createTempFile("sg002", "replay");
+		dir.delete();
+
+		gameController = new GameController(TestUtil.createTestScenario());
+		for (int i = 0; i < 2; i++) {
+			Player player = new AIPlayer_BenNo1();
+			gameController.addPlayer(player);
+			player.setColor(Color.BLUE);
+			player.setName("ai" + i);
+		}
+		// the state at the end of every turn
+		states = new ArrayList<String>();
+		gameController.addNextPlayerHandler(new NextPlayerHandler() {
+			@Override
+			public void onNextPlayer(Player nextPlayer) {
+				if (gameController.getRound() > 0 || nextPlayer.getId() > 0) {
+					states.add(describe(gameController.getGameWorld()));
+				}
+			}
+		});
+		GameRecorder recorder = new GameRecorder(gameController, dir.getAbsolutePath(), 3, false);
+		recorder.start();
+		gameController.startGame();
+		for (int i = 0; i < 30; i++) {
+			gameController.update(1f);
+		}
+		recorder.stop();
+		states.add(describe(gameController.getGameWorld()));
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testDeleteOldReplays() throws Exception {
+		File replays = File.createTempFile("sg002", "replays");
+		replays.delete();
+		for (int i = 0; i < 4; i++) {
+			File replay = new File(replays, "replay" + i);
+			assertTrue(replay.mkdirs());
+			assertTrue(new File(replay, "segment-0.xml").createNewFile());
+			replay.setLastModified(1000000000000L + i * 1000L);
+		}
+
+		ReplayPlayer.deleteOldReplays(replays.getAbsolutePath(), 2);
+		assertFalse(new File(replays, "replay0").exists());
+		assertFalse(new File(replays, "replay1").exists());
+		assertTrue(new File(replays, "replay2/segment-0.xml").exists());
+		assertTrue(new File(replays, "replay3").exists());
+
+		for (File replay : replays.listFiles()) {
+			for (File file : replay.listFiles()) {
+				file.delete();
+			}
+			replay.delete();
+		}
+		replays.delete();
+	}
+
+	private String describe(GameWorld gameWorld) {
+		StringBuilder sb = new StringBuilder();
+		for (int y = 0; y < gameWorld.getMapSizeY(); y++) {
+			for (int x = 0; x < gameWorld.getMapSizeX(); x++) {
+				GameObject gameObject = gameWorld.getWorldGameObject(x, y);
+				if (gameObject != null) {
+					sb.append(x).append(',').append(y).append(':').append(gameObject.getGameObjectType().getId())
+							.append(',').append(gameObject.getHp()).append(',')
+							.append(gameObject.getPlayer().getId()).append(' ');
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testSeek() throws Exception {
+		ReplayPlayer replayPlayer = new ReplayPlayer(dir.getAbsolutePath());
+		assertEquals(states.size(), replayPlayer.getTurnCount());
+		assertNotNull(replayPlayer.getGameController());
+
+		for (int turn : new int[]{states.size() - 1, 4, 5, 0, 17, 16}) {
+			replayPlayer.seekTurn(turn);
+			assertEquals(turn, replayPlayer.getTurn());
+			assertEquals(states.get(turn), describe(replayPlayer.getGameController().getGameWorld()));
+		}
+		assertTrue(replayPlayer.stepForward());
+		assertEquals(states.get(17), describe(replayPlayer.getGameController().getGameWorld()));
+		assertTrue(replayPlayer.stepBack());
+		assertEquals(states.get(16), describe(replayPlayer.getGameController().getGameWorld()));
+
+		replayPlayer.seekRound(5);
+		assertEquals(5, replayPlayer.getRound());
+		assertEquals(10, replayPlayer.getTurn());
+	}
+
+	@Test
+	public void testVerify() throws Exception {
+		ReplayPlayer replayPlayer = new ReplayPlayer(dir.getAbsolutePath());
+		assertEquals(new ArrayList<String>(), replayPlayer.verify(true));
+		assertEquals(states.size() - 1, replayPlayer.getTurn());
+		assertEquals(states.get(states.size() - 1), describe(replayPlayer.getGameController().getGameWorld()));
+	}
+
+	@Test
+	public void testVerifyDetectsDivergence() throws Exception {
+		// let the AIs start their turns from a different random state
+		for (File journal : dir.listFiles()) {
+			if (!journal.getName().endsWith(GameRecorder.journalSuffix)) {
+				continue;
+			}
+			List<String> lines = new ArrayList<String>();
+			BufferedReader reader = new BufferedReader(new FileReader(journal));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.split(" ");
+				lines.add("T".equals(parts[0]) ? "T " + parts[1] + " " + parts[2] + " 1 2" : line);
+			}
+			reader.close();
+			FileWriter writer = new FileWriter(journal);
+			for (String aLine : lines) {
+				writer.write(aLine + "\n");
+			}
+			writer.close();
+		}
+
+		ReplayPlayer replayPlayer = new ReplayPlayer(dir.getAbsolutePath());
+		// the recorded actions are still consistent
+		assertTrue(replayPlayer.verify(false).isEmpty());
+		assertFalse(replayPlayer.verify(true).isEmpty());
+		assertEquals(-1, replayPlayer.getTurn());
+		// seeking still works after a failed verification
+		replayPlayer.seekTurn(3);
+		assertEquals(states.get(3), describe(replayPlayer.getGameController().getGameWorld()));
+	}
+}
@@ -0,0 +1,151 @@
+package com.smeanox.games.sg002.world;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.smeanox.games.sg002.data.Point;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the generation of start and gold positions
+ *
+ * @author Benjamin Schmid
+ */
+public class ScenarioTest {
+
+	private Scenario createScenario(String id, int players, int sizeX, int sizeY, int minDist, long seed, int gold) {
+		return new Scenario(id, id, 1000, players, sizeX, sizeY, false, minDist, seed, gold, false);
+	}
+
+	private Point[] getStartPositions(Scenario scenario) {
+		Point[] points = new Point[scenario.getMaxPlayerCount()];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = scenario.getStartPos(i);
+		}
+		return points;
+	}
+
+	private void assertMinDist(Point[] points, int minDist) {
+		for (int i = 0; i < points.length; i++) {
+			for (int j = i + 1; j < points.length; j++) {
+				int dist = Math.max(Math.abs(points[i].x - points[j].x), Math.abs(points[i].y - points[j].y));
+				assertTrue("distance " + dist + " between " + i + " and " + j, dist >= minDist);
+			}
+		}
+	}
+
+	@Test
+	public void testMinDistance() {
+		Scenario scenario = createScenario("testMinDistance", 64, 400, 400, 8, 42, 200);
+		assertMinDist(getStartPositions(scenario), 8);
+	}
+
+	@Test
+	public void testManyPlayers() {
+		Scenario scenario = createScenario("testManyPlayers", 1000, 500, 500, 10, 7, 1000);
+		assertMinDist(getStartPositions(scenario), 10);
+	}
+
+	@Test
+	public void testCrowdedMap() {
+		// close to what fits on 400x400 with a distance of 10, dart throwing alone doesn't reach it
+		Scenario scenario = createScenario("testCrowdedMap", 900, 400, 400, 10, 7, 0);
+		assertMinDist(getStartPositions(scenario), 10);
+	}
+
+	@Test
+	public void testGoldOnFreeFields() {
+		Scenario scenario = createScenario("testGoldOnFreeFields", 4, 10, 10, 3, 3, 96);
+		HashSet<Integer> used = new HashSet<Integer>();
+		for (Point point : getStartPositions(scenario)) {
+			assertTrue(used.add(point.y * 10 + point.x));
+		}
+		for (Point point : scenario.getGoldPos()) {
+			assertTrue(point.x >= 0 && point.x < 10 && point.y >= 0 && point.y < 10);
+			assertTrue(used.add(point.y * 10 + point.x));
+		}
+	}
+
+	@Test
+	public void testDeterministic() {
+		Scenario scenario1 = createScenario("testDeterministic1", 16, 100, 80, 6, 1234, 50);
+		Scenario scenario2 = createScenario("testDeterministic2", 16, 100, 80, 6, 1234, 50);
+		assertArrayEquals(getStartPositions(scenario1), getStartPositions(scenario2));
+		assertArrayEquals(scenario1.getGoldPos(), scenario2.getGoldPos());
+	}
+
+	@Test
+	public void testLazy() {
+		Scenario scenario1 = createScenario("testLazy1", 4, 30, 30, 5, 99, 20);
+		Scenario scenario2 = createScenario("testLazy2", 4, 30, 30, 5, 99, 20);
+		assertFalse(scenario1.isMaterialized());
+		assertFalse(scenario2.isMaterialized());
+
+		// the order in which scenarios are used doesn't matter
+		Point[] goldPos2 = scenario2.getGoldPos();
+		assertTrue(scenario2.isMaterialized());
+		assertFalse(scenario1.isMaterialized());
+		assertArrayEquals(goldPos2, scenario1.getGoldPos());
+		assertArrayEquals(getStartPositions(scenario2), getStartPositions(scenario1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyPlayers() {
+		Scenario scenario = createScenario("testTooManyPlayers", 10, 10, 10, 5, 0, 0);
+		assertFalse(scenario.isMaterialized());
+		scenario.materialize();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooMuchGold() {
+		createScenario("testTooMuchGold", 4, 5, 5, 1, 0, 22).materialize();
+	}
+
+	@Test
+	public void testFailureCached() {
+		Scenario scenario = createScenario("testFailureCached", 10, 10, 10, 5, 0, 0);
+		for (int i = 0; i < 2; i++) {
+			try {
+				scenario.materialize();
+				fail();
+			} catch (IllegalArgumentException ignored) {
+			}
+			assertFalse(scenario.isMaterialized());
+		}
+	}
+
+	private void assertUniformClearBits(BitSet bits, int length) {
+		int[] hits = new int[length];
+		RandomXS128 random = new RandomXS128(5);
+		int clear = length - bits.cardinality();
+		int draws = 1000 * clear;
+		for (int i = 0; i < draws; i++) {
+			hits[Scenario.randomClearBit(bits, length, random)]++;
+		}
+		for (int i = 0; i < length; i++) {
+			if (bits.get(i)) {
+				assertEquals(0, hits[i]);
+			} else {
+				assertTrue("field " + i + " was chosen " + hits[i] + " times", hits[i] > 850 && hits[i] < 1150);
+			}
+		}
+	}
+
+	@Test
+	public void testRandomClearBitUniform() {
+		// the fields after a block of used fields aren't chosen more often
+		BitSet bits = new BitSet(10);
+		bits.set(0, 4);
+		assertUniformClearBits(bits, 10);
+		bits.set(4, 8);
+		assertUniformClearBits(bits, 10);
+	}
+}
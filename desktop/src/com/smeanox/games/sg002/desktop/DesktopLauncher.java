@@ -9,6 +9,8 @@ import com.smeanox.games.sg002.util.Consts;
 public class DesktopLauncher {
 	public static void main (String[] arg) {
 		Consts.textureFilter = Texture.TextureFilter.MipMapLinearLinear;
+		// render continuously on the desktop, on demand rendering only saves battery on Android
+		Consts.renderOnDemand = false;
 
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
 		config.width = Consts.devWidth * 2;
@@ -0,0 +1,113 @@
+package com.smeanox.games.sg002.headless;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * The fitness of the parameter vectors the {@link Tuner} already evaluated. The games are reproducible, so a vector
+ * never has to be played twice with the same setup. Every entry is appended to a file, so an interrupted tuning run
+ * can continue where it stopped.
+ *
+ * @author Benjamin Schmid
+ */
+public class FitnessCache {
+	private final String setup;
+	private final File file;
+	private final HashMap<String, Double> fitness;
+
+	/**
+	 * Create a new cache and read the entries of the file
+	 *
+	 * @param setup the scenarios, seeds, round limit and opponent, entries of other setups are ignored
+	 * @param file  the file, null to only keep the entries in memory
+	 * @throws IOException if the file can't be read
+	 */
+	public FitnessCache(String setup, File file) throws IOException {
+		this.setup = setup;
+		this.file = file;
+		fitness = new HashMap<String, Double>();
+		if (file != null && file.isFile()) {
+			read();
+		}
+	}
+
+	private void read() throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.split("\t");
+				if (parts.length == 3 && parts[0].equals(setup)) {
+					fitness.put(parts[1], Double.parseDouble(parts[2]));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Return the key of a parameter vector
+	 *
+	 * @param parameters the parameters
+	 * @return the key
+	 */
+	public static String getKey(float[] parameters) {
+		StringBuilder key = new StringBuilder();
+		for (int i = 0; i < parameters.length; i++) {
+			if (i > 0) {
+				key.append(',');
+			}
+			key.append(parameters[i]);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Return the fitness of a parameter vector
+	 *
+	 * @param parameters the parameters
+	 * @return the fitness, null if it wasn't evaluated yet
+	 */
+	public Double get(float[] parameters) {
+		return fitness.get(getKey(parameters));
+	}
+
+	/**
+	 * Add the fitness of a completely evaluated parameter vector
+	 *
+	 * @param parameters the parameters
+	 * @param value      the fitness
+	 * @throws IOException if it can't be appended to the file
+	 */
+	public void put(float[] parameters, double value) throws IOException {
+		String key = getKey(parameters);
+		fitness.put(key, value);
+		if (file == null) {
+			return;
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8");
+		try {
+			writer.write(String.format(Locale.US, "%s\t%s\t%.6f%n", setup, key, value));
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Return the number of entries of the current setup
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return fitness.size();
+	}
+}
@@ -0,0 +1,170 @@
+package com.smeanox.games.sg002.headless;
+
+import com.badlogic.gdx.utils.JsonWriter;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.GameObject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The outcome of a game played by the {@link HeadlessLauncher}
+ *
+ * @author Benjamin Schmid
+ */
+public class GameResult {
+	/**
+	 * the columns of the CSV format
+	 */
+	public static final String csvHeader = "scenario,seed,rounds,turns,actions,finished,winner,winnerClass,millis";
+
+	private final String scenario;
+	private final long seed;
+	private final int rounds;
+	private final long turns;
+	private final long actions;
+	private final long millis;
+	private final List<PlayerResult> players;
+	private PlayerResult winner;
+
+	/**
+	 * The state of a player at the end of the game
+	 */
+	private static class PlayerResult {
+		int id;
+		String name;
+		String className;
+		int money;
+		int gameObjects;
+	}
+
+	/**
+	 * Create the result of a game that stopped
+	 *
+	 * @param gameController the game
+	 * @param seed           the seed of the AIs, -1 if the game was resumed from a save game
+	 * @param turns          the number of turns that were played
+	 * @param actions        the number of applied actions
+	 * @param millis         the time the game took
+	 */
+	public GameResult(GameController gameController, long seed, long turns, long actions, long millis) {
+		this.scenario = gameController.getScenario().getId();
+		this.seed = seed;
+		this.rounds = gameController.getRound();
+		this.turns = turns;
+		this.actions = actions;
+		this.millis = millis;
+
+		players = new ArrayList<PlayerResult>();
+		for (Player player : gameController.getPlayers()) {
+			PlayerResult playerResult = new PlayerResult();
+			playerResult.id = player.getId();
+			playerResult.name = player.getName();
+			playerResult.className = player.getClass().getName();
+			playerResult.money = player.getMoney();
+			for (GameObject gameObject : gameController.getGameWorld().getGameObjects()) {
+				if (gameObject.getPlayer() == player) {
+					playerResult.gameObjects++;
+				}
+			}
+			players.add(playerResult);
+		}
+		for (PlayerResult playerResult : players) {
+			if (playerResult.gameObjects > 0) {
+				if (winner != null) {
+					winner = null;
+					break;
+				}
+				winner = playerResult;
+			}
+		}
+	}
+
+	/**
+	 * Whether only one player is left
+	 *
+	 * @return true if the game has a winner
+	 */
+	public boolean isFinished() {
+		return winner != null;
+	}
+
+	/**
+	 * Return the number of players
+	 *
+	 * @return the number of players
+	 */
+	public int getPlayerCount() {
+		return players.size();
+	}
+
+	/**
+	 * Return the number of GameObjects a player owned at the end
+	 *
+	 * @param index the start position of the player
+	 * @return the number of GameObjects
+	 */
+	public int getGameObjects(int index) {
+		return players.get(index).gameObjects;
+	}
+
+	/**
+	 * Return the start position of the winner
+	 *
+	 * @return the start position, -1 if the game has no winner
+	 */
+	public int getWinnerIndex() {
+		return players.indexOf(winner);
+	}
+
+	/**
+	 * Return the result as a single line of JSON
+	 *
+	 * @return the JSON object
+	 */
+	public String toJson() {
+		StringWriter stringWriter = new StringWriter();
+		JsonWriter writer = new JsonWriter(stringWriter);
+		writer.setOutputType(JsonWriter.OutputType.json);
+		try {
+			writer.object()
+					.set("scenario", scenario)
+					.set("seed", seed)
+					.set("rounds", rounds)
+					.set("turns", turns)
+					.set("actions", actions)
+					.set("finished", isFinished())
+					.set("winner", winner != null ? winner.id : -1)
+					.set("millis", millis)
+					.array("players");
+			for (PlayerResult player : players) {
+				writer.object()
+						.set("id", player.id)
+						.set("name", player.name)
+						.set("class", player.className)
+						.set("money", player.money)
+						.set("gameObjects", player.gameObjects)
+						.pop();
+			}
+			writer.pop().pop();
+		} catch (IOException e) {
+			// a StringWriter doesn't throw
+			throw new IllegalStateException(e);
+		}
+		return stringWriter.toString();
+	}
+
+	/**
+	 * Return the result as a line of CSV, see {@link #csvHeader}
+	 *
+	 * @return the line
+	 */
+	public String toCsv() {
+		return String.format(Locale.US, "%s,%d,%d,%d,%d,%b,%d,%s,%d", scenario, seed, rounds, turns, actions,
+				isFinished(), winner != null ? winner.id : -1, winner != null ? winner.className : "", millis);
+	}
+}
@@ -0,0 +1,181 @@
+package com.smeanox.games.sg002.headless;
+
+import com.smeanox.games.sg002.player.AIPlayer;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.world.Action;
+import com.smeanox.games.sg002.world.GameController;
+import com.smeanox.games.sg002.world.Scenario;
+import com.smeanox.games.sg002.world.actionHandler.AppliedActionHandler;
+import com.smeanox.games.sg002.world.actionHandler.NextPlayerHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+
+/**
+ * A game played by AIs until one player is left or the round limit is reached. The turns are played one after the
+ * other without waiting for {@link Consts#aiSleep}. The game is only created when it is played, so many games can be
+ * queued.
+ *
+ * @author Benjamin Schmid
+ */
+public class HeadlessGame implements Callable<GameResult> {
+	private final Scenario scenario;
+	private final String[] playerClasses;
+	private final File resumeFile;
+	private final long seed;
+	private final int maxRounds;
+	private final File saveFile;
+
+	private long turns;
+	private long actions;
+
+	/**
+	 * Create a new game of the given scenario
+	 *
+	 * @param scenario      the scenario
+	 * @param playerClasses the classes of the players, one per player, see {@link #checkPlayerClass(String)}
+	 * @param seed          the seed of the random states of the AIs
+	 * @param maxRounds     the round limit
+	 * @param saveFile      the file to save the game to when it stopped, null to not save it
+	 */
+	public HeadlessGame(Scenario scenario, String[] playerClasses, long seed, int maxRounds, File saveFile) {
+		this.scenario = scenario;
+		this.playerClasses = playerClasses;
+		this.resumeFile = null;
+		this.seed = seed;
+		this.maxRounds = maxRounds;
+		this.saveFile = saveFile;
+	}
+
+	/**
+	 * Create a new game that resumes the given save game
+	 *
+	 * @param resumeFile the save game
+	 * @param maxRounds  the round limit
+	 * @param saveFile   the file to save the game to when it stopped, null to not save it
+	 */
+	public HeadlessGame(File resumeFile, int maxRounds, File saveFile) {
+		this.scenario = null;
+		this.playerClasses = null;
+		this.resumeFile = resumeFile;
+		this.seed = -1;
+		this.maxRounds = maxRounds;
+		this.saveFile = saveFile;
+	}
+
+	/**
+	 * Check that players of the given class can play headless. Only AIPlayers finish their turns by themselves.
+	 *
+	 * @param className the fully qualified name of the class
+	 * @throws IOException if the class can't be instantiated or is no AIPlayer
+	 */
+	public static void checkPlayerClass(String className) throws IOException {
+		checkPlayer(Player.create(className));
+	}
+
+	private static Player checkPlayer(Player player) throws IOException {
+		if (!(player instanceof AIPlayer)) {
+			throw new IOException(player.getClass().getName() + " can't play headless, only AIPlayers can");
+		}
+		return player;
+	}
+
+	/**
+	 * Create the game or load the save game
+	 *
+	 * @return the GameController of the game
+	 * @throws IOException if a player can't be created or the save game can't be loaded
+	 */
+	private GameController createGame() throws IOException {
+		if (resumeFile != null) {
+			if (!resumeFile.isFile()) {
+				throw new IOException("No save game " + resumeFile.getPath());
+			}
+			GameController gameController = new GameController(resumeFile.getAbsolutePath());
+			if (gameController.getActivePlayer() == null) {
+				throw new IOException("Could not load " + resumeFile.getPath());
+			}
+			for (Player player : gameController.getPlayers()) {
+				checkPlayer(player);
+			}
+			return gameController;
+		}
+
+		GameController gameController = new GameController(scenario);
+		for (int i = 0; i < playerClasses.length; i++) {
+			Player player = checkPlayer(createPlayer(i));
+			gameController.addPlayer(player);
+			player.setName("ai" + i);
+			player.setColor(Consts.playerColors[i % Consts.playerColors.length]);
+			((AIPlayer) player).setRandomState(seed, i + 1);
+		}
+		return gameController;
+	}
+
+	/**
+	 * Create the player at the given start position, e.g. to configure the AI before the game starts
+	 *
+	 * @param index the start position
+	 * @return the player
+	 * @throws IOException if the player can't be created
+	 */
+	protected Player createPlayer(int index) throws IOException {
+		return Player.create(playerClasses[index]);
+	}
+
+	/**
+	 * Play the game
+	 *
+	 * @return the result
+	 * @throws IOException if the game can't be created
+	 */
+	@Override
+	public GameResult call() throws IOException {
+		long startTime = System.currentTimeMillis();
+		GameController gameController = createGame();
+		gameController.addNextPlayerHandler(new NextPlayerHandler() {
+			@Override
+			public void onNextPlayer(Player nextPlayer) {
+				turns++;
+			}
+		});
+		gameController.getGameWorld().addAppliedActionHandler(new AppliedActionHandler() {
+			@Override
+			public void onActionApplied(Action action) {
+				actions++;
+			}
+		});
+		gameController.startGame();
+
+		// the players that are alive are only counted once per round
+		int round = gameController.getRound();
+		while (round < maxRounds && countAlivePlayers(gameController) > 1) {
+			while (gameController.getRound() == round) {
+				// cancelled games stop as soon as possible
+				if (Thread.interrupted()) {
+					throw new InterruptedIOException("Game was cancelled");
+				}
+				gameController.update(Consts.aiSleep);
+			}
+			round = gameController.getRound();
+		}
+
+		if (saveFile != null) {
+			gameController.saveGame(saveFile.getAbsolutePath());
+		}
+		return new GameResult(gameController, seed, turns, actions, System.currentTimeMillis() - startTime);
+	}
+
+	private static int countAlivePlayers(GameController gameController) {
+		int count = 0;
+		for (Player player : gameController.getPlayers()) {
+			if (gameController.getGameWorld().isPlayerStillAlive(player)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,275 @@
+package com.smeanox.games.sg002.headless;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.smeanox.games.sg002.metrics.Metrics;
+import com.smeanox.games.sg002.metrics.MetricsExporter;
+import com.smeanox.games.sg002.util.ConfigCache;
+import com.smeanox.games.sg002.util.Consts;
+import com.smeanox.games.sg002.util.Language;
+import com.smeanox.games.sg002.world.Scenario;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plays games of AIs without a window and writes one result per game, e.g. to run tournaments or tune the AIs on a
+ * server. Neither LWJGL nor OpenGL are needed.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>-assets dir: the assets directory with the config, default the working directory</li>
+ * <li>-scenario id: the scenario from Scenarios.xml, default small</li>
+ * <li>-players classes: the classes of the players separated by commas, a single class plays all start positions.
+ * Classes without a package are looked up in com.smeanox.games.sg002.player, default AIPlayer_BenNo1</li>
+ * <li>-seeds seeds: the seeds of the AIs, one game per seed, e.g. 1,2,5-8, default 1</li>
+ * <li>-rounds n: the round limit, default 200</li>
+ * <li>-threads n: the number of games played at the same time, default the number of processors</li>
+ * <li>-format json|csv: one JSON object per line or CSV with a header, default json</li>
+ * <li>-out file: the file to write the results to, default stdout</li>
+ * <li>-resume file: continue the save game instead, -scenario, -players and -seeds are ignored</li>
+ * <li>-save dir: save every game when it stopped, as scenario-seed.xml</li>
+ * <li>-metrics file: export the metrics every second, as CSV if the file ends with .csv</li>
+ * </ul>
+ *
+ * @author Benjamin Schmid
+ */
+public class HeadlessLauncher {
+	private static final String playerPackage = "com.smeanox.games.sg002.player.";
+
+	private File assets = new File(".");
+	private String scenarioId = "small";
+	private String[] players = new String[]{"AIPlayer_BenNo1"};
+	private List<Long> seeds = new ArrayList<Long>();
+	private int rounds = 200;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private boolean csv;
+	private File out;
+	private File resume;
+	private File saveDir;
+	private File metrics;
+
+	public static void main(String[] args) throws Exception {
+		HeadlessLauncher launcher = new HeadlessLauncher();
+		List<HeadlessGame> games;
+		try {
+			launcher.parseArgs(args);
+			setupConfig(launcher.assets);
+			games = launcher.createGames();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+		if (!launcher.run(games)) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Read the options
+	 *
+	 * @param args the options
+	 * @throws IllegalArgumentException if an option is unknown or has no valid value
+	 */
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + args[i]);
+			}
+			String option = args[i];
+			String value = args[++i];
+			if ("-assets".equals(option)) {
+				assets = new File(value);
+			} else if ("-scenario".equals(option)) {
+				scenarioId = value;
+			} else if ("-players".equals(option)) {
+				players = value.split(",");
+			} else if ("-seeds".equals(option)) {
+				seeds = parseSeeds(value);
+			} else if ("-rounds".equals(option)) {
+				rounds = Integer.parseInt(value);
+			} else if ("-threads".equals(option)) {
+				threads = Math.max(1, Integer.parseInt(value));
+			} else if ("-format".equals(option)) {
+				if (!"json".equals(value) && !"csv".equals(value)) {
+					throw new IllegalArgumentException("Unknown format " + value);
+				}
+				csv = "csv".equals(value);
+			} else if ("-out".equals(option)) {
+				out = new File(value);
+			} else if ("-resume".equals(option)) {
+				resume = new File(value);
+			} else if ("-save".equals(option)) {
+				saveDir = new File(value);
+			} else if ("-metrics".equals(option)) {
+				metrics = new File(value);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+		if (seeds.isEmpty()) {
+			seeds.add(1L);
+		}
+	}
+
+	/**
+	 * Parse a list of seeds like 1,2,5-8
+	 *
+	 * @param value the list
+	 * @return the seeds
+	 * @throws IllegalArgumentException if a seed is no number
+	 */
+	static List<Long> parseSeeds(String value) {
+		List<Long> seeds = new ArrayList<Long>();
+		for (String part : value.split(",")) {
+			int dash = part.indexOf('-', 1);
+			if (dash < 0) {
+				seeds.add(Long.parseLong(part));
+			} else {
+				long last = Long.parseLong(part.substring(dash + 1));
+				for (long seed = Long.parseLong(part.substring(0, dash)); seed <= last; seed++) {
+					seeds.add(seed);
+				}
+			}
+		}
+		return seeds;
+	}
+
+	/**
+	 * Read the config and the strings from the assets directory, the config through the {@link ConfigCache} in the
+	 * working directory
+	 *
+	 * @param assets the assets directory
+	 * @throws IllegalArgumentException if there is no config
+	 */
+	static void setupConfig(File assets) {
+		if (!new File(assets, "config").isDirectory()) {
+			throw new IllegalArgumentException("No config in " + assets.getAbsolutePath() + ", use -assets");
+		}
+		Consts.headlessMode = true;
+		FileHandle assetsDir = new FileHandle(assets);
+		Language.loadStringsForHeadless(assetsDir, Locale.ENGLISH);
+		ConfigCache.readConfig(assetsDir.child("config/GameObjectTypes.xml"),
+				assetsDir.child("config/MapObjectTypes.xml"),
+				assetsDir.child("config/Scenarios.xml"),
+				new FileHandle(Consts.configCacheFileName));
+	}
+
+	/**
+	 * Resolve a player class like {@link com.smeanox.games.sg002.player.Player#loadStatic}
+	 *
+	 * @param name the name of the class, with or without package
+	 * @return the fully qualified name
+	 * @throws IllegalArgumentException if it can't play headless
+	 */
+	private static String resolvePlayerClass(String name) {
+		String className = name.indexOf('.') < 0 ? playerPackage + name : name;
+		try {
+			HeadlessGame.checkPlayerClass(className);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid player " + name + ": " + e.getMessage());
+		}
+		return className;
+	}
+
+	/**
+	 * Create the games, they are only played by {@link #run(List)}
+	 *
+	 * @return the games
+	 * @throws IllegalArgumentException if the scenario or a player is invalid
+	 */
+	private List<HeadlessGame> createGames() {
+		List<HeadlessGame> games = new ArrayList<HeadlessGame>();
+		if (resume != null) {
+			if (!resume.isFile()) {
+				throw new IllegalArgumentException("No save game " + resume.getPath());
+			}
+			File saveFile = saveDir != null ? new File(saveDir, resume.getName()) : null;
+			games.add(new HeadlessGame(resume, rounds, saveFile));
+			return games;
+		}
+
+		Scenario scenario = Scenario.getScanarioById(scenarioId);
+		if (scenario == null) {
+			throw new IllegalArgumentException("Unknown scenario " + scenarioId);
+		}
+		int playerCount = players.length == 1 ? scenario.getMaxPlayerCount() : players.length;
+		if (playerCount < 2 || playerCount > scenario.getMaxPlayerCount()) {
+			throw new IllegalArgumentException("Scenario " + scenarioId + " needs 2 to "
+					+ scenario.getMaxPlayerCount() + " players");
+		}
+		String[] playerClasses = new String[playerCount];
+		for (int i = 0; i < playerCount; i++) {
+			playerClasses[i] = resolvePlayerClass(players[players.length == 1 ? 0 : i]);
+		}
+		for (long seed : seeds) {
+			File saveFile = saveDir != null ? new File(saveDir, scenarioId + "-" + seed + ".xml") : null;
+			games.add(new HeadlessGame(scenario, playerClasses, seed, rounds, saveFile));
+		}
+		return games;
+	}
+
+	/**
+	 * Play the games and write every result as soon as its game stopped
+	 *
+	 * @param games the games
+	 * @return true if all games could be played
+	 */
+	private boolean run(List<HeadlessGame> games) throws IOException, InterruptedException {
+		if (saveDir != null && !saveDir.isDirectory() && !saveDir.mkdirs()) {
+			throw new IOException("Could not create " + saveDir.getPath());
+		}
+		MetricsExporter metricsExporter = null;
+		if (metrics != null) {
+			metricsExporter = new MetricsExporter(Metrics.get(), metrics, MetricsExporter.getFormat(metrics), 1000);
+			metricsExporter.start();
+		}
+		PrintWriter writer = out != null
+				? new PrintWriter(new OutputStreamWriter(new FileOutputStream(out), "UTF-8"))
+				: new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, games.size()));
+		boolean success = true;
+		try {
+			if (csv) {
+				writer.println(GameResult.csvHeader);
+				writer.flush();
+			}
+			ExecutorCompletionService<GameResult> completionService =
+					new ExecutorCompletionService<GameResult>(executor);
+			for (HeadlessGame game : games) {
+				completionService.submit(game);
+			}
+			for (int i = 0; i < games.size(); i++) {
+				try {
+					GameResult result = completionService.take().get();
+					writer.println(csv ? result.toCsv() : result.toJson());
+					writer.flush();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					success = false;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			if (out != null) {
+				writer.close();
+			} else {
+				writer.flush();
+			}
+			if (metricsExporter != null) {
+				metricsExporter.stop();
+			}
+		}
+		return success;
+	}
+}
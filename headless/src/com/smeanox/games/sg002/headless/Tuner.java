@@ -0,0 +1,457 @@
+package com.smeanox.games.sg002.headless;
+
+import com.badlogic.gdx.utils.JsonWriter;
+import com.smeanox.games.sg002.player.AIPlayer_BenNo1;
+import com.smeanox.games.sg002.world.Scenario;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the parameters of {@link AIPlayer_BenNo1} by self-play. Every candidate plays against the opponent
+ * parameters on all scenarios and seeds, once at the first and once at the second start position, its fitness is
+ * the mean score of these games, see {@link TuningGame#score(GameResult)}.
+ * <p>
+ * The search is an evolution strategy like sep-CMA-ES without evolution paths: every generation samples candidates
+ * from a normal distribution with a diagonal covariance, in coordinates where every parameter goes from 0 to 1.
+ * The mean moves to the weighted mean of the better half, the variances to their weighted spread.
+ * <p>
+ * The games of a candidate are played in a random order, one game per thread. Every few games, a candidate is stopped
+ * early when even the upper Hoeffding bound of its fitness is below the candidates that are already selected in this
+ * generation. The fitness of completely evaluated candidates is cached, see {@link FitnessCache}.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>-assets dir: the assets directory with the config, default the working directory</li>
+ * <li>-scenarios ids: the scenarios separated by commas, default small</li>
+ * <li>-seeds seeds: the seeds of the games, e.g. 1-8, default 1-8</li>
+ * <li>-rounds n: the round limit of a game, default 150</li>
+ * <li>-threads n: the number of games played at the same time, default the number of processors</li>
+ * <li>-generations n: default 20</li>
+ * <li>-population n: the candidates per generation, default 12</li>
+ * <li>-sigma s: the initial standard deviation, relative to the range of the parameters, default 0.2</li>
+ * <li>-start values: the initial mean separated by commas, default the default parameters</li>
+ * <li>-opponent values: the parameters of the opponents, default the default parameters</li>
+ * <li>-confidence d: the probability that a candidate is stopped early by mistake, over all checks, default 0.05</li>
+ * <li>-random seed: the seed of the search, default 1</li>
+ * <li>-cache file: the file of the {@link FitnessCache}</li>
+ * <li>-out file: the file to write the best parameters to</li>
+ * </ul>
+ *
+ * @author Benjamin Schmid
+ */
+public class Tuner {
+	private static final int parameterCount = AIPlayer_BenNo1.defaultParameters.length;
+
+	private File assets = new File(".");
+	private String[] scenarioIds = new String[]{"small"};
+	private String seedList = "1-8";
+	private int rounds = 150;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int generations = 20;
+	private int population = 12;
+	private double initialSigma = 0.2;
+	private float[] start = AIPlayer_BenNo1.defaultParameters.clone();
+	private float[] opponent = AIPlayer_BenNo1.defaultParameters.clone();
+	private double confidence = 0.05;
+	private long randomSeed = 1;
+	private File cacheFile;
+	private File out;
+
+	private List<Scenario> scenarios;
+	private List<Long> seeds;
+	private FitnessCache cache;
+	private ExecutorService executor;
+	private Random random;
+
+	private int evaluated;
+	private int cached;
+	private int stopped;
+	private long games;
+
+	/**
+	 * A parameter vector and its fitness
+	 */
+	private static class Candidate {
+		final float[] parameters;
+		double fitness;
+		boolean complete;
+
+		Candidate(float[] parameters) {
+			this.parameters = parameters;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Tuner tuner = new Tuner();
+		try {
+			tuner.parseArgs(args);
+			HeadlessLauncher.setupConfig(tuner.assets);
+			tuner.setup();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+		try {
+			tuner.run();
+		} finally {
+			tuner.executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Read the options
+	 *
+	 * @param args the options
+	 * @throws IllegalArgumentException if an option is unknown or has no valid value
+	 */
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + args[i]);
+			}
+			String option = args[i];
+			String value = args[++i];
+			if ("-assets".equals(option)) {
+				assets = new File(value);
+			} else if ("-scenarios".equals(option)) {
+				scenarioIds = value.split(",");
+			} else if ("-seeds".equals(option)) {
+				seedList = value;
+			} else if ("-rounds".equals(option)) {
+				rounds = Integer.parseInt(value);
+			} else if ("-threads".equals(option)) {
+				threads = Math.max(1, Integer.parseInt(value));
+			} else if ("-generations".equals(option)) {
+				generations = Integer.parseInt(value);
+			} else if ("-population".equals(option)) {
+				population = Math.max(4, Integer.parseInt(value));
+			} else if ("-sigma".equals(option)) {
+				initialSigma = Double.parseDouble(value);
+			} else if ("-start".equals(option)) {
+				start = parseParameters(value);
+			} else if ("-opponent".equals(option)) {
+				opponent = parseParameters(value);
+			} else if ("-confidence".equals(option)) {
+				confidence = Double.parseDouble(value);
+			} else if ("-random".equals(option)) {
+				randomSeed = Long.parseLong(value);
+			} else if ("-cache".equals(option)) {
+				cacheFile = new File(value);
+			} else if ("-out".equals(option)) {
+				out = new File(value);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+	}
+
+	private static float[] parseParameters(String value) {
+		String[] values = value.split(",");
+		if (values.length != parameterCount) {
+			throw new IllegalArgumentException("Expected " + parameterCount + " parameters: "
+					+ Arrays.toString(AIPlayer_BenNo1.parameterNames));
+		}
+		float[] parameters = new float[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			parameters[i] = Float.parseFloat(values[i]);
+		}
+		return quantize(parameters);
+	}
+
+	/**
+	 * Look up the scenarios and read the cache
+	 *
+	 * @throws IOException if the cache can't be read
+	 */
+	private void setup() throws IOException {
+		scenarios = new ArrayList<Scenario>();
+		for (String scenarioId : scenarioIds) {
+			Scenario scenario = Scenario.getScanarioById(scenarioId);
+			if (scenario == null) {
+				throw new IllegalArgumentException("Unknown scenario " + scenarioId);
+			}
+			if (scenario.getMaxPlayerCount() < 2) {
+				throw new IllegalArgumentException("Scenario " + scenarioId + " has less than 2 start positions");
+			}
+			scenarios.add(scenario);
+		}
+		seeds = HeadlessLauncher.parseSeeds(seedList);
+		String setup = Arrays.toString(scenarioIds) + ";" + seeds + ";" + rounds + ";" + FitnessCache.getKey(opponent);
+		cache = new FitnessCache(setup, cacheFile);
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Round the parameters to the values that are evaluated, so similar candidates share their cache entry. The
+	 * number of villagers is a whole number, the chances are rounded to percents.
+	 *
+	 * @param parameters the parameters
+	 * @return the rounded and clamped parameters
+	 */
+	private static float[] quantize(float[] parameters) {
+		float[] quantized = new float[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			float value = Math.max(AIPlayer_BenNo1.minParameters[i],
+					Math.min(AIPlayer_BenNo1.maxParameters[i], parameters[i]));
+			if (i == AIPlayer_BenNo1.paramVillagers) {
+				quantized[i] = Math.round(value);
+			} else {
+				quantized[i] = Math.round(value * 100) / 100f;
+			}
+		}
+		return quantized;
+	}
+
+	private static double normalize(float value, int index) {
+		return (value - AIPlayer_BenNo1.minParameters[index])
+				/ (AIPlayer_BenNo1.maxParameters[index] - AIPlayer_BenNo1.minParameters[index]);
+	}
+
+	private static float denormalize(double value, int index) {
+		return (float) (AIPlayer_BenNo1.minParameters[index]
+				+ value * (AIPlayer_BenNo1.maxParameters[index] - AIPlayer_BenNo1.minParameters[index]));
+	}
+
+	/**
+	 * Evaluate a candidate, unless its fitness is cached
+	 *
+	 * @param candidate the candidate
+	 * @param threshold stop early if the candidate is clearly below this fitness
+	 */
+	private void evaluate(Candidate candidate, double threshold) throws InterruptedException, IOException {
+		Double cachedFitness = cache.get(candidate.parameters);
+		if (cachedFitness != null) {
+			candidate.fitness = cachedFitness;
+			candidate.complete = true;
+			cached++;
+			return;
+		}
+		evaluated++;
+
+		List<TuningGame> matches = new ArrayList<TuningGame>();
+		for (Scenario scenario : scenarios) {
+			for (long seed : seeds) {
+				for (int seat = 0; seat < 2; seat++) {
+					matches.add(new TuningGame(scenario, seed, rounds, candidate.parameters, opponent, seat));
+				}
+			}
+		}
+		// every prefix is a fair sample of the scenarios, seeds and start positions
+		Collections.shuffle(matches, random);
+
+		// the bound is checked every checkInterval games, the confidence is split between the checks
+		int checkInterval = threads;
+		int checks = Math.max(1, (matches.size() - 1) / checkInterval);
+		double logInverseDelta = Math.log(checks / confidence);
+
+		CompletionService<GameResult> completionService = new ExecutorCompletionService<GameResult>(executor);
+		List<Future<GameResult>> futures = new ArrayList<Future<GameResult>>();
+		HashMap<Future<GameResult>, Integer> indices = new HashMap<Future<GameResult>, Integer>();
+		double[] scores = new double[matches.size()];
+		boolean[] finished = new boolean[matches.size()];
+		// only the finished games at the start of the list are counted, quick games would bias the sample
+		int played = 0;
+		double sum = 0;
+		int nextCheck = checkInterval;
+		try {
+			while (futures.size() < Math.min(threads, matches.size())) {
+				submit(completionService, matches, futures, indices);
+			}
+			for (int completed = 0; completed < matches.size(); completed++) {
+				Future<GameResult> future = completionService.take();
+				int index = indices.get(future);
+				try {
+					scores[index] = matches.get(index).score(future.get());
+				} catch (ExecutionException e) {
+					throw new IOException("A game failed", e.getCause());
+				}
+				finished[index] = true;
+				games++;
+				if (futures.size() < matches.size()) {
+					submit(completionService, matches, futures, indices);
+				}
+
+				while (played < matches.size() && finished[played]) {
+					sum += scores[played];
+					played++;
+				}
+				if (played >= nextCheck && played < matches.size()) {
+					nextCheck = (played / checkInterval + 1) * checkInterval;
+					double upperBound = sum / played + Math.sqrt(logInverseDelta / (2 * played));
+					if (upperBound < threshold) {
+						candidate.fitness = sum / played;
+						candidate.complete = false;
+						stopped++;
+						return;
+					}
+				}
+			}
+		} finally {
+			// stop the games that are still running when the candidate was stopped early
+			for (Future<GameResult> future : futures) {
+				future.cancel(true);
+			}
+		}
+		candidate.fitness = sum / matches.size();
+		candidate.complete = true;
+		cache.put(candidate.parameters, candidate.fitness);
+	}
+
+	/**
+	 * Start the next game of the list
+	 */
+	private void submit(CompletionService<GameResult> completionService, List<TuningGame> matches,
+						List<Future<GameResult>> futures, HashMap<Future<GameResult>, Integer> indices) {
+		Future<GameResult> future = completionService.submit(matches.get(futures.size()));
+		indices.put(future, futures.size());
+		futures.add(future);
+	}
+
+	/**
+	 * Run the search and write the best parameters
+	 */
+	private void run() throws InterruptedException, IOException {
+		random = new Random(randomSeed);
+		int selected = population / 2;
+		double[] weights = new double[selected];
+		double weightSum = 0;
+		for (int i = 0; i < selected; i++) {
+			weights[i] = Math.log(selected + 0.5) - Math.log(i + 1);
+			weightSum += weights[i];
+		}
+		double weightSquareSum = 0;
+		for (int i = 0; i < selected; i++) {
+			weights[i] /= weightSum;
+			weightSquareSum += weights[i] * weights[i];
+		}
+		// the learning rate of the rank-mu update of sep-CMA-ES
+		double effectiveSelected = 1 / weightSquareSum;
+		double learningRate = Math.min(1, (parameterCount + 2) / 3.0
+				* 2 * (effectiveSelected - 2 + 1 / effectiveSelected)
+				/ ((parameterCount + 2) * (parameterCount + 2) + effectiveSelected));
+
+		double[] mean = new double[parameterCount];
+		double[] sigma = new double[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			mean[i] = normalize(start[i], i);
+			sigma[i] = initialSigma;
+		}
+
+		Candidate best = new Candidate(start);
+		evaluate(best, Double.NEGATIVE_INFINITY);
+		System.out.println(createReport(-1, best, mean, sigma));
+
+		for (int generation = 0; generation < generations; generation++) {
+			List<Candidate> candidates = new ArrayList<Candidate>();
+			List<Double> completeFitness = new ArrayList<Double>();
+			for (int k = 0; k < population; k++) {
+				float[] parameters = new float[parameterCount];
+				for (int i = 0; i < parameterCount; i++) {
+					double value = mean[i] + sigma[i] * random.nextGaussian();
+					parameters[i] = denormalize(Math.max(0, Math.min(1, value)), i);
+				}
+				Candidate candidate = new Candidate(quantize(parameters));
+
+				// only the candidates that would be selected matter
+				double threshold = Double.NEGATIVE_INFINITY;
+				if (completeFitness.size() >= selected) {
+					Collections.sort(completeFitness, Collections.reverseOrder());
+					threshold = completeFitness.get(selected - 1);
+				}
+				evaluate(candidate, threshold);
+				if (candidate.complete) {
+					completeFitness.add(candidate.fitness);
+					if (candidate.fitness > best.fitness) {
+						best = candidate;
+					}
+				}
+				candidates.add(candidate);
+			}
+
+			Collections.sort(candidates, new Comparator<Candidate>() {
+				@Override
+				public int compare(Candidate o1, Candidate o2) {
+					return Double.compare(o2.fitness, o1.fitness);
+				}
+			});
+			for (int i = 0; i < parameterCount; i++) {
+				double newMean = 0;
+				double variance = 0;
+				for (int k = 0; k < selected; k++) {
+					double value = normalize(candidates.get(k).parameters[i], i);
+					newMean += weights[k] * value;
+					variance += weights[k] * (value - mean[i]) * (value - mean[i]);
+				}
+				mean[i] = newMean;
+				sigma[i] = Math.sqrt((1 - learningRate) * sigma[i] * sigma[i] + learningRate * variance);
+				// keep searching, the rounded parameters can't get closer than this anyway
+				sigma[i] = Math.max(0.01, Math.min(0.5, sigma[i]));
+			}
+			System.out.println(createReport(generation, best, mean, sigma));
+		}
+
+		if (out != null) {
+			Writer writer = new OutputStreamWriter(new FileOutputStream(out), "UTF-8");
+			try {
+				writer.write(createReport(generations, best, mean, sigma));
+				writer.write('\n');
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Describe the state of the search as a line of JSON
+	 */
+	private String createReport(int generation, Candidate best, double[] mean, double[] sigma) throws IOException {
+		float[] meanParameters = new float[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			meanParameters[i] = denormalize(mean[i], i);
+		}
+		StringWriter stringWriter = new StringWriter();
+		JsonWriter writer = new JsonWriter(stringWriter);
+		writer.setOutputType(JsonWriter.OutputType.json);
+		writer.object()
+				.set("generation", generation)
+				.set("evaluated", evaluated)
+				.set("cached", cached)
+				.set("stopped", stopped)
+				.set("games", games)
+				.set("bestFitness", best.fitness);
+		writeParameters(writer.object("best"), best.parameters).pop();
+		writeParameters(writer.object("mean"), meanParameters).pop();
+		writer.object("sigma");
+		for (int i = 0; i < parameterCount; i++) {
+			writer.set(AIPlayer_BenNo1.parameterNames[i], sigma[i]);
+		}
+		writer.pop().pop();
+		return stringWriter.toString();
+	}
+
+	private static JsonWriter writeParameters(JsonWriter writer, float[] parameters) throws IOException {
+		for (int i = 0; i < parameterCount; i++) {
+			writer.set(AIPlayer_BenNo1.parameterNames[i], parameters[i]);
+		}
+		return writer;
+	}
+}
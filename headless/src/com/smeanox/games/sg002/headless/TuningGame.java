@@ -0,0 +1,68 @@
+package com.smeanox.games.sg002.headless;
+
+import com.smeanox.games.sg002.player.AIPlayer_BenNo1;
+import com.smeanox.games.sg002.player.Player;
+import com.smeanox.games.sg002.world.Scenario;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A game of the {@link Tuner}: the candidate parameters play at one start position, the opponent parameters at all
+ * others
+ *
+ * @author Benjamin Schmid
+ */
+public class TuningGame extends HeadlessGame {
+	private final float[] candidate;
+	private final float[] opponent;
+	private final int seat;
+
+	/**
+	 * Create a new game
+	 *
+	 * @param scenario  the scenario, all start positions are used
+	 * @param seed      the seed of the random states of the AIs
+	 * @param maxRounds the round limit
+	 * @param candidate the parameters of the candidate
+	 * @param opponent  the parameters of the other players
+	 * @param seat      the start position of the candidate
+	 */
+	public TuningGame(Scenario scenario, long seed, int maxRounds, float[] candidate, float[] opponent, int seat) {
+		super(scenario, createPlayerClasses(scenario), seed, maxRounds, null);
+		this.candidate = candidate;
+		this.opponent = opponent;
+		this.seat = seat;
+	}
+
+	private static String[] createPlayerClasses(Scenario scenario) {
+		String[] playerClasses = new String[scenario.getMaxPlayerCount()];
+		Arrays.fill(playerClasses, AIPlayer_BenNo1.class.getName());
+		return playerClasses;
+	}
+
+	@Override
+	protected Player createPlayer(int index) throws IOException {
+		AIPlayer_BenNo1 player = new AIPlayer_BenNo1();
+		player.setParameters(index == seat ? candidate : opponent);
+		return player;
+	}
+
+	/**
+	 * Score the result from the view of the candidate: 1 if it won, 0 if somebody else won, otherwise its share of
+	 * all GameObjects
+	 *
+	 * @param result the result of this game
+	 * @return the score between 0 and 1
+	 */
+	public double score(GameResult result) {
+		if (result.isFinished()) {
+			return result.getWinnerIndex() == seat ? 1 : 0;
+		}
+		int total = 0;
+		for (int i = 0; i < result.getPlayerCount(); i++) {
+			total += result.getGameObjects(i);
+		}
+		return total > 0 ? result.getGameObjects(seat) / (double) total : 0;
+	}
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the command line runner that plays AI games without a window, see
+ * {@link com.smeanox.games.sg002.headless.HeadlessLauncher}
+ */
+package com.smeanox.games.sg002.headless;